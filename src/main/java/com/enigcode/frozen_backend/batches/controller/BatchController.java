@@ -4,13 +4,17 @@ import com.enigcode.frozen_backend.batches.DTO.BatchFilterDTO;
 import com.enigcode.frozen_backend.batches.DTO.BatchResponseDTO;
 import com.enigcode.frozen_backend.batches.service.BatchService;
 import com.enigcode.frozen_backend.batches.service.BatchTraceabilityService;
+import com.enigcode.frozen_backend.common.export.ExportDownload;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -21,6 +25,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/batches")
@@ -30,6 +35,9 @@ public class BatchController {
         final BatchService batchService;
         final BatchTraceabilityService batchTraceabilityService;
 
+        @Value("${app.export.timeout-seconds:600}")
+        private long exportTimeoutSeconds = 600;
+
         @Operation(summary = "Cancelar un lote en especifico", description = "Se cancela la producción de un lote dado por id")
         @PatchMapping("/cancel-batch/{id}")
         @PreAuthorize("hasRole('GERENTE_DE_PLANTA')")
@@ -49,13 +57,18 @@ public class BatchController {
                 return new ResponseEntity<>(dto, HttpStatus.OK);
         }
 
-        @Operation(summary = "Obtener lotes", description = "Obtiene todos los lotes con paginación y filtros")
+        @Operation(summary = "Obtener lotes", description = "Obtiene todos los lotes con paginación y filtros. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
         @GetMapping
         @PreAuthorize("hasRole('OPERARIO_DE_PRODUCCION') or hasRole('SUPERVISOR_DE_PRODUCCION') or hasRole('GERENTE_DE_PLANTA')"
                         + " or hasRole('SUPERVISOR_DE_CALIDAD') or hasRole('OPERARIO_DE_CALIDAD')")
         public ResponseEntity<Map<String, Object>> getBatches(
                         BatchFilterDTO filterDTO,
-                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable) {
+                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(defaultValue = "false") boolean withCount) {
+                if (after != null)
+                        return ResponseEntity.ok(batchService.findAllByCursor(filterDTO, pageable, after, withCount)
+                                        .toResponse("content"));
 
                 Page<BatchResponseDTO> pageResponse = batchService.findAll(filterDTO, pageable);
 
@@ -72,6 +85,15 @@ public class BatchController {
                 return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "Exportar lotes", description = "Descarga como CSV o NDJSON (format) todos los lotes que cumplen los filtros, con su producto, envase y responsable asignado")
+        @GetMapping("/export")
+        @PreAuthorize("hasRole('SUPERVISOR_DE_PRODUCCION') or hasRole('GERENTE_DE_PLANTA') or hasRole('SUPERVISOR_DE_CALIDAD')")
+        public WebAsyncTask<Void> exportBatches(BatchFilterDTO filterDTO,
+                        @RequestParam(defaultValue = "CSV") ExportFormat format, HttpServletResponse response) {
+                return ExportDownload.of(response, format, "lotes", exportTimeoutSeconds,
+                        out -> batchService.exportBatches(filterDTO, format, out));
+        }
+
         @Operation(summary = "Procesar lotes programados para hoy", description = "Ejecuta manualmente el proceso que inicia los lotes planificados para la fecha actual. Útil para pruebas.")
         @PostMapping("/process-today")
         @PreAuthorize("hasRole('GERENTE_DE_PLANTA')")
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.batches.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.packagings.model.Packaging;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import com.enigcode.frozen_backend.production_orders.Model.ProductionOrder;
@@ -27,7 +28,7 @@ public class Batch {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "batches_gen")
-    @SequenceGenerator(name = "batches_gen", sequenceName = "batches_seq", allocationSize = 1)
+    @SequenceGenerator(name = "batches_gen", sequenceName = "batches_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true)
@@ -1,5 +1,7 @@
 package com.enigcode.frozen_backend.batches.service;
 
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import com.enigcode.frozen_backend.batches.DTO.BatchFilterDTO;
 import com.enigcode.frozen_backend.batches.DTO.BatchResponseDTO;
 import com.enigcode.frozen_backend.batches.model.Batch;
@@ -10,6 +12,7 @@ import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BatchService {
@@ -20,6 +23,11 @@ public interface BatchService {
 
     Page<BatchResponseDTO> findAll(BatchFilterDTO filterDTO, Pageable pageable);
 
+    CursorPageDTO<BatchResponseDTO> findAllByCursor(BatchFilterDTO filterDTO, Pageable pageable, String after,
+            boolean withCount);
+
+    long exportBatches(BatchFilterDTO filterDTO, ExportFormat format, OutputStream out);
+
     BatchResponseDTO getBatch(Long id);
 
     BatchResponseDTO cancelBatch(Long id);
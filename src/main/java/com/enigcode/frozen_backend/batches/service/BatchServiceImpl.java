@@ -8,6 +8,11 @@ import com.enigcode.frozen_backend.batches.model.BatchStatus;
 import com.enigcode.frozen_backend.batches.repository.BatchRepository;
 import com.enigcode.frozen_backend.batches.specification.BatchSpecification;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.export.StreamingExport;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
+import com.enigcode.frozen_backend.common.Utils.Quantity;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
 import com.enigcode.frozen_backend.movements.DTO.MovementInternalCreateDTO;
 import com.enigcode.frozen_backend.movements.model.MovementType;
@@ -33,10 +38,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -58,6 +65,9 @@ public class BatchServiceImpl implements BatchService {
     private final ProductionMaterialRepository productionMaterialRepository;
     private final MovementService movementService;
     private final NotificationService notificationService;
+    private final StreamingExport streamingExport;
+
+    private static final int BATCH_QUANTITY_DECIMALS = 6;
 
     /**
      * Crea un Lote cuando se crea una orden de produccion, la misma tiene que ser
@@ -200,6 +210,21 @@ public class BatchServiceImpl implements BatchService {
         return batches.map(batchMapper::toResponseDTO);
     }
 
+    @Override
+    public CursorPageDTO<BatchResponseDTO> findAllByCursor(BatchFilterDTO filterDTO, Pageable pageable, String after,
+            boolean withCount) {
+        return Keyset.fetch(batchRepository, BatchSpecification.createFilter(filterDTO), pageable, after, withCount)
+                .map(batchMapper::toResponseDTO);
+    }
+
+    @Override
+    public long exportBatches(BatchFilterDTO filterDTO, ExportFormat format, OutputStream out) {
+        return streamingExport.export(Batch.class, BatchSpecification.createFilter(filterDTO),
+                Sort.by("creationDate", "id"),
+                List.of("packaging", "productionOrder.product", "assignedUser"),
+                batchMapper::toResponseDTO, BatchResponseDTO.class, format, out);
+    }
+
     /**
      * Marca como suspendida las production fases y devuelve los materiales de las
      * mismas
@@ -402,14 +427,9 @@ public class BatchServiceImpl implements BatchService {
             throw new BadRequestException("Las cantidades deben ser válidas y mayores a cero");
         }
 
-        // Usar BigDecimal para mayor precisión en la división
-        java.math.BigDecimal requested = java.math.BigDecimal.valueOf(requestedQuantity);
-        java.math.BigDecimal packaging = java.math.BigDecimal.valueOf(packagingQuantity);
-
-        // Dividir y redondear hacia abajo para obtener la cantidad entera de lotes
-        java.math.BigDecimal result = requested.divide(packaging, 0, java.math.RoundingMode.FLOOR);
-
-        return result.intValue();
+        // Dividir en unidades escaladas y redondear hacia abajo para obtener la
+        // cantidad entera de lotes
+        return Math.toIntExact(Quantity.floorDivide(requestedQuantity, packagingQuantity, BATCH_QUANTITY_DECIMALS));
     }
 
     /**
@@ -449,8 +469,6 @@ public class BatchServiceImpl implements BatchService {
             return null;
         }
 
-        java.math.BigDecimal bd = new java.math.BigDecimal(value.toString());
-        bd = bd.setScale(decimals, java.math.RoundingMode.HALF_UP);
-        return bd.doubleValue();
+        return Quantity.round(value.doubleValue(), decimals);
     }
 }
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.common;
 
+import com.enigcode.frozen_backend.notifications.service.NotificationRecipients;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,6 +15,12 @@ import java.util.concurrent.TimeUnit;
 /**
  * Configuración de caché para el módulo de Analytics.
  * TTL de 6 horas para datos históricos que no cambian frecuentemente.
+ *
+ * También define la caché del mapa del almacén, cuyas claves incluyen la
+ * versión de materiales: las entradas de versiones viejas solo expiran.
+ *
+ * Y la del directorio de destinatarios de notificaciones (usuarios por rol y
+ * supervisores por sector).
  */
 @Configuration
 @EnableCaching
@@ -28,6 +35,14 @@ public class CacheConfig {
     private static final long CACHE_TTL_SECONDS = CACHE_TTL_HOURS * 60 * 60;
     private static final int CACHE_MAX_SIZE = 1000;
 
+    private static final long WAREHOUSE_MAP_TTL_MINUTES = 10;
+    private static final int WAREHOUSE_MAP_MAX_SIZE = 64;
+
+    // Destinatarios de notificaciones: se invalidan al cambiar usuarios o
+    // sectores; el TTL acota lo que tarda el cambio en verse en otras instancias
+    private static final long NOTIFICATION_RECIPIENTS_TTL_MINUTES = 10;
+    private static final int NOTIFICATION_RECIPIENTS_MAX_SIZE = 256;
+
     @Bean
     public CacheManager cacheManager() {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
@@ -39,7 +54,19 @@ public class CacheConfig {
                         .recordStats() // Habilitar estadísticas para monitoreo
                         .build());
         
-        cacheManager.setCaches(Arrays.asList(analyticsCache));
+        CaffeineCache warehouseMapCache = new CaffeineCache("warehouseMap",
+                Caffeine.newBuilder()
+                        .expireAfterWrite(WAREHOUSE_MAP_TTL_MINUTES, TimeUnit.MINUTES)
+                        .maximumSize(WAREHOUSE_MAP_MAX_SIZE)
+                        .build());
+
+        CaffeineCache notificationRecipientsCache = new CaffeineCache(NotificationRecipients.CACHE,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(NOTIFICATION_RECIPIENTS_TTL_MINUTES, TimeUnit.MINUTES)
+                        .maximumSize(NOTIFICATION_RECIPIENTS_MAX_SIZE)
+                        .build());
+
+        cacheManager.setCaches(Arrays.asList(analyticsCache, warehouseMapCache, notificationRecipientsCache));
         
         return cacheManager;
     }
@@ -0,0 +1,37 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdAllocation {
+
+    /**
+     * Cantidad de ids que reserva cada llamada a una secuencia. Las secuencias
+     * incrementan de a este valor y Hibernate usa el optimizador pooled-lo:
+     * nextval devuelve v y quien lo pidió puede usar los ids [v, v + ALLOCATION_SIZE).
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Cantidad de llamadas a la secuencia necesarias para reservar count ids
+     */
+    public static int blocksFor(int count) {
+        return (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+    }
+
+    /**
+     * Expande los valores devueltos por nextval a los primeros count ids de
+     * sus bloques
+     *
+     * @param blockStarts valores obtenidos de la secuencia
+     * @param count       cantidad de ids a devolver
+     */
+    public static List<Long> expand(List<Long> blockStarts, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : blockStarts) {
+            for (int i = 0; i < ALLOCATION_SIZE && ids.size() < count; i++)
+                ids.add(start + i);
+        }
+        return ids;
+    }
+}
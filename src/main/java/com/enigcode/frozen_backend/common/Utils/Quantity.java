@@ -0,0 +1,147 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmetica de cantidades en punto fijo sobre long escalados.
+ *
+ * Una cantidad de stock se representa como un long de centesimos
+ * ({@link #STOCK_DECIMALS} decimales): sumas, restas y redondeos se hacen
+ * sobre enteros, sin crear objetos ni depender de tolerancias de punto
+ * flotante. Las entidades siguen persistiendo Double: la conversion
+ * long -> double -> long es exacta para cantidades con 2 decimales, de modo que
+ * el valor guardado es siempre el decimal redondeado.
+ *
+ * Se usa donde importa el redondeo: las operaciones de stock (Material,
+ * movimientos, lotes y ordenes de produccion). Las validaciones de stock
+ * suficiente de los movimientos comparan los double con tolerancia: los
+ * valores guardados ya estan redondeados y convertirlos costaria mas que la
+ * comparacion. Las cantidades de recetas y fases (Recipe, ProductionMaterial,
+ * ProductionPhase) se leen como Double y solo pasan por Quantity al
+ * redondearlas. Como los campos son Double, asignar el resultado a una
+ * entidad sigue encajonando el valor.
+ *
+ * El redondeo es HALF_UP sobre la representacion decimal del double (el mismo
+ * criterio que BigDecimal.valueOf(value).setScale(decimals, HALF_UP)); solo los
+ * casos de empate, poco frecuentes, crean un BigDecimal para decidirlo.
+ */
+public final class Quantity {
+
+    /** Decimales con los que se guarda el stock de materiales y movimientos */
+    public static final int STOCK_DECIMALS = 2;
+
+    private static final int MAX_DECIMALS = 9;
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L };
+
+    /**
+     * Un double como 1.005 queda en 1.00499999999999989...; al escalarlo, la
+     * fraccion queda a pocos ulps de 0.5 y no se puede decidir con aritmetica
+     * binaria. Solo en ese margen (empates) se recurre a BigDecimal.
+     */
+    private static final int HALF_TOLERANCE_ULPS = 2;
+
+    /** Limite para que el valor escalado entre en un long sin perder enteros */
+    private static final double MAX_SCALED = 1L << 53;
+
+    private Quantity() {
+    }
+
+    /**
+     * Convierte una cantidad a centesimos (null se considera 0)
+     */
+    public static long toUnits(Double value) {
+        return value == null ? 0L : toUnits(value.doubleValue(), STOCK_DECIMALS);
+    }
+
+    /**
+     * Convierte un valor a unidades escaladas con la cantidad de decimales dada,
+     * redondeando HALF_UP
+     */
+    public static long toUnits(double value, int decimals) {
+        checkDecimals(decimals);
+        double scaled = Math.abs(value) * POW10[decimals];
+        if (!(scaled < MAX_SCALED))
+            throw new ArithmeticException("Cantidad fuera de rango: " + value);
+
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= HALF_TOLERANCE_ULPS * Math.ulp(scaled))
+            return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValue();
+
+        long units = fraction > 0.5 ? (long) floor + 1 : (long) floor;
+        return value < 0 ? -units : units;
+    }
+
+    /**
+     * Convierte centesimos a la cantidad decimal equivalente
+     */
+    public static double toDouble(long units) {
+        return toDouble(units, STOCK_DECIMALS);
+    }
+
+    public static double toDouble(long units, int decimals) {
+        checkDecimals(decimals);
+        return (double) units / POW10[decimals];
+    }
+
+    /**
+     * Redondea HALF_UP a la cantidad de decimales indicada
+     */
+    public static double round(double value, int decimals) {
+        return toDouble(toUnits(value, decimals), decimals);
+    }
+
+    /**
+     * Variante null-safe de {@link #round(double, int)}
+     */
+    public static Double round(Double value, int decimals) {
+        return value == null ? null : round(value.doubleValue(), decimals);
+    }
+
+    /**
+     * Suma dos cantidades de stock redondeadas a centesimos
+     */
+    public static double add(Double a, Double b) {
+        return toDouble(Math.addExact(toUnits(a), toUnits(b)));
+    }
+
+    /**
+     * Resta dos cantidades de stock redondeadas a centesimos
+     */
+    public static double subtract(Double a, Double b) {
+        return toDouble(Math.subtractExact(toUnits(a), toUnits(b)));
+    }
+
+    /**
+     * Escala una cantidad por un factor (ej. receta * multiplicador de lote),
+     * redondeando el resultado a la cantidad de decimales indicada
+     */
+    public static double scale(double value, double factor, int decimals) {
+        return round(value * factor, decimals);
+    }
+
+    /**
+     * Compara dos cantidades de stock a nivel de centesimos
+     */
+    public static int compare(Double a, Double b) {
+        return Long.compare(toUnits(a), toUnits(b));
+    }
+
+    /**
+     * Cantidad entera de veces que divisor entra en dividend, calculada sobre
+     * unidades escaladas para evitar errores como 0.99999 lotes
+     */
+    public static long floorDivide(double dividend, double divisor, int decimals) {
+        long divisorUnits = toUnits(divisor, decimals);
+        if (divisorUnits == 0)
+            throw new ArithmeticException("División por cero");
+        return Math.floorDiv(toUnits(dividend, decimals), divisorUnits);
+    }
+
+    private static void checkDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS)
+            throw new IllegalArgumentException("Cantidad de decimales no soportada: " + decimals);
+    }
+}
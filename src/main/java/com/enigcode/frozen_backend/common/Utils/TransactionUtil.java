@@ -0,0 +1,28 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtil {
+
+    /**
+     * Ejecuta la acción al confirmarse la transacción en curso, o
+     * inmediatamente si no hay transacción activa. Se usa para reflejar
+     * cambios en estructuras en memoria sin exponer datos que luego se
+     * reviertan.
+     *
+     * @param action acción a ejecutar
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
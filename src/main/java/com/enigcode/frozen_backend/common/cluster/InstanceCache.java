@@ -0,0 +1,20 @@
+package com.enigcode.frozen_backend.common.cluster;
+
+/**
+ * Estructura en memoria de esta instancia armada a partir de la base (índices,
+ * listas, mapas). Cuando otra instancia confirma un cambio sobre sus datos,
+ * llega un aviso por {@link InstanceCacheSync} y se llama a {@link #refresh()}.
+ */
+public interface InstanceCache {
+
+    /**
+     * Nombre con el que se publican y reciben los avisos de cambio
+     */
+    String cacheName();
+
+    /**
+     * Descarta o recarga el contenido porque otra instancia lo modificó. No
+     * debe volver a publicar el aviso
+     */
+    void refresh();
+}
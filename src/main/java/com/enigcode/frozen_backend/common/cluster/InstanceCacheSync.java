@@ -0,0 +1,20 @@
+package com.enigcode.frozen_backend.common.cluster;
+
+/**
+ * Avisa a las demás instancias que cambiaron los datos de una
+ * {@link InstanceCache}.
+ *
+ * Con app.sse.fanout.mode=local hay una sola instancia y no hace nada; con
+ * "postgres" el aviso viaja por el mismo canal LISTEN/NOTIFY que los eventos
+ * SSE.
+ */
+@FunctionalInterface
+public interface InstanceCacheSync {
+
+    /**
+     * Publica el cambio al confirmarse la transacción en curso (o enseguida si
+     * no hay transacción). Debe llamarse durante la transacción, no desde un
+     * afterCommit
+     */
+    void changed(String cacheName);
+}
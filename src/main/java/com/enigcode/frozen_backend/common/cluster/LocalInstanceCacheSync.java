@@ -0,0 +1,16 @@
+package com.enigcode.frozen_backend.common.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Una sola instancia: no hay a quién avisar
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.fanout.mode", havingValue = "local", matchIfMissing = true)
+public class LocalInstanceCacheSync implements InstanceCacheSync {
+
+    @Override
+    public void changed(String cacheName) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.enigcode.frozen_backend.common.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta el método completo (incluida su transacción) cuando falla por un
+ * conflicto de versión optimista, por ejemplo dos operaciones que modifican
+ * el stock del mismo material al mismo tiempo.
+ *
+ * Solo reintenta si el método abre la transacción: dentro de una transacción
+ * existente el conflicto se propaga para que la reintente quien la inició.
+ * Los métodos anotados deben ser transaccionales y sin efectos fuera de la
+ * base de datos antes del commit.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /**
+     * Cantidad máxima de ejecuciones (la primera más los reintentos)
+     */
+    int maxAttempts() default 3;
+}
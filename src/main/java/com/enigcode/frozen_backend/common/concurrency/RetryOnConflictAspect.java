@@ -0,0 +1,50 @@
+package com.enigcode.frozen_backend.common.concurrency;
+
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementa {@link RetryOnConflict}. Se ordena antes que el interceptor de
+ * transacciones para que cada intento corra en una transacción nueva (al
+ * hacer rollback se limpia el contexto de persistencia y el siguiente intento
+ * relee los datos).
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class RetryOnConflictAspect {
+
+    // Espera base entre intentos; se multiplica por el intento y se le suma azar
+    private static final long BACKOFF_MILLIS = 10;
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return joinPoint.proceed();
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retryOnConflict.maxAttempts())
+                    throw e;
+                log.debug("Conflicto de versión en {} (intento {}), reintentando",
+                        joinPoint.getSignature().toShortString(), attempt);
+                Thread.sleep(BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS));
+                attempt++;
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.enigcode.frozen_backend.users.DTO.AuthResponseDTO;
 
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -99,6 +100,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Maneja los conflictos de concurrencia que persisten tras los reintentos
+     * (Ej: el stock del material cambió en otra operación).
+     * Devuelve HTTP 409 Conflict.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Object> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        Map<String, Object> response = createErrorResponse(
+                "Los datos fueron modificados por otra operación al mismo tiempo. Intente nuevamente.",
+                HttpStatus.CONFLICT);
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     /**
      * Maneja la excepción personalizada cuando un recurso no se encuentra.
      * Devuelve HTTP 404 Not Found.
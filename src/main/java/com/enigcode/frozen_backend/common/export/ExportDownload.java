@@ -0,0 +1,50 @@
+package com.enigcode.frozen_backend.common.export;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Descarga de una exportación como tarea asíncrona con su propio timeout
+ * (app.export.timeout-seconds), en lugar del timeout asíncrono global de Spring
+ * MVC que también alcanzaría a las conexiones SSE.
+ *
+ * El controller que la devuelve debe recibir el HttpServletResponse como
+ * parámetro: así Spring no procesa el resultado y el cuerpo queda escrito por
+ * la tarea.
+ */
+public final class ExportDownload {
+
+    private ExportDownload() {
+    }
+
+    /**
+     * Escribe el cuerpo de la descarga en el stream de salida
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Fija tipo y nombre de archivo de la respuesta y devuelve la tarea que
+     * escribe el cuerpo en el executor asíncrono de Spring MVC
+     */
+    public static WebAsyncTask<Void> of(HttpServletResponse response, ExportFormat format, String baseName,
+            long timeoutSeconds, BodyWriter body) {
+        response.setContentType(format.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.formData()
+                .name("attachment").filename(format.fileName(baseName)).build().toString());
+        return new WebAsyncTask<>(TimeUnit.SECONDS.toMillis(timeoutSeconds), () -> {
+            OutputStream out = response.getOutputStream();
+            body.writeTo(out);
+            out.flush();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.enigcode.frozen_backend.common.export;
+
+/**
+ * Formatos de exportación: CSV con encabezado o NDJSON (un objeto JSON por
+ * línea)
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "." + extension;
+    }
+}
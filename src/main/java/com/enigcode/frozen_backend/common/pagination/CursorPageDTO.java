@@ -0,0 +1,46 @@
+package com.enigcode.frozen_backend.common.pagination;
+
+import lombok.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Página obtenida por cursor (keyset). En lugar de número de página trae el
+ * cursor opaco para pedir la siguiente; el total solo se calcula si se pide
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalItems;
+
+    public <R> CursorPageDTO<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPageDTO<>(content.stream().<R>map(mapper).toList(), size, hasNext, nextCursor, totalItems);
+    }
+
+    /**
+     * Metadata de la página para el frontend, con la misma forma que la
+     * respuesta paginada por número de página
+     *
+     * @param contentKey clave bajo la que va el contenido
+     */
+    public Map<String, Object> toResponse(String contentKey) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(contentKey, content);
+        response.put("size", size);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", nextCursor);
+        if (totalItems != null)
+            response.put("totalItems", totalItems);
+        return response;
+    }
+}
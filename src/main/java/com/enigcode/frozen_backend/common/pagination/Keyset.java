@@ -0,0 +1,168 @@
+package com.enigcode.frozen_backend.common.pagination;
+
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Paginación por cursor (keyset) sobre repositorios con Specification.
+ *
+ * En lugar de OFFSET, cada página continúa desde la última fila de la anterior
+ * con una condición sobre (clave de orden, id), y no se ejecuta el COUNT salvo
+ * que se pida. El costo de una página no depende de cuántas filas haya antes,
+ * así que se mantiene constante aunque la tabla crezca.
+ *
+ * El cursor es opaco para el cliente: codifica la propiedad y dirección de
+ * orden junto con los valores de la última fila. La clave de orden debe ser
+ * una propiedad simple y sin nulos (por defecto la fecha de creación).
+ */
+public final class Keyset {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    private Keyset() {
+    }
+
+    /**
+     * Obtiene la página que sigue al cursor aplicando el filtro recibido
+     *
+     * @param repository repositorio de la entidad
+     * @param filter     filtro de la consulta (puede ser null)
+     * @param pageable   tamaño y orden (un solo criterio; sin orden se usa el id)
+     * @param after      cursor devuelto por la página anterior; null o vacío
+     *                   para la primera
+     * @param withCount  si además se cuenta el total de filas del filtro
+     */
+    public static <T> CursorPageDTO<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+            Pageable pageable, String after, boolean withCount) {
+        Sort.Order order = orderOf(pageable.getSort());
+        int size = pageable.getPageSize();
+        Specification<T> base = Specification.where(filter);
+
+        Specification<T> query = base;
+        if (after != null && !after.isBlank())
+            query = base.and(after(decode(after, order)));
+
+        Sort sort = Sort.by(order, new Sort.Order(order.getDirection(), ID));
+        List<T> rows = repository.findBy(query, q -> q.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encode(order, content.get(content.size() - 1)) : null;
+
+        return CursorPageDTO.<T>builder()
+                .content(content)
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalItems(withCount ? repository.count(base) : null)
+                .build();
+    }
+
+    private static Sort.Order orderOf(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty())
+            return Sort.Order.desc(ID);
+        if (orders.size() > 1 || orders.get(0).getProperty().contains("."))
+            throw new BadRequestException("La paginación por cursor admite un solo criterio de orden sobre un campo propio");
+        return orders.get(0);
+    }
+
+    /**
+     * Filas posteriores al cursor en el orden pedido:
+     * clave > v OR (clave = v AND id > id) (o con < si el orden es descendente)
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> Specification<T> after(Position position) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get(ID);
+            if (position.property().equals(ID))
+                return position.ascending() ? cb.greaterThan(id, position.id()) : cb.lessThan(id, position.id());
+
+            Path<Comparable> key = root.get(position.property());
+            Comparable value = parse(position.value(), key.getJavaType());
+            return cb.or(
+                    beyond(cb, key, value, position.ascending()),
+                    cb.and(cb.equal(key, value), position.ascending()
+                            ? cb.greaterThan(id, position.id())
+                            : cb.lessThan(id, position.id())));
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static jakarta.persistence.criteria.Predicate beyond(CriteriaBuilder cb, Path<Comparable> key,
+            Comparable value, boolean ascending) {
+        return ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+    }
+
+    private static String encode(Sort.Order order, Object last) {
+        BeanWrapperImpl row = new BeanWrapperImpl(last);
+        Object id = row.getPropertyValue(ID);
+        Object value = order.getProperty().equals(ID) ? id : row.getPropertyValue(order.getProperty());
+        if (value == null)
+            throw new BadRequestException("La paginación por cursor requiere ordenar por un campo sin valores nulos");
+
+        String raw = String.join(SEPARATOR, order.getProperty(), order.getDirection().name(),
+                String.valueOf(id), String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor, Sort.Order order) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // El valor va al final porque puede contener el separador
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4)
+                throw new IllegalArgumentException(raw);
+            if (!parts[0].equals(order.getProperty()) || !parts[1].equals(order.getDirection().name()))
+                throw new BadRequestException("El cursor no corresponde al orden solicitado");
+            return new Position(parts[0], order.isAscending(), Long.valueOf(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparable parse(String value, Class<?> type) {
+        try {
+            if (type == OffsetDateTime.class)
+                return OffsetDateTime.parse(value);
+            if (type == LocalDateTime.class)
+                return LocalDateTime.parse(value);
+            if (type == LocalDate.class)
+                return LocalDate.parse(value);
+            if (type == Long.class)
+                return Long.valueOf(value);
+            if (type == Integer.class)
+                return Integer.valueOf(value);
+            if (type == Double.class)
+                return Double.valueOf(value);
+            if (type == Boolean.class)
+                return Boolean.valueOf(value);
+            if (type.isEnum())
+                return Enum.valueOf((Class<Enum>) type, value);
+            if (type == String.class)
+                return value;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor inválido");
+        }
+        throw new BadRequestException("No se puede paginar por cursor ordenando por un campo de tipo "
+                + type.getSimpleName());
+    }
+
+    private record Position(String property, boolean ascending, Long id, String value) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.enigcode.frozen_backend.common.retention;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Qué filas vencen y cómo se borran, para {@link RetentionRunner}.
+ *
+ * Ambos métodos se llaman en la misma transacción, una por lote: findExpired
+ * debe devolver como mucho limit filas leyendo un índice que empiece por la
+ * fecha de corte (así cada lote, incluido el último vacío, es una lectura
+ * corta) y delete borrarlas con un DELETE masivo por id.
+ *
+ * @param <T> fila vencida; alcanza con el id y lo que haga falta para
+ *            reflejar el borrado en otras estructuras
+ */
+public interface RetentionPolicy<T> {
+
+    /**
+     * Nombre para logs
+     */
+    String name();
+
+    /**
+     * Próximas filas anteriores a cutoff, como mucho limit
+     */
+    List<T> findExpired(OffsetDateTime cutoff, int limit);
+
+    /**
+     * Borra las filas del lote
+     *
+     * @return cantidad de filas borradas
+     */
+    int delete(List<T> expired);
+}
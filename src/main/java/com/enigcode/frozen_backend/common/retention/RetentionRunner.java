@@ -0,0 +1,78 @@
+package com.enigcode.frozen_backend.common.retention;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Borra datos vencidos de a lotes acotados.
+ *
+ * Cada lote se lee y se borra en su propia transacción corta, así nunca hay
+ * más de chunkSize entidades en memoria ni locks tomados por mucho tiempo, y
+ * entre lotes se hace una pausa para no competir con el tráfico normal. Si el
+ * proceso se corta, lo ya borrado queda confirmado y la próxima pasada sigue
+ * desde ahí.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionRunner {
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.retention.chunk-size:500}")
+    private int chunkSize = 500;
+    @Value("${app.retention.pause-ms:200}")
+    private long pauseMs = 200;
+
+    /**
+     * Borra todo lo anterior a cutoff según la política
+     *
+     * @return cantidad de filas borradas
+     */
+    public <T> int purge(RetentionPolicy<T> policy, OffsetDateTime cutoff) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int chunks = 0;
+        while (true) {
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<T> expired = policy.findExpired(cutoff, chunkSize);
+                return new Chunk(expired.size(), expired.isEmpty() ? 0 : policy.delete(expired));
+            });
+            total += chunk.deleted();
+            if (chunk.found() > 0)
+                chunks++;
+            // Un lote incompleto significa que no queda nada vencido
+            if (chunk.found() < chunkSize || !pause())
+                break;
+        }
+        if (total > 0)
+            log.info("Retención {}: {} filas anteriores a {} borradas en {} lotes", policy.name(), total, cutoff,
+                    chunks);
+        else
+            log.debug("Retención {}: nada anterior a {}", policy.name(), cutoff);
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0)
+            return true;
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Retención interrumpida; se retoma en la próxima pasada");
+            return false;
+        }
+    }
+
+    private record Chunk(int found, int deleted) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.enigcode.frozen_backend.common.search;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Índice de búsqueda en memoria basado en trigramas para autocompletado.
+ * Reemplaza los LIKE '%q%' contra la base de datos: cada documento se indexa
+ * por los trigramas de sus textos (nombre, código, proveedor...) y las
+ * búsquedas recorren la lista de postings más corta en orden de id,
+ * verificando el "contains" y los filtros en memoria hasta llenar el límite.
+ *
+ * La carga inicial es perezosa (primer acceso) y las modificaciones se aplican
+ * al confirmarse la transacción en curso, para no exponer cambios que luego
+ * se reviertan.
+ *
+ * @param <D> tipo de documento indexado (snapshot inmutable de la entidad)
+ */
+public class InMemorySearchIndex<D> {
+
+    private static final int GRAM_SIZE = 3;
+
+    private final Function<D, Long> idExtractor;
+    private final Function<D, List<String>> textExtractor;
+    private final Supplier<Collection<D>> loader;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, D> documents = new HashMap<>();
+    private final Map<Long, List<String>> normalizedTexts = new HashMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+    private final NavigableSet<Long> allIds = new TreeSet<>();
+    private volatile boolean loaded = false;
+
+    public InMemorySearchIndex(Function<D, Long> idExtractor,
+            Function<D, List<String>> textExtractor,
+            Supplier<Collection<D>> loader) {
+        this.idExtractor = idExtractor;
+        this.textExtractor = textExtractor;
+        this.loader = loader;
+    }
+
+    /**
+     * Busca documentos cuyo algún texto contenga la consulta (sin distinguir
+     * mayúsculas) y que cumplan el filtro, ordenados por id ascendente.
+     *
+     * @param query  texto a buscar
+     * @param filter filtro adicional (activo, tipo, etc.)
+     * @param limit  cantidad máxima de resultados
+     * @return documentos encontrados
+     */
+    public List<D> search(String query, Predicate<D> filter, int limit) {
+        if (query == null || query.isBlank() || limit <= 0)
+            return List.of();
+        ensureLoaded();
+
+        String q = normalize(query.trim());
+        List<D> results = new ArrayList<>(Math.min(limit, 16));
+
+        lock.readLock().lock();
+        try {
+            for (Long id : candidatesFor(q)) {
+                D document = documents.get(id);
+                if (!filter.test(document) || !matches(normalizedTexts.get(id), q))
+                    continue;
+                results.add(document);
+                if (results.size() >= limit)
+                    break;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Devuelve el documento indexado con el id dado o null si no existe
+     */
+    public D get(Long id) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return documents.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega o reemplaza un documento al confirmarse la transacción actual
+     * (inmediatamente si no hay transacción activa).
+     */
+    public void putAfterCommit(D document) {
+        TransactionUtil.runAfterCommit(() -> put(document));
+    }
+
+    /**
+     * Agrega o reemplaza un documento en el índice
+     */
+    public void put(D document) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) // si no, se incluirá en la carga inicial
+                putInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un documento del índice
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el contenido para que se recargue en el próximo acceso
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded)
+            return;
+        lock.writeLock().lock();
+        try {
+            if (loaded)
+                return;
+            clear();
+            for (D document : loader.get())
+                putInternal(document);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        documents.clear();
+        normalizedTexts.clear();
+        postings.clear();
+        allIds.clear();
+    }
+
+    private void putInternal(D document) {
+        Long id = idExtractor.apply(document);
+        if (id == null)
+            return;
+        removeInternal(id);
+
+        List<String> texts = new ArrayList<>();
+        for (String text : textExtractor.apply(document)) {
+            if (text != null && !text.isEmpty())
+                texts.add(normalize(text));
+        }
+
+        documents.put(id, document);
+        normalizedTexts.put(id, texts);
+        allIds.add(id);
+        for (String gram : gramsOf(texts))
+            postings.computeIfAbsent(gram, k -> new TreeSet<>()).add(id);
+    }
+
+    private void removeInternal(Long id) {
+        List<String> previous = normalizedTexts.remove(id);
+        documents.remove(id);
+        allIds.remove(id);
+        if (previous == null)
+            return;
+        for (String gram : gramsOf(previous)) {
+            NavigableSet<Long> ids = postings.get(gram);
+            if (ids == null)
+                continue;
+            ids.remove(id);
+            if (ids.isEmpty())
+                postings.remove(gram);
+        }
+    }
+
+    /**
+     * Consultas de menos de 3 caracteres no tienen trigramas: se recorre todo
+     * el índice (sigue siendo en memoria). Para el resto se usa la lista de
+     * postings más corta entre los trigramas de la consulta.
+     */
+    private Collection<Long> candidatesFor(String q) {
+        if (q.length() < GRAM_SIZE)
+            return allIds;
+
+        NavigableSet<Long> shortest = null;
+        for (int i = 0; i + GRAM_SIZE <= q.length(); i++) {
+            NavigableSet<Long> ids = postings.get(q.substring(i, i + GRAM_SIZE));
+            if (ids == null)
+                return List.of();
+            if (shortest == null || ids.size() < shortest.size())
+                shortest = ids;
+        }
+        return shortest;
+    }
+
+    private static boolean matches(List<String> texts, String q) {
+        for (String text : texts) {
+            if (text.contains(q))
+                return true;
+        }
+        return false;
+    }
+
+    private static Set<String> gramsOf(List<String> texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM_SIZE <= text.length(); i++)
+                grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,34 @@
+package com.enigcode.frozen_backend.materials.DTO;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaterialImportResultDTO {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    @Builder.Default
+    private List<RowErrorDTO> errors = new ArrayList<>();
+
+    public void addError(long line, String message) {
+        failed++;
+        errors.add(new RowErrorDTO(line, message));
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowErrorDTO {
+        private long line;
+        private String message;
+    }
+}
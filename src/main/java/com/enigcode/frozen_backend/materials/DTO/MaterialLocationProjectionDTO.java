@@ -0,0 +1,10 @@
+package com.enigcode.frozen_backend.materials.DTO;
+
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+
+public interface MaterialLocationProjectionDTO {
+    Long getId();
+    WarehouseZone getWarehouseZone();
+    String getWarehouseSection();
+    Integer getWarehouseLevel();
+}
@@ -1,8 +1,10 @@
 package com.enigcode.frozen_backend.materials.controller;
 
 import com.enigcode.frozen_backend.materials.DTO.*;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
 
+import java.io.InputStream;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import com.enigcode.frozen_backend.materials.service.MaterialService;
@@ -14,9 +16,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -40,6 +45,18 @@ public class MaterialController {
                 return new ResponseEntity<>(materialResponseDTO, HttpStatus.CREATED);
         }
 
+        @Operation(summary = "Importar materiales", description = "Importa materiales en lote desde un CSV con encabezado (text/csv) o NDJSON (application/x-ndjson). Las filas inválidas se informan por número de línea sin cortar la importación")
+        @PostMapping(value = "/import", consumes = { MaterialImportFormat.CSV_MEDIA_TYPE,
+                        MaterialImportFormat.NDJSON_MEDIA_TYPE })
+        @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN')")
+        public ResponseEntity<MaterialImportResultDTO> importMaterials(
+                        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                        InputStream body) {
+                MaterialImportResultDTO result = materialService.importMaterials(body,
+                                MaterialImportFormat.fromContentType(contentType));
+                return ResponseEntity.ok(result);
+        }
+
         @Operation(summary = "Modificación de material", description = "Permite modificar ciertos campos de un material registrado")
         @PatchMapping("/{id}")
         @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN')")
@@ -59,11 +76,17 @@ public class MaterialController {
                 return new ResponseEntity<>(materialResponseDTO, HttpStatus.OK);
         }
 
-        @Operation(summary = "Obtener materiales", description = "Obtiene todos los materiales con paginación y filtros")
+        @Operation(summary = "Obtener materiales", description = "Obtiene todos los materiales con paginación y filtros. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
         @GetMapping
         public ResponseEntity<Map<String, Object>> getMaterials(
                         MaterialFilterDTO filterDTO,
-                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable) {
+                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(defaultValue = "false") boolean withCount) {
+                if (after != null)
+                        return ResponseEntity.ok(materialService.findAllByCursor(filterDTO, pageable, after, withCount)
+                                        .toResponse("content"));
+
                 Page<MaterialResponseDTO> pageResponse = materialService.findAll(filterDTO, pageable);
 
                 // Metadata de la página para el frontend
@@ -92,6 +115,12 @@ public class MaterialController {
                 return ResponseEntity.ok(list);
         }
 
+        @Operation(summary = "Materiales con stock bajo", description = "Devuelve los materiales activos cuyo stock disponible está por debajo del umbral, del más al menos comprometido")
+        @GetMapping("/low-stock")
+        public ResponseEntity<List<MaterialResponseDTO>> getLowStockMaterials() {
+                return ResponseEntity.ok(materialService.getLowStockMaterials());
+        }
+
         @Operation(summary = "Obtiene detalle material", description = "Obtiene una respuesta mas detallada sobre la informacion de un material en especifico")
         @GetMapping("/{id}")
         public ResponseEntity<MaterialDetailDTO> getMaterial(@PathVariable Long id) {
@@ -102,13 +131,23 @@ public class MaterialController {
 
         // Endpoints para funcionalidad de almacén
 
-        @Operation(summary = "Obtener ubicaciones de materiales", description = "Obtiene las ubicaciones de todos los materiales activos para mostrar en el mapa del almacén")
+        @Operation(summary = "Obtener ubicaciones de materiales", description = "Obtiene las ubicaciones de todos los materiales activos para mostrar en el mapa del almacén (304 si no hubo cambios)")
         @GetMapping("/warehouse-map")
         public ResponseEntity<List<MaterialWarehouseLocationDTO>> getWarehouseMap(
                         @RequestParam(required = false) String zone,
-                        @RequestParam(required = false, defaultValue = "true") Boolean activeOnly) {
+                        @RequestParam(required = false, defaultValue = "true") Boolean activeOnly,
+                        WebRequest webRequest) {
+                // El ETag es la versión de materiales: si no cambió nada no se consulta el servicio
+                String etag = "\"" + materialService.getWarehouseMapVersion() + "\"";
+                if (webRequest.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+
                 List<MaterialWarehouseLocationDTO> locations = materialService.getWarehouseLocations(zone, activeOnly);
-                return ResponseEntity.ok(locations);
+                return ResponseEntity.ok()
+                                .eTag(etag)
+                                .cacheControl(CacheControl.noCache())
+                                .body(locations);
         }
 
         @Operation(summary = "Actualizar ubicación de material", description = "Actualiza la ubicación física de un material en el almacén")
@@ -1,12 +1,12 @@
 package com.enigcode.frozen_backend.materials.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import com.enigcode.frozen_backend.common.Utils.Quantity;
 import org.hibernate.annotations.ColumnDefault;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.OffsetDateTime;
 
 @Entity
@@ -20,7 +20,7 @@ public class Material {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "materials_gen")
-    @SequenceGenerator(name = "materials_gen", sequenceName = "materials_seq", allocationSize = 1)
+    @SequenceGenerator(name = "materials_gen", sequenceName = "materials_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true)
@@ -76,26 +76,31 @@ public class Material {
     @Builder.Default
     private Integer warehouseLevel = 1;
 
+    /**
+     * Versión para control optimista: un UPDATE con una versión vieja falla en
+     * lugar de pisar el cambio de stock de otra transacción
+     */
+    @Version
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long version = 0L;
+
     public void toggleActive() {
         this.isActive = !this.isActive;
     }
 
+    // Las operaciones de stock se hacen en centesimos (ver Quantity)
+
     public void reduceStock(Double stock) {
-        this.stock = BigDecimal.valueOf(this.stock - stock)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        this.stock = Quantity.subtract(this.stock, stock);
     }
 
     public void increaseStock(Double stock) {
-        this.stock = BigDecimal.valueOf(this.stock + stock)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        this.stock = Quantity.add(this.stock, stock);
     }
 
     public void reserveStock(Double stock) {
-        this.reservedStock = BigDecimal.valueOf(this.reservedStock + stock)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        this.reservedStock = Quantity.add(this.reservedStock, stock);
         reduceStock(stock);
     }
 
@@ -105,8 +110,6 @@ public class Material {
     }
 
     public void reduceReservedStock(Double stock) {
-        this.reservedStock = BigDecimal.valueOf(this.reservedStock - stock)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        this.reservedStock = Quantity.subtract(this.reservedStock, stock);
     }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.enigcode.frozen_backend.materials.model;
+
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+
+public enum MaterialImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static MaterialImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.startsWith(CSV_MEDIA_TYPE))
+                return CSV;
+            if (type.startsWith(NDJSON_MEDIA_TYPE))
+                return NDJSON;
+        }
+        throw new BadRequestException("Formato de importación no soportado: " + contentType
+                + ". Use " + CSV_MEDIA_TYPE + " o " + NDJSON_MEDIA_TYPE);
+    }
+}
@@ -16,6 +16,8 @@ public enum WarehouseZone {
     ETIQUETADO("ETIQUETADO", List.of("A1", "A2", "B1", "B2")),
     OTROS("OTROS", List.of("A1", "A2", "B1", "B2"));
 
+    public static final int MAX_LEVEL = 3;
+
     private final String displayName;
     private final List<String> availableSections;
 
@@ -36,6 +38,6 @@ public enum WarehouseZone {
     }
 
     public static boolean isValidLevel(Integer level) {
-        return level != null && level >= 1 && level <= 3;
+        return level != null && level >= 1 && level <= MAX_LEVEL;
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.enigcode.frozen_backend.materials.repository;
+
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
+import com.enigcode.frozen_backend.materials.model.Material;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Escrituras masivas de materiales por JDBC para la importación en lote.
+ * Los ids se reservan por bloques de la secuencia materials_seq con la misma
+ * estrategia que la entidad (ver {@link IdAllocation}), de modo que el código
+ * del material se calcula antes de insertar y cada bloque se escribe con un
+ * único batch.
+ *
+ * Estas escrituras no pasan por JPA: quien las use debe invalidar los índices
+ * en memoria y la versión de materiales.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MaterialBulkRepository {
+
+    private static final String NEXT_IDS_SQL = "SELECT nextval('materials_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO materials (id, code, name, type, supplier, value, stock, reserved_stock,
+                unit_measurement, threshold, is_active, last_update_date, creation_date,
+                warehouse_zone, warehouse_section, warehouse_level, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva una cantidad de ids de la secuencia en un solo viaje: cada valor
+     * de nextval habilita un bloque de {@link IdAllocation#ALLOCATION_SIZE} ids
+     */
+    public List<Long> nextIds(int count) {
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, IdAllocation.blocksFor(count));
+        return IdAllocation.expand(blockStarts, count);
+    }
+
+    /**
+     * Inserta los materiales (con id y código ya asignados) en un batch JDBC
+     * dentro de su propia transacción
+     */
+    @Transactional
+    public void insertAll(List<Material> materials) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Material m = materials.get(i);
+                ps.setLong(1, m.getId());
+                ps.setString(2, m.getCode());
+                ps.setString(3, m.getName());
+                ps.setInt(4, m.getType().ordinal()); // MaterialType se persiste como ordinal
+                ps.setString(5, m.getSupplier());
+                ps.setObject(6, m.getValue(), Types.DOUBLE);
+                ps.setObject(7, m.getStock(), Types.DOUBLE);
+                ps.setObject(8, m.getReservedStock(), Types.DOUBLE);
+                ps.setString(9, m.getUnitMeasurement().name());
+                ps.setObject(10, m.getThreshold(), Types.DOUBLE);
+                ps.setBoolean(11, Boolean.TRUE.equals(m.getIsActive()));
+                ps.setObject(12, m.getLastUpdateDate());
+                ps.setObject(13, m.getCreationDate());
+                ps.setString(14, m.getWarehouseZone() != null ? m.getWarehouseZone().name() : null);
+                ps.setString(15, m.getWarehouseSection());
+                ps.setObject(16, m.getWarehouseLevel(), Types.INTEGER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return materials.size();
+            }
+        });
+    }
+}
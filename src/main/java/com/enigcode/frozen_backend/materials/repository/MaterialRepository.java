@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.materials.repository;
 
+import com.enigcode.frozen_backend.materials.DTO.MaterialLocationProjectionDTO;
 import com.enigcode.frozen_backend.materials.model.Material;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
 import com.enigcode.frozen_backend.materials.model.WarehouseZone;
@@ -56,4 +57,16 @@ public interface MaterialRepository extends JpaRepository<Material, Long>, JpaSp
   @org.springframework.data.jpa.repository.Query("SELECT DISTINCT m.warehouseSection FROM Material m WHERE m.warehouseZone = :zone AND m.warehouseSection IS NOT NULL")
   List<String> findWarehouseSectionsByZone(@org.springframework.data.repository.query.Param("zone") WarehouseZone zone);
 
+  // Ubicaciones de todos los materiales (para el mapa de ocupación en memoria)
+  @org.springframework.data.jpa.repository.Query("SELECT m.id AS id, m.warehouseZone AS warehouseZone, m.warehouseSection AS warehouseSection, m.warehouseLevel AS warehouseLevel FROM Material m")
+  List<MaterialLocationProjectionDTO> findAllWarehouseLocations();
+
+  // Materiales activos con stock disponible bajo el umbral (carga inicial de la lista de stock bajo)
+  @org.springframework.data.jpa.repository.Query("SELECT m FROM Material m WHERE m.isActive = true AND m.stock < m.threshold")
+  List<Material> findLowStock();
+
+  // Versión de los materiales leída de la base: cambia con cada alta, baja o modificación (@Version)
+  @org.springframework.data.jpa.repository.Query("SELECT CONCAT(CAST(COUNT(m) AS String), '-', CAST(COALESCE(MAX(m.id), 0) AS String), '-', CAST(COALESCE(SUM(m.version), 0) AS String)) FROM Material m")
+  String findChangeVersion();
+
 }
\ No newline at end of file
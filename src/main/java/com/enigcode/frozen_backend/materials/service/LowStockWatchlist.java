@@ -0,0 +1,170 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.Utils.Quantity;
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.materials.DTO.MaterialResponseDTO;
+import com.enigcode.frozen_backend.materials.mapper.MaterialMapper;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Lista en memoria de los materiales activos con stock disponible por debajo
+ * del umbral. El stock disponible es Material.stock: las reservas ya lo
+ * descuentan al pasar cantidad a reservedStock.
+ *
+ * Se carga una vez desde la base y se actualiza al confirmarse cada
+ * transacción que modifica stock, umbral o estado de un material, de modo que
+ * /materials/low-stock y las alertas de stock bajo no recorren ni consultan la
+ * tabla de materiales.
+ *
+ * Los cambios que afectan la lista se avisan a las demás instancias, que la
+ * recargan. Entre la confirmación en una instancia y la recarga en otra queda
+ * la demora del aviso: una entrada a la lista confirmada en ese lapso en la
+ * otra instancia puede disparar su alerta otra vez.
+ */
+@Component
+@RequiredArgsConstructor
+public class LowStockWatchlist implements InstanceCache {
+
+    public static final String CACHE = "lowStockWatchlist";
+
+    private final MaterialRepository materialRepository;
+    private final MaterialMapper materialMapper;
+    private final InstanceCacheSync cacheSync;
+
+    private final Map<Long, MaterialResponseDTO> materials = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Indica si el material debe estar en la lista con sus valores actuales
+     */
+    public static boolean isLowStock(Material material) {
+        return Boolean.TRUE.equals(material.getIsActive())
+                && material.getThreshold() != null
+                && Quantity.compare(material.getStock(), material.getThreshold()) < 0;
+    }
+
+    /**
+     * Registra el estado del material para aplicarlo al confirmarse la
+     * transacción
+     */
+    public void record(Material material) {
+        record(material, null);
+    }
+
+    /**
+     * Registra el estado del material para aplicarlo al confirmarse la
+     * transacción y, si con este cambio el material entra a la lista (no
+     * estaba y quedó por debajo del umbral), ejecuta onEntered. La entrada se
+     * decide al aplicar el cambio: de varias transacciones concurrentes solo
+     * la primera en confirmar la dispara, y una revertida no la dispara
+     */
+    public void record(Material material, Runnable onEntered) {
+        Long id = material.getId();
+        if (id == null)
+            return;
+        MaterialResponseDTO snapshot = isLowStock(material) ? materialMapper.toResponseDto(material) : null;
+        // Cargada antes de confirmar, para que el cambio se aplique sobre la lista
+        ensureLoaded();
+        if (snapshot != null || materials.containsKey(id))
+            cacheSync.changed(CACHE);
+        TransactionUtil.runAfterCommit(() -> {
+            if (update(id, snapshot) && onEntered != null)
+                onEntered.run();
+        });
+    }
+
+    public boolean contains(Long materialId) {
+        ensureLoaded();
+        return materials.containsKey(materialId);
+    }
+
+    public int size() {
+        ensureLoaded();
+        return materials.size();
+    }
+
+    /**
+     * Materiales en la lista, del más comprometido (menor stock / umbral) al
+     * menos comprometido
+     */
+    public List<MaterialResponseDTO> getMaterials() {
+        ensureLoaded();
+        return materials.values().stream()
+                .sorted(Comparator.comparingDouble(LowStockWatchlist::coverage)
+                        .thenComparing(MaterialResponseDTO::getId))
+                .toList();
+    }
+
+    /**
+     * Descarta el contenido para que se recargue en el próximo acceso
+     */
+    public void invalidate() {
+        discard();
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    /**
+     * Otra instancia cambió la lista: si ya estaba cargada se recarga en el
+     * lugar, para que la próxima entrada se decida sobre los datos actuales
+     */
+    @Override
+    public synchronized void refresh() {
+        if (!loaded)
+            return;
+        discard();
+        ensureLoaded();
+    }
+
+    private synchronized void discard() {
+        materials.clear();
+        loaded = false;
+    }
+
+    /**
+     * @return true si el material entró a la lista
+     */
+    private synchronized boolean update(Long id, MaterialResponseDTO snapshot) {
+        if (!loaded) // si no, se incluirá en la carga inicial
+            return false;
+        if (snapshot == null) {
+            materials.remove(id);
+            return false;
+        }
+        return materials.put(id, snapshot) == null;
+    }
+
+    private void ensureLoaded() {
+        if (loaded)
+            return;
+        synchronized (this) {
+            if (loaded)
+                return;
+            materials.clear();
+            for (Material material : materialRepository.findLowStock())
+                materials.put(material.getId(), materialMapper.toResponseDto(material));
+            loaded = true;
+        }
+    }
+
+    private static double coverage(MaterialResponseDTO material) {
+        double threshold = material.getThreshold();
+        return threshold > 0 ? material.getAvailableStock() / threshold : 0;
+    }
+}
@@ -0,0 +1,222 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.materials.DTO.MaterialCreateDTO;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lee de a una fila por vez un archivo de importación de materiales (CSV con
+ * encabezado o NDJSON), sin cargarlo completo en memoria. Los errores de
+ * formato de una fila se devuelven en la fila para que la importación
+ * continúe con las siguientes.
+ *
+ * En CSV un campo entrecomillado puede contener saltos de línea: la fila
+ * sigue en las líneas siguientes hasta cerrar las comillas y se informa con
+ * el número de la línea en que empieza.
+ */
+class MaterialImportReader implements Closeable {
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "type", "unitmeasurement", "threshold");
+
+    private final BufferedReader reader;
+    private final MaterialImportFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long lineNumber = 0;
+
+    MaterialImportReader(InputStream input, MaterialImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Fila leída: el material o el motivo por el que no se pudo interpretar
+     */
+    record ImportRow(long line, MaterialCreateDTO material, String error) {
+    }
+
+    /**
+     * Devuelve la próxima fila con datos o null al terminar el archivo
+     */
+    ImportRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF')
+                line = line.substring(1);
+            if (line.isBlank())
+                continue;
+
+            if (format == MaterialImportFormat.NDJSON)
+                return parseJson(line);
+
+            long firstLine = lineNumber;
+            StringBuilder record = new StringBuilder(line);
+            while (hasOpenQuote(record)) {
+                String continuation = reader.readLine();
+                if (continuation == null) {
+                    if (columns == null)
+                        throw new BadRequestException("El encabezado del CSV tiene comillas sin cerrar");
+                    return new ImportRow(firstLine, null, "Comillas sin cerrar hasta el final del archivo");
+                }
+                lineNumber++;
+                record.append('\n').append(continuation);
+            }
+            if (columns == null) {
+                columns = parseHeader(record.toString());
+                continue;
+            }
+            return parseCsv(firstLine, record.toString());
+        }
+        return null;
+    }
+
+    private ImportRow parseJson(String line) {
+        try {
+            return new ImportRow(lineNumber, objectMapper.readValue(line, MaterialCreateDTO.class), null);
+        } catch (JsonProcessingException e) {
+            return new ImportRow(lineNumber, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++)
+            header.put(normalizeColumn(names.get(i)), i);
+        for (String required : REQUIRED_COLUMNS) {
+            if (!header.containsKey(required))
+                throw new BadRequestException("El encabezado del CSV debe incluir la columna " + required);
+        }
+        return header;
+    }
+
+    private ImportRow parseCsv(long line, String record) {
+        List<String> values = splitCsv(record);
+        try {
+            MaterialCreateDTO dto = MaterialCreateDTO.builder()
+                    .name(value(values, "name"))
+                    .type(enumValue(MaterialType.class, values, "type"))
+                    .supplier(value(values, "supplier"))
+                    .value(doubleValue(values, "value"))
+                    .stock(doubleValue(values, "stock"))
+                    .unitMeasurement(enumValue(UnitMeasurement.class, values, "unitmeasurement"))
+                    .threshold(doubleValue(values, "threshold"))
+                    .warehouseZone(enumValue(WarehouseZone.class, values, "warehousezone"))
+                    .warehouseSection(value(values, "warehousesection"))
+                    .warehouseLevel(intValue(values, "warehouselevel"))
+                    .build();
+            return new ImportRow(line, dto, null);
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(line, null, e.getMessage());
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size())
+            return null;
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Double doubleValue(List<String> values, String column) {
+        String value = value(values, column);
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido para " + column + ": " + value);
+        }
+    }
+
+    private Integer intValue(List<String> values, String column) {
+        String value = value(values, column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor entero inválido para " + column + ": " + value);
+        }
+    }
+
+    private <E extends Enum<E>> E enumValue(Class<E> type, List<String> values, String column) {
+        String value = value(values, column);
+        try {
+            return value == null ? null : Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor inválido para " + column + ": " + value);
+        }
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica si el registro termina dentro de un campo entrecomillado. Un ""
+     * escapado abre y cierra, así que alcanza con la paridad de comillas
+     */
+    private static boolean hasOpenQuote(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"')
+                open = !open;
+        }
+        return open;
+    }
+
+    /**
+     * Separa un registro CSV respetando comillas dobles ("" dentro de un campo
+     * entrecomillado es una comilla literal)
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.common.search.InMemorySearchIndex;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Índice en memoria de materiales para el autocompletado de /materials/id-name-list.
+ * Indexa nombre, código y proveedor; los filtros de tipo y estado se aplican en memoria.
+ */
+@Component
+public class MaterialSearchIndex implements InstanceCache {
+
+    public static final String CACHE = "materialSearch";
+
+    private final InstanceCacheSync cacheSync;
+    private final InMemorySearchIndex<MaterialEntry> index;
+
+    public MaterialSearchIndex(MaterialRepository materialRepository, InstanceCacheSync cacheSync) {
+        this.cacheSync = cacheSync;
+        this.index = new InMemorySearchIndex<>(
+                MaterialEntry::id,
+                entry -> Arrays.asList(entry.name(), entry.code(), entry.supplier()),
+                () -> materialRepository.findAll().stream().map(MaterialEntry::of).toList());
+    }
+
+    /**
+     * Busca materiales por nombre, código o proveedor
+     *
+     * @param query  texto a buscar
+     * @param active null = todos, true = solo activos, false = solo inactivos
+     * @param types  tipos permitidos (null = sin restricción)
+     * @param limit  cantidad máxima de resultados
+     * @return materiales encontrados ordenados por id
+     */
+    public List<MaterialEntry> search(String query, Boolean active, Collection<MaterialType> types, int limit) {
+        return index.search(query,
+                entry -> (active == null || active == entry.active())
+                        && (types == null || types.contains(entry.type())),
+                limit);
+    }
+
+    /**
+     * Refleja en el índice el estado del material al confirmarse la transacción
+     */
+    public void index(Material material) {
+        cacheSync.changed(CACHE);
+        index.putAfterCommit(MaterialEntry.of(material));
+    }
+
+    public void invalidate() {
+        index.invalidate();
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    /**
+     * Otra instancia cambió los datos: se recarga en el próximo acceso
+     */
+    @Override
+    public void refresh() {
+        index.invalidate();
+    }
+
+    /**
+     * Snapshot inmutable de los campos de un material necesarios para buscar
+     */
+    public record MaterialEntry(Long id, String code, String name, String supplier, MaterialType type,
+            boolean active) {
+
+        static MaterialEntry of(Material material) {
+            return new MaterialEntry(material.getId(), material.getCode(), material.getName(),
+                    material.getSupplier(), material.getType(), Boolean.TRUE.equals(material.getIsActive()));
+        }
+    }
+}
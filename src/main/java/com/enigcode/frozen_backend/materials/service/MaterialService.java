@@ -1,28 +1,41 @@
 package com.enigcode.frozen_backend.materials.service;
 
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import com.enigcode.frozen_backend.materials.DTO.*;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import org.springframework.data.domain.Page;
+
+import java.io.InputStream;
 import java.util.List;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
 import org.springframework.data.domain.Pageable;
 
 public interface MaterialService {
     MaterialResponseDTO createMaterial(MaterialCreateDTO materialCreateDTO);
 
+    MaterialImportResultDTO importMaterials(InputStream input, MaterialImportFormat format);
+
     MaterialResponseDTO updateMaterial(Long id, MaterialUpdateDTO materialUpdateDTO);
 
     MaterialResponseDTO toggleActive(Long id);
 
     Page<MaterialResponseDTO> findAll(MaterialFilterDTO filterDTO, Pageable pageable);
 
+    CursorPageDTO<MaterialResponseDTO> findAllByCursor(MaterialFilterDTO filterDTO, Pageable pageable, String after,
+            boolean withCount);
+
     List<MaterialSimpleResponseDTO> getMaterialSimpleList(String name, Boolean active, Phase phase, MaterialType type);
 
     MaterialDetailDTO getMaterial(Long id);
 
+    List<MaterialResponseDTO> getLowStockMaterials();
+
     // Métodos para funcionalidad de almacén
     List<MaterialWarehouseLocationDTO> getWarehouseLocations(String zone, Boolean activeOnly);
 
+    String getWarehouseMapVersion();
+
     MaterialResponseDTO updateMaterialLocation(Long id, MaterialLocationUpdateDTO locationUpdateDTO);
 
     WarehouseInfoDTO getWarehouseInfo(com.enigcode.frozen_backend.materials.model.MaterialType materialType);
@@ -2,6 +2,9 @@ package com.enigcode.frozen_backend.materials.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.common.concurrency.RetryOnConflict;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
 import com.enigcode.frozen_backend.materials.DTO.*;
 import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
 import com.enigcode.frozen_backend.materials.model.WarehouseZone;
@@ -9,15 +12,25 @@ import com.enigcode.frozen_backend.materials.model.WarehouseZone;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import com.enigcode.frozen_backend.materials.mapper.MaterialMapper;
+import com.enigcode.frozen_backend.materials.repository.MaterialBulkRepository;
 import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -26,18 +39,32 @@ import com.enigcode.frozen_backend.materials.specification.MaterialSpecification
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
 
 import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
 import com.enigcode.frozen_backend.warehouse.service.WarehouseLayoutService;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MaterialServiceImpl implements MaterialService {
 
     final MaterialRepository materialRepository;
     final MaterialMapper materialMapper;
     final WarehouseLayoutService warehouseLayoutService;
+    final MaterialSearchIndex materialSearchIndex;
+    final WarehouseOccupancy warehouseOccupancy;
+    final LowStockWatchlist lowStockWatchlist;
+    final MaterialBulkRepository materialBulkRepository;
+    final ObjectMapper objectMapper;
+    final Validator validator;
+
+    private static final int SIMPLE_LIST_LIMIT = 10;
+    private static final int IMPORT_CHUNK_SIZE = 500;
 
     /**
      * Le asigna un codigo segun el tipo de material y la fecha de creacion
@@ -72,10 +99,133 @@ public class MaterialServiceImpl implements MaterialService {
         savedMaterial.setCode(code);
 
         Material finalMaterial = materialRepository.saveAndFlush(savedMaterial);
+        materialSearchIndex.index(finalMaterial);
+        warehouseOccupancy.record(finalMaterial);
+        lowStockWatchlist.record(finalMaterial);
 
         return materialMapper.toResponseDto(finalMaterial);
     }
 
+    /**
+     * Importa materiales en lote desde un CSV (con encabezado) o NDJSON.
+     * Cada fila se valida con las mismas reglas que createMaterial; las filas
+     * inválidas se informan con su número de línea sin cortar la importación.
+     * Los ids se reservan por bloques y los materiales se insertan por JDBC en
+     * lotes de IMPORT_CHUNK_SIZE, cada uno en su propia transacción.
+     *
+     * @param input  contenido del archivo (se lee en streaming)
+     * @param format formato del contenido
+     * @return cantidad de filas leídas, importadas y errores por fila
+     */
+    @Override
+    public MaterialImportResultDTO importMaterials(InputStream input, MaterialImportFormat format) {
+        MaterialImportResultDTO result = new MaterialImportResultDTO();
+        Deque<Long> ids = new ArrayDeque<>();
+        List<MaterialImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        boolean writeFailed = false;
+
+        try (MaterialImportReader reader = new MaterialImportReader(input, format, objectMapper)) {
+            MaterialImportReader.ImportRow row;
+            while ((row = reader.next()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+                if (row.error() != null) {
+                    result.addError(row.line(), row.error());
+                    continue;
+                }
+                try {
+                    Material material = toImportedMaterial(row.material());
+                    if (ids.isEmpty())
+                        ids.addAll(materialBulkRepository.nextIds(IMPORT_CHUNK_SIZE));
+                    material.setId(ids.poll());
+                    material.setCode(generateCode(material.getType(), material.getId()));
+                    // Se registra ya para que la asignación automática de la fila siguiente lo vea
+                    warehouseOccupancy.record(material);
+                    chunk.add(new MaterialImportRow(row.line(), material));
+                } catch (BadRequestException e) {
+                    result.addError(row.line(), e.getMessage());
+                }
+
+                if (chunk.size() >= IMPORT_CHUNK_SIZE)
+                    writeFailed |= !writeImportChunk(chunk, result);
+            }
+            writeFailed |= !writeImportChunk(chunk, result);
+        } catch (IOException e) {
+            throw new BadRequestException("No se pudo leer el archivo de importación: " + e.getMessage());
+        } finally {
+            // Las inserciones por JDBC no pasan por JPA ni por los índices en memoria
+            materialSearchIndex.invalidate();
+            lowStockWatchlist.invalidate();
+            if (writeFailed)
+                warehouseOccupancy.invalidate();
+        }
+
+        log.info("Importación de materiales: {} filas, {} importadas, {} con error",
+                result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private record MaterialImportRow(long line, Material material) {
+    }
+
+    /**
+     * Valida una fila y arma el material con los mismos valores por defecto y
+     * reglas de ubicación que createMaterial
+     */
+    private Material toImportedMaterial(MaterialCreateDTO dto) {
+        Set<ConstraintViolation<MaterialCreateDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        Material material = materialMapper.toEntity(dto);
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        material.setCreationDate(now);
+        material.setLastUpdateDate(now);
+        material.setIsActive(Boolean.TRUE);
+        if (material.getStock() == null)
+            material.setStock(0.0);
+        if (material.getReservedStock() == null)
+            material.setReservedStock(0.0);
+
+        assignWarehouseLocationIfNeeded(material, dto);
+        materialUnitVerification(material);
+        return material;
+    }
+
+    /**
+     * Escribe un lote de materiales. Si el batch falla se reintenta fila por
+     * fila para informar cuáles fallaron y guardar el resto.
+     *
+     * @return false si alguna fila no se pudo guardar
+     */
+    private boolean writeImportChunk(List<MaterialImportRow> chunk, MaterialImportResultDTO result) {
+        if (chunk.isEmpty())
+            return true;
+        List<Material> materials = chunk.stream().map(MaterialImportRow::material).toList();
+        boolean ok = true;
+        try {
+            materialBulkRepository.insertAll(materials);
+            result.setImported(result.getImported() + materials.size());
+        } catch (DataAccessException e) {
+            log.warn("Falló el lote de importación de materiales, se reintenta fila por fila: {}", e.getMessage());
+            for (MaterialImportRow row : chunk) {
+                try {
+                    materialBulkRepository.insertAll(List.of(row.material()));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException rowError) {
+                    ok = false;
+                    result.addError(row.line(), "No se pudo guardar el material: "
+                            + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        return ok;
+    }
+
     /**
      * Funcion que verifica que un material de tipo ENVASE tenga la unidad
      * correspondiente UNIDAD o
@@ -123,6 +273,7 @@ public class MaterialServiceImpl implements MaterialService {
      * @return MaterialResponseDTO
      */
     @Override
+    @RetryOnConflict
     @Transactional
     public MaterialResponseDTO updateMaterial(@NonNull Long id, MaterialUpdateDTO materialUpdateDTO) {
         Material originalMaterial = materialRepository.findById(id)
@@ -146,6 +297,9 @@ public class MaterialServiceImpl implements MaterialService {
         materialUnitVerification(updatedMaterial);
 
         Material savedUpdatedMaterial = materialRepository.save(updatedMaterial);
+        materialSearchIndex.index(savedUpdatedMaterial);
+        warehouseOccupancy.record(savedUpdatedMaterial);
+        lowStockWatchlist.record(savedUpdatedMaterial);
 
         return materialMapper.toResponseDto(savedUpdatedMaterial);
     }
@@ -157,6 +311,7 @@ public class MaterialServiceImpl implements MaterialService {
      * @return materialResponseDTO
      */
     @Override
+    @RetryOnConflict
     @Transactional
     public MaterialResponseDTO toggleActive(@NonNull Long id) {
         Material material = materialRepository.findById(id)
@@ -164,6 +319,9 @@ public class MaterialServiceImpl implements MaterialService {
         material.toggleActive();
 
         Material savedMaterial = materialRepository.save(material);
+        materialSearchIndex.index(savedMaterial);
+        warehouseOccupancy.record(savedMaterial);
+        lowStockWatchlist.record(savedMaterial);
 
         return materialMapper.toResponseDto(savedMaterial);
     }
@@ -189,10 +347,19 @@ public class MaterialServiceImpl implements MaterialService {
         return materials.map(materialMapper::toResponseDto);
     }
 
+    @Override
+    public CursorPageDTO<MaterialResponseDTO> findAllByCursor(MaterialFilterDTO filterDTO, Pageable pageable,
+            String after, boolean withCount) {
+        return Keyset.fetch(materialRepository, MaterialSpecification.createFilter(filterDTO), pageable, after,
+                withCount).map(materialMapper::toResponseDto);
+    }
+
     /**
-     * Funcion para mostrar una lista simple de materiales (id y nombre)
+     * Funcion para mostrar una lista simple de materiales (id, codigo y nombre).
+     * Se resuelve contra el indice en memoria (nombre, codigo y proveedor) sin
+     * consultar la base de datos.
      * 
-     * @return Lista con id y nombre de todos los materiales
+     * @return Lista con id, codigo y nombre de hasta 10 materiales
      */
     @Override
     public List<MaterialSimpleResponseDTO> getMaterialSimpleList(String name, Boolean active, Phase phase,
@@ -200,47 +367,17 @@ public class MaterialServiceImpl implements MaterialService {
         if (name == null || name.trim().isEmpty()) {
             return List.of();
         }
-        String q = name.trim();
-        List<Material> results;
 
-        // Handle Phase filter (takes precedence over type if both are provided)
+        // El filtro por fase tiene prioridad sobre el tipo si se envian ambos
+        List<MaterialType> types = null;
         if (phase != null) {
-            List<MaterialType> validMaterialTypes = getValidMaterialTypesForPhase(phase);
-            if (active == null) {
-                results = materialRepository.findTop10ByTypeInAndNameContainingIgnoreCase(validMaterialTypes, q);
-            } else if (active) {
-                results = materialRepository
-                        .findTop10ByTypeInAndNameContainingIgnoreCaseAndIsActiveTrue(validMaterialTypes, q);
-            } else {
-                results = materialRepository
-                        .findTop10ByTypeInAndNameContainingIgnoreCaseAndIsActiveFalse(validMaterialTypes, q);
-            }
-        }
-        // Handle MaterialType filter (only if phase is not provided)
-        else if (type != null) {
-            if (active == null) {
-                results = materialRepository.findTop10ByTypeInAndNameContainingIgnoreCase(List.of(type), q);
-            } else if (active) {
-                results = materialRepository.findTop10ByTypeInAndNameContainingIgnoreCaseAndIsActiveTrue(List.of(type),
-                        q);
-            } else {
-                results = materialRepository.findTop10ByTypeInAndNameContainingIgnoreCaseAndIsActiveFalse(List.of(type),
-                        q);
-            }
-        }
-        // No type or phase filter
-        else {
-            if (active == null) {
-                results = materialRepository.findTop10ByNameContainingIgnoreCase(q);
-            } else if (active) {
-                results = materialRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrue(q);
-            } else {
-                results = materialRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveFalse(q);
-            }
+            types = getValidMaterialTypesForPhase(phase);
+        } else if (type != null) {
+            types = List.of(type);
         }
 
-        return results.stream()
-                .map(m -> new MaterialSimpleResponseDTO(m.getId(), m.getCode(), m.getName()))
+        return materialSearchIndex.search(name.trim(), active, types, SIMPLE_LIST_LIMIT).stream()
+                .map(m -> new MaterialSimpleResponseDTO(m.id(), m.code(), m.name()))
                 .collect(Collectors.toList());
     }
 
@@ -286,7 +423,14 @@ public class MaterialServiceImpl implements MaterialService {
 
     // Métodos para funcionalidad de almacén
 
+    /**
+     * Ubicaciones de materiales con coordenadas para el mapa del almacén. Se
+     * cachea por zona / activeOnly y versión de materiales, de modo que
+     * cualquier cambio confirmado, en esta u otra instancia, invalida todas
+     * las entradas.
+     */
     @Override
+    @Cacheable(value = "warehouseMap", key = "#root.target.getWarehouseMapVersion() + ':' + #zone + ':' + #activeOnly")
     public List<MaterialWarehouseLocationDTO> getWarehouseLocations(String zone, Boolean activeOnly) {
         List<Material> materials;
 
@@ -329,7 +473,28 @@ public class MaterialServiceImpl implements MaterialService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Materiales activos con stock disponible por debajo del umbral, leídos de
+     * la lista en memoria
+     *
+     * @return List<MaterialResponseDTO>
+     */
     @Override
+    public List<MaterialResponseDTO> getLowStockMaterials() {
+        return lowStockWatchlist.getMaterials();
+    }
+
+    /**
+     * Versión de los materiales tomada de la base (cantidad, id máximo y suma
+     * de @Version), común a todas las instancias
+     */
+    @Override
+    public String getWarehouseMapVersion() {
+        return materialRepository.findChangeVersion();
+    }
+
+    @Override
+    @RetryOnConflict
     @Transactional
     public MaterialResponseDTO updateMaterialLocation(@NonNull Long id, MaterialLocationUpdateDTO locationUpdateDTO) {
         Material material = materialRepository.findById(id)
@@ -349,31 +514,34 @@ public class MaterialServiceImpl implements MaterialService {
         material.setLastUpdateDate(OffsetDateTime.now(ZoneOffset.UTC));
 
         Material savedMaterial = materialRepository.save(material);
+        warehouseOccupancy.record(savedMaterial);
+
         return materialMapper.toResponseDto(savedMaterial);
     }
 
+    /**
+     * Información de zonas, ocupación y ubicación sugerida. Se resuelve contra el
+     * mapa de ocupación en memoria sin consultar la base de datos.
+     */
     @Override
     public WarehouseInfoDTO getWarehouseInfo(MaterialType materialType) {
         // Obtener zonas disponibles con información
         List<WarehouseInfoDTO.ZoneInfoDTO> availableZones = java.util.Arrays.stream(
                 WarehouseZone.values())
-                .map(zone -> {
-                    List<String> usedSections = materialRepository.findWarehouseSectionsByZone(zone);
-                    return WarehouseInfoDTO.ZoneInfoDTO.builder()
-                            .name(zone.name())
-                            .displayName(zone.getDisplayName())
-                            .totalSections(zone.getAvailableSections().size())
-                            .occupiedSections(usedSections.size())
-                            .availableSections(zone.getAvailableSections())
-                            .build();
-                })
+                .map(zone -> WarehouseInfoDTO.ZoneInfoDTO.builder()
+                        .name(zone.name())
+                        .displayName(zone.getDisplayName())
+                        .totalSections(zone.getAvailableSections().size())
+                        .occupiedSections(warehouseOccupancy.occupiedSections(zone))
+                        .availableSections(zone.getAvailableSections())
+                        .build())
                 .collect(Collectors.toList());
 
         // Sugerir ubicación para el tipo de material
         WarehouseInfoDTO.SuggestedLocationDTO suggestedLocation = null;
         if (materialType != null) {
             WarehouseZone suggestedZone = WarehouseZone.getDefaultZoneForMaterialType(materialType);
-            String suggestedSection = getNextAvailableSection(suggestedZone);
+            String suggestedSection = warehouseOccupancy.nextAvailableSection(suggestedZone);
 
             suggestedLocation = WarehouseInfoDTO.SuggestedLocationDTO.builder()
                     .zone(suggestedZone.name())
@@ -386,32 +554,16 @@ public class MaterialServiceImpl implements MaterialService {
         Map<String, Long> materialsByZone = java.util.Arrays.stream(WarehouseZone.values())
                 .collect(Collectors.toMap(
                         zone -> zone.name(),
-                        zone -> materialRepository.countByWarehouseZone(zone)));
+                        warehouseOccupancy::materialCount));
 
         return WarehouseInfoDTO.builder()
                 .availableZones(availableZones)
                 .suggestedLocation(suggestedLocation)
                 .materialsByZone(materialsByZone)
-                .totalMaterials(materialRepository.count())
+                .totalMaterials(warehouseOccupancy.totalMaterials())
                 .build();
     }
 
-    private String getNextAvailableSection(WarehouseZone zone) {
-        // Obtener secciones ocupadas en esta zona
-        List<String> usedSections = materialRepository.findWarehouseSectionsByZone(zone);
-
-        // Buscar la primera sección disponible de las predefinidas para esta zona
-        for (String section : zone.getAvailableSections()) {
-            if (!usedSections.contains(section)) {
-                return section;
-            }
-        }
-
-        // Si todas las secciones están ocupadas, devolver la primera (permite múltiples
-        // niveles)
-        return zone.getAvailableSections().get(0);
-    }
-
     // Método para asignar ubicación automática en la creación
     private void assignWarehouseLocationIfNeeded(Material material, MaterialCreateDTO dto) {
         // Si no se proporcionó zona, asignar por tipo de material
@@ -423,7 +575,7 @@ public class MaterialServiceImpl implements MaterialService {
 
         // Si no se proporcionó sección, asignar la primera disponible
         if (dto.getWarehouseSection() == null || dto.getWarehouseSection().trim().isEmpty()) {
-            material.setWarehouseSection(getNextAvailableSection(material.getWarehouseZone()));
+            material.setWarehouseSection(warehouseOccupancy.nextAvailableSection(material.getWarehouseZone()));
         } else {
             // Validar que la sección es válida para la zona
             if (!material.getWarehouseZone().isValidSection(dto.getWarehouseSection())) {
@@ -0,0 +1,124 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.materials.model.Material;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks en memoria por material para las operaciones que modifican stock.
+ * Serializan dentro del nodo las transacciones sobre un mismo material, de
+ * modo que el control optimista de Material (@Version) solo tenga que
+ * resolver los conflictos entre nodos.
+ *
+ * Los materiales se reparten en una cantidad fija de locks (por hash del
+ * id): dos materiales pueden compartir lock, pero la memoria no crece con la
+ * cantidad de materiales. Los locks se toman en orden de índice, para no
+ * generar deadlocks entre operaciones con varios materiales, y se liberan al
+ * terminar la transacción (commit o rollback).
+ */
+@Component
+public class MaterialStockLocks {
+
+    private static final int STRIPES = 64; // potencia de 2
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MaterialStockLocks() {
+        for (int i = 0; i < STRIPES; i++)
+            locks[i] = new ReentrantLock();
+    }
+
+    /**
+     * Toma el lock del material hasta el fin de la transacción. Debe llamarse
+     * antes de leer el material (o las entidades que lo referencian) para
+     * leer el estado confirmado por la operación anterior.
+     */
+    public void lock(Long materialId) {
+        acquire(List.of(materialId));
+    }
+
+    /**
+     * Toma los locks de los materiales hasta el fin de la transacción y
+     * devuelve, por id, la instancia con el estado actual de cada uno (los
+     * materiales recibidos pueden haberse leído antes del lock o en otra
+     * transacción)
+     */
+    public Map<Long, Material> lockAll(Collection<Material> materials) {
+        acquire(materials.stream().map(Material::getId).toList());
+        Map<Long, Material> current = new LinkedHashMap<>();
+        for (Material material : materials)
+            current.computeIfAbsent(material.getId(), id -> current(material));
+        return current;
+    }
+
+    /**
+     * Toma los locks de los materiales hasta el fin de la transacción sin
+     * leerlos. Debe llamarse antes de cargar los materiales (o las entidades
+     * que los referencian) para leer el estado confirmado
+     */
+    public void lockAllById(Collection<Long> materialIds) {
+        acquire(materialIds);
+    }
+
+    static int stripe(Long materialId) {
+        int h = materialId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void acquire(Collection<Long> materialIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Los locks de stock requieren una transacción activa");
+
+        List<ReentrantLock> acquired = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = acquired.size() - 1; i >= 0; i--)
+                    acquired.get(i).unlock();
+            }
+        });
+
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long materialId : materialIds)
+            stripes.add(stripe(materialId));
+        for (int stripe : stripes) {
+            ReentrantLock lock = locks[stripe];
+            try {
+                if (!lock.tryLock(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                    throw new CannotAcquireLockException("Tiempo de espera agotado para modificar el stock");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrumpido esperando para modificar el stock", e);
+            }
+            acquired.add(lock);
+        }
+    }
+
+    private Material current(Material material) {
+        if (!entityManager.contains(material))
+            return entityManager.find(Material.class, material.getId());
+        // Un proxy sin inicializar se leerá después del lock; una instancia ya
+        // cargada puede estar desactualizada
+        if (Hibernate.isInitialized(material))
+            entityManager.refresh(material);
+        return material;
+    }
+}
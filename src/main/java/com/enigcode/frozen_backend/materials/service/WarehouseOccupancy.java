@@ -0,0 +1,324 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.materials.DTO.MaterialLocationProjectionDTO;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapa de ocupación del almacén en memoria. Por cada zona mantiene un bitset de
+ * secciones ocupadas y otro de posiciones sección × nivel, con contadores para
+ * poder liberar una posición cuando el último material la deja.
+ *
+ * Reemplaza las consultas por zona (secciones usadas y cantidad de materiales)
+ * de /materials/warehouse-info y de la asignación automática de sección. Se
+ * carga una vez desde la base y se actualiza al confirmarse las transacciones
+ * de MaterialService que cambian la ubicación de un material; las demás
+ * instancias reciben el aviso y se reconcilian. Los cambios que no pasan por
+ * ahí (un hook fallido, un aviso perdido, SQL directo) los corrige la
+ * reconciliación periódica.
+ */
+@Component
+@Slf4j
+public class WarehouseOccupancy implements InstanceCache {
+
+    public static final String CACHE = "warehouseOccupancy";
+
+    private static final int LEVELS = WarehouseZone.MAX_LEVEL;
+
+    private final MaterialRepository materialRepository;
+    private final InstanceCacheSync cacheSync;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Location> locations = new HashMap<>();
+    private final Map<WarehouseZone, ZoneOccupancy> zones = new EnumMap<>(WarehouseZone.class);
+    private volatile boolean loaded = false;
+
+    public WarehouseOccupancy(MaterialRepository materialRepository, InstanceCacheSync cacheSync) {
+        this.materialRepository = materialRepository;
+        this.cacheSync = cacheSync;
+        for (WarehouseZone zone : WarehouseZone.values())
+            zones.put(zone, new ZoneOccupancy(zone));
+    }
+
+    /**
+     * Cantidad de secciones distintas con al menos un material en la zona
+     */
+    public int occupiedSections(WarehouseZone zone) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return zones.get(zone).occupiedSectionCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de materiales (activos o no) ubicados en la zona
+     */
+    public long materialCount(WarehouseZone zone) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return zones.get(zone).materials;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad total de materiales, tengan o no ubicación
+     */
+    public long totalMaterials() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return locations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Primera sección sin materiales de la zona, en el orden predefinido. Si
+     * todas están ocupadas devuelve la primera (permite múltiples niveles).
+     */
+    public String nextAvailableSection(WarehouseZone zone) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int free = zones.get(zone).occupiedSections.nextClearBit(0);
+            List<String> sections = zone.getAvailableSections();
+            return sections.get(free < sections.size() ? free : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si hay algún material en la posición zona / sección / nivel
+     */
+    public boolean isOccupied(WarehouseZone zone, String section, Integer level) {
+        int slot = slotIndex(zone, section, level);
+        if (slot < 0)
+            return false;
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return zones.get(zone).occupiedSlots.get(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja la ubicación actual del material al confirmarse la transacción
+     */
+    public void record(Material material) {
+        Location location = Location.of(material);
+        cacheSync.changed(CACHE);
+        TransactionUtil.runAfterCommit(() -> update(material.getId(), location));
+    }
+
+    /**
+     * Descarta el contenido para que se recargue en el próximo acceso
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    /**
+     * Otra instancia cambió ubicaciones: se reconcilia con la base
+     */
+    @Override
+    public void refresh() {
+        reconcile();
+    }
+
+    /**
+     * Compara el mapa con las ubicaciones de la base y, si difieren, lo
+     * reconstruye. Un cambio confirmado mientras se consulta puede quedar
+     * pisado hasta la próxima pasada
+     *
+     * @return cantidad de materiales cuya ubicación no coincidía
+     */
+    public int reconcile() {
+        if (!loaded) // se cargará completo en el próximo acceso
+            return 0;
+        Map<Long, Location> actual = new HashMap<>();
+        for (MaterialLocationProjectionDTO row : materialRepository.findAllWarehouseLocations())
+            actual.put(row.getId(), Location.of(row));
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                return 0;
+            int drifted = 0;
+            for (Map.Entry<Long, Location> entry : actual.entrySet())
+                if (!Objects.equals(locations.get(entry.getKey()), entry.getValue()))
+                    drifted++;
+            for (Long id : locations.keySet())
+                if (!actual.containsKey(id))
+                    drifted++;
+            if (drifted > 0) {
+                log.warn("Mapa de ocupación del almacén desfasado en {} materiales, se reconstruye", drifted);
+                clear();
+                actual.forEach(this::move);
+            }
+            return drifted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Long id, Location location) {
+        if (id == null)
+            return;
+        lock.writeLock().lock();
+        try {
+            if (loaded) // si no, se incluirá en la carga inicial
+                move(id, location);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded)
+            return;
+        lock.writeLock().lock();
+        try {
+            if (loaded)
+                return;
+            clear();
+            for (MaterialLocationProjectionDTO row : materialRepository.findAllWarehouseLocations())
+                move(row.getId(), Location.of(row));
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        locations.clear();
+        for (WarehouseZone zone : WarehouseZone.values())
+            zones.put(zone, new ZoneOccupancy(zone));
+    }
+
+    private void move(Long id, Location location) {
+        Location previous = locations.put(id, location);
+        if (location.equals(previous))
+            return;
+        if (previous != null && previous.zone() != null)
+            zones.get(previous.zone()).remove(previous);
+        if (location.zone() != null)
+            zones.get(location.zone()).add(location);
+    }
+
+    private static int slotIndex(WarehouseZone zone, String section, Integer level) {
+        int sectionIndex = zone == null ? -1 : zone.getAvailableSections().indexOf(section);
+        if (sectionIndex < 0 || !WarehouseZone.isValidLevel(level))
+            return -1;
+        return sectionIndex * LEVELS + (level - 1);
+    }
+
+    private record Location(WarehouseZone zone, String section, Integer level) {
+
+        static Location of(Material material) {
+            return new Location(material.getWarehouseZone(), material.getWarehouseSection(),
+                    material.getWarehouseLevel());
+        }
+
+        static Location of(MaterialLocationProjectionDTO row) {
+            return new Location(row.getWarehouseZone(), row.getWarehouseSection(), row.getWarehouseLevel());
+        }
+    }
+
+    /**
+     * Ocupación de una zona. Las secciones fuera de la lista predefinida (datos
+     * históricos) se cuentan aparte para que el total de secciones ocupadas
+     * coincida con la consulta DISTINCT de la tabla.
+     */
+    private static final class ZoneOccupancy {
+
+        private final WarehouseZone zone;
+        private final int[] sectionCounts;
+        private final int[] slotCounts;
+        private final BitSet occupiedSections;
+        private final BitSet occupiedSlots;
+        private final Map<String, Integer> otherSections = new HashMap<>();
+        private long materials = 0;
+
+        ZoneOccupancy(WarehouseZone zone) {
+            int sections = zone.getAvailableSections().size();
+            this.zone = zone;
+            this.sectionCounts = new int[sections];
+            this.slotCounts = new int[sections * LEVELS];
+            this.occupiedSections = new BitSet(sections);
+            this.occupiedSlots = new BitSet(sections * LEVELS);
+        }
+
+        int occupiedSectionCount() {
+            return occupiedSections.cardinality() + otherSections.size();
+        }
+
+        void add(Location location) {
+            materials++;
+            if (location.section() == null)
+                return;
+            int sectionIndex = zone.getAvailableSections().indexOf(location.section());
+            if (sectionIndex < 0) {
+                otherSections.merge(location.section(), 1, Integer::sum);
+                return;
+            }
+            if (sectionCounts[sectionIndex]++ == 0)
+                occupiedSections.set(sectionIndex);
+            int slot = slotIndex(zone, location.section(), location.level());
+            if (slot >= 0 && slotCounts[slot]++ == 0)
+                occupiedSlots.set(slot);
+        }
+
+        void remove(Location location) {
+            materials--;
+            if (location.section() == null)
+                return;
+            int sectionIndex = zone.getAvailableSections().indexOf(location.section());
+            if (sectionIndex < 0) {
+                otherSections.computeIfPresent(location.section(), (k, n) -> n > 1 ? n - 1 : null);
+                return;
+            }
+            if (--sectionCounts[sectionIndex] == 0)
+                occupiedSections.clear(sectionIndex);
+            int slot = slotIndex(zone, location.section(), location.level());
+            if (slot >= 0 && --slotCounts[slot] == 0)
+                occupiedSlots.clear(slot);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.enigcode.frozen_backend.materials.task;
+
+import com.enigcode.frozen_backend.materials.service.WarehouseOccupancy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciliación periódica del mapa de ocupación del almacén en memoria
+ */
+@Component
+@RequiredArgsConstructor
+public class WarehouseOccupancyTask {
+
+    private final WarehouseOccupancy warehouseOccupancy;
+
+    @Scheduled(fixedDelayString = "${app.warehouse.occupancy.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        warehouseOccupancy.reconcile();
+    }
+}
@@ -0,0 +1,6 @@
+package com.enigcode.frozen_backend.movements.DTO;
+
+public interface MaterialStockDeltaProjectionDTO {
+    Long getMaterialId();
+    Double getDelta();
+}
@@ -0,0 +1,19 @@
+package com.enigcode.frozen_backend.movements.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovementBulkRequestDTO {
+    @NotEmpty(message = "Debe indicar al menos un movimiento")
+    @Size(max = 100, message = "Se pueden procesar hasta 100 movimientos por operación")
+    private List<@NotNull Long> movementIds;
+}
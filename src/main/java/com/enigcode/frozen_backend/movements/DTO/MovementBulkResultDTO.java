@@ -0,0 +1,43 @@
+package com.enigcode.frozen_backend.movements.DTO;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovementBulkResultDTO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    @Builder.Default
+    private List<ItemResultDTO> results = new ArrayList<>();
+
+    public void addSuccess(Long movementId, MovementResponseDTO movement) {
+        total++;
+        succeeded++;
+        results.add(new ItemResultDTO(movementId, true, null, movement));
+    }
+
+    public void addFailure(Long movementId, String error) {
+        total++;
+        failed++;
+        results.add(new ItemResultDTO(movementId, false, error, null));
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResultDTO {
+        private Long movementId;
+        private boolean success;
+        private String error;
+        private MovementResponseDTO movement;
+    }
+}
@@ -0,0 +1,17 @@
+package com.enigcode.frozen_backend.movements.DTO;
+
+import java.time.OffsetDateTime;
+import lombok.*;
+
+/**
+ * Stock total (disponible + reservado) de un material en una fecha
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockPointDTO {
+    private OffsetDateTime date;
+    private Double totalStock;
+}
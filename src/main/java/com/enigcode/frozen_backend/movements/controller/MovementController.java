@@ -1,25 +1,38 @@
 package com.enigcode.frozen_backend.movements.controller;
 
+import com.enigcode.frozen_backend.common.export.ExportDownload;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.movements.DTO.MovementBulkRequestDTO;
+import com.enigcode.frozen_backend.movements.DTO.MovementBulkResultDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementCreateDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementDetailDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementResponseDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementFilterDTO;
+import com.enigcode.frozen_backend.movements.DTO.StockPointDTO;
 import com.enigcode.frozen_backend.movements.service.MovementService;
+import com.enigcode.frozen_backend.movements.service.StockHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import java.time.OffsetDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/movements")
@@ -27,6 +40,10 @@ import org.springframework.web.bind.annotation.*;
 public class MovementController {
 
     final MovementService movementService;
+    final StockHistoryService stockHistoryService;
+
+    @Value("${app.export.timeout-seconds:600}")
+    private long exportTimeoutSeconds = 600;
 
     @Operation(summary = "Registrar movimiento", description = "Registra un nuevo movimiento relacionado con un material, restando o sumando el stock del mismo")
     @PostMapping
@@ -47,12 +64,18 @@ public class MovementController {
         return new ResponseEntity<>(movementDetailDTO, HttpStatus.OK);
     }
 
-    @Operation(summary = "Obtener movimientos", description = "Obtiene todos los movimientos con paginación y filtros")
+    @Operation(summary = "Obtener movimientos", description = "Obtiene todos los movimientos con paginación y filtros. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
     @GetMapping
     @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN') or hasRole('OPERARIO_DE_ALMACEN') or hasRole('GERENTE_DE_PLANTA')")
     public ResponseEntity<Map<String, Object>> getMovements(
             MovementFilterDTO filterDTO,
-            @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withCount) {
+        if (after != null)
+            return ResponseEntity.ok(movementService.findAllByCursor(filterDTO, pageable, after, withCount)
+                    .toResponse("content"));
+
         Page<MovementResponseDTO> pageResponse = movementService.findAll(filterDTO, pageable);
 
         // Metadata de la página para el frontend
@@ -69,6 +92,15 @@ public class MovementController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Exportar movimientos", description = "Descarga como CSV o NDJSON (format) todos los movimientos que cumplen los filtros, sin paginar. Las filas se envían a medida que se leen de la base")
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN') or hasRole('OPERARIO_DE_ALMACEN') or hasRole('GERENTE_DE_PLANTA')")
+    public WebAsyncTask<Void> exportMovements(MovementFilterDTO filterDTO,
+            @RequestParam(defaultValue = "CSV") ExportFormat format, HttpServletResponse response) {
+        return ExportDownload.of(response, format, "movimientos", exportTimeoutSeconds,
+                out -> movementService.exportMovements(filterDTO, format, out));
+    }
+
     @Operation(summary = "Marcar movimiento como en proceso", description = "Marca un movimiento pendiente como en proceso. Solo para operarios de almacén.")
     @PatchMapping("/{id}/in-progress")
     @PreAuthorize("hasRole('OPERARIO_DE_ALMACEN')")
@@ -77,6 +109,15 @@ public class MovementController {
         return ResponseEntity.ok(inProgressMovement);
     }
 
+    @Operation(summary = "Tomar próximos movimientos", description = "Asigna al operario los próximos movimientos pendientes (más antiguos primero), opcionalmente de una zona del almacén. Los que otro operario está tomando se saltean.")
+    @PostMapping("/claim")
+    @PreAuthorize("hasRole('OPERARIO_DE_ALMACEN')")
+    public ResponseEntity<List<MovementResponseDTO>> claimNextMovements(
+            @RequestParam(defaultValue = "1") int count,
+            @RequestParam(required = false) WarehouseZone zone) {
+        return ResponseEntity.ok(movementService.claimNextMovements(count, zone));
+    }
+
     @Operation(summary = "Completar movimiento pendiente", description = "Completa un movimiento pendiente ejecutando el cambio de stock. Solo para operarios de almacén.")
     @PatchMapping("/{id}/complete")
     @PreAuthorize("hasRole('OPERARIO_DE_ALMACEN')")
@@ -85,4 +126,39 @@ public class MovementController {
         return ResponseEntity.ok(completedMovement);
     }
 
+    @Operation(summary = "Completar movimientos en lote", description = "Completa varios movimientos pendientes en una sola operación, informando el resultado de cada uno. Solo para operarios de almacén.")
+    @PatchMapping("/bulk/complete")
+    @PreAuthorize("hasRole('OPERARIO_DE_ALMACEN')")
+    public ResponseEntity<MovementBulkResultDTO> completeMovements(
+            @Valid @RequestBody MovementBulkRequestDTO request) {
+        return ResponseEntity.ok(movementService.completeMovements(request.getMovementIds()));
+    }
+
+    @Operation(summary = "Marcar movimientos como en proceso en lote", description = "Marca varios movimientos pendientes como en proceso en una sola operación, informando el resultado de cada uno. Solo para operarios de almacén.")
+    @PatchMapping("/bulk/in-progress")
+    @PreAuthorize("hasRole('OPERARIO_DE_ALMACEN')")
+    public ResponseEntity<MovementBulkResultDTO> takeMovementsInProgress(
+            @Valid @RequestBody MovementBulkRequestDTO request) {
+        return ResponseEntity.ok(movementService.takeMovementsInProgress(request.getMovementIds()));
+    }
+
+    @Operation(summary = "Stock histórico", description = "Stock total (disponible + reservado) de un material en una fecha, reconstruido desde los movimientos")
+    @GetMapping("/stock-as-of")
+    @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN') or hasRole('OPERARIO_DE_ALMACEN') or hasRole('GERENTE_DE_PLANTA')")
+    public ResponseEntity<StockPointDTO> getStockAsOf(
+            @RequestParam Long materialId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime date) {
+        return ResponseEntity.ok(stockHistoryService.getStockAsOf(materialId, date));
+    }
+
+    @Operation(summary = "Evolución del stock", description = "Stock total de un material entre dos fechas, con un punto por cada ingreso o egreso completado")
+    @GetMapping("/stock-history")
+    @PreAuthorize("hasRole('SUPERVISOR_DE_ALMACEN') or hasRole('OPERARIO_DE_ALMACEN') or hasRole('GERENTE_DE_PLANTA')")
+    public ResponseEntity<List<StockPointDTO>> getStockHistory(
+            @RequestParam Long materialId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return ResponseEntity.ok(stockHistoryService.getStockHistory(materialId, from, to));
+    }
+
 }
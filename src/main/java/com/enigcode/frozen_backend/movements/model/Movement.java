@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.movements.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.materials.model.Material;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -10,7 +11,10 @@ import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "movements")
+// Índice para la paginación por cursor sobre (fecha de creación, id)
+@Table(name = "movements", indexes = {
+    @Index(name = "IDX_movements_creation_date_id", columnList = "creation_date, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +24,7 @@ public class Movement {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movements_gen")
-    @SequenceGenerator(name = "movements_gen", sequenceName = "movements_seq", allocationSize = 1)
+    @SequenceGenerator(name = "movements_gen", sequenceName = "movements_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
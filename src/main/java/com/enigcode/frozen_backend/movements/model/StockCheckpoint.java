@@ -0,0 +1,44 @@
+package com.enigcode.frozen_backend.movements.model;
+
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
+import com.enigcode.frozen_backend.materials.model.Material;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Stock total (stock + reservedStock) de un material al cierre de un
+ * intervalo. Incluye todos los movimientos completados con fecha de
+ * realización menor o igual a checkpointDate.
+ */
+@Entity
+@Table(name = "stock_checkpoints", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"id_material", "checkpoint_date"}, name = "UK_stock_checkpoint_material_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_checkpoints_gen")
+    @SequenceGenerator(name = "stock_checkpoints_gen", sequenceName = "stock_checkpoints_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_material")
+    @NotNull
+    private Material material;
+
+    @Column(name = "checkpoint_date")
+    @NotNull
+    private OffsetDateTime checkpointDate;
+
+    @Column(name = "total_stock")
+    @NotNull
+    private Double totalStock;
+}
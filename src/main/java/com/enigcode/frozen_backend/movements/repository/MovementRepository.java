@@ -1,18 +1,118 @@
 package com.enigcode.frozen_backend.movements.repository;
 
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.movements.DTO.MaterialStockDeltaProjectionDTO;
 import com.enigcode.frozen_backend.movements.model.Movement;
 import com.enigcode.frozen_backend.movements.model.MovementStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface MovementRepository extends JpaRepository<Movement, Long>, JpaSpecificationExecutor<Movement> {
 
+    /**
+     * Variación del stock total que produce un movimiento completado: los
+     * ingresos suman, los egresos (directos o desde reserva) restan y las
+     * reservas/devoluciones solo pasan cantidad entre stock y reservedStock
+     */
+    String STOCK_DELTA = "CASE WHEN m.type = com.enigcode.frozen_backend.movements.model.MovementType.INGRESO THEN m.stock "
+            + "WHEN m.type = com.enigcode.frozen_backend.movements.model.MovementType.EGRESO THEN -m.stock ELSE 0 END";
+
+    String COMPLETED = "m.status = com.enigcode.frozen_backend.movements.model.MovementStatus.COMPLETADO";
+
     /**
      * Busca movimientos por estado, ordenados por fecha de creación
      */
     Page<Movement> findByStatusOrderByCreationDateAsc(MovementStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Próximos movimientos disponibles para tomar (pendientes o en proceso con
+     * la toma vencida), más antiguos primero. Las filas quedan bloqueadas hasta
+     * el fin de la transacción y se saltean las que otro operario está tomando
+     * (FOR UPDATE SKIP LOCKED; lock.timeout -2 es SKIP_LOCKED en Hibernate).
+     * La zona se filtra con una subconsulta para no bloquear materiales.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM Movement m WHERE (m.status = com.enigcode.frozen_backend.movements.model.MovementStatus.PENDIENTE "
+            + "OR (m.status = com.enigcode.frozen_backend.movements.model.MovementStatus.EN_PROCESO AND m.takenAt < :leaseCutoff)) "
+            + "AND (:zone IS NULL OR m.material.id IN (SELECT mat.id FROM Material mat WHERE mat.warehouseZone = :zone)) "
+            + "ORDER BY m.creationDate, m.id")
+    List<Movement> findClaimable(@Param("zone") WarehouseZone zone, @Param("leaseCutoff") LocalDateTime leaseCutoff,
+            Pageable pageable);
+
+    // Devuelve a la cola los movimientos en proceso cuya toma venció
+    @Modifying
+    @Query("UPDATE Movement m SET m.status = com.enigcode.frozen_backend.movements.model.MovementStatus.PENDIENTE, "
+            + "m.inProgressByUserId = null, m.takenAt = null "
+            + "WHERE m.status = com.enigcode.frozen_backend.movements.model.MovementStatus.EN_PROCESO AND m.takenAt < :leaseCutoff")
+    int releaseExpiredClaims(@Param("leaseCutoff") LocalDateTime leaseCutoff);
+
+    // Material del movimiento (para tomar su lock antes de leer el movimiento)
+    @Query("SELECT m.material.id FROM Movement m WHERE m.id = :id")
+    Optional<Long> findMaterialIdById(@Param("id") Long id);
+
+    // Materiales de varios movimientos (para tomar sus locks antes de leerlos)
+    @Query("SELECT DISTINCT m.material.id FROM Movement m WHERE m.id IN :ids")
+    List<Long> findMaterialIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Movimientos con su material en una sola consulta
+    @Query("SELECT m FROM Movement m JOIN FETCH m.material WHERE m.id IN :ids")
+    List<Movement> findAllWithMaterialByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Movimientos bloqueados hasta el fin de la transacción, en orden de id
+     * para que dos operaciones sobre conjuntos superpuestos no se bloqueen
+     * mutuamente
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Movement m WHERE m.id IN :ids ORDER BY m.id")
+    List<Movement> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Variación del stock total del material en (from, to]
+    @Query("SELECT COALESCE(SUM(" + STOCK_DELTA + "), 0) FROM Movement m WHERE m.material.id = :materialId AND "
+            + COMPLETED + " AND m.realizationDate > :from AND m.realizationDate <= :to")
+    Double sumStockDelta(@Param("materialId") Long materialId, @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
+    // Variación del stock total del material posterior a la fecha
+    @Query("SELECT COALESCE(SUM(" + STOCK_DELTA + "), 0) FROM Movement m WHERE m.material.id = :materialId AND "
+            + COMPLETED + " AND m.realizationDate > :from")
+    Double sumStockDeltaAfter(@Param("materialId") Long materialId, @Param("from") OffsetDateTime from);
+
+    // Variación del stock total en (from, to] agrupada por material
+    @Query("SELECT m.material.id AS materialId, SUM(" + STOCK_DELTA + ") AS delta FROM Movement m WHERE "
+            + COMPLETED + " AND m.realizationDate > :from AND m.realizationDate <= :to GROUP BY m.material.id")
+    List<MaterialStockDeltaProjectionDTO> sumStockDeltaByMaterial(@Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
+    // Variación del stock total posterior a la fecha agrupada por material
+    @Query("SELECT m.material.id AS materialId, SUM(" + STOCK_DELTA + ") AS delta FROM Movement m WHERE "
+            + COMPLETED + " AND m.realizationDate > :from GROUP BY m.material.id")
+    List<MaterialStockDeltaProjectionDTO> sumStockDeltaByMaterialAfter(@Param("from") OffsetDateTime from);
+
+    // Ingresos y egresos completados del material en (from, to], en orden de realización
+    @Query("SELECT m FROM Movement m WHERE m.material.id = :materialId AND " + COMPLETED
+            + " AND m.type IN (com.enigcode.frozen_backend.movements.model.MovementType.INGRESO, "
+            + "com.enigcode.frozen_backend.movements.model.MovementType.EGRESO) "
+            + "AND m.realizationDate > :from AND m.realizationDate <= :to ORDER BY m.realizationDate, m.id")
+    List<Movement> findStockChanges(@Param("materialId") Long materialId, @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+}
@@ -0,0 +1,36 @@
+package com.enigcode.frozen_backend.movements.repository;
+
+import com.enigcode.frozen_backend.movements.model.StockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpoint, Long> {
+
+    /**
+     * Último checkpoint del material en o antes de la fecha
+     */
+    Optional<StockCheckpoint> findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(
+            Long materialId, OffsetDateTime date);
+
+    /**
+     * Primer checkpoint del material posterior a la fecha
+     */
+    Optional<StockCheckpoint> findFirstByMaterialIdAndCheckpointDateGreaterThanOrderByCheckpointDateAsc(
+            Long materialId, OffsetDateTime date);
+
+    // Checkpoint más reciente de cada material (punto de partida del avance)
+    @Query("SELECT c FROM StockCheckpoint c WHERE c.checkpointDate = "
+            + "(SELECT MAX(c2.checkpointDate) FROM StockCheckpoint c2 WHERE c2.material = c.material)")
+    List<StockCheckpoint> findLatestPerMaterial();
+
+    // Checkpoint más antiguo de cada material (punto de partida del relleno hacia atrás)
+    @Query("SELECT c FROM StockCheckpoint c WHERE c.checkpointDate = "
+            + "(SELECT MIN(c2.checkpointDate) FROM StockCheckpoint c2 WHERE c2.material = c.material)")
+    List<StockCheckpoint> findEarliestPerMaterial();
+}
@@ -1,5 +1,8 @@
 package com.enigcode.frozen_backend.movements.service;
 
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
 import com.enigcode.frozen_backend.movements.DTO.*;
 import com.enigcode.frozen_backend.movements.model.MovementType;
 import jakarta.transaction.Transactional;
@@ -7,6 +10,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import jakarta.validation.Valid;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface MovementService {
@@ -21,17 +25,61 @@ public interface MovementService {
 
     Page<MovementResponseDTO> findAll(MovementFilterDTO filterDTO, Pageable pageable);
 
+    /**
+     * Igual que findAll pero paginando por cursor (keyset): sin OFFSET y con el
+     * total solo si se pide
+     */
+    CursorPageDTO<MovementResponseDTO> findAllByCursor(MovementFilterDTO filterDTO, Pageable pageable, String after,
+            boolean withCount);
+
+    /**
+     * Escribe en out todos los movimientos que cumplen el filtro, en orden de
+     * creación y sin cargarlos juntos en memoria
+     *
+     * @return cantidad de movimientos exportados
+     */
+    long exportMovements(MovementFilterDTO filterDTO, ExportFormat format, OutputStream out);
+
     /**
      * Completa un movimiento pendiente y ejecuta el cambio de stock
      * Solo disponible para operarios de almacén
      */
     MovementResponseDTO completeMovement(Long movementId);
 
+    /**
+     * Completa varios movimientos en una sola transacción, con un resultado
+     * por movimiento
+     * Solo disponible para operarios de almacén
+     */
+    MovementBulkResultDTO completeMovements(List<Long> movementIds);
+
     /**
      * Marca un movimiento pendiente como en proceso
      * Solo disponible para operarios de almacén
      */
     MovementResponseDTO toggleInProgressPending(Long movementId);
 
+    /**
+     * Marca varios movimientos pendientes como en proceso en una sola
+     * transacción, con un resultado por movimiento
+     * Solo disponible para operarios de almacén
+     */
+    MovementBulkResultDTO takeMovementsInProgress(List<Long> movementIds);
+
+    /**
+     * Toma para el usuario actual los próximos movimientos pendientes, más
+     * antiguos primero, opcionalmente de una zona del almacén. Los movimientos
+     * que otro operario está tomando en ese momento se saltean en lugar de
+     * esperar o fallar
+     */
+    List<MovementResponseDTO> claimNextMovements(int count, WarehouseZone zone);
+
+    /**
+     * Devuelve a PENDIENTE los movimientos en proceso cuya toma venció
+     *
+     * @return cantidad de movimientos liberados
+     */
+    int releaseExpiredClaims();
+
     void createMovements(List<MovementInternalCreateDTO> materialsMovements);
 }
@@ -2,8 +2,17 @@ package com.enigcode.frozen_backend.movements.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.common.Utils.Quantity;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.export.StreamingExport;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
+import com.enigcode.frozen_backend.common.concurrency.RetryOnConflict;
 import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
 import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.materials.service.LowStockWatchlist;
+import com.enigcode.frozen_backend.materials.service.MaterialStockLocks;
 import com.enigcode.frozen_backend.movements.DTO.*;
 import com.enigcode.frozen_backend.movements.specification.MovementSpecification;
 import com.enigcode.frozen_backend.movements.mapper.MovementMapper;
@@ -20,18 +29,25 @@ import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -43,6 +59,16 @@ public class MovementServiceImpl implements MovementService {
         final MovementMapper movementMapper;
         final NotificationService notificationService;
         final UserService userService;
+        final LowStockWatchlist lowStockWatchlist;
+        final MaterialStockLocks materialStockLocks;
+        final StreamingExport streamingExport;
+
+        // Máximo de movimientos que se pueden tomar en una sola llamada
+        static final int MAX_CLAIM = 20;
+
+        // Tiempo tras el cual un movimiento EN_PROCESO sin completar vuelve a la cola
+        @Value("${app.movements.claim-lease-minutes:30}")
+        private long claimLeaseMinutes;
 
         /**
          * Funcion que genera un movimiento nuevo en estado PENDIENTE
@@ -62,7 +88,7 @@ public class MovementServiceImpl implements MovementService {
 
                 // Validar que hay stock suficiente para egresos (aunque aún no se ejecute)
                 if (movementCreateDTO.getType().equals(MovementType.EGRESO) &&
-                                movementCreateDTO.getStock() > material.getStock())
+                                !hasEnoughStock(material.getStock(), movementCreateDTO.getStock()))
                         throw new BadRequestException("El stock actual (" + material.getStock() +
                                         ") es insuficiente para egresar " + movementCreateDTO.getStock());
 
@@ -105,25 +131,28 @@ public class MovementServiceImpl implements MovementService {
         @Override
         public void createReserveOrReturn(@NotNull MovementType type, @Valid List<MovementSimpleCreateDTO> materials) {
                 List<Movement> movements = new ArrayList<>();
+                Map<Long, Material> current = materialStockLocks.lockAll(
+                                materials.stream().map(MovementSimpleCreateDTO::getMaterial).toList());
 
                 materials.forEach(dto -> {
+                        Material material = current.get(dto.getMaterial().getId());
                         if (type.equals(MovementType.RESERVA)
-                                        && !hasEnoughStock(dto.getMaterial().getStock(), dto.getStock()))
+                                        && !hasEnoughStock(material.getStock(), dto.getStock()))
                                 throw new BadRequestException(
                                                 String.format("Stock: %.2f insuficiente para reservar %.2f",
-                                                                dto.getMaterial().getStock(), dto.getStock()));
+                                                                material.getStock(), dto.getStock()));
 
                         if (type.equals(MovementType.DEVUELTO)
-                                        && !hasEnoughReservedStock(dto.getMaterial().getReservedStock(),
+                                        && !hasEnoughReservedStock(material.getReservedStock(),
                                                         dto.getStock()))
                                 throw new BadRequestException(
                                                 String.format("Stock reservado: %.2f insuficiente para devolver %.2f",
-                                                                dto.getMaterial().getReservedStock(), dto.getStock()));
+                                                                material.getReservedStock(), dto.getStock()));
 
                         if (type.equals(MovementType.RESERVA))
-                                dto.getMaterial().reserveStock(dto.getStock());
+                                material.reserveStock(dto.getStock());
                         else if (type.equals(MovementType.DEVUELTO))
-                                dto.getMaterial().returnStock(dto.getStock());
+                                material.returnStock(dto.getStock());
                         else
                                 throw new BadRequestException("Esta función no acepta movimientos del tipo " + type);
 
@@ -133,12 +162,15 @@ public class MovementServiceImpl implements MovementService {
                                         .status(MovementStatus.COMPLETADO)
                                         .reason("El stock se fue :" + type)
                                         .realizationDate(OffsetDateTime.now(ZoneOffset.UTC))
-                                        .material(dto.getMaterial()).build();
+                                        .material(material).build();
 
                         movements.add(movement);
                 });
 
                 movementRepository.saveAllAndFlush(movements);
+
+                // Una reserva puede dejar el stock disponible bajo el umbral
+                current.values().forEach(this::trackLowStock);
         }
 
         /**
@@ -152,14 +184,17 @@ public class MovementServiceImpl implements MovementService {
         @Override
         public void confirmReservation(@Valid List<MovementSimpleCreateDTO> materials) {
                 List<Movement> movements = new ArrayList<>();
+                Map<Long, Material> current = materialStockLocks.lockAll(
+                                materials.stream().map(MovementSimpleCreateDTO::getMaterial).toList());
 
                 materials.forEach(dto -> {
-                        if (!hasEnoughReservedStock(dto.getMaterial().getReservedStock(), dto.getStock()))
+                        Material material = current.get(dto.getMaterial().getId());
+                        if (!hasEnoughReservedStock(material.getReservedStock(), dto.getStock()))
                                 throw new BadRequestException(
                                                 String.format("Stock reservado: %.2f insuficiente para egresar %.2f",
-                                                                dto.getMaterial().getReservedStock(), dto.getStock()));
+                                                                material.getReservedStock(), dto.getStock()));
 
-                        dto.getMaterial().reduceReservedStock(dto.getStock());
+                        material.reduceReservedStock(dto.getStock());
 
                         Movement movement = Movement.builder()
                                         .type(MovementType.EGRESO)
@@ -167,7 +202,7 @@ public class MovementServiceImpl implements MovementService {
                                         .status(MovementStatus.COMPLETADO)
                                         .reason("El stock salio de reserva ")
                                         .realizationDate(OffsetDateTime.now(ZoneOffset.UTC))
-                                        .material(dto.getMaterial()).build();
+                                        .material(material).build();
 
                         movements.add(movement);
                 });
@@ -202,17 +237,112 @@ public class MovementServiceImpl implements MovementService {
                 return movements.map(movementMapper::toResponseDto);
         }
 
+        @Override
+        public CursorPageDTO<MovementResponseDTO> findAllByCursor(MovementFilterDTO filterDTO, Pageable pageable,
+                        String after, boolean withCount) {
+                return Keyset.fetch(movementRepository, MovementSpecification.createFilter(filterDTO), pageable, after,
+                                withCount).map(movementMapper::toResponseDto);
+        }
+
+        @Override
+        public long exportMovements(MovementFilterDTO filterDTO, ExportFormat format, OutputStream out) {
+                return streamingExport.export(Movement.class, MovementSpecification.createFilter(filterDTO),
+                                Sort.by("creationDate", "id"), List.of("material"), movementMapper::toResponseDto,
+                                MovementResponseDTO.class, format, out);
+        }
+
         /**
          * Completa un movimiento pendiente ejecutando el cambio de stock
-         * y marcando el movimiento como completado
+         * y marcando el movimiento como completado.
+         * El lock del material se toma antes de leer el movimiento, así dos
+         * operarios completando el mismo movimiento (o movimientos del mismo
+         * material) ven el resultado del anterior
          */
         @Override
+        @RetryOnConflict
         @Transactional
         public MovementResponseDTO completeMovement(Long movementId) {
+                Long materialId = movementRepository.findMaterialIdById(movementId)
+                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                "Movimiento no encontrado con ID: " + movementId));
+                materialStockLocks.lock(materialId);
+
                 Movement movement = movementRepository.findById(movementId)
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Movimiento no encontrado con ID: " + movementId));
 
+                User currentUser = userService.getCurrentUser();
+                Material material = movement.getMaterial();
+                applyCompletion(movement, currentUser);
+                trackLowStock(material);
+
+                // Guardar cambios
+                materialRepository.save(material);
+                Movement savedMovement = movementRepository.save(movement);
+
+                log.info("Movimiento {} completado por usuario: {}. Material: {}, Tipo: {}, Cantidad: {}",
+                                savedMovement.getId(), currentUser.getUsername(),
+                                material.getName(), movement.getType(), movement.getStock());
+
+                return movementMapper.toResponseDto(savedMovement);
+        }
+
+        /**
+         * Completa varios movimientos en una sola transacción. Toma los locks de
+         * todos los materiales involucrados, carga los movimientos con sus
+         * materiales en una consulta y aplica los cambios de stock en orden sobre
+         * cada material, de modo que un egreso se valida contra el stock que
+         * dejaron los movimientos anteriores del mismo lote. Un movimiento que no
+         * se puede completar se informa en el resultado sin afectar al resto
+         */
+        @Override
+        @RetryOnConflict
+        @Transactional
+        public MovementBulkResultDTO completeMovements(List<Long> movementIds) {
+                List<Long> ids = movementIds.stream().distinct().toList();
+                materialStockLocks.lockAllById(movementRepository.findMaterialIdsByIdIn(ids));
+
+                Map<Long, Movement> movements = new HashMap<>();
+                movementRepository.findAllWithMaterialByIdIn(ids)
+                                .forEach(movement -> movements.put(movement.getId(), movement));
+
+                User currentUser = userService.getCurrentUser();
+                MovementBulkResultDTO result = new MovementBulkResultDTO();
+                Map<Long, Material> touched = new LinkedHashMap<>();
+                List<Movement> completed = new ArrayList<>();
+
+                for (Long id : ids) {
+                        Movement movement = movements.get(id);
+                        if (movement == null) {
+                                result.addFailure(id, "Movimiento no encontrado con ID: " + id);
+                                continue;
+                        }
+                        try {
+                                applyCompletion(movement, currentUser);
+                        } catch (BadRequestException e) {
+                                result.addFailure(id, e.getMessage());
+                                continue;
+                        }
+                        touched.put(movement.getMaterial().getId(), movement.getMaterial());
+                        completed.add(movement);
+                        result.addSuccess(id, movementMapper.toResponseDto(movement));
+                }
+
+                materialRepository.saveAll(touched.values());
+                movementRepository.saveAll(completed);
+                touched.values().forEach(this::trackLowStock);
+
+                log.info("Usuario {} completó {} de {} movimientos ({} materiales)",
+                                currentUser.getUsername(), result.getSucceeded(), result.getTotal(), touched.size());
+
+                return result;
+        }
+
+        /**
+         * Valida que el movimiento se pueda completar, ejecuta el cambio de stock
+         * sobre su material y lo marca como completado por el usuario
+         */
+        private void applyCompletion(Movement movement, User currentUser) {
                 if (movement.getStatus() != MovementStatus.PENDIENTE &&
                                 movement.getStatus() != MovementStatus.EN_PROCESO) {
                         throw new BadRequestException("El movimiento ya está completado o no es válido");
@@ -220,21 +350,18 @@ public class MovementServiceImpl implements MovementService {
 
                 // Validar que si el movimiento está EN_PROCESO, solo el usuario que lo marcó
                 // puede completarlo
-                if (movement.getStatus() == MovementStatus.EN_PROCESO) {
-                        Optional<User> currentUser = Optional.ofNullable(userService.getCurrentUser());
-                        Long currentUserId = currentUser.orElse(null).getId();
-                        if (movement.getInProgressByUserId() != null
-                                        && !movement.getInProgressByUserId().equals(currentUserId)) {
-                                throw new BadRequestException(
-                                                "Solo el usuario que marcó este movimiento como 'En Proceso' puede completarlo");
-                        }
+                if (movement.getStatus() == MovementStatus.EN_PROCESO
+                                && movement.getInProgressByUserId() != null
+                                && !movement.getInProgressByUserId().equals(currentUser.getId())) {
+                        throw new BadRequestException(
+                                        "Solo el usuario que marcó este movimiento como 'En Proceso' puede completarlo");
                 }
 
                 Material material = movement.getMaterial();
 
                 // Validar stock nuevamente en caso de que haya cambiado
                 if (movement.getType().equals(MovementType.EGRESO) &&
-                                movement.getStock() > material.getStock()) {
+                                !hasEnoughStock(material.getStock(), movement.getStock())) {
                         throw new BadRequestException("Stock insuficiente para completar el egreso. " +
                                         "Stock actual: " + material.getStock() +
                                         ", Stock requerido: " + movement.getStock());
@@ -243,35 +370,13 @@ public class MovementServiceImpl implements MovementService {
                 // Ejecutar el cambio de stock
                 if (movement.getType().equals(MovementType.EGRESO)) {
                         material.reduceStock(movement.getStock());
-
-                        // Verificar si el material queda por debajo del umbral
-                        if (material.getStock() < material.getThreshold()) {
-                                notificationService.createLowStockNotification(
-                                                material.getId(),
-                                                material.getName(),
-                                                material.getStock(),
-                                                material.getThreshold());
-                                log.warn("Material {} quedó por debajo del umbral. Stock actual: {}, Umbral: {}",
-                                                material.getName(), material.getStock(), material.getThreshold());
-                        }
                 } else if (movement.getType().equals(MovementType.INGRESO)) {
                         material.increaseStock(movement.getStock());
                 }
 
                 // Marcar movimiento como completado
-                Optional<User> currentUser = Optional.ofNullable(userService.getCurrentUser());
-                movement.completeMovement(currentUser.orElse(null).getId());
+                movement.completeMovement(currentUser.getId());
                 movement.setRealizationDate(OffsetDateTime.now(ZoneOffset.UTC));
-
-                // Guardar cambios
-                materialRepository.save(material);
-                Movement savedMovement = movementRepository.save(movement);
-
-                log.info("Movimiento {} completado por usuario: {}. Material: {}, Tipo: {}, Cantidad: {}",
-                                savedMovement.getId(), userService.getCurrentUser().getUsername(),
-                                material.getName(), movement.getType(), movement.getStock());
-
-                return movementMapper.toResponseDto(savedMovement);
         }
 
         @Override
@@ -334,39 +439,167 @@ public class MovementServiceImpl implements MovementService {
 
         }
 
+        /**
+         * Marca varios movimientos pendientes como en proceso para el usuario
+         * actual en una sola transacción. Los que ya tiene el mismo usuario se
+         * informan como tomados; los completados o tomados por otro operario se
+         * informan como error sin afectar al resto
+         */
+        @Override
+        @Transactional
+        public MovementBulkResultDTO takeMovementsInProgress(List<Long> movementIds) {
+                List<Long> ids = movementIds.stream().distinct().toList();
+                Map<Long, Movement> movements = new HashMap<>();
+                movementRepository.findAllForUpdateByIdIn(ids)
+                                .forEach(movement -> movements.put(movement.getId(), movement));
+
+                User currentUser = userService.getCurrentUser();
+                LocalDateTime now = OffsetDateTime.now(ZoneOffset.UTC).toLocalDateTime();
+                MovementBulkResultDTO result = new MovementBulkResultDTO();
+                List<Movement> taken = new ArrayList<>();
+
+                for (Long id : ids) {
+                        Movement movement = movements.get(id);
+                        if (movement == null) {
+                                result.addFailure(id, "Movimiento no encontrado con ID: " + id);
+                                continue;
+                        }
+                        if (movement.getStatus() == MovementStatus.COMPLETADO) {
+                                result.addFailure(id, "Los movimientos completados no pueden cambiar de estado");
+                                continue;
+                        }
+                        if (movement.getInProgressByUserId() != null
+                                        && !movement.getInProgressByUserId().equals(currentUser.getId())) {
+                                result.addFailure(id, "Este movimiento ya está siendo procesado por otro usuario");
+                                continue;
+                        }
+                        if (movement.getStatus() == MovementStatus.PENDIENTE) {
+                                movement.setStatus(MovementStatus.EN_PROCESO);
+                                movement.setInProgressByUserId(currentUser.getId());
+                                movement.setTakenAt(now);
+                                taken.add(movement);
+                        }
+                        result.addSuccess(id, movementMapper.toResponseDto(movement));
+                }
+
+                movementRepository.saveAll(taken);
+
+                log.info("Usuario {} marcó {} de {} movimientos como EN_PROCESO",
+                                currentUser.getUsername(), result.getSucceeded(), result.getTotal());
+
+                return result;
+        }
+
+        @Override
+        @Transactional
+        public List<MovementResponseDTO> claimNextMovements(int count, WarehouseZone zone) {
+                if (count < 1 || count > MAX_CLAIM)
+                        throw new BadRequestException("Se pueden tomar entre 1 y " + MAX_CLAIM + " movimientos");
+
+                Long currentUserId = userService.getCurrentUser().getId();
+                LocalDateTime now = OffsetDateTime.now(ZoneOffset.UTC).toLocalDateTime();
+                List<Movement> claimed = movementRepository.findClaimable(zone,
+                                now.minusMinutes(claimLeaseMinutes), PageRequest.of(0, count));
+
+                claimed.forEach(movement -> {
+                        movement.setStatus(MovementStatus.EN_PROCESO);
+                        movement.setInProgressByUserId(currentUserId);
+                        movement.setTakenAt(now);
+                });
+                movementRepository.saveAll(claimed);
+
+                log.info("Usuario {} tomó {} movimientos (zona: {})", currentUserId, claimed.size(),
+                                zone != null ? zone : "todas");
+
+                return claimed.stream().map(movementMapper::toResponseDto).toList();
+        }
+
+        @Override
+        @Transactional
+        public int releaseExpiredClaims() {
+                LocalDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).toLocalDateTime()
+                                .minusMinutes(claimLeaseMinutes);
+                return movementRepository.releaseExpiredClaims(cutoff);
+        }
+
+        /**
+         * Crea en estado PENDIENTE los movimientos generados por otros procesos
+         * (por ejemplo la cancelación de un lote). El usuario se resuelve una sola
+         * vez, los movimientos se insertan en un batch y los operarios reciben
+         * una única notificación por todo el conjunto
+         *
+         * @param materialsMovements
+         */
         @Override
         @Transactional
         public void createMovements(List<MovementInternalCreateDTO> materialsMovements) {
-                List<Movement> movements = materialsMovements.stream().map(dto -> {
-                        Optional<User> currentUser = Optional.ofNullable(userService.getCurrentUser());
-                        return Movement.builder()
-                                        .type(dto.getType())
-                                        .stock(roundToTwoDecimals(dto.getStock()))
-                                        .reason(dto.getReason())
-                                        .location(dto.getLocation())
-                                        .createdByUserId(currentUser.orElse(null).getId())
-                                        .status(MovementStatus.PENDIENTE)
-                                        .material(dto.getMaterial())
-                                        .creationDate(OffsetDateTime.now(ZoneOffset.UTC))
-                                        .build();
-                }).toList();
+                if (materialsMovements.isEmpty())
+                        return;
+
+                Long createdByUserId = userService.getCurrentUser().getId();
+                OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+                List<Movement> movements = materialsMovements.stream().map(dto -> Movement.builder()
+                                .type(dto.getType())
+                                .stock(roundToTwoDecimals(dto.getStock()))
+                                .reason(dto.getReason())
+                                .location(dto.getLocation())
+                                .createdByUserId(createdByUserId)
+                                .status(MovementStatus.PENDIENTE)
+                                .material(dto.getMaterial())
+                                .creationDate(now)
+                                .build()).toList();
 
                 List<Movement> savedMovements = movementRepository.saveAll(movements);
+                if (savedMovements.isEmpty())
+                        return;
 
-                // Crear notificaciones para operarios de almacén para cada movimiento
-                savedMovements.forEach(savedMovement -> {
+                if (savedMovements.size() == 1) {
+                        Movement savedMovement = savedMovements.get(0);
                         notificationService.createPendingMovementNotification(
                                         savedMovement.getId(),
                                         savedMovement.getMaterial().getName(),
                                         savedMovement.getType().toString());
-                        log.info("Movimiento {} creado en estado PENDIENTE para material: {}",
-                                        savedMovement.getId(), savedMovement.getMaterial().getName());
+                } else {
+                        String reasons = savedMovements.stream().map(Movement::getReason)
+                                        .filter(Objects::nonNull).distinct().collect(Collectors.joining("; "));
+                        notificationService.createPendingMovementsNotification(
+                                        savedMovements.stream().map(Movement::getId).toList(), reasons);
+                }
+
+                log.info("{} movimientos creados en estado PENDIENTE por usuario {}",
+                                savedMovements.size(), createdByUserId);
+        }
+
+        /**
+         * Registra el stock del material en la lista de stock bajo y, si al
+         * confirmarse la transacción el material entra a la lista, notifica a
+         * los supervisores (si ya estaba en la lista no se vuelve a notificar)
+         *
+         * @param material
+         */
+        private void trackLowStock(Material material) {
+                Long materialId = material.getId();
+                String materialName = material.getName();
+                Double stock = material.getStock();
+                Double threshold = material.getThreshold();
+                lowStockWatchlist.record(material, () -> {
+                        log.warn("Material {} quedó por debajo del umbral. Stock actual: {}, Umbral: {}",
+                                        materialName, stock, threshold);
+                        try {
+                                notificationService.createLowStockNotification(materialId, materialName, stock,
+                                                threshold);
+                        } catch (RuntimeException e) {
+                                // El movimiento ya está confirmado: solo se pierde la alerta
+                                log.error("No se pudo notificar el stock bajo del material {}: {}", materialName,
+                                                e.getMessage());
+                        }
                 });
         }
 
         /**
          * Compara si hay suficiente stock disponible considerando tolerancia para
-         * errores de punto flotante
+         * errores de punto flotante. El stock guardado ya está redondeado a
+         * centesimos (Quantity), así que alcanza con comparar los double
          */
         private boolean hasEnoughStock(Double availableStock, Double requiredStock) {
                 if (availableStock == null || requiredStock == null) {
@@ -384,7 +617,6 @@ public class MovementServiceImpl implements MovementService {
                 if (reservedStock == null || requiredStock == null) {
                         return false;
                 }
-                // Log para debug de precisión decimal
                 log.debug("Comparing reserved stock: {} >= required: {} (with tolerance)", reservedStock,
                                 requiredStock);
 
@@ -396,12 +628,7 @@ public class MovementServiceImpl implements MovementService {
          * Redondea un número decimal a 2 decimales usando HALF_UP
          */
         private Double roundToTwoDecimals(Double value) {
-                if (value == null) {
-                        return null;
-                }
-                BigDecimal bd = BigDecimal.valueOf(value);
-                bd = bd.setScale(2, RoundingMode.HALF_UP);
-                return bd.doubleValue();
+                return Quantity.round(value, Quantity.STOCK_DECIMALS);
         }
 
 }
@@ -0,0 +1,28 @@
+package com.enigcode.frozen_backend.movements.service;
+
+import com.enigcode.frozen_backend.movements.DTO.StockPointDTO;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface StockHistoryService {
+
+    /**
+     * Stock total (disponible + reservado) del material en la fecha
+     */
+    StockPointDTO getStockAsOf(Long materialId, OffsetDateTime date);
+
+    /**
+     * Evolución del stock total del material entre dos fechas: un punto al
+     * inicio, uno por cada ingreso/egreso completado y uno al final
+     */
+    List<StockPointDTO> getStockHistory(Long materialId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * Genera los checkpoints de los intervalos cerrados que todavía no los
+     * tienen
+     *
+     * @return cantidad de checkpoints creados
+     */
+    int buildCheckpoints(OffsetDateTime now);
+}
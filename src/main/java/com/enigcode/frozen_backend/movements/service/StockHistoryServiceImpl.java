@@ -0,0 +1,258 @@
+package com.enigcode.frozen_backend.movements.service;
+
+import com.enigcode.frozen_backend.common.Utils.Quantity;
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.movements.DTO.MaterialStockDeltaProjectionDTO;
+import com.enigcode.frozen_backend.movements.DTO.StockPointDTO;
+import com.enigcode.frozen_backend.movements.model.Movement;
+import com.enigcode.frozen_backend.movements.model.MovementType;
+import com.enigcode.frozen_backend.movements.model.StockCheckpoint;
+import com.enigcode.frozen_backend.movements.repository.MovementRepository;
+import com.enigcode.frozen_backend.movements.repository.StockCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reconstruye el stock de un material en cualquier fecha a partir del libro
+ * de movimientos. El stock total (stock + reservedStock) solo cambia con
+ * ingresos y egresos completados, así que alcanza con partir del checkpoint
+ * más cercano y aplicar los movimientos de, como mucho, un intervalo.
+ *
+ * Los checkpoints se generan en los bordes de intervalos fijos (días UTC) y
+ * se completan de forma incremental: hacia adelante a medida que se cierran
+ * los intervalos y hacia atrás hasta la fecha de creación de cada material.
+ * Como el stock inicial de un material no tiene movimiento, la historia se
+ * ancla en el stock actual y se reconstruye restando los movimientos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockHistoryServiceImpl implements StockHistoryService {
+
+    static final Duration CHECKPOINT_INTERVAL = Duration.ofDays(1);
+
+    // Margen para que un intervalo se considere cerrado (transacciones en curso)
+    static final Duration CLOSE_DELAY = Duration.ofMinutes(10);
+
+    // Intervalos procesados como máximo por ejecución del job
+    static final int MAX_INTERVALS_PER_RUN = 60;
+
+    private final StockCheckpointRepository checkpointRepository;
+    private final MovementRepository movementRepository;
+    private final MaterialRepository materialRepository;
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public StockPointDTO getStockAsOf(Long materialId, OffsetDateTime date) {
+        if (date == null)
+            throw new BadRequestException("La fecha es obligatoria");
+        Material material = findMaterial(materialId);
+        return new StockPointDTO(date, stockAt(material, date));
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<StockPointDTO> getStockHistory(Long materialId, OffsetDateTime from, OffsetDateTime to) {
+        if (from == null || to == null)
+            throw new BadRequestException("Las fechas desde y hasta son obligatorias");
+        if (!from.isBefore(to))
+            throw new BadRequestException("La fecha desde debe ser anterior a la fecha hasta");
+        Material material = findMaterial(materialId);
+
+        List<StockPointDTO> points = new ArrayList<>();
+        points.add(new StockPointDTO(from, stockAt(material, from)));
+
+        // El stock inicial no es un movimiento: se agrega un punto al crearse el material
+        OffsetDateTime start = from;
+        OffsetDateTime creation = material.getCreationDate();
+        if (creation != null && creation.isAfter(from)) {
+            if (creation.isAfter(to)) {
+                points.add(new StockPointDTO(to, 0.0));
+                return points;
+            }
+            start = creation;
+            points.add(new StockPointDTO(creation, stockAt(material, creation)));
+        }
+
+        double stock = points.get(points.size() - 1).getTotalStock();
+        for (Movement movement : movementRepository.findStockChanges(materialId, start, to)) {
+            stock = Quantity.add(stock, delta(movement));
+            points.add(new StockPointDTO(movement.getRealizationDate(), stock));
+        }
+        if (points.get(points.size() - 1).getDate().isBefore(to))
+            points.add(new StockPointDTO(to, stock));
+        return points;
+    }
+
+    /**
+     * El stock actual de los materiales y las sumas de movimientos se leen en
+     * la misma foto (REPEATABLE_READ) para que los checkpoints anclados en el
+     * stock actual no cuenten dos veces un movimiento confirmado en el medio.
+     */
+    @Override
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public int buildCheckpoints(OffsetDateTime now) {
+        OffsetDateTime closed = boundaryAtOrBefore(now.minus(CLOSE_DELAY));
+        Map<Long, OffsetDateTime> creationDates = new HashMap<>();
+        Map<Long, StockCheckpoint> latest = byMaterial(checkpointRepository.findLatestPerMaterial());
+        Map<Long, StockCheckpoint> earliest = byMaterial(checkpointRepository.findEarliestPerMaterial());
+        List<StockCheckpoint> created = new ArrayList<>();
+
+        // Materiales sin checkpoints: se anclan en el stock actual
+        List<Material> missing = new ArrayList<>();
+        for (Material material : materialRepository.findAll()) {
+            creationDates.put(material.getId(), material.getCreationDate());
+            if (!latest.containsKey(material.getId())
+                    && (material.getCreationDate() == null || !material.getCreationDate().isAfter(closed)))
+                missing.add(material);
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Double> after = deltas(movementRepository.sumStockDeltaByMaterialAfter(closed));
+            for (Material material : missing) {
+                StockCheckpoint checkpoint = checkpoint(material, closed,
+                        Quantity.subtract(totalStock(material), after.get(material.getId())));
+                latest.put(material.getId(), checkpoint);
+                earliest.put(material.getId(), checkpoint);
+                created.add(checkpoint);
+            }
+        }
+
+        int steps = 0;
+
+        // Hacia adelante: cerrar los intervalos posteriores al último checkpoint
+        Optional<OffsetDateTime> oldestLatest = latest.values().stream()
+                .map(StockCheckpoint::getCheckpointDate).min(Comparator.naturalOrder());
+        OffsetDateTime from = oldestLatest.orElse(closed);
+        while (from.isBefore(closed) && steps < MAX_INTERVALS_PER_RUN) {
+            OffsetDateTime to = from.plus(CHECKPOINT_INTERVAL);
+            Map<Long, Double> deltas = deltas(movementRepository.sumStockDeltaByMaterial(from, to));
+            for (StockCheckpoint last : List.copyOf(latest.values())) {
+                if (!last.getCheckpointDate().isEqual(from))
+                    continue;
+                Long materialId = last.getMaterial().getId();
+                StockCheckpoint checkpoint = checkpoint(last.getMaterial(), to,
+                        Quantity.add(last.getTotalStock(), deltas.get(materialId)));
+                latest.put(materialId, checkpoint);
+                created.add(checkpoint);
+            }
+            from = to;
+            steps++;
+        }
+
+        // Hacia atrás: completar la historia hasta la creación de cada material
+        while (steps < MAX_INTERVALS_PER_RUN) {
+            List<StockCheckpoint> pending = earliest.values().stream()
+                    .filter(first -> needsBackfill(first, creationDates.get(first.getMaterial().getId())))
+                    .toList();
+            if (pending.isEmpty())
+                break;
+            OffsetDateTime to = pending.stream().map(StockCheckpoint::getCheckpointDate)
+                    .max(Comparator.naturalOrder()).get();
+            OffsetDateTime previous = to.minus(CHECKPOINT_INTERVAL);
+            Map<Long, Double> deltas = deltas(movementRepository.sumStockDeltaByMaterial(previous, to));
+            for (StockCheckpoint first : pending) {
+                if (!first.getCheckpointDate().isEqual(to))
+                    continue;
+                Long materialId = first.getMaterial().getId();
+                StockCheckpoint checkpoint = checkpoint(first.getMaterial(), previous,
+                        Quantity.subtract(first.getTotalStock(), deltas.get(materialId)));
+                earliest.put(materialId, checkpoint);
+                created.add(checkpoint);
+            }
+            steps++;
+        }
+
+        checkpointRepository.saveAll(created);
+        log.debug("Checkpoints de stock creados: {} ({} intervalos procesados)", created.size(), steps);
+        return created.size();
+    }
+
+    /**
+     * Borde de intervalo (en UTC) más reciente que no es posterior a la fecha
+     */
+    static OffsetDateTime boundaryAtOrBefore(OffsetDateTime date) {
+        long interval = CHECKPOINT_INTERVAL.getSeconds();
+        long boundary = Math.floorDiv(date.toEpochSecond(), interval) * interval;
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(boundary), ZoneOffset.UTC);
+    }
+
+    private double stockAt(Material material, OffsetDateTime date) {
+        if (material.getCreationDate() != null && date.isBefore(material.getCreationDate()))
+            return 0.0;
+        Long materialId = material.getId();
+
+        Optional<StockCheckpoint> before = checkpointRepository
+                .findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(materialId, date);
+        if (before.isPresent())
+            return Quantity.add(before.get().getTotalStock(),
+                    movementRepository.sumStockDelta(materialId, before.get().getCheckpointDate(), date));
+
+        // Fechas anteriores al primer checkpoint (entre la creación y el primer borde)
+        Optional<StockCheckpoint> after = checkpointRepository
+                .findFirstByMaterialIdAndCheckpointDateGreaterThanOrderByCheckpointDateAsc(materialId, date);
+        if (after.isPresent())
+            return Quantity.subtract(after.get().getTotalStock(),
+                    movementRepository.sumStockDelta(materialId, date, after.get().getCheckpointDate()));
+
+        // Material sin checkpoints todavía: se parte del stock actual
+        return Quantity.subtract(totalStock(material), movementRepository.sumStockDeltaAfter(materialId, date));
+    }
+
+    private boolean needsBackfill(StockCheckpoint first, OffsetDateTime creationDate) {
+        // Sin fecha de creación no hay límite conocido: no se rellena hacia atrás
+        return creationDate != null
+                && !first.getCheckpointDate().minus(CHECKPOINT_INTERVAL).isBefore(creationDate);
+    }
+
+    private Material findMaterial(Long materialId) {
+        return materialRepository.findById(materialId)
+                .orElseThrow(() -> new ResourceNotFoundException("Material no encontrado con ID: " + materialId));
+    }
+
+    private static double totalStock(Material material) {
+        return Quantity.add(material.getStock(), material.getReservedStock());
+    }
+
+    private static Double delta(Movement movement) {
+        return movement.getType() == MovementType.INGRESO ? movement.getStock() : -movement.getStock();
+    }
+
+    private static StockCheckpoint checkpoint(Material material, OffsetDateTime date, double totalStock) {
+        return StockCheckpoint.builder()
+                .material(material)
+                .checkpointDate(date)
+                .totalStock(totalStock)
+                .build();
+    }
+
+    private static Map<Long, StockCheckpoint> byMaterial(List<StockCheckpoint> checkpoints) {
+        Map<Long, StockCheckpoint> map = new HashMap<>();
+        for (StockCheckpoint checkpoint : checkpoints)
+            map.put(checkpoint.getMaterial().getId(), checkpoint);
+        return map;
+    }
+
+    private static Map<Long, Double> deltas(List<MaterialStockDeltaProjectionDTO> rows) {
+        Map<Long, Double> map = new HashMap<>();
+        for (MaterialStockDeltaProjectionDTO row : rows)
+            map.put(row.getMaterialId(), row.getDelta());
+        return map;
+    }
+}
@@ -0,0 +1,29 @@
+package com.enigcode.frozen_backend.movements.task;
+
+import com.enigcode.frozen_backend.movements.service.MovementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Devuelve a la cola los movimientos tomados y abandonados
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MovementClaimTask {
+
+    private final MovementService movementService;
+
+    /**
+     * Libera las tomas vencidas cada 5 minutos. La consulta de tomas ya las
+     * considera disponibles; esto las vuelve a mostrar como PENDIENTE
+     */
+    @Scheduled(fixedRate = 5 * 60 * 1000) // 5 minutos
+    public void releaseExpiredClaims() {
+        int released = movementService.releaseExpiredClaims();
+        if (released > 0)
+            log.info("Movimientos devueltos a PENDIENTE por toma vencida: {}", released);
+    }
+}
@@ -0,0 +1,38 @@
+package com.enigcode.frozen_backend.movements.task;
+
+import com.enigcode.frozen_backend.movements.service.StockHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Genera de forma incremental los checkpoints de stock usados para consultar
+ * el stock histórico
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockCheckpointTask {
+
+    private final StockHistoryService stockHistoryService;
+
+    /**
+     * Cierra los intervalos pendientes cada hora
+     */
+    @Scheduled(fixedRate = 60 * 60 * 1000, initialDelay = 60 * 1000) // 1 hora
+    public void buildCheckpoints() {
+        try {
+            int created = stockHistoryService.buildCheckpoints(OffsetDateTime.now(ZoneOffset.UTC));
+            if (created > 0)
+                log.info("Checkpoints de stock generados: {}", created);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia generó los mismos checkpoints: se reintenta en la próxima ejecución
+            log.warn("No se pudieron guardar los checkpoints de stock: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+}
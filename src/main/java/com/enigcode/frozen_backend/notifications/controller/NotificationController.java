@@ -2,14 +2,17 @@ package com.enigcode.frozen_backend.notifications.controller;
 
 import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import com.enigcode.frozen_backend.notifications.service.NotificationService;
 import com.enigcode.frozen_backend.notifications.service.SseNotificationService;
+import com.enigcode.frozen_backend.notifications.service.SseSnapshot;
 import com.enigcode.frozen_backend.users.model.User;
 import com.enigcode.frozen_backend.users.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
@@ -34,15 +37,19 @@ import java.util.Map;
 @Slf4j
 public class NotificationController {
 
+    private static final int SSE_SNAPSHOT_SIZE = 20;
+
     private final NotificationService notificationService;
     private final UserService userService;
     private final SseNotificationService sseNotificationService;
 
-    @Operation(summary = "Obtener notificaciones del usuario", description = "Obtiene todas las notificaciones del usuario actual con paginación.")
+    @Operation(summary = "Obtener notificaciones del usuario", description = "Obtiene todas las notificaciones del usuario actual con paginación. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
     @GetMapping
     public ResponseEntity<Map<String, Object>> getUserNotifications(
             @RequestParam(defaultValue = "false") boolean unreadOnly,
             @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withCount,
             HttpServletRequest request) {
 
         User currentUser = userService.getCurrentUser();
@@ -52,6 +59,11 @@ public class NotificationController {
                 currentUser.getUsername(), unreadOnly,
                 getClientIpAddress(request), request.getHeader("User-Agent"));
 
+        if (after != null)
+            return ResponseEntity.ok(notificationService
+                    .getUserNotificationsByCursor(currentUser.getId(), unreadOnly, pageable, after, withCount)
+                    .toResponse("notifications"));
+
         Page<NotificationResponseDTO> notifications;
         if (unreadOnly) {
             notifications = notificationService.getUserUnreadNotifications(currentUser.getId(), pageable);
@@ -81,12 +93,20 @@ public class NotificationController {
         return new ResponseEntity<>(notification, HttpStatus.OK);
     }
 
-    @Operation(summary = "Marcar todas las notificaciones como leídas", description = "Marca todas las notificaciones del usuario como leídas")
+    @Operation(summary = "Marcar todas las notificaciones como leídas", description = "Marca como leídas las notificaciones del usuario, opcionalmente solo las de un tipo o las de un tipo y entidad relacionada. Devuelve la cantidad marcada")
     @PatchMapping("/read-all")
-    public ResponseEntity<Void> markAllAsRead() {
+    public ResponseEntity<Map<String, Integer>> markAllAsRead(
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) Long relatedEntityId) {
         User currentUser = userService.getCurrentUser();
-        notificationService.markAllAsRead(currentUser.getId());
-        return new ResponseEntity<>(HttpStatus.OK);
+        int marked;
+        if (relatedEntityId != null)
+            marked = notificationService.markAsReadByRelatedEntity(currentUser.getId(), type, relatedEntityId);
+        else if (type != null)
+            marked = notificationService.markAllAsRead(currentUser.getId(), type);
+        else
+            marked = notificationService.markAllAsRead(currentUser.getId());
+        return new ResponseEntity<>(Map.of("marked", marked), HttpStatus.OK);
     }
 
     @Operation(summary = "Obtener estadísticas de notificaciones", description = "Obtiene el conteo de notificaciones leídas y no leídas del usuario")
@@ -153,7 +173,8 @@ public class NotificationController {
 
     @Operation(summary = "Conectar a notificaciones en tiempo real", description = "Establece una conexión Server-Sent Events para recibir notificaciones en tiempo real")
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public ResponseEntity<SseEmitter> streamNotifications(HttpServletRequest request) {
+    public ResponseEntity<SseEmitter> streamNotifications(HttpServletRequest request,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         // Obtener username desde SecurityContext SIN CONSULTA DB
         String username = getCurrentUsername();
         if (username == null) {
@@ -167,7 +188,7 @@ public class NotificationController {
         SseEmitter emitter;
         try {
             // Intentar crear conexión usando cache primero (más rápido, sin DB)
-            emitter = sseNotificationService.createConnectionByUsername(username);
+            emitter = sseNotificationService.createConnectionByUsername(username, lastEventId, this::loadSseSnapshot);
         } catch (RuntimeException e) {
             // Cache miss: el usuario no está en cache pero la sesión sigue activa
             // Obtener userId desde BD y registrar en cache
@@ -176,7 +197,8 @@ public class NotificationController {
                 User currentUser = userService.getCurrentUser();
                 if (currentUser != null && currentUser.getUsername().equals(username)) {
                     // Crear conexión y registrar en cache simultáneamente
-                    emitter = sseNotificationService.createConnectionAndRegisterInCache(username, currentUser.getId());
+                    emitter = sseNotificationService.createConnectionAndRegisterInCache(username, currentUser.getId(),
+                            lastEventId, this::loadSseSnapshot);
                     log.info("Conexión SSE creada y cache repoblado para usuario: {} (ID: {})", username, currentUser.getId());
                 } else {
                     log.error("Usuario {} no encontrado o no coincide con usuario autenticado.", username);
@@ -196,6 +218,16 @@ public class NotificationController {
                 .body(emitter);
     }
 
+    /**
+     * Estado que recibe una reconexión SSE cuyo Last-Event-ID ya salió del
+     * buffer de reenvío
+     */
+    private SseSnapshot loadSseSnapshot(Long userId) {
+        return new SseSnapshot(
+                notificationService.getUserNotifications(userId, PageRequest.of(0, SSE_SNAPSHOT_SIZE)).getContent(),
+                notificationService.getUserNotificationStats(userId));
+    }
+
     @Operation(summary = "Obtener información de conexiones SSE", description = "Obtiene información sobre las conexiones activas del usuario")
     @GetMapping("/connections")
     public ResponseEntity<Map<String, Object>> getConnectionInfo() {
@@ -0,0 +1,7 @@
+package com.enigcode.frozen_backend.notifications.dto;
+
+public interface NotificationCountsProjectionDTO {
+    Long getUserId();
+    Long getTotalCount();
+    Long getUnreadCount();
+}
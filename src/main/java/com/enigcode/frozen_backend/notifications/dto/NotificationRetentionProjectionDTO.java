@@ -0,0 +1,7 @@
+package com.enigcode.frozen_backend.notifications.dto;
+
+public interface NotificationRetentionProjectionDTO {
+    Long getId();
+    Long getUserId();
+    Boolean getIsRead();
+}
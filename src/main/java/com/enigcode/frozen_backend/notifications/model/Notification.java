@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.notifications.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -11,7 +12,12 @@ import java.time.OffsetDateTime;
  * basándose en eventos del sistema como órdenes de producción pendientes
  */
 @Entity
-@Table(name = "notifications")
+// Índices para listar las notificaciones de un usuario por cursor sobre (fecha, id)
+// y para que la limpieza por fecha lea solo las vencidas
+@Table(name = "notifications", indexes = {
+    @Index(name = "IDX_notifications_user_created_at_id", columnList = "user_id, created_at, id"),
+    @Index(name = "IDX_notifications_created_at_id", columnList = "created_at, id")
+})
 @Getter
 @Setter
 @Builder
@@ -21,7 +27,7 @@ public class Notification {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_gen")
-    @SequenceGenerator(name = "notification_gen", sequenceName = "notification_seq", allocationSize = 1)
+    @SequenceGenerator(name = "notification_gen", sequenceName = "notification_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     /**
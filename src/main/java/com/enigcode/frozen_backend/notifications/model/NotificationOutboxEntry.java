@@ -0,0 +1,92 @@
+package com.enigcode.frozen_backend.notifications.model;
+
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Notificación pendiente de despacho (outbox).
+ *
+ * Se inserta en la misma transacción del evento de negocio que la origina, de
+ * modo que solo existe si ese cambio se confirmó. NotificationDispatcher la
+ * convierte luego en una Notification y la envía por SSE fuera de la
+ * transacción del request. Si no se puede despachar se cuentan los intentos;
+ * al llegar al máximo queda en la tabla como descartada (dead letter) y deja de
+ * tomarse.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_gen")
+    @SequenceGenerator(name = "notification_outbox_gen", sequenceName = "notification_outbox_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @NotNull
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    /**
+     * Momento del evento; se conserva como fecha de creación de la notificación
+     */
+    @NotNull
+    @Builder.Default
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    /**
+     * Despachos fallidos de esta entrada
+     */
+    @NotNull
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * Error del último despacho fallido
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * Registra un despacho fallido
+     */
+    public void recordFailure(String error) {
+        attempts++;
+        lastError = error == null || error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    /**
+     * Crea la notificación definitiva a partir de la entrada
+     */
+    public Notification toNotification() {
+        return Notification.builder()
+                .userId(userId)
+                .type(type)
+                .message(message)
+                .relatedEntityId(relatedEntityId)
+                .isRead(false)
+                .createdAt(createdAt)
+                .build();
+    }
+}
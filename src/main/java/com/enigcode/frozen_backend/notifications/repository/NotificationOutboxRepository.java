@@ -0,0 +1,56 @@
+package com.enigcode.frozen_backend.notifications.repository;
+
+import com.enigcode.frozen_backend.notifications.model.NotificationOutboxEntry;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de las notificaciones pendientes de despacho
+ */
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+        /**
+         * Próximas entradas a despachar en orden de llegada, sin las descartadas
+         * por superar maxAttempts. El lock hace que dos instancias no despachen
+         * las mismas entradas: la segunda espera a que la primera confirme y
+         * sigue con las que quedan
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT o FROM NotificationOutboxEntry o WHERE o.attempts < :maxAttempts ORDER BY o.id")
+        List<NotificationOutboxEntry> findNextBatch(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+        /**
+         * Entrada a despachar sola, bloqueada como en findNextBatch
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT o FROM NotificationOutboxEntry o WHERE o.id = :id AND o.attempts < :maxAttempts")
+        Optional<NotificationOutboxEntry> findDispatchable(@Param("id") Long id,
+                        @Param("maxAttempts") int maxAttempts);
+
+        /**
+         * De los usuarios dados, los que tienen pendiente una notificación del
+         * tipo para la entidad. Las descartadas no cuentan: no se van a entregar
+         */
+        @Query("""
+                        SELECT DISTINCT o.userId FROM NotificationOutboxEntry o
+                        WHERE o.userId IN :userIds
+                        AND o.type = :type
+                        AND o.relatedEntityId = :relatedEntityId
+                        AND o.attempts < :maxAttempts
+                        """)
+        List<Long> findPendingUserIds(@Param("userIds") Collection<Long> userIds,
+                        @Param("type") NotificationType type,
+                        @Param("relatedEntityId") Long relatedEntityId,
+                        @Param("maxAttempts") int maxAttempts);
+}
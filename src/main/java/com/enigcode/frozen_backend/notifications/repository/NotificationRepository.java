@@ -1,22 +1,27 @@
 package com.enigcode.frozen_backend.notifications.repository;
 
+import com.enigcode.frozen_backend.notifications.dto.NotificationCountsProjectionDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationRetentionProjectionDTO;
 import com.enigcode.frozen_backend.notifications.model.Notification;
 import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repositorio para manejar operaciones de base de datos de notificaciones
  */
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, JpaSpecificationExecutor<Notification> {
 
         /**
          * Obtiene todas las notificaciones de un usuario específico, ordenadas por
@@ -40,10 +45,59 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
         Long countByUserId(Long userId);
 
         /**
-         * Encuentra notificaciones por usuario y tipo, útil para evitar duplicados
+         * Cuenta totales y no leídas de varios usuarios en una sola consulta. Los
+         * usuarios sin notificaciones no aparecen en el resultado
          */
-        List<Notification> findByUserIdAndTypeAndRelatedEntityId(Long userId, NotificationType type,
-                        Long relatedEntityId);
+        @Query("""
+                        SELECT n.userId AS userId, COUNT(n) AS totalCount,
+                        SUM(CASE WHEN n.isRead = false THEN 1 ELSE 0 END) AS unreadCount
+                        FROM Notification n
+                        WHERE n.userId IN :userIds
+                        GROUP BY n.userId
+                        """)
+        List<NotificationCountsProjectionDTO> countByUserIds(@Param("userIds") Collection<Long> userIds);
+
+        /**
+         * Página de notificaciones de un usuario sin la consulta de conteo; el
+         * total lo aportan los contadores en memoria
+         */
+        List<Notification> findPageByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
+        /**
+         * Página de notificaciones no leídas de un usuario sin la consulta de conteo
+         */
+        List<Notification> findPageByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
+        /**
+         * De los usuarios dados, los que ya tienen una notificación del tipo para
+         * la entidad. Una sola consulta para todos los destinatarios, útil para
+         * evitar duplicados
+         */
+        @Query("""
+                        SELECT DISTINCT n.userId FROM Notification n
+                        WHERE n.userId IN :userIds
+                        AND n.type = :type
+                        AND n.relatedEntityId = :relatedEntityId
+                        """)
+        List<Long> findNotifiedUserIds(@Param("userIds") Collection<Long> userIds,
+                        @Param("type") NotificationType type,
+                        @Param("relatedEntityId") Long relatedEntityId);
+
+        /**
+         * Igual que {@link #findNotifiedUserIds}, contando solo las notificaciones
+         * creadas desde la fecha dada
+         */
+        @Query("""
+                        SELECT DISTINCT n.userId FROM Notification n
+                        WHERE n.userId IN :userIds
+                        AND n.type = :type
+                        AND n.relatedEntityId = :relatedEntityId
+                        AND n.createdAt >= :since
+                        """)
+        List<Long> findNotifiedUserIdsSince(@Param("userIds") Collection<Long> userIds,
+                        @Param("type") NotificationType type,
+                        @Param("relatedEntityId") Long relatedEntityId,
+                        @Param("since") OffsetDateTime since);
 
         /**
          * Obtiene todas las notificaciones no leídas de usuarios con rol
@@ -76,25 +130,40 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
         List<Long> findUserIdsWithUnreadNotifications(@Param("notificationType") NotificationType notificationType);
 
         /**
-         * Busca notificaciones recientes de stock bajo para evitar spam
+         * Marca como leídas en un solo UPDATE las notificaciones no leídas del
+         * usuario, opcionalmente solo las de un tipo y/o entidad relacionada
+         *
+         * @return cantidad de notificaciones marcadas
          */
+        @Modifying
         @Query("""
-                        SELECT n FROM Notification n
+                        UPDATE Notification n SET n.isRead = true, n.readAt = :readAt
                         WHERE n.userId = :userId
-                        AND n.type = 'LOW_STOCK_ALERT'
-                        AND n.relatedEntityId = :materialId
-                        AND n.createdAt >= :since
+                        AND n.isRead = false
+                        AND (:type IS NULL OR n.type = :type)
+                        AND (:relatedEntityId IS NULL OR n.relatedEntityId = :relatedEntityId)
                         """)
-        List<Notification> findRecentLowStockNotifications(@Param("userId") Long userId,
-                        @Param("materialId") Long materialId,
-                        @Param("since") OffsetDateTime since);
+        int markReadByUser(@Param("userId") Long userId, @Param("type") NotificationType type,
+                        @Param("relatedEntityId") Long relatedEntityId, @Param("readAt") OffsetDateTime readAt);
 
         /**
-         * Busca notificaciones antiguas para limpieza automática
+         * Próximo lote de notificaciones anteriores a cutoffDate para la limpieza
+         * automática. Recorre el índice (created_at, id) desde el principio, así
+         * que cada lote lee solo filas vencidas, sin importar el tamaño de la tabla
          */
         @Query("""
-                        SELECT n FROM Notification n
+                        SELECT n.id AS id, n.userId AS userId, n.isRead AS isRead
+                        FROM Notification n
                         WHERE n.createdAt < :cutoffDate
+                        ORDER BY n.createdAt, n.id
                         """)
-        List<Notification> findOldNotifications(@Param("cutoffDate") OffsetDateTime cutoffDate);
+        List<NotificationRetentionProjectionDTO> findExpiredChunk(@Param("cutoffDate") OffsetDateTime cutoffDate,
+                        Pageable pageable);
+
+        /**
+         * Borra notificaciones por id en un solo DELETE
+         */
+        @Modifying
+        @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+        int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entrega los eventos solo a las conexiones SSE de esta instancia. Alcanza con
+ * una sola instancia y es el modo de los tests
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.fanout.mode", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalSseEventBus implements SseEventBus {
+
+    private final SseNotificationService sseNotificationService;
+
+    @Override
+    public void publishNotification(Long userId, NotificationResponseDTO notification) {
+        sseNotificationService.sendNotificationToUser(userId, notification);
+    }
+
+    @Override
+    public void publishStats(Long userId, NotificationStatsDTO stats) {
+        sseNotificationService.sendStatsUpdate(userId, stats);
+    }
+}
@@ -0,0 +1,146 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.dto.NotificationCountsProjectionDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Contadores en memoria de notificaciones totales y no leídas por usuario.
+ *
+ * Cada usuario se carga de la base en su primer acceso y a partir de ahí se
+ * ajusta con los cambios ya confirmados (creación, lectura y limpieza), de modo
+ * que consultar las estadísticas o enviarlas por SSE no cuesta consultas. Un
+ * ajuste que coincide con la carga inicial puede perderse; la reconciliación
+ * periódica corrige esas diferencias.
+ *
+ * Los contadores son de cada instancia: las demás se enteran de un cambio por
+ * las estadísticas que publica SseEventBus (creación, lectura y limpieza), que
+ * les hace descartar al usuario y releerlo. Si ese aviso se pierde, quedan
+ * desactualizadas hasta la siguiente reconciliación.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationCounters {
+
+    private final NotificationRepository notificationRepository;
+
+    private final ConcurrentMap<Long, Counts> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Estadísticas del usuario, cargándolas de la base si aún no están en memoria
+     */
+    public NotificationStatsDTO getStats(Long userId) {
+        Counts current = counts.get(userId);
+        if (current == null)
+            current = load(userId);
+        return NotificationStatsDTO.builder()
+                .unreadCount(current.unread())
+                .totalCount(current.total())
+                .build();
+    }
+
+    /**
+     * Registra notificaciones nuevas (no leídas) del usuario
+     */
+    public void created(Long userId, long amount) {
+        adjust(userId, amount, amount);
+    }
+
+    /**
+     * Registra notificaciones del usuario marcadas como leídas
+     */
+    public void read(Long userId, long amount) {
+        adjust(userId, -amount, 0);
+    }
+
+    /**
+     * Registra notificaciones del usuario eliminadas
+     */
+    public void removed(Long userId, long unread, long total) {
+        adjust(userId, -unread, -total);
+    }
+
+    /**
+     * Descarta los contadores del usuario para que el próximo acceso los lea de
+     * la base; se usa cuando otra instancia cambió sus notificaciones
+     */
+    public void evict(Long userId) {
+        counts.remove(userId);
+    }
+
+    /**
+     * Vuelve a contar en la base a los usuarios cargados. Si un usuario recibió
+     * ajustes mientras se contaba, se conserva su valor y se revisa en la
+     * próxima pasada
+     *
+     * @return cantidad de usuarios cuyo contador estaba desfasado
+     */
+    public int reconcile() {
+        Map<Long, Counts> snapshot = new HashMap<>(counts);
+        if (snapshot.isEmpty())
+            return 0;
+
+        Map<Long, Counts> actual = query(snapshot.keySet());
+        int drifted = 0;
+        for (Map.Entry<Long, Counts> entry : snapshot.entrySet()) {
+            Counts expected = entry.getValue();
+            Counts fresh = actual.getOrDefault(entry.getKey(), Counts.EMPTY);
+            if (expected.sameCounts(fresh))
+                continue;
+            if (counts.replace(entry.getKey(), expected, fresh.withVersion(expected.version() + 1)))
+                drifted++;
+        }
+        if (drifted > 0)
+            log.warn("Contadores de notificaciones reconciliados: {} usuarios desfasados", drifted);
+        return drifted;
+    }
+
+    private Counts load(Long userId) {
+        Counts loaded = query(List.of(userId)).getOrDefault(userId, Counts.EMPTY);
+        Counts previous = counts.putIfAbsent(userId, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    private void adjust(Long userId, long unreadDelta, long totalDelta) {
+        // Los usuarios no cargados no se ajustan: leen el valor confirmado al
+        // primer acceso
+        counts.computeIfPresent(userId, (id, current) -> new Counts(
+                Math.max(0, current.unread() + unreadDelta),
+                Math.max(0, current.total() + totalDelta),
+                current.version() + 1));
+    }
+
+    private Map<Long, Counts> query(Collection<Long> userIds) {
+        Map<Long, Counts> result = new HashMap<>();
+        for (NotificationCountsProjectionDTO row : notificationRepository.countByUserIds(userIds))
+            result.put(row.getUserId(), new Counts(row.getUnreadCount(), row.getTotalCount(), 0));
+        return result;
+    }
+
+    /**
+     * Valores de un usuario; la versión distingue dos estados con los mismos
+     * números para que la reconciliación no pise un ajuste concurrente
+     */
+    private record Counts(long unread, long total, long version) {
+        static final Counts EMPTY = new Counts(0, 0, 0);
+
+        boolean sameCounts(Counts other) {
+            return unread == other.unread && total == other.total;
+        }
+
+        Counts withVersion(long newVersion) {
+            return new Counts(unread, total, newVersion);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
+import com.enigcode.frozen_backend.notifications.model.Notification;
+import com.enigcode.frozen_backend.notifications.model.NotificationOutboxEntry;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
+import com.enigcode.frozen_backend.notifications.repository.NotificationOutboxRepository;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import com.enigcode.frozen_backend.users.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Despacha las notificaciones encoladas en la outbox.
+ *
+ * Las transacciones de negocio solo insertan filas en notification_outbox. Al
+ * confirmarse, se despierta un único hilo que las toma de a lotes en orden de
+ * id, crea las notificaciones y borra las entradas en una misma transacción, y
+ * recién después envía los eventos SSE. Si el proceso falla antes de confirmar,
+ * las entradas siguen en la outbox y se reintentan (entrega al menos una vez);
+ * al ser un solo hilo por instancia, cada usuario las recibe en orden.
+ *
+ * Si un lote falla, se reintenta entrada por entrada para que una fila que no
+ * se puede guardar no frene a las demás. Cada fallo se cuenta en la entrada y,
+ * al llegar a app.notification.outbox.max-attempts, queda descartada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final UserRepository userRepository;
+    private final SseEventBus sseEventBus;
+    private final NotificationCounters notificationCounters;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.notification.outbox.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.notification.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Encola una notificación en la transacción en curso
+     */
+    public void enqueue(Long userId, NotificationType type, String message, Long relatedEntityId) {
+        enqueueAll(List.of(NotificationOutboxEntry.builder()
+                .userId(userId)
+                .type(type)
+                .message(message)
+                .relatedEntityId(relatedEntityId)
+                .build()));
+    }
+
+    /**
+     * Encola la misma notificación para varios destinatarios en un solo batch
+     */
+    public void enqueueForAll(Collection<Long> userIds, NotificationType type, String message,
+            Long relatedEntityId) {
+        enqueueAll(new LinkedHashSet<>(userIds).stream()
+                .map(userId -> NotificationOutboxEntry.builder()
+                        .userId(userId)
+                        .type(type)
+                        .message(message)
+                        .relatedEntityId(relatedEntityId)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Encola la notificación solo para los destinatarios que no tienen ya una
+     * del mismo tipo y entidad, guardada o pendiente en la outbox. Hace una
+     * consulta por tabla y un batch de inserts, sin importar cuántos
+     * destinatarios haya
+     *
+     * @param since si no es null, solo cuentan las notificaciones guardadas
+     *              desde esa fecha
+     * @return destinatarios a los que se les encoló la notificación
+     */
+    public List<Long> enqueueMissing(Collection<Long> userIds, NotificationType type, String message,
+            Long relatedEntityId, OffsetDateTime since) {
+        Set<Long> recipients = new LinkedHashSet<>(userIds);
+        if (recipients.isEmpty())
+            return List.of();
+
+        Set<Long> notified = new HashSet<>(since == null
+                ? notificationRepository.findNotifiedUserIds(recipients, type, relatedEntityId)
+                : notificationRepository.findNotifiedUserIdsSince(recipients, type, relatedEntityId, since));
+        notified.addAll(outboxRepository.findPendingUserIds(recipients, type, relatedEntityId, maxAttempts));
+
+        List<Long> missing = recipients.stream().filter(userId -> !notified.contains(userId)).toList();
+        enqueueForAll(missing, type, message, relatedEntityId);
+        return missing;
+    }
+
+    /**
+     * Encola varias notificaciones en un solo batch de inserts
+     */
+    public void enqueueAll(List<NotificationOutboxEntry> entries) {
+        if (entries.isEmpty())
+            return;
+        outboxRepository.saveAll(entries);
+        TransactionUtil.runAfterCommit(this::wakeUp);
+    }
+
+    /**
+     * Programa un vaciado de la outbox si no hay uno pendiente. Varios commits
+     * seguidos se resuelven con una sola pasada
+     */
+    public void wakeUp() {
+        if (drainScheduled.compareAndSet(false, true))
+            executor.execute(this::drain);
+    }
+
+    /**
+     * Despacha lotes hasta vaciar la outbox
+     *
+     * @return cantidad de entradas procesadas
+     */
+    int drain() {
+        drainScheduled.set(false);
+        int total = 0;
+        try {
+            DispatchedBatch batch;
+            do {
+                try {
+                    batch = transactionTemplate.execute(status -> dispatchBatch());
+                } catch (RuntimeException e) {
+                    log.warn("Falló un lote de la outbox, se reintenta entrada por entrada: {}", e.getMessage());
+                    batch = dispatchOneByOne();
+                }
+                total += batch.processed();
+                publish(batch.notifications());
+                // Tras un reintento de a una, las entradas que fallaron siguen al
+                // frente: esperan al próximo commit o a la pasada periódica
+            } while (batch.processed() == batchSize && !batch.retriedOneByOne());
+        } catch (RuntimeException e) {
+            // Las entradas del lote fallido siguen en la outbox; se reintentan
+            // en el próximo commit o en la pasada periódica
+            log.error("Error despachando notificaciones de la outbox: {}", e.getMessage(), e);
+        }
+        if (total > 0)
+            log.debug("Outbox de notificaciones: {} entradas despachadas", total);
+        return total;
+    }
+
+    private DispatchedBatch dispatchBatch() {
+        List<NotificationOutboxEntry> entries = outboxRepository.findNextBatch(maxAttempts,
+                PageRequest.of(0, batchSize));
+        return entries.isEmpty() ? new DispatchedBatch(0, List.of(), false) : dispatch(entries);
+    }
+
+    /**
+     * Despacha las entradas del próximo lote cada una en su transacción. Las
+     * que fallan suman un intento y quedan en la outbox
+     */
+    private DispatchedBatch dispatchOneByOne() {
+        List<Long> ids = transactionTemplate.execute(status -> outboxRepository
+                .findNextBatch(maxAttempts, PageRequest.of(0, batchSize)).stream()
+                .map(NotificationOutboxEntry::getId)
+                .toList());
+        int processed = 0;
+        List<Notification> notifications = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                DispatchedBatch single = transactionTemplate.execute(status -> outboxRepository
+                        .findDispatchable(id, maxAttempts)
+                        .map(entry -> dispatch(List.of(entry)))
+                        .orElseGet(() -> new DispatchedBatch(0, List.of(), false)));
+                processed += single.processed();
+                notifications.addAll(single.notifications());
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> recordFailure(id, e));
+            }
+        }
+        return new DispatchedBatch(processed, notifications, true);
+    }
+
+    private void recordFailure(Long id, RuntimeException error) {
+        outboxRepository.findById(id).ifPresent(entry -> {
+            entry.recordFailure(error.getMessage());
+            if (entry.getAttempts() >= maxAttempts)
+                log.error("Entrada {} de la outbox descartada tras {} intentos: {}", id, entry.getAttempts(),
+                        error.getMessage());
+            else
+                log.warn("Entrada {} de la outbox fallida (intento {}): {}", id, entry.getAttempts(),
+                        error.getMessage());
+        });
+    }
+
+    private DispatchedBatch dispatch(List<NotificationOutboxEntry> entries) {
+        Set<Long> userIds = new HashSet<>();
+        entries.forEach(entry -> userIds.add(entry.getUserId()));
+        Set<Long> existingUserIds = new HashSet<>(userRepository.findExistingIds(userIds));
+
+        List<Notification> notifications = entries.stream()
+                .filter(entry -> {
+                    if (existingUserIds.contains(entry.getUserId()))
+                        return true;
+                    log.warn("Notificación descartada: usuario {} inexistente", entry.getUserId());
+                    return false;
+                })
+                .map(NotificationOutboxEntry::toNotification)
+                .toList();
+
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        outboxRepository.deleteAllInBatch(entries);
+        return new DispatchedBatch(entries.size(), saved, false);
+    }
+
+    private void publish(List<Notification> notifications) {
+        Map<Long, Long> createdPerUser = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            sseEventBus.publishNotification(notification.getUserId(),
+                    notificationMapper.toResponseDTO(notification));
+            createdPerUser.merge(notification.getUserId(), 1L, Long::sum);
+        }
+        createdPerUser.forEach((userId, created) -> {
+            notificationCounters.created(userId, created);
+            sseEventBus.publishStats(userId, notificationCounters.getStats(userId));
+        });
+    }
+
+    private record DispatchedBatch(int processed, List<Notification> notifications, boolean retriedOneByOne) {
+    }
+}
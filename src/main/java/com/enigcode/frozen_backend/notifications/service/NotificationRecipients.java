@@ -0,0 +1,64 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.users.model.Role;
+import com.enigcode.frozen_backend.users.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Directorio en caché de destinatarios de notificaciones: usuarios por rol y
+ * supervisores por sector.
+ *
+ * Solo cambia al crear usuarios, cambiar sus roles o su estado y al reasignar
+ * el supervisor de un sector; esos servicios llaman a {@link #invalidate()}.
+ * La invalidación se avisa también a las demás instancias.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationRecipients implements InstanceCache {
+
+    public static final String CACHE = "notificationRecipients";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final InstanceCacheSync cacheSync;
+
+    @Cacheable(value = CACHE, key = "'role:' + #role.name()")
+    public List<Long> usersWithRole(Role role) {
+        return List.copyOf(userRepository.findUserIdsByRole(role));
+    }
+
+    @Cacheable(value = CACHE, key = "'sector:' + #sectorId")
+    public List<Long> sectorSupervisors(Long sectorId) {
+        return List.copyOf(userRepository.findSupervisorIdsBySectorId(sectorId));
+    }
+
+    /**
+     * Vacía el directorio una vez confirmada la transacción en curso, para que
+     * una lectura concurrente no vuelva a cargar los datos anteriores
+     */
+    public void invalidate() {
+        TransactionUtil.runAfterCommit(this::refresh);
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    @Override
+    public void refresh() {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null)
+            cache.clear();
+    }
+}
@@ -0,0 +1,54 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.common.retention.RetentionPolicy;
+import com.enigcode.frozen_backend.notifications.dto.NotificationRetentionProjectionDTO;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Retención de notificaciones: borra las vencidas por id y, al confirmar cada
+ * lote, las descuenta de los contadores de sus usuarios y publica sus
+ * estadísticas, para que las demás instancias descarten los contadores que
+ * tengan en memoria
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationRetentionPolicy implements RetentionPolicy<NotificationRetentionProjectionDTO> {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounters notificationCounters;
+    private final SseEventBus sseEventBus;
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public List<NotificationRetentionProjectionDTO> findExpired(OffsetDateTime cutoff, int limit) {
+        return notificationRepository.findExpiredChunk(cutoff, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int delete(List<NotificationRetentionProjectionDTO> expired) {
+        int deleted = notificationRepository.deleteByIdIn(
+                expired.stream().map(NotificationRetentionProjectionDTO::getId).toList());
+
+        Map<Long, List<NotificationRetentionProjectionDTO>> removedPerUser = expired.stream()
+                .collect(Collectors.groupingBy(NotificationRetentionProjectionDTO::getUserId));
+        TransactionUtil.runAfterCommit(() -> removedPerUser.forEach((userId, removed) -> {
+            long unread = removed.stream().filter(n -> !n.getIsRead()).count();
+            notificationCounters.removed(userId, unread, removed.size());
+            sseEventBus.publishStats(userId, notificationCounters.getStats(userId));
+        }));
+        return deleted;
+    }
+}
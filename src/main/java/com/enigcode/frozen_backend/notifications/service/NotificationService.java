@@ -1,21 +1,24 @@
 package com.enigcode.frozen_backend.notifications.service;
 
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
 import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 /**
  * Servicio para manejar notificaciones del sistema
  */
 public interface NotificationService {
 
     /**
-     * Crea una nueva notificación para un usuario (uso interno)
+     * Encola una nueva notificación para un usuario (uso interno). Se persiste
+     * y se envía por SSE después de confirmarse la transacción en curso
      */
-    NotificationResponseDTO createNotification(Long userId, NotificationType type, String message,
-            Long relatedEntityId);
+    void createNotification(Long userId, NotificationType type, String message, Long relatedEntityId);
 
     /**
      * Obtiene todas las notificaciones de un usuario con paginación
@@ -27,6 +30,13 @@ public interface NotificationService {
      */
     Page<NotificationResponseDTO> getUserUnreadNotifications(Long userId, Pageable pageable);
 
+    /**
+     * Obtiene las notificaciones de un usuario (opcionalmente solo las no leídas)
+     * paginando por cursor: sin OFFSET y con el total solo si se pide
+     */
+    CursorPageDTO<NotificationResponseDTO> getUserNotificationsByCursor(Long userId, boolean unreadOnly,
+            Pageable pageable, String after, boolean withCount);
+
     /**
      * Marca una notificación como leída
      */
@@ -34,8 +44,25 @@ public interface NotificationService {
 
     /**
      * Marca todas las notificaciones de un usuario como leídas
+     *
+     * @return cantidad de notificaciones marcadas
+     */
+    int markAllAsRead(Long userId);
+
+    /**
+     * Marca como leídas las notificaciones de un tipo del usuario
+     *
+     * @return cantidad de notificaciones marcadas
      */
-    void markAllAsRead(Long userId);
+    int markAllAsRead(Long userId, NotificationType type);
+
+    /**
+     * Marca como leídas las notificaciones del usuario sobre una entidad (por
+     * ejemplo las de una orden de producción ya resuelta)
+     *
+     * @return cantidad de notificaciones marcadas
+     */
+    int markAsReadByRelatedEntity(Long userId, NotificationType type, Long relatedEntityId);
 
     /**
      * Obtiene estadísticas de notificaciones del usuario
@@ -54,6 +81,12 @@ public interface NotificationService {
      */
     void createPendingMovementNotification(Long movementId, String materialName, String movementType);
 
+    /**
+     * Crea una sola notificación por operario de almacén para un conjunto de
+     * movimientos pendientes creados juntos (por ejemplo al cancelar un lote)
+     */
+    void createPendingMovementsNotification(List<Long> movementIds, String reason);
+
     /**
      * Crea notificación automática para alerta de stock bajo
      * Este método será llamado desde MovementService cuando un egreso deje stock
@@ -2,6 +2,10 @@ package com.enigcode.frozen_backend.notifications.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
+import com.enigcode.frozen_backend.common.retention.RetentionRunner;
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
 import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
 import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
@@ -9,14 +13,16 @@ import com.enigcode.frozen_backend.notifications.model.Notification;
 import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
 import com.enigcode.frozen_backend.users.model.Role;
-import com.enigcode.frozen_backend.users.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
@@ -30,61 +36,54 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final NotificationMapper notificationMapper;
-    private final UserRepository userRepository;
-    private final SseNotificationService sseNotificationService;
+    private final NotificationRecipients notificationRecipients;
+    private final SseEventBus sseEventBus;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationCounters notificationCounters;
+    private final NotificationRetentionPolicy notificationRetentionPolicy;
+    private final RetentionRunner retentionRunner;
 
     @Value("${app.notification.cleanup.days:30}")
     private int notificationCleanupDays;
 
     @Override
-    public NotificationResponseDTO createNotification(Long userId, NotificationType type, String message,
-            Long relatedEntityId) {
-        // Verificar que el usuario existe
-        if (!userRepository.existsById(userId)) {
-            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + userId);
-        }
-
-        Notification notification = Notification.builder()
-                .userId(userId)
-                .type(type)
-                .message(message)
-                .relatedEntityId(relatedEntityId)
-                .isRead(false)
-                .build();
-
-        log.info("💾 Guardando notificación en BD para usuario {}", userId);
-        Notification savedNotification = notificationRepository.save(notification);
-        log.info("✅ Notificación guardada con ID: {}", savedNotification.getId());
-
-        NotificationResponseDTO responseDTO = notificationMapper.toResponseDTO(savedNotification);
-
-        // Enviar notificación en tiempo real vía SSE
-        log.info("📡 Enviando notificación SSE para usuario {}", userId);
-        sseNotificationService.sendNotificationToUser(userId, responseDTO);
-
-        // Enviar actualización de estadísticas
-        log.info("📊 Enviando actualización de estadísticas SSE para usuario {}", userId);
-        NotificationStatsDTO stats = getUserNotificationStats(userId);
-        sseNotificationService.sendStatsUpdate(userId, stats);
-
-        log.info("🎉 Notificación completamente procesada para usuario {}: {}", userId, message);
-
-        return responseDTO;
+    public void createNotification(Long userId, NotificationType type, String message, Long relatedEntityId) {
+        // Solo se inserta la entrada en la outbox dentro de la transacción del
+        // llamador; el guardado definitivo y el envío SSE los hace el despachador
+        notificationDispatcher.enqueue(userId, type, message, relatedEntityId);
+        log.info("📨 Notificación encolada para usuario {}: {}", userId, message);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<NotificationResponseDTO> getUserNotifications(Long userId, Pageable pageable) {
-        Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
-        return notifications.map(notificationMapper::toResponseDTO);
+        // El total sale de los contadores en memoria en lugar de un COUNT
+        List<Notification> notifications = notificationRepository.findPageByUserIdOrderByCreatedAtDesc(userId,
+                pageable);
+        return PageableExecutionUtils.getPage(notifications, pageable,
+                () -> notificationCounters.getStats(userId).getTotalCount())
+                .map(notificationMapper::toResponseDTO);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<NotificationResponseDTO> getUserUnreadNotifications(Long userId, Pageable pageable) {
-        Page<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId,
-                pageable);
-        return notifications.map(notificationMapper::toResponseDTO);
+        List<Notification> notifications = notificationRepository
+                .findPageByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId, pageable);
+        return PageableExecutionUtils.getPage(notifications, pageable,
+                () -> notificationCounters.getStats(userId).getUnreadCount())
+                .map(notificationMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<NotificationResponseDTO> getUserNotificationsByCursor(Long userId, boolean unreadOnly,
+            Pageable pageable, String after, boolean withCount) {
+        Specification<Notification> filter = (root, query, cb) -> unreadOnly
+                ? cb.and(cb.equal(root.get("userId"), userId), cb.isFalse(root.get("isRead")))
+                : cb.equal(root.get("userId"), userId);
+        return Keyset.fetch(notificationRepository, filter, pageable, after, withCount)
+                .map(notificationMapper::toResponseDTO);
     }
 
     @Override
@@ -102,9 +101,11 @@ public class NotificationServiceImpl implements NotificationService {
             notification.markAsRead();
             notification = notificationRepository.save(notification);
 
-            // Enviar actualización de estadísticas vía SSE
-            NotificationStatsDTO stats = getUserNotificationStats(userId);
-            sseNotificationService.sendStatsUpdate(userId, stats);
+            // Actualizar contadores y enviar estadísticas vía SSE una vez confirmado
+            TransactionUtil.runAfterCommit(() -> {
+                notificationCounters.read(userId, 1);
+                sseEventBus.publishStats(userId, notificationCounters.getStats(userId));
+            });
 
             log.info("Notificación {} marcada como leída por usuario {}", notificationId, userId);
         }
@@ -113,27 +114,46 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications = notificationRepository
-                .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId, Pageable.unpaged())
-                .getContent();
+    public int markAllAsRead(Long userId) {
+        return markRead(userId, null, null);
+    }
 
-        unreadNotifications.forEach(Notification::markAsRead);
-        notificationRepository.saveAll(unreadNotifications);
+    @Override
+    public int markAllAsRead(Long userId, NotificationType type) {
+        return markRead(userId, type, null);
+    }
 
-        log.info("Todas las notificaciones marcadas como leídas para usuario {}", userId);
+    @Override
+    public int markAsReadByRelatedEntity(Long userId, NotificationType type, Long relatedEntityId) {
+        // El id solo no identifica la entidad: órdenes y materiales comparten numeración
+        if (type == null || relatedEntityId == null)
+            throw new BadRequestException("Se requieren el tipo y la entidad relacionada de las notificaciones");
+        return markRead(userId, type, relatedEntityId);
+    }
+
+    /**
+     * Marca en un solo UPDATE y, una vez confirmado, descuenta las marcadas de
+     * los contadores y envía una sola actualización de estadísticas
+     */
+    private int markRead(Long userId, NotificationType type, Long relatedEntityId) {
+        int marked = notificationRepository.markReadByUser(userId, type, relatedEntityId, OffsetDateTime.now());
+
+        if (marked > 0) {
+            TransactionUtil.runAfterCommit(() -> {
+                notificationCounters.read(userId, marked);
+                sseEventBus.publishStats(userId, notificationCounters.getStats(userId));
+            });
+        }
+
+        log.info("{} notificaciones marcadas como leídas para usuario {} (tipo: {}, entidad: {})", marked, userId,
+                type != null ? type : "todos", relatedEntityId != null ? relatedEntityId : "todas");
+        return marked;
     }
 
     @Override
     @Transactional(readOnly = true)
     public NotificationStatsDTO getUserNotificationStats(Long userId) {
-        Long unreadCount = notificationRepository.countByUserIdAndIsReadFalse(userId);
-        Long totalCount = notificationRepository.countByUserId(userId);
-
-        return NotificationStatsDTO.builder()
-                .unreadCount(unreadCount)
-                .totalCount(totalCount)
-                .build();
+        return notificationCounters.getStats(userId);
     }
 
     @Override
@@ -142,7 +162,7 @@ public class NotificationServiceImpl implements NotificationService {
                 productName);
 
         // Obtener todos los usuarios con rol GERENTE_DE_PLANTA
-        List<Long> plantManagerIds = userRepository.findUserIdsByRole(Role.GERENTE_DE_PLANTA);
+        List<Long> plantManagerIds = notificationRecipients.usersWithRole(Role.GERENTE_DE_PLANTA);
         log.info("🔍 Usuarios con rol GERENTE_DE_PLANTA encontrados: {}", plantManagerIds);
 
         if (plantManagerIds.isEmpty()) {
@@ -153,28 +173,18 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("Nueva orden de producción pendiente de aprobación para producto: %s",
                 productName);
 
-        // Crear notificación para cada gerente de planta
-        for (Long userId : plantManagerIds) {
-            // Verificar si ya existe una notificación para esta orden y usuario
-            List<Notification> existingNotifications = notificationRepository
-                    .findByUserIdAndTypeAndRelatedEntityId(userId, NotificationType.PRODUCTION_ORDER_PENDING, orderId);
-
-            if (existingNotifications.isEmpty()) {
-                log.info("📨 Creando notificación para usuario {} - orden {}", userId, orderId);
-                createNotification(userId, NotificationType.PRODUCTION_ORDER_PENDING, message, orderId);
-            } else {
-                log.info("⚠️ Notificación ya existe para usuario {} - orden {}", userId, orderId);
-            }
-        }
+        // Crear notificación para los gerentes que aún no la tienen para esta orden
+        List<Long> notifiedIds = notificationDispatcher.enqueueMissing(plantManagerIds,
+                NotificationType.PRODUCTION_ORDER_PENDING, message, orderId, null);
 
-        log.info("✅ Proceso completado: notificaciones para orden {} enviadas a {} gerentes de planta",
-                orderId, plantManagerIds.size());
+        log.info("✅ Proceso completado: notificaciones para orden {} enviadas a {} de {} gerentes de planta",
+                orderId, notifiedIds.size(), plantManagerIds.size());
     }
 
     @Override
     public void createPendingMovementNotification(Long movementId, String materialName, String movementType) {
         // Obtener todos los usuarios con rol OPERARIO_DE_ALMACEN
-        List<Long> warehouseOperatorIds = userRepository.findUserIdsByRole(Role.OPERARIO_DE_ALMACEN);
+        List<Long> warehouseOperatorIds = notificationRecipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
 
         if (warehouseOperatorIds.isEmpty()) {
             log.warn("No se encontraron usuarios con rol OPERARIO_DE_ALMACEN para notificar sobre movimiento {}",
@@ -185,26 +195,49 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("Nuevo movimiento de %s pendiente para material: %s",
                 movementType.toLowerCase(), materialName);
 
-        // Crear notificación para cada operario de almacén
-        for (Long userId : warehouseOperatorIds) {
-            // Verificar si ya existe una notificación para este movimiento y usuario
-            List<Notification> existingNotifications = notificationRepository
-                    .findByUserIdAndTypeAndRelatedEntityId(userId, NotificationType.PENDING_MOVEMENT, movementId);
+        // Crear notificación para los operarios que aún no la tienen para este movimiento
+        List<Long> notifiedIds = notificationDispatcher.enqueueMissing(warehouseOperatorIds,
+                NotificationType.PENDING_MOVEMENT, message, movementId, null);
+
+        log.info("Notificaciones creadas para movimiento pendiente {} para {} operarios de almacén",
+                movementId, notifiedIds.size());
+    }
+
+    @Override
+    public void createPendingMovementsNotification(List<Long> movementIds, String reason) {
+        if (movementIds.isEmpty())
+            return;
+
+        List<Long> warehouseOperatorIds = notificationRecipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
 
-            if (existingNotifications.isEmpty()) {
-                createNotification(userId, NotificationType.PENDING_MOVEMENT, message, movementId);
-            }
+        if (warehouseOperatorIds.isEmpty()) {
+            log.warn("No se encontraron usuarios con rol OPERARIO_DE_ALMACEN para notificar sobre {} movimientos",
+                    movementIds.size());
+            return;
         }
 
-        log.info("Notificaciones creadas para movimiento pendiente {} para {} operarios de almacén",
-                movementId, warehouseOperatorIds.size());
+        String message = reason == null || reason.isBlank()
+                ? String.format("%d movimientos pendientes", movementIds.size())
+                : String.format("%d movimientos pendientes: %s", movementIds.size(), reason);
+
+        // Los movimientos son nuevos, no hace falta buscar duplicados; se
+        // encolan todas las notificaciones en un solo batch. La notificación
+        // es del conjunto: no se asocia a ningún movimiento, para que no cuente
+        // como la de uno de ellos ni se marque leída al completarlo
+        notificationDispatcher.enqueueForAll(warehouseOperatorIds, NotificationType.PENDING_MOVEMENT, message,
+                null);
+
+        log.info("Notificación de {} movimientos pendientes creada para {} operarios de almacén",
+                movementIds.size(), warehouseOperatorIds.size());
     }
 
     @Override
+    // Se llama después del commit del movimiento: necesita su propia transacción
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void createLowStockNotification(Long materialId, String materialName, Double currentStock,
             Double threshold) {
         // Obtener todos los usuarios con rol SUPERVISOR_DE_ALMACEN
-        List<Long> warehouseSupervisorIds = userRepository.findUserIdsByRole(Role.SUPERVISOR_DE_ALMACEN);
+        List<Long> warehouseSupervisorIds = notificationRecipients.usersWithRole(Role.SUPERVISOR_DE_ALMACEN);
 
         if (warehouseSupervisorIds.isEmpty()) {
             log.warn(
@@ -216,39 +249,22 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("ALERTA: Material '%s' tiene stock bajo (%.2f unidades). Umbral mínimo: %.2f",
                 materialName, currentStock, threshold);
 
-        // Crear notificación para cada supervisor de almacén
-        for (Long userId : warehouseSupervisorIds) {
-            // Verificar si ya existe una notificación de stock bajo para este material y
-            // usuario en las últimas 24 horas
-            List<Notification> recentNotifications = notificationRepository
-                    .findRecentLowStockNotifications(userId, materialId, OffsetDateTime.now().minusDays(1));
-
-            if (recentNotifications.isEmpty()) {
-                createNotification(userId, NotificationType.LOW_STOCK_ALERT, message, materialId);
-            } else {
-                log.debug("Ya existe una notificación reciente de stock bajo para material {} y usuario {}", materialId,
-                        userId);
-            }
-        }
+        // Crear notificación para los supervisores sin una alerta de stock bajo
+        // de este material en las últimas 24 horas
+        List<Long> notifiedIds = notificationDispatcher.enqueueMissing(warehouseSupervisorIds,
+                NotificationType.LOW_STOCK_ALERT, message, materialId, OffsetDateTime.now().minusDays(1));
 
         log.info("Notificaciones creadas para stock bajo del material {} para {} supervisores de almacén",
-                materialId, warehouseSupervisorIds.size());
+                materialId, notifiedIds.size());
     }
 
     @Override
     @Scheduled(cron = "0 0 2 * * ?") // Ejecutar diariamente a las 2:00 AM
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupOldNotifications() {
+        // Sin transacción propia: el runner borra de a lotes, cada uno en la suya
         OffsetDateTime cutoffDate = OffsetDateTime.now().minusDays(notificationCleanupDays);
-
-        List<Notification> oldNotifications = notificationRepository.findOldNotifications(cutoffDate);
-
-        if (!oldNotifications.isEmpty()) {
-            notificationRepository.deleteAll(oldNotifications);
-            log.info("Limpieza automática: {} notificaciones antiguas eliminadas (anteriores a {})",
-                    oldNotifications.size(), cutoffDate);
-        } else {
-            log.debug("Limpieza automática: No hay notificaciones antiguas para eliminar");
-        }
+        retentionRunner.purge(notificationRetentionPolicy, cutoffDate);
     }
 
     @Override
@@ -256,7 +272,7 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("🔔 Creando notificación de lote iniciado para lote {} en sector {}", batchCode, sectorId);
 
         // Obtener el supervisor del sector específico
-        List<Long> supervisorIds = userRepository.findSupervisorIdsBySectorId(sectorId);
+        List<Long> supervisorIds = notificationRecipients.sectorSupervisors(sectorId);
 
         if (supervisorIds.isEmpty()) {
             log.warn("❌ No se encontró supervisor para el sector {} del lote {}", sectorId, batchCode);
@@ -265,10 +281,8 @@ public class NotificationServiceImpl implements NotificationService {
 
         String message = String.format("El lote %s ha iniciado producción en su sector", batchCode);
 
-        // Crear notificación para cada supervisor del sector
-        for (Long supervisorId : supervisorIds) {
-            createNotification(supervisorId, NotificationType.BATCH_STARTED, message, batchId);
-        }
+        // Crear notificación para los supervisores del sector en un solo batch
+        notificationDispatcher.enqueueForAll(supervisorIds, NotificationType.BATCH_STARTED, message, batchId);
 
         log.info("✅ Notificaciones de lote iniciado enviadas a {} supervisores del sector {}",
                 supervisorIds.size(), sectorId);
@@ -280,7 +294,7 @@ public class NotificationServiceImpl implements NotificationService {
                 batchCode, phaseName, sectorId);
 
         // Obtener el supervisor del sector específico de la próxima fase
-        List<Long> supervisorIds = userRepository.findSupervisorIdsBySectorId(sectorId);
+        List<Long> supervisorIds = notificationRecipients.sectorSupervisors(sectorId);
 
         if (supervisorIds.isEmpty()) {
             log.warn("❌ No se encontró supervisor para el sector {} de la fase {}", sectorId, phaseName);
@@ -290,10 +304,8 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("El lote %s está listo para iniciar la fase %s en su sector",
                 batchCode, phaseName);
 
-        // Crear notificación para cada supervisor del sector
-        for (Long supervisorId : supervisorIds) {
-            createNotification(supervisorId, NotificationType.NEXT_PHASE_READY, message, batchId);
-        }
+        // Crear notificación para los supervisores del sector en un solo batch
+        notificationDispatcher.enqueueForAll(supervisorIds, NotificationType.NEXT_PHASE_READY, message, batchId);
 
         log.info("✅ Notificaciones de próxima fase enviadas a {} supervisores del sector {}",
                 supervisorIds.size(), sectorId);
@@ -304,7 +316,7 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("🔔 Creando notificación de fase bajo revisión para lote {} - fase {}", batchCode, phaseName);
 
         // Obtener todos los operarios de calidad
-        List<Long> qualityOperatorIds = userRepository.findUserIdsByRole(Role.OPERARIO_DE_CALIDAD);
+        List<Long> qualityOperatorIds = notificationRecipients.usersWithRole(Role.OPERARIO_DE_CALIDAD);
 
         if (qualityOperatorIds.isEmpty()) {
             log.warn("❌ No se encontraron operarios de calidad para notificar sobre la fase {} del lote {}",
@@ -315,10 +327,8 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("La fase %s del lote %s está esperando revisión de calidad",
                 phaseName, batchCode);
 
-        // Crear notificación para cada operario de calidad
-        for (Long operatorId : qualityOperatorIds) {
-            createNotification(operatorId, NotificationType.PHASE_UNDER_REVIEW, message, productionPhaseId);
-        }
+        // Crear notificación para los operarios de calidad en un solo batch
+        notificationDispatcher.enqueueForAll(qualityOperatorIds, NotificationType.PHASE_UNDER_REVIEW, message, productionPhaseId);
 
         log.info("✅ Notificaciones de fase bajo revisión enviadas a {} operarios de calidad",
                 qualityOperatorIds.size());
@@ -331,7 +341,7 @@ public class NotificationServiceImpl implements NotificationService {
                 batchCode, phaseName, sectorId);
 
         // Obtener el supervisor del sector específico
-        List<Long> supervisorIds = userRepository.findSupervisorIdsBySectorId(sectorId);
+        List<Long> supervisorIds = notificationRecipients.sectorSupervisors(sectorId);
 
         if (supervisorIds.isEmpty()) {
             log.warn("❌ No se encontró supervisor para el sector {} de la fase {} que requiere ajuste",
@@ -343,10 +353,8 @@ public class NotificationServiceImpl implements NotificationService {
                 "La fase %s del lote %s requiere ajustes. Por favor, realice las correcciones necesarias",
                 phaseName, batchCode);
 
-        // Crear notificación para cada supervisor del sector
-        for (Long supervisorId : supervisorIds) {
-            createNotification(supervisorId, NotificationType.PHASE_ADJUSTMENT_REQUIRED, message, productionPhaseId);
-        }
+        // Crear notificación para los supervisores del sector en un solo batch
+        notificationDispatcher.enqueueForAll(supervisorIds, NotificationType.PHASE_ADJUSTMENT_REQUIRED, message, productionPhaseId);
 
         log.info("✅ Notificaciones de ajuste requerido enviadas a {} supervisores del sector {}",
                 supervisorIds.size(), sectorId);
@@ -359,7 +367,7 @@ public class NotificationServiceImpl implements NotificationService {
                 batchCode, phaseName, sectorId);
 
         // Obtener el supervisor del sector específico
-        List<Long> supervisorIds = userRepository.findSupervisorIdsBySectorId(sectorId);
+        List<Long> supervisorIds = notificationRecipients.sectorSupervisors(sectorId);
 
         if (supervisorIds.isEmpty()) {
             log.warn("❌ No se encontró supervisor para el sector {} de la fase {} rechazada",
@@ -370,10 +378,8 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("CRÍTICO: La fase %s del lote %s ha sido rechazada. El lote ha sido cancelado",
                 phaseName, batchCode);
 
-        // Crear notificación para cada supervisor del sector
-        for (Long supervisorId : supervisorIds) {
-            createNotification(supervisorId, NotificationType.PHASE_REJECTED_BATCH_CANCELLED, message, batchId);
-        }
+        // Crear notificación para los supervisores del sector en un solo batch
+        notificationDispatcher.enqueueForAll(supervisorIds, NotificationType.PHASE_REJECTED_BATCH_CANCELLED, message, batchId);
 
         log.info("✅ Notificaciones de lote cancelado enviadas a {} supervisores del sector {}",
                 supervisorIds.size(), sectorId);
@@ -386,7 +392,7 @@ public class NotificationServiceImpl implements NotificationService {
                 batchCode, phaseName, parameterName);
 
         // Obtener todos los supervisores de calidad
-        List<Long> qualitySupervisorIds = userRepository.findUserIdsByRole(Role.SUPERVISOR_DE_CALIDAD);
+        List<Long> qualitySupervisorIds = notificationRecipients.usersWithRole(Role.SUPERVISOR_DE_CALIDAD);
 
         if (qualitySupervisorIds.isEmpty()) {
             log.warn(
@@ -398,10 +404,8 @@ public class NotificationServiceImpl implements NotificationService {
         String message = String.format("Nuevo parámetro de calidad '%s' ingresado para la fase %s del lote %s",
                 parameterName, phaseName, batchCode);
 
-        // Crear notificación para cada supervisor de calidad
-        for (Long supervisorId : qualitySupervisorIds) {
-            createNotification(supervisorId, NotificationType.QUALITY_PARAMETER_ENTERED, message, productionPhaseId);
-        }
+        // Crear notificación para los supervisores de calidad en un solo batch
+        notificationDispatcher.enqueueForAll(qualitySupervisorIds, NotificationType.QUALITY_PARAMETER_ENTERED, message, productionPhaseId);
 
         log.info("✅ Notificaciones de parámetro de calidad enviadas a {} supervisores de calidad",
                 qualitySupervisorIds.size());
@@ -0,0 +1,345 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.Utils.TransactionUtil;
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Reparte los eventos SSE entre instancias con LISTEN/NOTIFY de PostgreSQL.
+ *
+ * Cada evento se entrega primero a las conexiones de esta instancia y luego se
+ * publica con pg_notify desde un hilo propio, fuera de la transacción que lo
+ * originó. Un hilo escucha el canal en una conexión dedicada (fuera del pool)
+ * y entrega a sus conexiones locales los eventos de las demás instancias,
+ * ignorando los propios.
+ *
+ * NOTIFY admite payloads de hasta 8000 bytes: una notificación que no entra
+ * viaja como referencia y cada receptor la lee de la base. Si la conexión de
+ * escucha se cae, al recuperarla se reinician las conexiones SSE locales y se
+ * reconcilian los contadores, porque los eventos del intervalo se perdieron.
+ *
+ * Por el mismo canal viajan los avisos de {@link InstanceCacheSync}: quien los
+ * recibe refresca sus {@link InstanceCache} con ese nombre. Los avisos de una
+ * misma caché que se acumulan antes de publicarse salen como uno solo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.fanout.mode", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresSseEventBus implements SseEventBus, InstanceCacheSync, MeterBinder {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final int PUBLISH_QUEUE_CAPACITY = 10_000;
+
+    private final SseNotificationService sseNotificationService;
+    private final NotificationCounters notificationCounters;
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<InstanceCache> instanceCaches;
+
+    @Value("${app.sse.fanout.channel:sse_events}")
+    private String channel = "sse_events";
+    @Value("${app.sse.fanout.max-payload-bytes:7900}")
+    private int maxPayloadBytes = 7900;
+    @Value("${app.sse.fanout.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs = 5000;
+    @Value("${spring.datasource.url:}")
+    private String url;
+    @Value("${spring.datasource.username:}")
+    private String username;
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Cachés con un aviso ya encolado: los cambios siguientes viajan con ese
+    private final Set<String> pendingCacheChanges = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder referenced = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    // Un solo hilo: los eventos salen en el orden en que se publicaron
+    private final ThreadPoolExecutor publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(PUBLISH_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "sse-fanout-publisher");
+                thread.setDaemon(true);
+                return thread;
+            }, (task, executor) -> {
+                failed.increment();
+                pendingCacheChanges.clear();
+                log.warn("Cola de publicación SSE entre instancias llena: evento descartado");
+            });
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    @PostConstruct
+    void start() {
+        if (!CHANNEL_NAME.matcher(channel).matches())
+            throw new IllegalStateException("Canal de NOTIFY inválido: " + channel);
+        running = true;
+        listener = new Thread(this::listen, "sse-fanout-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null)
+            listener.interrupt();
+        publisher.shutdown();
+    }
+
+    @Override
+    public void publishNotification(Long userId, NotificationResponseDTO notification) {
+        sseNotificationService.sendNotificationToUser(userId, notification);
+        publisher.execute(() -> broadcast(new SseClusterMessage(nodeId, SseClusterMessage.Kind.NOTIFICATION,
+                userId, notification.getId(), objectMapper.valueToTree(notification))));
+    }
+
+    @Override
+    public void publishStats(Long userId, NotificationStatsDTO stats) {
+        sseNotificationService.sendStatsUpdate(userId, stats);
+        publisher.execute(() -> broadcast(new SseClusterMessage(nodeId, SseClusterMessage.Kind.STATS_UPDATE,
+                userId, null, objectMapper.valueToTree(stats))));
+    }
+
+    @Override
+    public void changed(String cacheName) {
+        TransactionUtil.runAfterCommit(() -> {
+            if (pendingCacheChanges.add(cacheName))
+                publisher.execute(() -> {
+                    pendingCacheChanges.remove(cacheName);
+                    broadcast(SseClusterMessage.cacheChanged(nodeId, cacheName));
+                });
+        });
+    }
+
+    private void broadcast(SseClusterMessage message) {
+        String payload = encode(message);
+        if (payload == null)
+            return;
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+            published.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("No se pudo publicar evento SSE para usuario {} en otras instancias: {}", message.userId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Payload de NOTIFY para el mensaje, pasando a referencia las notificaciones
+     * que exceden el límite
+     *
+     * @return null si el mensaje no se puede enviar
+     */
+    String encode(SseClusterMessage message) {
+        String payload = write(message);
+        if (payload == null || payload.getBytes(StandardCharsets.UTF_8).length <= maxPayloadBytes)
+            return payload;
+        if (message.kind() == SseClusterMessage.Kind.NOTIFICATION && message.notificationId() != null) {
+            referenced.increment();
+            return write(message.asReference());
+        }
+        failed.increment();
+        log.warn("Evento SSE {} para usuario {} excede {} bytes: no se publica a otras instancias",
+                message.kind(), message.userId(), maxPayloadBytes);
+        return null;
+    }
+
+    private String write(SseClusterMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            failed.increment();
+            log.warn("Error serializando evento SSE entre instancias: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Entrega a las conexiones locales un evento recibido por NOTIFY
+     */
+    void receive(String payload) {
+        SseClusterMessage message;
+        try {
+            message = objectMapper.readValue(payload, SseClusterMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Evento SSE entre instancias inválido descartado: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.origin()))
+            return;
+        received.increment();
+
+        Long userId = message.userId();
+        switch (message.kind()) {
+            case STATS_UPDATE -> {
+                // Otra instancia cambió sus notificaciones: se releen al próximo acceso
+                notificationCounters.evict(userId);
+                if (sseNotificationService.isTracked(userId))
+                    sseNotificationService.sendStatsUpdate(userId, message.data().toString());
+            }
+            case NOTIFICATION -> {
+                if (sseNotificationService.isTracked(userId))
+                    sseNotificationService.sendNotificationToUser(userId, message.data().toString());
+            }
+            case NOTIFICATION_REF -> {
+                if (sseNotificationService.isTracked(userId))
+                    notificationRepository.findById(message.notificationId())
+                            .map(notificationMapper::toResponseDTO)
+                            .ifPresent(notification -> sseNotificationService.sendNotificationToUser(userId,
+                                    notification));
+            }
+            case CACHE_CHANGED -> instanceCaches.orderedStream()
+                    .filter(cache -> cache.cacheName().equals(message.cache()))
+                    .forEach(this::refresh);
+        }
+    }
+
+    private void listen() {
+        boolean listenedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                listening = true;
+                log.info("Escuchando eventos SSE de otras instancias en el canal {}", channel);
+                if (listenedBefore)
+                    resynchronize();
+                listenedBefore = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null)
+                        continue;
+                    for (PGNotification notification : notifications) {
+                        try {
+                            receive(notification.getParameter());
+                        } catch (RuntimeException e) {
+                            log.warn("Error entregando evento SSE de otra instancia: {}", e.getMessage());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running)
+                    log.warn("Conexión LISTEN de SSE perdida: {}. Reintento en {} ms", e.getMessage(),
+                            reconnectDelayMs);
+            } finally {
+                listening = false;
+            }
+            sleepBeforeReconnect();
+        }
+    }
+
+    /**
+     * Los eventos publicados mientras no se escuchaba se perdieron: los clientes
+     * locales reconectan con snapshot, los contadores se recuentan y las
+     * cachés en memoria se refrescan
+     */
+    private void resynchronize() {
+        log.warn("Canal {} recuperado tras una desconexión: resincronizando conexiones SSE locales", channel);
+        sseNotificationService.resetAllConnections();
+        try {
+            notificationCounters.reconcile();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron reconciliar los contadores de notificaciones: {}", e.getMessage());
+        }
+        instanceCaches.orderedStream().forEach(this::refresh);
+    }
+
+    private void refresh(InstanceCache cache) {
+        try {
+            cache.refresh();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo refrescar la caché {}: {}", cache.cacheName(), e.getMessage());
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        if (!running)
+            return;
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Indica si la conexión de escucha está activa
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sse.fanout.listening", this, bus -> bus.isListening() ? 1 : 0)
+                .description("Conexión LISTEN entre instancias activa")
+                .register(registry);
+        Gauge.builder("sse.fanout.publish.queue", publisher, executor -> executor.getQueue().size())
+                .description("Eventos SSE pendientes de publicar a otras instancias")
+                .register(registry);
+        FunctionCounter.builder("sse.fanout.published", published, LongAdder::sum)
+                .description("Eventos SSE publicados a otras instancias")
+                .register(registry);
+        FunctionCounter.builder("sse.fanout.received", received, LongAdder::sum)
+                .description("Eventos SSE recibidos de otras instancias")
+                .register(registry);
+        FunctionCounter.builder("sse.fanout.referenced", referenced, LongAdder::sum)
+                .description("Notificaciones publicadas como referencia por exceder el límite de NOTIFY")
+                .register(registry);
+        FunctionCounter.builder("sse.fanout.failed", failed, LongAdder::sum)
+                .description("Eventos SSE que no se pudieron publicar a otras instancias")
+                .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Evento SSE tal como viaja entre instancias en el payload de NOTIFY
+ *
+ * @param origin         instancia que lo publicó; ella ya lo entregó a sus
+ *                       conexiones
+ * @param kind           tipo de evento
+ * @param userId         usuario destinatario
+ * @param notificationId id de la notificación, en NOTIFICATION y
+ *                       NOTIFICATION_REF
+ * @param data           cuerpo JSON del evento; ausente en NOTIFICATION_REF
+ * @param cache          nombre de la caché modificada, en CACHE_CHANGED
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record SseClusterMessage(String origin, Kind kind, Long userId, Long notificationId, JsonNode data,
+        String cache) {
+
+    enum Kind {
+        NOTIFICATION,
+        /** Notificación demasiado grande para NOTIFY: el receptor la lee de la base */
+        NOTIFICATION_REF,
+        STATS_UPDATE,
+        /** Otra instancia cambió los datos de una InstanceCache */
+        CACHE_CHANGED
+    }
+
+    SseClusterMessage(String origin, Kind kind, Long userId, Long notificationId, JsonNode data) {
+        this(origin, kind, userId, notificationId, data, null);
+    }
+
+    static SseClusterMessage cacheChanged(String origin, String cache) {
+        return new SseClusterMessage(origin, Kind.CACHE_CHANGED, null, null, null, cache);
+    }
+
+    SseClusterMessage asReference() {
+        return new SseClusterMessage(origin, Kind.NOTIFICATION_REF, userId, notificationId, null);
+    }
+}
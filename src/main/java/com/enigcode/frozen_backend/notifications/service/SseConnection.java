@@ -0,0 +1,226 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Conexión SSE con su cola de salida acotada.
+ *
+ * Quien publica solo encola y vuelve; un hilo del executor de envío vacía la
+ * cola de a una conexión por vez, así que un navegador lento demora únicamente
+ * sus propios eventos. Si la cola sigue llena más allá del plazo, la conexión
+ * se expulsa y el cliente reconecta.
+ */
+@Slf4j
+class SseConnection {
+
+    /** Eventos enviados por tarea antes de ceder el hilo a otras conexiones */
+    private static final int MAX_EVENTS_PER_TASK = 32;
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final SseDeliveryStats stats;
+    private final int capacity;
+    private final long saturationDeadlineNanos;
+    private final BiConsumer<SseConnection, IOException> onSendError;
+    private final Consumer<SseConnection> onEvicted;
+
+    // Estado protegido por el monitor de la conexión
+    private final Deque<SseFrame> queue = new ArrayDeque<>();
+    private SseFrame pendingStats;
+    private boolean draining;
+    private boolean closed;
+    private long saturatedSince;
+    private SseTimerWheel.Timeout expiry;
+
+    SseConnection(Long userId, SseEmitter emitter, Executor executor, SseDeliveryStats stats, int capacity,
+            long saturationDeadlineMs, BiConsumer<SseConnection, IOException> onSendError,
+            Consumer<SseConnection> onEvicted) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.stats = stats;
+        this.capacity = capacity;
+        this.saturationDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(saturationDeadlineMs);
+        this.onSendError = onSendError;
+        this.onEvicted = onEvicted;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Encola un evento según la política de su tipo. Nunca bloquea
+     *
+     * @return false si el evento se descartó
+     */
+    boolean offer(SseFrame event) {
+        SseEventType type = event.getType();
+        boolean accepted = true;
+        boolean schedule = false;
+        boolean evict = false;
+        synchronized (this) {
+            if (closed)
+                return false;
+            switch (type.getPolicy()) {
+                case COALESCE -> {
+                    if (pendingStats != null)
+                        stats.recordCoalesced();
+                    pendingStats = event;
+                }
+                case SKIP_IF_BUSY -> {
+                    if (draining || !queue.isEmpty() || pendingStats != null)
+                        accepted = false;
+                    else
+                        queue.add(event);
+                }
+                case QUEUE -> {
+                    if (queue.size() >= capacity) {
+                        accepted = false;
+                        long now = System.nanoTime();
+                        if (saturatedSince == 0)
+                            saturatedSince = now;
+                        evict = now - saturatedSince > saturationDeadlineNanos;
+                    } else {
+                        queue.add(event);
+                    }
+                }
+            }
+            if (accepted && !draining) {
+                draining = true;
+                schedule = true;
+            }
+        }
+        if (!accepted)
+            stats.recordDropped(type);
+        if (evict)
+            evict();
+        else if (schedule)
+            schedule();
+        return accepted;
+    }
+
+    /**
+     * Expulsa la conexión si su cola lleva llena más que el plazo permitido
+     *
+     * @return true si se expulsó
+     */
+    boolean evictIfSaturated(long nowNanos) {
+        synchronized (this) {
+            if (closed || saturatedSince == 0 || nowNanos - saturatedSince <= saturationDeadlineNanos)
+                return false;
+        }
+        evict();
+        return true;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Asocia el temporizador de vencimiento, que se cancela al cerrar
+     */
+    synchronized void setExpiry(SseTimerWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Eventos en cola, incluida la estadística pendiente
+     */
+    synchronized int getQueuedEvents() {
+        return queue.size() + (pendingStats != null ? 1 : 0);
+    }
+
+    /**
+     * Descarta lo pendiente y completa el emitter
+     */
+    void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            queue.clear();
+            pendingStats = null;
+            if (expiry != null)
+                expiry.cancel();
+        }
+        try {
+            emitter.complete();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void evict() {
+        synchronized (this) {
+            if (closed)
+                return;
+        }
+        log.warn("Conexión SSE del usuario {} expulsada: cola llena por más de {} ms", userId,
+                TimeUnit.NANOSECONDS.toMillis(saturationDeadlineNanos));
+        stats.recordEvicted();
+        close();
+        onEvicted.accept(this);
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // El executor se está apagando junto con la aplicación
+            close();
+        }
+    }
+
+    private void drain() {
+        for (int sentInTask = 0; sentInTask < MAX_EVENTS_PER_TASK; sentInTask++) {
+            SseFrame next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    next = pendingStats;
+                    pendingStats = null;
+                }
+                if (next == null || closed) {
+                    draining = false;
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            try {
+                emitter.send(next.parts());
+            } catch (IOException e) {
+                close();
+                onSendError.accept(this, e);
+                return;
+            } catch (IllegalStateException e) {
+                // El emitter ya fue completado por el contenedor
+                close();
+                onSendError.accept(this, new IOException(e.getMessage(), e));
+                return;
+            }
+            stats.recordSent(System.nanoTime() - start);
+            synchronized (this) {
+                if (queue.size() < capacity)
+                    saturatedSince = 0;
+            }
+        }
+        // Quedan eventos: se reencola la tarea para no acaparar el hilo
+        schedule();
+    }
+}
@@ -0,0 +1,63 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores acumulados de la entrega SSE, compartidos por todas las conexiones
+ */
+class SseDeliveryStats {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final Map<SseEventType, LongAdder> dropped = new EnumMap<>(SseEventType.class);
+
+    SseDeliveryStats() {
+        for (SseEventType type : SseEventType.values())
+            dropped.put(type, new LongAdder());
+    }
+
+    void recordSent(long nanos) {
+        sent.increment();
+        sendNanos.add(nanos);
+    }
+
+    void recordDropped(SseEventType type) {
+        dropped.get(type).increment();
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    void recordEvicted() {
+        evicted.increment();
+    }
+
+    long getSent() {
+        return sent.sum();
+    }
+
+    long getSendNanos() {
+        return sendNanos.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    long getEvicted() {
+        return evicted.sum();
+    }
+
+    long getDropped(SseEventType type) {
+        return dropped.get(type).sum();
+    }
+
+    long getDropped() {
+        return dropped.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+}
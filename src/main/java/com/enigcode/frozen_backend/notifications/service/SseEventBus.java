@@ -0,0 +1,25 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+
+/**
+ * Publica eventos de notificaciones hacia las conexiones SSE de los usuarios,
+ * estén abiertas en esta instancia o en otra.
+ *
+ * La implementación se elige con app.sse.fanout.mode: "local" (por defecto)
+ * entrega solo a las conexiones de esta instancia; "postgres" además reparte
+ * los eventos al resto de las instancias con LISTEN/NOTIFY.
+ */
+public interface SseEventBus {
+
+    /**
+     * Publica una notificación nueva para su usuario
+     */
+    void publishNotification(Long userId, NotificationResponseDTO notification);
+
+    /**
+     * Publica las estadísticas actualizadas de un usuario
+     */
+    void publishStats(Long userId, NotificationStatsDTO stats);
+}
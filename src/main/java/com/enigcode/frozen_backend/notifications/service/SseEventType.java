@@ -0,0 +1,38 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+/**
+ * Eventos SSE y la política que aplica cada uno cuando la cola de salida de la
+ * conexión está ocupada
+ */
+enum SseEventType {
+    CONNECTED("connected", DeliveryPolicy.QUEUE),
+    HEARTBEAT("heartbeat", DeliveryPolicy.SKIP_IF_BUSY),
+    NOTIFICATION("notification", DeliveryPolicy.QUEUE),
+    INITIAL_NOTIFICATIONS("initial-notifications", DeliveryPolicy.QUEUE),
+    STATS_UPDATE("stats-update", DeliveryPolicy.COALESCE);
+
+    private final String eventName;
+    private final DeliveryPolicy policy;
+
+    SseEventType(String eventName, DeliveryPolicy policy) {
+        this.eventName = eventName;
+        this.policy = policy;
+    }
+
+    String getEventName() {
+        return eventName;
+    }
+
+    DeliveryPolicy getPolicy() {
+        return policy;
+    }
+
+    enum DeliveryPolicy {
+        /** Se encola; si la cola está llena se descarta y cuenta como saturación */
+        QUEUE,
+        /** Solo se conserva el último pendiente, que reemplaza al anterior */
+        COALESCE,
+        /** Se descarta si hay algo pendiente: cualquier envío ya mantiene viva la conexión */
+        SKIP_IF_BUSY
+    }
+}
@@ -0,0 +1,113 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evento SSE ya codificado en UTF-8.
+ *
+ * Se arma una sola vez y los mismos bytes se escriben en todas las conexiones
+ * destino, sin volver a pasar por los conversores de Spring. Es inmutable, por
+ * lo que puede quedar encolado en varias conexiones a la vez. El id de evento
+ * se agrega por destinatario como una parte aparte, sin copiar el cuerpo.
+ * Las partes se escriben tal cual con ResponseBodyEmitter.send(Set).
+ */
+final class SseFrame {
+
+    /** Heartbeat constante: solo un comentario, sin datos */
+    static final SseFrame HEARTBEAT = new SseFrame(SseEventType.HEARTBEAT,
+            ("event:" + SseEventType.HEARTBEAT.getEventName() + "\n:ping\n\n").getBytes(StandardCharsets.UTF_8));
+
+    private static final byte[] CONNECTED_PREFIX = ("event:" + SseEventType.CONNECTED.getEventName()
+            + "\ndata:{\"status\":\"connected\",\"userId\":").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CONNECTED_SUFFIX = "}\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final SseEventType type;
+    private final long id;
+    private final byte[] body;
+    private final Set<DataWithMediaType> parts;
+
+    private SseFrame(SseEventType type, byte[] body) {
+        this.type = type;
+        this.id = 0;
+        this.body = body;
+        this.parts = Set.of(new DataWithMediaType(body, MediaType.TEXT_PLAIN));
+    }
+
+    private SseFrame(SseFrame frame, long id) {
+        this.type = frame.type;
+        this.id = id;
+        this.body = frame.body;
+        byte[] idLine = ("id:" + id + "\n").getBytes(StandardCharsets.UTF_8);
+        // El orden de las partes es el orden de escritura
+        this.parts = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+                new DataWithMediaType(idLine, MediaType.TEXT_PLAIN),
+                new DataWithMediaType(body, MediaType.TEXT_PLAIN))));
+    }
+
+    /**
+     * Codifica un evento con datos ya serializados; cada línea del texto va en
+     * su propio campo data
+     */
+    static SseFrame of(SseEventType type, String data) {
+        StringBuilder frame = new StringBuilder(data.length() + 32)
+                .append("event:").append(type.getEventName()).append('\n');
+        for (String line : data.split("\n", -1))
+            frame.append("data:").append(line).append('\n');
+        frame.append('\n');
+        return new SseFrame(type, frame.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Evento de conexión: solo se codifica el id de usuario entre las partes fijas
+     */
+    static SseFrame connected(Long userId) {
+        byte[] id = String.valueOf(userId).getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[CONNECTED_PREFIX.length + id.length + CONNECTED_SUFFIX.length];
+        System.arraycopy(CONNECTED_PREFIX, 0, frame, 0, CONNECTED_PREFIX.length);
+        System.arraycopy(id, 0, frame, CONNECTED_PREFIX.length, id.length);
+        System.arraycopy(CONNECTED_SUFFIX, 0, frame, CONNECTED_PREFIX.length + id.length, CONNECTED_SUFFIX.length);
+        return new SseFrame(SseEventType.CONNECTED, frame);
+    }
+
+    /**
+     * El mismo evento con id, para que el navegador lo informe en Last-Event-ID
+     * al reconectar
+     */
+    SseFrame withId(long eventId) {
+        return new SseFrame(this, eventId);
+    }
+
+    SseEventType getType() {
+        return type;
+    }
+
+    /**
+     * Id del evento, o 0 si no lleva
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Texto del evento tal como sale por la conexión
+     */
+    @Override
+    public String toString() {
+        String text = new String(body, StandardCharsets.UTF_8);
+        return id == 0 ? text : "id:" + id + "\n" + text;
+    }
+
+    /**
+     * Partes a escribir en la respuesta, en orden; siempre las mismas instancias
+     */
+    Set<DataWithMediaType> parts() {
+        return parts;
+    }
+}
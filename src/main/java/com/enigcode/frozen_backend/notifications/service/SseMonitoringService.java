@@ -49,6 +49,12 @@ public class SseMonitoringService {
         metrics.put("connectedUsers", connectedUsers);
         metrics.put("avgConnectionsPerUser", connectedUsers > 0 ? (double) totalConnections / connectedUsers : 0);
 
+        // Entrega: colas de salida, descartes, expulsiones y latencia de escritura
+        metrics.put("queuedEvents", sseNotificationService.getQueuedEvents());
+        metrics.put("droppedEvents", sseNotificationService.getDroppedEvents());
+        metrics.put("evictedConnections", sseNotificationService.getEvictedConnections());
+        metrics.put("avgSendLatencyMs", sseNotificationService.getAverageSendLatencyMs());
+
         // Estimaciones de recursos
         double estimatedMemoryUsageMB = Math.round((totalConnections * 50 * 1024) / (1024.0 * 1024.0) * 100) / 100.0; // 50KB
                                                                                                                       // por
@@ -1,38 +1,93 @@
 package com.enigcode.frozen_backend.notifications.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Servicio para manejar conexiones Server-Sent Events (SSE)
  * Permite enviar notificaciones en tiempo real a usuarios conectados
  * IMPORTANTE: NO realiza queries a la BD para evitar connection leaks
+ *
+ * Los métodos de envío solo encolan en la conexión; la escritura al socket la
+ * hace el executor de envío, nunca el hilo de negocio ni el del scheduler.
+ * Cada evento se serializa a JSON una única vez y todas sus conexiones destino
+ * reciben los mismos bytes.
+ *
+ * Los eventos llevan ids crecientes y los de cada usuario quedan en un buffer
+ * acotado mientras está conectado y un rato después; al reconectar con
+ * Last-Event-ID solo se reenvía lo perdido. El id se asigna, se guarda en el
+ * buffer y se encola bajo el lock del buffer del usuario, así cada usuario los
+ * recibe en orden y el reenvío no se cruza con eventos nuevos.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class SseNotificationService {
+public class SseNotificationService implements MeterBinder {
 
     private static final Long SSE_TIMEOUT = 30 * 60 * 1000L; // 30 minutos
     private static final int MAX_CONNECTIONS_PER_USER = 2;
     private static final long HEARTBEAT_INTERVAL_MS = 30_000L; // 30s
-    private static final long CACHE_CLEANUP_INTERVAL_MS = 10 * 60 * 1000L; // 10 minutos
-    private static final long DEAD_CONNECTION_CLEANUP_INTERVAL_MS = 2 * 60 * 1000L; // 2 minutos
+    private static final long CACHE_ENTRY_TTL_MS = 10 * 60 * 1000L; // 10 minutos sin conexiones
+    private static final long TIMER_TICK_MS = 500L;
+    private static final int TIMER_WHEEL_SIZE = 128; // una vuelta cada 64s
+    private static final int OUTBOUND_QUEUE_CAPACITY = 64; // eventos por conexión
+    private static final long SLOW_CONSUMER_DEADLINE_MS = 60_000L; // cola llena tolerada antes de expulsar
+    private static final int SENDER_THREADS = 4;
+    private static final int REPLAY_BUFFER_SIZE = 50; // notificaciones por usuario
+    private static final long REPLAY_RETENTION_MS = 10 * 60 * 1000L; // buffer conservado tras desconectarse
 
     // Map para almacenar conexiones SSE por usuario
-    private final Map<Long, Set<SseEmitter>> userConnections = new ConcurrentHashMap<>();
-    // Cache en memoria username -> userId para evitar queries desde SSE
+    private final Map<Long, Set<SseConnection>> userConnections = new ConcurrentHashMap<>();
+    // Cache en memoria username <-> userId para evitar queries desde SSE. Ambos
+    // sentidos se modifican juntos bajo el lock; las lecturas no lo necesitan
     private final Map<String, Long> usernameToUserIdCache = new ConcurrentHashMap<>();
+    private final Map<Long, String> userIdToUsernameCache = new ConcurrentHashMap<>();
+    private final Object cacheLock = new Object();
+
+    // Buffers de reenvío por usuario; también sirven de lock por usuario
+    private final Map<Long, SseReplayBuffer> replayBuffers = new ConcurrentHashMap<>();
+    // Arranca en la hora actual: los ids emitidos antes de un reinicio quedan
+    // por debajo de cualquier buffer nuevo y piden snapshot
+    private final AtomicLong eventSequence = new AtomicLong(System.currentTimeMillis());
+
+    private final ObjectMapper objectMapper;
+    private final SseDeliveryStats deliveryStats = new SseDeliveryStats();
+    private final ExecutorService senderExecutor = Executors.newFixedThreadPool(SENDER_THREADS, new SenderThreadFactory());
+    private final SseTimerWheel timerWheel = new SseTimerWheel("sse-timer-wheel", TIMER_TICK_MS, TIMER_WHEEL_SIZE,
+            true);
+
+    @PreDestroy
+    void shutdown() {
+        timerWheel.stop();
+        senderExecutor.shutdownNow();
+    }
 
     /**
      * Crea una nueva conexión SSE para un usuario por username
@@ -41,13 +96,23 @@ public class SseNotificationService {
      * obteniendo el userId y llamando a createConnection(userId) directamente.
      */
     public SseEmitter createConnectionByUsername(String username) {
+        return createConnectionByUsername(username, null, null);
+    }
+
+    /**
+     * Igual que {@link #createConnectionByUsername(String)}, reenviando los
+     * eventos posteriores a lastEventId o, si ya no están, el snapshot que
+     * arme snapshotLoader
+     */
+    public SseEmitter createConnectionByUsername(String username, String lastEventId,
+            Function<Long, SseSnapshot> snapshotLoader) {
         // Buscar userId en cache (sin consultas DB)
         Long userId = usernameToUserIdCache.get(username);
         if (userId == null) {
             log.warn("Usuario {} no encontrado en cache SSE. El controlador debe manejar el cache miss.", username);
             throw new RuntimeException("Usuario no encontrado en cache: " + username + ". Debe hacer login primero o el cache fue limpiado.");
         }
-        return createConnection(userId);
+        return createConnection(userId, lastEventId, snapshotLoader);
     }
     
     /**
@@ -55,19 +120,37 @@ public class SseNotificationService {
      * Método de conveniencia para el controlador cuando hay cache miss.
      */
     public SseEmitter createConnectionAndRegisterInCache(String username, Long userId) {
+        return createConnectionAndRegisterInCache(username, userId, null, null);
+    }
+
+    /**
+     * Igual que {@link #createConnectionAndRegisterInCache(String, Long)}, con
+     * reenvío desde lastEventId
+     */
+    public SseEmitter createConnectionAndRegisterInCache(String username, Long userId, String lastEventId,
+            Function<Long, SseSnapshot> snapshotLoader) {
         // Registrar en cache si no está presente
         if (!usernameToUserIdCache.containsKey(username)) {
             registerUserInCache(username, userId);
             log.info("Usuario {} registrado en cache SSE con ID {} (cache miss recuperado)", username, userId);
         }
-        return createConnection(userId);
+        return createConnection(userId, lastEventId, snapshotLoader);
     }
 
     /**
      * Registra un usuario en el cache cuando hace login (llamar desde UserService)
      */
     public void registerUserInCache(String username, Long userId) {
-        usernameToUserIdCache.put(username, userId);
+        synchronized (cacheLock) {
+            Long previousUserId = usernameToUserIdCache.put(username, userId);
+            if (previousUserId != null && !previousUserId.equals(userId))
+                userIdToUsernameCache.remove(previousUserId, username);
+            String previousUsername = userIdToUsernameCache.put(userId, username);
+            if (previousUsername != null && !previousUsername.equals(username))
+                usernameToUserIdCache.remove(previousUsername, userId);
+        }
+        // Si no llega a conectarse, la entrada se descarta al vencer el plazo
+        timerWheel.schedule(CACHE_ENTRY_TTL_MS, () -> removeUserFromCacheIfNoActiveConnections(username));
         log.debug("Usuario {} registrado en cache SSE con ID {}", username, userId);
     }
 
@@ -75,7 +158,12 @@ public class SseNotificationService {
      * Remueve un usuario del cache cuando hace logout (llamar desde logout)
      */
     public void removeUserFromCache(String username) {
-        Long removedUserId = usernameToUserIdCache.remove(username);
+        Long removedUserId;
+        synchronized (cacheLock) {
+            removedUserId = usernameToUserIdCache.remove(username);
+            if (removedUserId != null)
+                userIdToUsernameCache.remove(removedUserId, username);
+        }
         if (removedUserId != null) {
             log.debug("Usuario {} removido del cache SSE", username);
         }
@@ -89,9 +177,12 @@ public class SseNotificationService {
         if (userId == null) {
             return;
         }
-        Set<SseEmitter> connections = userConnections.get(userId);
+        Set<SseConnection> connections = userConnections.get(userId);
         if (connections == null || connections.isEmpty()) {
-            usernameToUserIdCache.remove(username);
+            synchronized (cacheLock) {
+                if (usernameToUserIdCache.remove(username, userId))
+                    userIdToUsernameCache.remove(userId, username);
+            }
             log.debug("Usuario {} removido del cache SSE (sin conexiones activas)", username);
         } else {
             log.debug("Usuario {} no removido del cache SSE ({} conexiones activas)", username, connections.size());
@@ -102,31 +193,46 @@ public class SseNotificationService {
      * Crea una nueva conexión SSE para un usuario
      */
     public SseEmitter createConnection(Long userId) {
-        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+        return createConnection(userId, null, null);
+    }
 
-        // Agregar el emitter al conjunto de conexiones del usuario con límite
-        Set<SseEmitter> set = userConnections.computeIfAbsent(userId, k -> new CopyOnWriteArraySet<>());
-        while (set.size() >= MAX_CONNECTIONS_PER_USER) {
-            SseEmitter old = set.iterator().hasNext() ? set.iterator().next() : null;
-            if (old == null)
-                break;
-            set.remove(old);
-            try {
-                old.complete();
-            } catch (Exception ignored) {
-            }
-        }
-        set.add(emitter);
+    /**
+     * Crea una nueva conexión SSE para un usuario. Si el navegador informa
+     * Last-Event-ID se reenvían los eventos perdidos; si el buffer ya los
+     * descartó, se envía el snapshot de snapshotLoader
+     */
+    public SseEmitter createConnection(Long userId, String lastEventId, Function<Long, SseSnapshot> snapshotLoader) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT);
+        SseConnection connection = new SseConnection(userId, emitter, senderExecutor, deliveryStats,
+                OUTBOUND_QUEUE_CAPACITY, SLOW_CONSUMER_DEADLINE_MS,
+                (failed, e) -> {
+                    handleSseConnectionError(userId, e, "enviando evento");
+                    removeConnection(userId, failed);
+                },
+                evicted -> removeConnection(userId, evicted));
+
+        // El primer heartbeat cae en un punto al azar del intervalo para repartir
+        // la carga; el vencimiento limpia la conexión aunque el contenedor no
+        // llegue a avisar
+        timerWheel.schedule(ThreadLocalRandom.current().nextLong(1, HEARTBEAT_INTERVAL_MS + 1),
+                () -> heartbeat(connection));
+        connection.setExpiry(timerWheel.schedule(SSE_TIMEOUT + HEARTBEAT_INTERVAL_MS, () -> {
+            log.debug("Conexión SSE vencida para usuario: {}", userId);
+            connection.close();
+            removeConnection(userId, connection);
+        }));
 
         // Configurar callbacks para limpiar cuando la conexión se cierre o expire
         emitter.onCompletion(() -> {
             log.debug("Conexión SSE completada para usuario: {}", userId);
-            removeConnection(userId, emitter);
+            connection.close();
+            removeConnection(userId, connection);
         });
 
         emitter.onTimeout(() -> {
             log.debug("Conexión SSE expirada para usuario: {}", userId);
-            removeConnection(userId, emitter);
+            connection.close();
+            removeConnection(userId, connection);
         });
 
         emitter.onError((ex) -> {
@@ -139,75 +245,127 @@ public class SseNotificationService {
             } else {
                 log.debug("Error en conexión SSE para usuario {}: {}", userId, ex.getClass().getSimpleName());
             }
-            removeConnection(userId, emitter);
+            connection.close();
+            removeConnection(userId, connection);
         });
 
+        boolean snapshotNeeded;
+        while (true) {
+            SseReplayBuffer buffer = replayBuffers.computeIfAbsent(userId,
+                    id -> new SseReplayBuffer(REPLAY_BUFFER_SIZE, eventSequence.get()));
+            synchronized (buffer) {
+                // El buffer pudo vencer entre la búsqueda y el lock
+                if (replayBuffers.get(userId) != buffer)
+                    continue;
+                addConnection(userId, connection);
+                // Evento inicial de conexión, primero en la cola
+                connection.offer(SseFrame.connected(userId));
+                snapshotNeeded = lastEventId != null && !replay(buffer, connection, lastEventId);
+                break;
+            }
+        }
+
         log.info("Nueva conexión SSE creada para usuario: {}", userId);
 
-        // Enviar evento inicial de conexión con delay para evitar problemas de timing
-        try {
-            // Enviar un heartbeat inicial
-            emitter.send(SseEmitter.event()
-                    .name("connected")
-                    .data("{\"status\":\"connected\",\"userId\":" + userId + "}"));
-        } catch (IOException e) {
-            handleSseConnectionError(userId, e, "enviando evento inicial");
-            removeConnection(userId, emitter);
-        }
+        if (snapshotNeeded && snapshotLoader != null)
+            sendSnapshot(userId, connection, snapshotLoader);
         return emitter;
     }
 
     /**
-     * Envía heartbeats periódicos para mantener viva la conexión y detectar
-     * clientes caídos.
-     * Si el envío falla, se remueve la conexión.
+     * Agrega la conexión al conjunto del usuario, cerrando la más vieja si se
+     * supera el límite
+     */
+    private void addConnection(Long userId, SseConnection connection) {
+        userConnections.compute(userId, (id, set) -> {
+            Set<SseConnection> connections = set != null ? set : new CopyOnWriteArraySet<>();
+            while (connections.size() >= MAX_CONNECTIONS_PER_USER) {
+                SseConnection old = connections.iterator().next();
+                connections.remove(old);
+                old.close();
+            }
+            connections.add(connection);
+            return connections;
+        });
+    }
+
+    /**
+     * Encola en la conexión los eventos posteriores a lastEventId
+     *
+     * @return false si no se pueden reponer y hace falta un snapshot
      */
-    @Scheduled(fixedRate = HEARTBEAT_INTERVAL_MS)
-    public void sendHeartbeats() {
-        if (userConnections.isEmpty())
+    private boolean replay(SseReplayBuffer buffer, SseConnection connection, String lastEventId) {
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        // Un id mayor al actual viene de otra instancia o de antes de un reinicio
+        List<SseFrame> missed = lastId <= eventSequence.get() ? buffer.since(lastId) : null;
+        if (missed == null) {
+            log.debug("Last-Event-ID {} fuera del buffer de usuario {}: se envía snapshot", lastId,
+                    connection.getUserId());
+            return false;
+        }
+        missed.forEach(connection::offer);
+        log.debug("Reconexión SSE de usuario {}: {} eventos reenviados desde {}", connection.getUserId(),
+                missed.size(), lastId);
+        return true;
+    }
+
+    private void sendSnapshot(Long userId, SseConnection connection, Function<Long, SseSnapshot> snapshotLoader) {
+        SseSnapshot snapshot;
+        try {
+            snapshot = snapshotLoader.apply(userId);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo armar el snapshot SSE para usuario {}: {}", userId, e.getMessage());
             return;
-        userConnections.forEach((userId, connections) -> {
-            if (connections == null || connections.isEmpty())
-                return;
-            // Copia para evitar ConcurrentModification
-            Set<SseEmitter> snapshot = new CopyOnWriteArraySet<>(connections);
-            snapshot.forEach(emitter -> {
-                try {
-                    emitter.send(SseEmitter.event().name("heartbeat").comment("ping"));
-                } catch (IOException e) {
-                    handleSseConnectionError(userId, e, "heartbeat");
-                    removeConnection(userId, emitter);
-                }
-            });
+        }
+        SseFrame notifications = snapshot.notifications() != null
+                ? encode(SseEventType.INITIAL_NOTIFICATIONS, snapshot.notifications())
+                : null;
+        SseFrame stats = snapshot.stats() != null ? encode(SseEventType.STATS_UPDATE, snapshot.stats()) : null;
+        withUserLock(userId, buffer -> {
+            // Ids nuevos: la próxima reconexión retoma desde el snapshot
+            if (notifications != null)
+                connection.offer(notifications.withId(eventSequence.incrementAndGet()));
+            if (stats != null)
+                connection.offer(stats.withId(eventSequence.incrementAndGet()));
         });
     }
 
+    /**
+     * Heartbeat de una conexión para mantenerla viva y detectar clientes caídos.
+     * Si el envío falla, se remueve la conexión. De paso expulsa al consumidor
+     * si su cola sigue llena más allá del plazo; si no, se reprograma
+     */
+    private void heartbeat(SseConnection connection) {
+        if (connection.isClosed() || connection.evictIfSaturated(System.nanoTime()))
+            return;
+        connection.offer(SseFrame.HEARTBEAT);
+        timerWheel.schedule(HEARTBEAT_INTERVAL_MS, () -> heartbeat(connection));
+    }
+
     /**
      * Envía datos iniciales a un usuario (notificaciones + estadísticas)
      */
     public void sendInitialData(Long userId, Object notifications, Object stats) {
-        Set<SseEmitter> connections = userConnections.get(userId);
+        Set<SseConnection> connections = userConnections.get(userId);
         if (connections != null && !connections.isEmpty()) {
-            connections.forEach(emitter -> {
-                try {
-                    // Enviar notificaciones existentes
-                    if (notifications != null) {
-                        emitter.send(SseEmitter.event()
-                                .name("initial-notifications")
-                                .data(notifications));
-                    }
-
-                    // Enviar estadísticas
-                    if (stats != null) {
-                        emitter.send(SseEmitter.event()
-                                .name("stats-update")
-                                .data(stats));
-                    }
-                } catch (IOException e) {
-                    handleSseConnectionError(userId, e, "enviando datos iniciales");
-                    removeConnection(userId, emitter);
-                }
-            });
+            // Enviar notificaciones existentes; no se guardan para reenvío
+            if (notifications != null) {
+                SseFrame frame = encode(SseEventType.INITIAL_NOTIFICATIONS, notifications);
+                if (frame != null)
+                    withUserLock(userId, buffer -> {
+                        SseFrame event = frame.withId(eventSequence.incrementAndGet());
+                        userConnections.getOrDefault(userId, Set.of()).forEach(c -> c.offer(event));
+                    });
+            }
+
+            // Enviar estadísticas
+            if (stats != null)
+                publish(userId, encode(SseEventType.STATS_UPDATE, stats));
         }
     }
 
@@ -215,24 +373,11 @@ public class SseNotificationService {
      * Envía una notificación a un usuario específico
      */
     public void sendNotificationToUser(Long userId, Object notification) {
-        Set<SseEmitter> connections = userConnections.get(userId);
-        if (connections != null && !connections.isEmpty()) {
+        // Sin buffer el usuario no está conectado ni puede reconectar con reenvío
+        if (isTracked(userId)) {
             log.debug("Enviando notificación SSE a usuario: {} ({} conexiones activas)",
-                    userId, connections.size());
-
-            // Crear una copia para evitar modificaciones concurrentes
-            Set<SseEmitter> connectionsToSend = new CopyOnWriteArraySet<>(connections);
-
-            connectionsToSend.forEach(emitter -> {
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name("notification")
-                            .data(notification));
-                } catch (IOException e) {
-                    handleSseConnectionError(userId, e, "enviando notificación");
-                    removeConnection(userId, emitter);
-                }
-            });
+                    userId, getActiveConnectionsCount(userId));
+            publish(userId, encode(SseEventType.NOTIFICATION, notification));
         } else {
             log.debug("No hay conexiones SSE activas para usuario: {}", userId);
         }
@@ -242,55 +387,109 @@ public class SseNotificationService {
      * Envía una notificación a múltiples usuarios basado en sus roles
      */
     public void sendNotificationToUsers(Set<Long> userIds, Object notification) {
-        userIds.forEach(userId -> sendNotificationToUser(userId, notification));
+        SseFrame frame = null;
+        for (Long userId : userIds) {
+            if (!isTracked(userId))
+                continue;
+            // Se serializa recién cuando aparece el primer destinatario conectado
+            if (frame == null)
+                frame = encode(SseEventType.NOTIFICATION, notification);
+            publish(userId, frame);
+        }
     }
 
     /**
      * Envía un evento de actualización de estadísticas a un usuario
      */
     public void sendStatsUpdate(Long userId, Object stats) {
-        Set<SseEmitter> connections = userConnections.get(userId);
-        if (connections != null && !connections.isEmpty()) {
-            connections.forEach(emitter -> {
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name("stats-update")
-                            .data(stats));
-                } catch (IOException e) {
-                    handleSseConnectionError(userId, e, "enviando actualización de estadísticas");
-                    removeConnection(userId, emitter);
-                }
-            });
+        if (isTracked(userId)) {
+            // Si hay una actualización sin enviar, se reemplaza por esta
+            publish(userId, encode(SseEventType.STATS_UPDATE, stats));
+        }
+    }
+
+    /**
+     * Asigna id al evento, lo guarda para reenvío y lo encola en las conexiones
+     * del usuario. Los bytes del cuerpo se comparten entre destinatarios
+     */
+    private void publish(Long userId, SseFrame frame) {
+        if (frame == null)
+            return;
+        withUserLock(userId, buffer -> {
+            SseFrame event = frame.withId(eventSequence.incrementAndGet());
+            buffer.append(event);
+            Set<SseConnection> connections = userConnections.get(userId);
+            if (connections != null)
+                connections.forEach(connection -> connection.offer(event));
+        });
+    }
+
+    private void withUserLock(Long userId, Consumer<SseReplayBuffer> action) {
+        SseReplayBuffer buffer = replayBuffers.get(userId);
+        if (buffer == null)
+            return;
+        synchronized (buffer) {
+            action.accept(buffer);
+        }
+    }
+
+    /**
+     * Serializa los datos del evento. Los textos se envían tal cual, como hacía
+     * el conversor de Spring
+     *
+     * @return null si no se pudo serializar
+     */
+    private SseFrame encode(SseEventType type, Object data) {
+        if (data instanceof String text)
+            return SseFrame.of(type, text);
+        try {
+            return SseFrame.of(type, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el evento SSE {}: {}", type.getEventName(), e.getMessage());
+            return null;
         }
     }
 
     /**
      * Remueve una conexión específica de un usuario
      */
-    private void removeConnection(Long userId, SseEmitter emitter) {
-        Set<SseEmitter> connections = userConnections.get(userId);
-        if (connections != null) {
-            connections.remove(emitter);
-            if (connections.isEmpty()) {
-                userConnections.remove(userId);
-                log.debug("Todas las conexiones SSE removidas para usuario: {}", userId);
-                // Limpiar cache si no hay conexiones activas
-                cleanupCacheForUser(userId);
-            }
+    private void removeConnection(Long userId, SseConnection connection) {
+        boolean[] lastRemoved = new boolean[1];
+        userConnections.computeIfPresent(userId, (id, connections) -> {
+            connections.remove(connection);
+            lastRemoved[0] = connections.isEmpty();
+            return lastRemoved[0] ? null : connections;
+        });
+        if (lastRemoved[0]) {
+            log.debug("Todas las conexiones SSE removidas para usuario: {}", userId);
+            // Limpiar cache si no hay conexiones activas
+            cleanupCacheForUser(userId);
+            scheduleReplayExpiry(userId);
         }
     }
 
+    /**
+     * Descarta el buffer de reenvío si el usuario sigue sin conexiones al
+     * vencer el plazo
+     */
+    private void scheduleReplayExpiry(Long userId) {
+        timerWheel.schedule(REPLAY_RETENTION_MS, () -> withUserLock(userId, buffer -> {
+            if (getActiveConnectionsCount(userId) == 0)
+                replayBuffers.remove(userId, buffer);
+        }));
+    }
+
     /**
      * Limpia las entradas del cache para un userId específico si no tiene conexiones activas
      */
     private void cleanupCacheForUser(Long userId) {
-        usernameToUserIdCache.entrySet().removeIf(entry -> {
-            if (entry.getValue().equals(userId)) {
-                log.debug("Limpiando entrada de cache para usuario: {} (userId: {})", entry.getKey(), userId);
-                return true;
+        synchronized (cacheLock) {
+            String username = userIdToUsernameCache.remove(userId);
+            if (username != null) {
+                usernameToUserIdCache.remove(username, userId);
+                log.debug("Limpiando entrada de cache para usuario: {} (userId: {})", username, userId);
             }
-            return false;
-        });
+        }
     }
 
     /**
@@ -298,18 +497,33 @@ public class SseNotificationService {
      * ID.
      */
     public void closeAllConnectionsForUser(Long userId) {
-        Set<SseEmitter> connections = userConnections.remove(userId);
+        Set<SseConnection> connections = userConnections.remove(userId);
         if (connections != null) {
-            connections.forEach(emitter -> {
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                }
-            });
+            connections.forEach(SseConnection::close);
+            scheduleReplayExpiry(userId);
             log.debug("Conexiones SSE cerradas para usuario: {}", userId);
         }
     }
 
+    /**
+     * Cierra todas las conexiones y descarta los buffers de reenvío. Se usa
+     * cuando esta instancia pudo perder eventos: los clientes reconectan y, sin
+     * buffer que cubra su Last-Event-ID, reciben un snapshot completo
+     */
+    public void resetAllConnections() {
+        replayBuffers.clear();
+        userConnections.keySet().forEach(this::closeAllConnectionsForUser);
+        log.info("Conexiones SSE reiniciadas para resincronizar a los clientes");
+    }
+
+    /**
+     * Indica si el usuario tiene conexiones o un buffer de reenvío en esta
+     * instancia, es decir, si un evento para él se entregaría o guardaría
+     */
+    public boolean isTracked(Long userId) {
+        return replayBuffers.containsKey(userId);
+    }
+
     /**
      * Cierra y limpia todas las conexiones activas para un usuario especificado por
      * username.
@@ -325,7 +539,7 @@ public class SseNotificationService {
      * Obtiene el número de conexiones activas para un usuario
      */
     public int getActiveConnectionsCount(Long userId) {
-        Set<SseEmitter> connections = userConnections.get(userId);
+        Set<SseConnection> connections = userConnections.get(userId);
         return connections != null ? connections.size() : 0;
     }
 
@@ -363,6 +577,96 @@ public class SseNotificationService {
         return result;
     }
 
+    /**
+     * Obtiene la cantidad de eventos esperando en las colas de salida
+     */
+    public int getQueuedEvents() {
+        return userConnections.values().stream()
+                .flatMap(Set::stream)
+                .mapToInt(SseConnection::getQueuedEvents)
+                .sum();
+    }
+
+    /**
+     * Obtiene la cantidad de temporizadores pendientes en la rueda (heartbeats,
+     * vencimientos y entradas de cache)
+     */
+    public int getScheduledTimers() {
+        return timerWheel.size();
+    }
+
+    /**
+     * Obtiene la cantidad de usuarios con buffer de reenvío, conectados o
+     * dentro del plazo de retención
+     */
+    public int getReplayBuffersCount() {
+        return replayBuffers.size();
+    }
+
+    /**
+     * Obtiene el id del último evento emitido
+     */
+    public long getLastEventId() {
+        return eventSequence.get();
+    }
+
+    /**
+     * Obtiene la cantidad de eventos descartados por colas llenas u ocupadas
+     */
+    public long getDroppedEvents() {
+        return deliveryStats.getDropped();
+    }
+
+    /**
+     * Obtiene la cantidad de conexiones expulsadas por consumo lento
+     */
+    public long getEvictedConnections() {
+        return deliveryStats.getEvicted();
+    }
+
+    /**
+     * Obtiene la latencia promedio de escritura de un evento, en milisegundos
+     */
+    public double getAverageSendLatencyMs() {
+        long sent = deliveryStats.getSent();
+        return sent == 0 ? 0 : deliveryStats.getSendNanos() / (sent * 1_000_000.0);
+    }
+
+    /**
+     * Publica profundidad de colas, descartes, expulsiones y latencia de envío
+     * en Micrometer
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sse.connections", this, SseNotificationService::getTotalConnections)
+                .description("Conexiones SSE activas")
+                .register(registry);
+        Gauge.builder("sse.queue.depth", this, SseNotificationService::getQueuedEvents)
+                .description("Eventos SSE en colas de salida")
+                .register(registry);
+        Gauge.builder("sse.timers", this, SseNotificationService::getScheduledTimers)
+                .description("Temporizadores SSE pendientes")
+                .register(registry);
+        Gauge.builder("sse.replay.buffers", this, SseNotificationService::getReplayBuffersCount)
+                .description("Usuarios con buffer SSE de reenvío")
+                .register(registry);
+        for (SseEventType type : SseEventType.values())
+            FunctionCounter.builder("sse.events.dropped", deliveryStats, stats -> stats.getDropped(type))
+                    .tag("event", type.getEventName())
+                    .description("Eventos SSE descartados")
+                    .register(registry);
+        FunctionCounter.builder("sse.events.coalesced", deliveryStats, SseDeliveryStats::getCoalesced)
+                .description("Actualizaciones de estadísticas reemplazadas antes de enviarse")
+                .register(registry);
+        FunctionCounter.builder("sse.connections.evicted", deliveryStats, SseDeliveryStats::getEvicted)
+                .description("Conexiones SSE expulsadas por consumo lento")
+                .register(registry);
+        FunctionTimer.builder("sse.send.latency", deliveryStats, SseDeliveryStats::getSent,
+                SseDeliveryStats::getSendNanos, TimeUnit.NANOSECONDS)
+                .description("Tiempo de escritura de eventos SSE")
+                .register(registry);
+    }
+
     /**
      * Maneja errores de conexión SSE de manera más específica
      */
@@ -393,64 +697,16 @@ public class SseNotificationService {
     }
 
     /**
-     * Limpieza periódica del cache de usuarios que no tienen conexiones activas.
-     * Previene el crecimiento indefinido del cache en memoria.
+     * Hilos daemon con nombre para el executor de envío
      */
-    @Scheduled(fixedRate = CACHE_CLEANUP_INTERVAL_MS)
-    public void cleanupStaleCacheEntries() {
-        if (usernameToUserIdCache.isEmpty()) {
-            return;
-        }
-
-        int initialSize = usernameToUserIdCache.size();
-        usernameToUserIdCache.entrySet().removeIf(entry -> {
-            Long userId = entry.getValue();
-            Set<SseEmitter> connections = userConnections.get(userId);
-            if (connections == null || connections.isEmpty()) {
-                log.debug("Limpiando entrada de cache stale para usuario: {} (userId: {})", 
-                        entry.getKey(), userId);
-                return true;
-            }
-            return false;
-        });
-
-        int removed = initialSize - usernameToUserIdCache.size();
-        if (removed > 0) {
-            log.info("Limpieza de cache SSE: {} entradas removidas, {} restantes", 
-                    removed, usernameToUserIdCache.size());
-        }
-    }
-
-    /**
-     * Limpieza periódica de conexiones muertas que no fueron removidas correctamente
-     * por los callbacks. Esto previene memory leaks en caso de errores silenciosos.
-     * Limpia sets vacíos y usuarios sin conexiones activas.
-     */
-    @Scheduled(fixedRate = DEAD_CONNECTION_CLEANUP_INTERVAL_MS)
-    public void cleanupDeadConnections() {
-        if (userConnections.isEmpty()) {
-            return;
-        }
-
-        var userIdsToRemove = new java.util.ArrayList<Long>();
-
-        // Identificar usuarios sin conexiones o con sets vacíos
-        userConnections.forEach((userId, connections) -> {
-            if (connections == null || connections.isEmpty()) {
-                userIdsToRemove.add(userId);
-            }
-        });
-
-        // Remover usuarios sin conexiones y limpiar su cache
-        int usersRemoved = 0;
-        for (Long userId : userIdsToRemove) {
-            userConnections.remove(userId);
-            cleanupCacheForUser(userId);
-            usersRemoved++;
-        }
-
-        if (usersRemoved > 0) {
-            log.info("Limpieza de conexiones SSE muertas: {} usuarios sin conexiones removidos", usersRemoved);
+    private static class SenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "sse-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
     }
-}
\ No newline at end of file
+}
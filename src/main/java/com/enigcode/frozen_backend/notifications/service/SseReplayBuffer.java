@@ -0,0 +1,62 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Últimos eventos enviados a un usuario, para reenviar al reconectar solo lo
+ * que se perdió.
+ *
+ * Las notificaciones se guardan en un anillo de tamaño fijo; de las
+ * estadísticas alcanza con la última. Un Last-Event-ID anterior al último id
+ * descartado del anillo (o a la creación del buffer) ya no se puede cubrir y
+ * requiere un snapshot completo. No es thread-safe: se usa bajo el lock del
+ * propio buffer.
+ */
+class SseReplayBuffer {
+
+    private final SseFrame[] ring;
+    private int next;
+    private int size;
+    private SseFrame latestStats;
+    // Ids menores no se pueden reproducir
+    private long floorId;
+
+    SseReplayBuffer(int capacity, long floorId) {
+        this.ring = new SseFrame[capacity];
+        this.floorId = floorId;
+    }
+
+    void append(SseFrame frame) {
+        if (frame.getType() == SseEventType.STATS_UPDATE) {
+            latestStats = frame;
+            return;
+        }
+        if (size == ring.length)
+            floorId = ring[next].getId();
+        else
+            size++;
+        ring[next] = frame;
+        next = (next + 1) % ring.length;
+    }
+
+    /**
+     * Eventos posteriores a lastEventId, en orden
+     *
+     * @return null si el anillo ya descartó eventos que el cliente no recibió
+     */
+    List<SseFrame> since(long lastEventId) {
+        if (lastEventId < floorId)
+            return null;
+        List<SseFrame> missed = new ArrayList<>();
+        int start = (next - size + ring.length) % ring.length;
+        for (int i = 0; i < size; i++) {
+            SseFrame frame = ring[(start + i) % ring.length];
+            if (frame.getId() > lastEventId)
+                missed.add(frame);
+        }
+        if (latestStats != null && latestStats.getId() > lastEventId)
+            missed.add(latestStats);
+        return missed;
+    }
+}
@@ -0,0 +1,11 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+/**
+ * Estado completo que se envía a una conexión cuando sus eventos perdidos ya
+ * no están en el buffer de reenvío
+ *
+ * @param notifications notificaciones recientes del usuario
+ * @param stats         estadísticas del usuario
+ */
+public record SseSnapshot(Object notifications, Object stats) {
+}
@@ -0,0 +1,150 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rueda de temporizadores (hashed timer wheel) para heartbeats y vencimientos
+ * de conexiones SSE.
+ *
+ * Cada temporizador cae en la ranura de su tick de vencimiento y en cada tick
+ * solo se recorre una ranura, así que programar y cancelar cuesta O(1) y el
+ * trabajo se reparte entre ticks en lugar de concentrarse en un barrido. La
+ * precisión es de un tick, suficiente para heartbeats de decenas de segundos.
+ * Las tareas corren en el hilo de la rueda y no deben bloquear.
+ */
+@Slf4j
+class SseTimerWheel {
+
+    private final long tickMs;
+    private final Deque<Timeout>[] slots;
+    // Los temporizadores nuevos esperan acá y pasan a su ranura en el siguiente
+    // tick, así programar nunca compite con el recorrido de una ranura
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private volatile long tick;
+
+    @SuppressWarnings("unchecked")
+    SseTimerWheel(String name, long tickMs, int wheelSize, boolean start) {
+        this.tickMs = tickMs;
+        this.slots = new Deque[wheelSize];
+        for (int i = 0; i < wheelSize; i++)
+            slots[i] = new ArrayDeque<>();
+        if (start) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        } else {
+            // Sin hilo propio: los tests avanzan la rueda a mano
+            ticker = null;
+        }
+    }
+
+    /**
+     * Programa una tarea para dentro de al menos delayMs (redondeado al tick
+     * siguiente)
+     */
+    Timeout schedule(long delayMs, Runnable task) {
+        long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+        Timeout timeout = new Timeout(task, tick + ticks);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Temporizadores programados y aún no vencidos ni cancelados
+     */
+    int size() {
+        int size = 0;
+        for (Timeout timeout : pending)
+            if (!timeout.cancelled)
+                size++;
+        synchronized (slots) {
+            for (Deque<Timeout> slot : slots)
+                for (Timeout timeout : slot)
+                    if (!timeout.cancelled)
+                        size++;
+        }
+        return size;
+    }
+
+    void stop() {
+        if (ticker != null)
+            ticker.shutdownNow();
+    }
+
+    /**
+     * Procesa un tick: ubica los temporizadores nuevos y vence los de la ranura
+     * actual
+     */
+    void advance() {
+        long current = tick;
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (slots) {
+            Timeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (timeout.cancelled)
+                    continue;
+                long target = Math.max(timeout.deadlineTick, current);
+                timeout.remainingRounds = (target - current) / slots.length;
+                slots[(int) (target % slots.length)].add(timeout);
+            }
+
+            Iterator<Timeout> iterator = slots[(int) (current % slots.length)].iterator();
+            while (iterator.hasNext()) {
+                Timeout next = iterator.next();
+                if (next.cancelled) {
+                    iterator.remove();
+                } else if (next.remainingRounds > 0) {
+                    next.remainingRounds--;
+                } else {
+                    iterator.remove();
+                    expired.add(next);
+                }
+            }
+        }
+        for (Timeout timeout : expired) {
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                log.warn("Error en temporizador SSE: {}", e.getMessage(), e);
+            }
+        }
+        // Se avanza después de correr las tareas para que las que se reprograman
+        // cuenten el intervalo desde este tick
+        tick = current + 1;
+    }
+
+    /**
+     * Temporizador programado; cancelarlo lo descarta en la próxima pasada por
+     * su ranura
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
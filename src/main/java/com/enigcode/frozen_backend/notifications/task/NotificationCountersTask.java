@@ -0,0 +1,21 @@
+package com.enigcode.frozen_backend.notifications.task;
+
+import com.enigcode.frozen_backend.notifications.service.NotificationCounters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciliación periódica de los contadores de notificaciones en memoria
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationCountersTask {
+
+    private final NotificationCounters notificationCounters;
+
+    @Scheduled(fixedDelayString = "${app.notification.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        notificationCounters.reconcile();
+    }
+}
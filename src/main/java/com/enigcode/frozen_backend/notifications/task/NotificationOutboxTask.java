@@ -0,0 +1,25 @@
+package com.enigcode.frozen_backend.notifications.task;
+
+import com.enigcode.frozen_backend.notifications.service.NotificationDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pasada periódica por la outbox de notificaciones
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxTask {
+
+    private final NotificationDispatcher notificationDispatcher;
+
+    /**
+     * Los commits ya despiertan al despachador; esto recupera las entradas que
+     * quedaron tras un error o un reinicio de la aplicación
+     */
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval-ms:10000}")
+    public void dispatchPending() {
+        notificationDispatcher.wakeUp();
+    }
+}
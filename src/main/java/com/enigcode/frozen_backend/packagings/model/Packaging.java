@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.packagings.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import java.time.OffsetDateTime;
 
 import com.enigcode.frozen_backend.materials.model.Material;
@@ -20,7 +21,7 @@ public class Packaging {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "packagings_gen")
-    @SequenceGenerator(name = "packagings_gen", sequenceName = "packagings_seq", allocationSize = 1)
+    @SequenceGenerator(name = "packagings_gen", sequenceName = "packagings_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,85 @@
+package com.enigcode.frozen_backend.packagings.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.common.search.InMemorySearchIndex;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.packagings.model.Packaging;
+import com.enigcode.frozen_backend.packagings.repository.PackagingRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice en memoria de packagings para el autocompletado de /packagings/id-name-list.
+ * Los filtros de activo y unidad de medida se aplican en memoria.
+ */
+@Component
+public class PackagingSearchIndex implements InstanceCache {
+
+    public static final String CACHE = "packagingSearch";
+
+    private final InstanceCacheSync cacheSync;
+    private final InMemorySearchIndex<PackagingEntry> index;
+
+    public PackagingSearchIndex(PackagingRepository packagingRepository, InstanceCacheSync cacheSync) {
+        this.cacheSync = cacheSync;
+        this.index = new InMemorySearchIndex<>(
+                PackagingEntry::id,
+                entry -> List.of(entry.name()),
+                () -> packagingRepository.findAll().stream().map(PackagingEntry::of).toList());
+    }
+
+    /**
+     * Busca packagings por nombre
+     *
+     * @param query           texto a buscar
+     * @param active          null = todos, true = solo activos, false = solo inactivos
+     * @param unitMeasurement unidad requerida (null = cualquiera)
+     * @param limit           cantidad máxima de resultados
+     * @return packagings encontrados ordenados por id
+     */
+    public List<PackagingEntry> search(String query, Boolean active, UnitMeasurement unitMeasurement, int limit) {
+        return index.search(query,
+                entry -> (active == null || active == entry.active())
+                        && (unitMeasurement == null || unitMeasurement == entry.unitMeasurement()),
+                limit);
+    }
+
+    /**
+     * Refleja en el índice el estado del packaging al confirmarse la transacción
+     */
+    public void index(Packaging packaging) {
+        cacheSync.changed(CACHE);
+        index.putAfterCommit(PackagingEntry.of(packaging));
+    }
+
+    public void invalidate() {
+        index.invalidate();
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    /**
+     * Otra instancia cambió los datos: se recarga en el próximo acceso
+     */
+    @Override
+    public void refresh() {
+        index.invalidate();
+    }
+
+    /**
+     * Snapshot inmutable de los campos de un packaging necesarios para buscar
+     */
+    public record PackagingEntry(Long id, String name, UnitMeasurement unitMeasurement, boolean active) {
+
+        static PackagingEntry of(Packaging packaging) {
+            return new PackagingEntry(packaging.getId(), packaging.getName(), packaging.getUnitMeasurement(),
+                    Boolean.TRUE.equals(packaging.getIsActive()));
+        }
+    }
+}
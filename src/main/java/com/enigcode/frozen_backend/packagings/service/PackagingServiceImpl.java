@@ -15,6 +15,7 @@ import com.enigcode.frozen_backend.packagings.model.Packaging;
 import com.enigcode.frozen_backend.packagings.repository.PackagingRepository;
 import com.enigcode.frozen_backend.products.model.Product;
 import com.enigcode.frozen_backend.products.repository.ProductRepository;
+import com.enigcode.frozen_backend.products.service.ProductSearchIndex;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,10 @@ public class PackagingServiceImpl implements PackagingService{
     private final PackagingMapper packagingMapper;
     private final MaterialRepository materialRepository;
     private final ProductRepository productRepository;
+    private final PackagingSearchIndex packagingSearchIndex;
+    private final ProductSearchIndex productSearchIndex;
+
+    private static final int SIMPLE_LIST_LIMIT = 10;
 
     /**
      * Crea un nuevo packaging en la base de datos segun DTO
@@ -69,6 +74,7 @@ public class PackagingServiceImpl implements PackagingService{
         packaging.setIsActive(Boolean.TRUE);
 
         Packaging savedPackaging = packagingRepository.saveAndFlush(packaging);
+        packagingSearchIndex.index(savedPackaging);
 
         return packagingMapper.toResponseDto(savedPackaging);
     }
@@ -87,6 +93,7 @@ public class PackagingServiceImpl implements PackagingService{
         packaging.toggleActive();
 
         Packaging savedPackaging = packagingRepository.save(packaging);
+        packagingSearchIndex.index(savedPackaging);
 
         return packagingMapper.toResponseDto(savedPackaging);
     }
@@ -155,57 +162,47 @@ public class PackagingServiceImpl implements PackagingService{
                 packagingUpdateDTO.getUnitMeasurement().equals(UnitMeasurement.UNIDAD))
             throw new BadRequestException("La unidad de medida no puede ser " + UnitMeasurement.UNIDAD);
         Packaging savedPackaging = packagingRepository.save(updatedPackaging);
+        packagingSearchIndex.index(savedPackaging);
 
         return packagingMapper.toResponseDto(savedPackaging);
     }
 
     /**
-     * Funcion para mostrar a todos los paquetes activos
+     * Funcion para mostrar una lista simple de paquetes resuelta contra el
+     * indice en memoria. Si se indica un producto, se filtra por su unidad de
+     * medida.
      *
-     * @retutn Vista detallada de los paquetes activos
+     * @retutn Lista con id y nombre de hasta 10 paquetes
      */
     @Override
-    @Transactional
     public List<PackagingSimpleResponseDTO> getPackagingList(String name, Boolean isActive, Long productId) {
         // If no name is provided, return empty list
         if (name == null || name.trim().isEmpty()) {
             return List.of();
         }
-        
-        String searchName = name.trim();
-        List<Packaging> results;
-        
+
         // Get unit measurement from product if productId is provided
         UnitMeasurement productUnitMeasurement = null;
         if (productId != null) {
-            Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-            productUnitMeasurement = product.getUnitMeasurement();
-        }
-        
-        // Query based on active status and unit measurement
-        if (productUnitMeasurement != null) {
-            // Filter by unit measurement from product
-            if (isActive == null) {
-                results = packagingRepository.findTop10ByUnitMeasurementAndNameContainingIgnoreCase(productUnitMeasurement, searchName);
-            } else if (isActive) {
-                results = packagingRepository.findTop10ByUnitMeasurementAndNameContainingIgnoreCaseAndIsActiveTrue(productUnitMeasurement, searchName);
-            } else {
-                results = packagingRepository.findTop10ByUnitMeasurementAndNameContainingIgnoreCaseAndIsActiveFalse(productUnitMeasurement, searchName);
-            }
-        } else {
-            // No unit measurement filter
-            if (isActive == null) {
-                results = packagingRepository.findTop10ByNameContainingIgnoreCase(searchName);
-            } else if (isActive) {
-                results = packagingRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrue(searchName);
-            } else {
-                results = packagingRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveFalse(searchName);
-            }
+            productUnitMeasurement = resolveProductUnitMeasurement(productId);
         }
-        
-        return results.stream()
-                .map(packagingMapper::toSimpleResponseDTO)
+
+        return packagingSearchIndex.search(name.trim(), isActive, productUnitMeasurement, SIMPLE_LIST_LIMIT).stream()
+                .map(p -> new PackagingSimpleResponseDTO(p.id(), p.name()))
                 .toList();
     }
+
+    /**
+     * Obtiene la unidad de medida del producto desde el indice en memoria,
+     * recurriendo a la base solo si el producto no esta indexado
+     */
+    private UnitMeasurement resolveProductUnitMeasurement(Long productId) {
+        ProductSearchIndex.ProductEntry indexed = productSearchIndex.get(productId);
+        if (indexed != null)
+            return indexed.unitMeasurement();
+
+        Product product = productRepository.findById(productId)
+            .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        return product.getUnitMeasurement();
+    }
 }
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.product_phases.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
 import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
 import com.enigcode.frozen_backend.products.model.Product;
@@ -43,7 +44,7 @@ public class ProductPhase {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_phases_gen")
-    @SequenceGenerator(name = "product_phases_gen", sequenceName = "product_phases_seq", allocationSize = 1)
+    @SequenceGenerator(name = "product_phases_gen", sequenceName = "product_phases_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
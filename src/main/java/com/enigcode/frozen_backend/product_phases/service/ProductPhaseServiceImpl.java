@@ -10,6 +10,7 @@ import com.enigcode.frozen_backend.product_phases.model.Phase;
 import com.enigcode.frozen_backend.product_phases.model.ProductPhase;
 import com.enigcode.frozen_backend.product_phases.repository.ProductPhaseRepository;
 import com.enigcode.frozen_backend.products.repository.ProductRepository;
+import com.enigcode.frozen_backend.products.service.ProductSearchIndex;
 import com.enigcode.frozen_backend.recipes.model.Recipe;
 import com.enigcode.frozen_backend.recipes.repository.RecipeRepository;
 import jakarta.transaction.Transactional;
@@ -29,6 +30,7 @@ public class ProductPhaseServiceImpl implements ProductPhaseService {
     final ProductRepository productRepository;
     final RecipeRepository recipeRepository;
     final ProductPhaseMapper productPhaseMapper;
+    final ProductSearchIndex productSearchIndex;
 
     /**
      * Funcion que modifica parcialmente un product phase
@@ -285,6 +287,7 @@ public class ProductPhaseServiceImpl implements ProductPhaseService {
             productPhase.setIsReady(false);
             productPhase.getProduct().setIsReady(false);
             productRepository.save(productPhase.getProduct());
+            productSearchIndex.index(productPhase.getProduct());
             ProductPhase savedProductPhase = productPhaseRepository.save(productPhase);
             return productPhaseMapper.toResponseDto(savedProductPhase);
         } else {
@@ -318,6 +321,7 @@ public class ProductPhaseServiceImpl implements ProductPhaseService {
             if (!anyPhaseNotReady) {
                 savedProductPhase.getProduct().setIsReady(Boolean.TRUE);
                 productRepository.save(savedProductPhase.getProduct());
+                productSearchIndex.index(savedProductPhase.getProduct());
             }
 
             return productPhaseMapper.toResponseDto(savedProductPhase);
@@ -344,6 +348,7 @@ public class ProductPhaseServiceImpl implements ProductPhaseService {
             productPhase.setIsReady(Boolean.FALSE);
             productPhase.getProduct().setIsReady(Boolean.FALSE);
             productRepository.save(productPhase.getProduct());
+            productSearchIndex.index(productPhase.getProduct());
             productPhaseRepository.save(productPhase);
             return;
         }
@@ -355,6 +360,7 @@ public class ProductPhaseServiceImpl implements ProductPhaseService {
                 productPhase.setIsReady(Boolean.FALSE);
                 productPhase.getProduct().setIsReady(Boolean.FALSE);
                 productRepository.save(productPhase.getProduct());
+                productSearchIndex.index(productPhase.getProduct());
                 productPhaseRepository.save(productPhase);
                 return;
             }
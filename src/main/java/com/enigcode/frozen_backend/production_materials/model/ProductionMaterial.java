@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.production_materials.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.materials.model.Material;
 import com.enigcode.frozen_backend.production_phases.model.ProductionPhase;
 import jakarta.persistence.*;
@@ -20,7 +21,7 @@ public class ProductionMaterial {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_materials_gen")
-    @SequenceGenerator(name = "production_materials_gen", sequenceName = "production_materials_seq", allocationSize = 1)
+    @SequenceGenerator(name = "production_materials_gen", sequenceName = "production_materials_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
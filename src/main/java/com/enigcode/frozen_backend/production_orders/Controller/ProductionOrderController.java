@@ -1,17 +1,21 @@
 package com.enigcode.frozen_backend.production_orders.Controller;
 
+import com.enigcode.frozen_backend.common.export.ExportDownload;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
 import com.enigcode.frozen_backend.production_orders.DTO.ProductionOrderCreateDTO;
 import com.enigcode.frozen_backend.production_orders.DTO.ProductionOrderFilterDTO;
 import com.enigcode.frozen_backend.production_orders.DTO.ProductionOrderResponseDTO;
 import com.enigcode.frozen_backend.production_orders.Model.OrderStatus;
 import com.enigcode.frozen_backend.production_orders.Service.ProductionOrderService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -20,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/production-orders")
@@ -28,6 +33,9 @@ public class ProductionOrderController {
 
         final ProductionOrderService productionOrderService;
 
+        @Value("${app.export.timeout-seconds:600}")
+        private long exportTimeoutSeconds = 600;
+
         @Operation(summary = "Creación de orden de producción", description = "Se crea una nueva orden de produccion pendiente, la cual crea su lote asociado,queda a"
                         +
                         " espera de aprobación o rechazo")
@@ -70,11 +78,16 @@ public class ProductionOrderController {
                 return new ResponseEntity<>(dto, HttpStatus.OK);
         }
 
-        @Operation(summary = "Obtener ordenes de produccion", description = "Obtiene todos las ordenes de produccion con paginación y filtros")
+        @Operation(summary = "Obtener ordenes de produccion", description = "Obtiene todos las ordenes de produccion con paginación y filtros. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
         @GetMapping
         public ResponseEntity<Map<String, Object>> getProductionOrders(
                         ProductionOrderFilterDTO filterDTO,
-                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable) {
+                        @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(defaultValue = "false") boolean withCount) {
+                if (after != null)
+                        return ResponseEntity.ok(productionOrderService
+                                        .findAllByCursor(filterDTO, pageable, after, withCount).toResponse("content"));
 
                 Page<ProductionOrderResponseDTO> pageResponse = productionOrderService.findAll(filterDTO, pageable);
 
@@ -91,6 +104,14 @@ public class ProductionOrderController {
                 return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "Exportar ordenes de produccion", description = "Descarga como CSV o NDJSON (format) todas las ordenes de produccion que cumplen los filtros, con los datos de su lote")
+        @GetMapping("/export")
+        public WebAsyncTask<Void> exportProductionOrders(ProductionOrderFilterDTO filterDTO,
+                        @RequestParam(defaultValue = "CSV") ExportFormat format, HttpServletResponse response) {
+                return ExportDownload.of(response, format, "ordenes_produccion", exportTimeoutSeconds,
+                        out -> productionOrderService.exportProductionOrders(filterDTO, format, out));
+        }
+
         @Operation(summary = "Recibir informacion de una orden de produccion", description = "Devuelve los datos de una ordend de produccion especificada por id")
         @GetMapping("/{id}")
         public ResponseEntity<ProductionOrderResponseDTO> getProductionOrder(@PathVariable Long id) {
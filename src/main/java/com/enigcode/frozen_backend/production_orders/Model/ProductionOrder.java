@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.production_orders.Model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.batches.model.Batch;
 import com.enigcode.frozen_backend.products.model.Product;
 import jakarta.persistence.*;
@@ -20,7 +21,7 @@ public class ProductionOrder {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_orders_gen")
-    @SequenceGenerator(name = "production_orders_gen", sequenceName = "production_orders_seq", allocationSize = 1)
+    @SequenceGenerator(name = "production_orders_gen", sequenceName = "production_orders_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -1,5 +1,7 @@
 package com.enigcode.frozen_backend.production_orders.Service;
 
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -8,11 +10,16 @@ import com.enigcode.frozen_backend.production_orders.DTO.ProductionOrderFilterDT
 import com.enigcode.frozen_backend.production_orders.DTO.ProductionOrderResponseDTO;
 import com.enigcode.frozen_backend.production_orders.Model.OrderStatus;
 
+import java.io.OutputStream;
+
 
 public interface ProductionOrderService {
     ProductionOrderResponseDTO createProductionOrder(ProductionOrderCreateDTO productionOrderCreateDTO);
     ProductionOrderResponseDTO approveOrder(Long id);
     ProductionOrderResponseDTO returnOrder(Long id, OrderStatus orderStatus);
     Page<ProductionOrderResponseDTO> findAll(ProductionOrderFilterDTO filterDTO, Pageable pageable);
+    CursorPageDTO<ProductionOrderResponseDTO> findAllByCursor(ProductionOrderFilterDTO filterDTO, Pageable pageable,
+            String after, boolean withCount);
+    long exportProductionOrders(ProductionOrderFilterDTO filterDTO, ExportFormat format, OutputStream out);
     ProductionOrderResponseDTO getProductionOrder(Long id);
 }
@@ -3,6 +3,12 @@ package com.enigcode.frozen_backend.production_orders.Service;
 import com.enigcode.frozen_backend.batches.model.Batch;
 import com.enigcode.frozen_backend.batches.service.BatchService;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.common.Utils.Quantity;
+import com.enigcode.frozen_backend.common.concurrency.RetryOnConflict;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.export.StreamingExport;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
 import com.enigcode.frozen_backend.movements.DTO.MovementSimpleCreateDTO;
 import com.enigcode.frozen_backend.movements.model.MovementType;
@@ -32,8 +38,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -54,6 +62,7 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
     private final NotificationService notificationService;
     private final ProductionMaterialRepository productionMaterialRepository;
     private final com.enigcode.frozen_backend.users.service.UserService userService;
+    private final StreamingExport streamingExport;
 
     /**
      * Funcion que crea una nueva orden de produccion en estado pendiente junto al
@@ -64,6 +73,8 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
      * @return
      */
     @Override
+    @RetryOnConflict
+    @Transactional
     public ProductionOrderResponseDTO createProductionOrder(ProductionOrderCreateDTO createDTO) {
         Product product = productRepository.findById(createDTO.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -154,6 +165,7 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
      * @return
      */
     @Override
+    @RetryOnConflict
     @Transactional
     public ProductionOrderResponseDTO approveOrder(Long id) {
         ProductionOrder productionOrder = productionOrderRepository.findById(id)
@@ -205,6 +217,7 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
      * @return
      */
     @Override
+    @RetryOnConflict
     @Transactional
     public ProductionOrderResponseDTO returnOrder(Long id, OrderStatus orderStatus) {
         ProductionOrder productionOrder = productionOrderRepository.findById(id)
@@ -260,6 +273,21 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
 
     }
 
+    @Override
+    public CursorPageDTO<ProductionOrderResponseDTO> findAllByCursor(ProductionOrderFilterDTO filterDTO,
+            Pageable pageable, String after, boolean withCount) {
+        return Keyset.fetch(productionOrderRepository, ProductionOrderSpecification.createFilter(filterDTO),
+                pageable, after, withCount).map(productionOrderMapper::toResponseDTO);
+    }
+
+    @Override
+    public long exportProductionOrders(ProductionOrderFilterDTO filterDTO, ExportFormat format, OutputStream out) {
+        return streamingExport.export(ProductionOrder.class, ProductionOrderSpecification.createFilter(filterDTO),
+                Sort.by("creationDate", "id"),
+                List.of("batch.packaging", "product", "createdByUser", "approvedByUser"),
+                productionOrderMapper::toResponseDTO, ProductionOrderResponseDTO.class, format, out);
+    }
+
     /**
      * Busca y devuelve informacion de un production order especificado por id
      * 
@@ -282,8 +310,6 @@ public class ProductionOrderServiceImpl implements ProductionOrderService {
             return null;
         }
 
-        java.math.BigDecimal bd = new java.math.BigDecimal(value.toString());
-        bd = bd.setScale(decimals, java.math.RoundingMode.HALF_UP);
-        return bd.doubleValue();
+        return Quantity.round(value.doubleValue(), decimals);
     }
 }
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.production_phases.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.batches.model.Batch;
 import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
@@ -25,7 +26,7 @@ public class ProductionPhase {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_phases_gen")
-    @SequenceGenerator(name = "production_phases_gen", sequenceName = "production_phases_seq", allocationSize = 1)
+    @SequenceGenerator(name = "production_phases_gen", sequenceName = "production_phases_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.production_phases_qualities.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.production_phases.model.ProductionPhase;
 import com.enigcode.frozen_backend.quality_parameters.model.QualityParameter;
 import jakarta.persistence.*;
@@ -23,7 +24,7 @@ public class ProductionPhaseQuality {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_phases_qualities_gen")
-    @SequenceGenerator(name = "production_phases_qualities_gen", sequenceName = "production_phases_qualities_seq", allocationSize = 1)
+    @SequenceGenerator(name = "production_phases_qualities_gen", sequenceName = "production_phases_qualities_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
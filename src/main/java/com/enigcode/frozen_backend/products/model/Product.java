@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.products.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,7 +24,7 @@ public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_gen")
-    @SequenceGenerator(name = "products_gen", sequenceName = "products_seq", allocationSize = 1)
+    @SequenceGenerator(name = "products_gen", sequenceName = "products_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,93 @@
+package com.enigcode.frozen_backend.products.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.common.search.InMemorySearchIndex;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.products.model.Product;
+import com.enigcode.frozen_backend.products.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Índice en memoria de productos para el autocompletado de /products/id-name-list.
+ * Los filtros de activo y listo para producción se aplican en memoria.
+ */
+@Component
+public class ProductSearchIndex implements InstanceCache {
+
+    public static final String CACHE = "productSearch";
+
+    private final InstanceCacheSync cacheSync;
+    private final InMemorySearchIndex<ProductEntry> index;
+
+    public ProductSearchIndex(ProductRepository productRepository, InstanceCacheSync cacheSync) {
+        this.cacheSync = cacheSync;
+        this.index = new InMemorySearchIndex<>(
+                ProductEntry::id,
+                entry -> List.of(entry.name()),
+                () -> productRepository.findAll().stream().map(ProductEntry::of).toList());
+    }
+
+    /**
+     * Busca productos por nombre
+     *
+     * @param query  texto a buscar
+     * @param active null = todos, true = solo activos, false = solo inactivos
+     * @param ready  null = todos, true = solo listos, false = solo no listos
+     * @param limit  cantidad máxima de resultados
+     * @return productos encontrados ordenados por id
+     */
+    public List<ProductEntry> search(String query, Boolean active, Boolean ready, int limit) {
+        return index.search(query,
+                entry -> (active == null || active == entry.active())
+                        && (ready == null || ready == entry.ready()),
+                limit);
+    }
+
+    /**
+     * Devuelve el producto indexado o null si no existe
+     */
+    public ProductEntry get(Long id) {
+        return index.get(id);
+    }
+
+    /**
+     * Refleja en el índice el estado del producto al confirmarse la transacción
+     */
+    public void index(Product product) {
+        cacheSync.changed(CACHE);
+        index.putAfterCommit(ProductEntry.of(product));
+    }
+
+    public void invalidate() {
+        index.invalidate();
+        cacheSync.changed(CACHE);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE;
+    }
+
+    /**
+     * Otra instancia cambió los datos: se recarga en el próximo acceso
+     */
+    @Override
+    public void refresh() {
+        index.invalidate();
+    }
+
+    /**
+     * Snapshot inmutable de los campos de un producto necesarios para buscar
+     */
+    public record ProductEntry(Long id, String name, UnitMeasurement unitMeasurement, boolean active,
+            boolean ready) {
+
+        static ProductEntry of(Product product) {
+            return new ProductEntry(product.getId(), product.getName(), product.getUnitMeasurement(),
+                    Boolean.TRUE.equals(product.getIsActive()), Boolean.TRUE.equals(product.getIsReady()));
+        }
+    }
+}
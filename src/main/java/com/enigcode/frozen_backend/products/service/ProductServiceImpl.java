@@ -36,6 +36,9 @@ public class ProductServiceImpl implements ProductService {
     final PackagingRepository packagingRepository;
     final ProductMapper productMapper;
     final PhaseOrderService phaseOrderService;
+    final ProductSearchIndex productSearchIndex;
+
+    private static final int SIMPLE_LIST_LIMIT = 10;
 
     /**
      * Creacion de producto no listo para produccion donde se asignan fases vacias
@@ -71,6 +74,7 @@ public class ProductServiceImpl implements ProductService {
         product.setPhases(phases);
 
         Product savedProduct = productRepository.saveAndFlush(product);
+        productSearchIndex.index(savedProduct);
 
         return productMapper.toResponseDto(savedProduct);
     }
@@ -90,6 +94,7 @@ public class ProductServiceImpl implements ProductService {
         if (product.getIsReady()) {
             product.markAsNotReady();
             Product savedProduct = productRepository.save(product);
+            productSearchIndex.index(savedProduct);
             return productMapper.toResponseDto(savedProduct);
         } else {
             boolean phases_ready = product.getPhases()
@@ -100,6 +105,7 @@ public class ProductServiceImpl implements ProductService {
             }
             product.markAsReady();
             Product savedProduct = productRepository.save(product);
+            productSearchIndex.index(savedProduct);
             return productMapper.toResponseDto(savedProduct);
         }
     }
@@ -130,6 +136,7 @@ public class ProductServiceImpl implements ProductService {
             product.setUnitMeasurement(productUpdateDTO.getUnitMeasurement());
 
         Product savedUpdatedProduct = productRepository.save(product);
+        productSearchIndex.index(savedUpdatedProduct);
 
         return productMapper.toResponseDto(savedUpdatedProduct);
     }
@@ -182,6 +189,7 @@ public class ProductServiceImpl implements ProductService {
         product.toggleActive();
 
         Product savedProduct = productRepository.save(product);
+        productSearchIndex.index(savedProduct);
 
         return productMapper.toResponseDto(savedProduct);
     }
@@ -206,41 +214,23 @@ public class ProductServiceImpl implements ProductService {
         return productMapper.toResponseDto(product);
     }
 
+    /**
+     * Lista simple de productos (id y nombre) resuelta contra el indice en
+     * memoria, con los filtros de activo y listo aplicados sin consultar la base
+     * 
+     * @param name
+     * @param active null = todos, true = solo activos, false = solo inactivos
+     * @param ready  null = todos, true = solo listos, false = solo no listos
+     * @return hasta 10 productos
+     */
     @Override
     public List<ProductSimpleDTO> getProductSimpleList(String name, Boolean active, Boolean ready) {
         if (name == null || name.trim().isEmpty()) {
             return List.of();
         }
-        String q = name.trim();
-        List<Product> results;
-
-        if (active == null && ready == null) {
-            results = productRepository.findTop10ByNameContainingIgnoreCase(q);
-        } else if (active == null) {
-            // active == null, ready != null
-            results = Boolean.TRUE.equals(ready)
-                    ? productRepository.findTop10ByNameContainingIgnoreCaseAndIsReadyTrue(q)
-                    : productRepository.findTop10ByNameContainingIgnoreCaseAndIsReadyFalse(q);
-        } else if (ready == null) {
-            // ready == null, active != null
-            results = Boolean.TRUE.equals(active)
-                    ? productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrue(q)
-                    : productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveFalse(q);
-        } else {
-            // both filters present
-            if (Boolean.TRUE.equals(active) && Boolean.TRUE.equals(ready)) {
-                results = productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrueAndIsReadyTrue(q);
-            } else if (Boolean.TRUE.equals(active) && Boolean.FALSE.equals(ready)) {
-                results = productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrueAndIsReadyFalse(q);
-            } else if (Boolean.FALSE.equals(active) && Boolean.TRUE.equals(ready)) {
-                results = productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveFalseAndIsReadyTrue(q);
-            } else {
-                results = productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveFalseAndIsReadyFalse(q);
-            }
-        }
 
-        return results.stream()
-                .map(m -> new ProductSimpleDTO(m.getId(), m.getName()))
+        return productSearchIndex.search(name.trim(), active, ready, SIMPLE_LIST_LIMIT).stream()
+                .map(p -> new ProductSimpleDTO(p.id(), p.name()))
                 .toList();
     }
 
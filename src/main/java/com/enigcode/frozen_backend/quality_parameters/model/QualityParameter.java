@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.quality_parameters.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -16,7 +17,7 @@ import lombok.*;
 public class QualityParameter {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quality_parameters_gen")
-    @SequenceGenerator(name = "quality_parameters_gen", sequenceName = "quality_parameters_seq", allocationSize = 1)
+    @SequenceGenerator(name = "quality_parameters_gen", sequenceName = "quality_parameters_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.recipes.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.materials.model.Material;
 import com.enigcode.frozen_backend.product_phases.model.ProductPhase;
 import jakarta.persistence.*;
@@ -22,7 +23,7 @@ public class Recipe {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_gen")
-    @SequenceGenerator(name = "recipes_gen", sequenceName = "recipes_seq", allocationSize = 1)
+    @SequenceGenerator(name = "recipes_gen", sequenceName = "recipes_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.sectors.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import com.enigcode.frozen_backend.users.model.User;
 import jakarta.persistence.*;
@@ -19,7 +20,7 @@ public class Sector {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sectors_gen")
-    @SequenceGenerator(name = "sectors_gen", sequenceName = "sectors_seq", allocationSize = 1)
+    @SequenceGenerator(name = "sectors_gen", sequenceName = "sectors_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
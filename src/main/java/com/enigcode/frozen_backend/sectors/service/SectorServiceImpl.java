@@ -2,6 +2,7 @@ package com.enigcode.frozen_backend.sectors.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.notifications.service.NotificationRecipients;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import com.enigcode.frozen_backend.sectors.DTO.SectorCreateDTO;
 import com.enigcode.frozen_backend.sectors.DTO.SectorResponseDTO;
@@ -30,6 +31,7 @@ public class SectorServiceImpl implements SectorService {
     final SectorRepository sectorRepository;
     final UserRepository userRepository;
     final SectorMapper sectorMapper;
+    final NotificationRecipients notificationRecipients;
 
     /**
      * Crea un sector de un tipo y si el tipo es produccion entonces se debera
@@ -112,6 +114,7 @@ public class SectorServiceImpl implements SectorService {
         updatedSector.setSupervisor(supervisor);
 
         Sector savedSector = sectorRepository.save(updatedSector);
+        notificationRecipients.invalidate();
 
         return sectorMapper.toResponseDTO(savedSector);
     }
@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.system_configurations.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -19,7 +20,7 @@ public class SystemConfiguration {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "system_configuration_gen")
-    @SequenceGenerator(name = "system_configuration_gen", sequenceName = "system_configuration_seq", allocationSize = 1)
+    @SequenceGenerator(name = "system_configuration_gen", sequenceName = "system_configuration_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
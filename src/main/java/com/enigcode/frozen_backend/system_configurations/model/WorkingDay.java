@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.system_configurations.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -20,7 +21,7 @@ public class WorkingDay {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "working_days_gen")
-    @SequenceGenerator(name = "working_days_gen", sequenceName = "working_days_seq", allocationSize = 1)
+    @SequenceGenerator(name = "working_days_gen", sequenceName = "working_days_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -85,11 +85,15 @@ public class UserController {
         return new ResponseEntity<>(userDetailDTO, HttpStatus.OK);
     }
 
-    @Operation(summary = "Obtener usuarios", description = "Obtiene todos los usuarios con paginación")
+    @Operation(summary = "Obtener usuarios", description = "Obtiene todos los usuarios con paginación. Enviando after (vacío en la primera página) pagina por cursor: devuelve nextCursor y el total solo con withCount=true")
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> findAll(
-            @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "creationDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withCount) {
+        if (after != null)
+            return ResponseEntity.ok(userService.findAllByCursor(pageable, after, withCount).toResponse("content"));
 
         Page<UserResponseDTO> pageResponse = userService.findAll(pageable);
 
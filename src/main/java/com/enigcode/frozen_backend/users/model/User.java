@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.users.model;
 
+import com.enigcode.frozen_backend.common.Utils.IdAllocation;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -24,7 +25,7 @@ public class User implements UserDetails {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_gen")
-    @SequenceGenerator(name = "user_gen", sequenceName = "user_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_gen", sequenceName = "user_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -1,14 +1,16 @@
 package com.enigcode.frozen_backend.users.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.enigcode.frozen_backend.users.model.User;
 import com.enigcode.frozen_backend.users.model.Role;
 import java.util.Optional;
+import java.util.Collection;
 import java.util.List;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
     Optional<User> findByUsername(String username);
 
@@ -30,4 +32,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT s.supervisor.id FROM Sector s WHERE s.id = :sectorId")
     List<Long> findSupervisorIdsBySectorId(@Param("sectorId") Long sectorId);
+
+    /**
+     * Devuelve cuáles de los ids recibidos pertenecen a usuarios existentes
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
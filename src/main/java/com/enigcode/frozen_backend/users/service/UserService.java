@@ -1,5 +1,6 @@
 package com.enigcode.frozen_backend.users.service;
 
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import com.enigcode.frozen_backend.users.DTO.UpdatePasswordDTO;
 import com.enigcode.frozen_backend.users.DTO.UpdateRoleDTO;
 import com.enigcode.frozen_backend.users.DTO.UserCreateDTO;
@@ -26,6 +27,8 @@ public interface UserService {
 
     Page<UserResponseDTO> findAll(Pageable pageable);
 
+    CursorPageDTO<UserResponseDTO> findAllByCursor(Pageable pageable, String after, boolean withCount);
+
     User getCurrentUser();
 
     UserDetailDTO getUserByUsername(String username);
@@ -23,7 +23,10 @@ import com.enigcode.frozen_backend.users.model.Role;
 import com.enigcode.frozen_backend.users.DTO.*;
 import com.enigcode.frozen_backend.users.mapper.UserMapper;
 import com.enigcode.frozen_backend.users.repository.UserRepository;
+import com.enigcode.frozen_backend.notifications.service.NotificationRecipients;
 import com.enigcode.frozen_backend.notifications.service.SseNotificationService;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
+import com.enigcode.frozen_backend.common.pagination.Keyset;
 
 import org.springframework.context.annotation.Lazy;
 import lombok.RequiredArgsConstructor;
@@ -40,6 +43,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     private final SessionRegistry sessionRegistry;
     @Lazy
     private final SseNotificationService sseNotificationService;
+    private final NotificationRecipients notificationRecipients;
 
     /*
      * @Autowired
@@ -108,6 +112,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setRoles(roleEnums);
 
         userRepository.save(user);
+        notificationRecipients.invalidate();
         return userMapper.toResponseDto(user);
     }
 
@@ -138,6 +143,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         }
         user.toggleActive();
         userRepository.save(user);
+        notificationRecipients.invalidate();
         return userMapper.toResponseDto(user);
     }
 
@@ -164,6 +170,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 .collect(java.util.stream.Collectors.toSet());
         user = userMapper.updateUserRoles(roleEnums, user);
         userRepository.save(user);
+        notificationRecipients.invalidate();
         return userMapper.toResponseDto(user);
     }
 
@@ -183,4 +190,9 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         return users.map(userMapper::toResponseDto);
     }
 
+    @Override
+    public CursorPageDTO<UserResponseDTO> findAllByCursor(Pageable pageable, String after, boolean withCount) {
+        return Keyset.fetch(userRepository, null, pageable, after, withCount).map(userMapper::toResponseDto);
+    }
+
 }
@@ -11,11 +11,16 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/warehouse")
@@ -25,15 +30,32 @@ public class WarehouseController {
 
         private final WarehouseLayoutService warehouseLayoutService;
 
-        @Operation(summary = "Obtener mapa del almacén", description = "Obtiene el diseño SVG estático del almacén")
+        @Operation(summary = "Obtener mapa del almacén", description = "Obtiene el diseño SVG estático del almacén (gzip si el cliente lo acepta, 304 si no cambió)")
         @GetMapping("/layout")
-        public ResponseEntity<String> getWarehouseLayout() {
-                String svg = warehouseLayoutService.getWarehouseSvg();
+        public ResponseEntity<byte[]> getWarehouseLayout(WebRequest webRequest,
+                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+                WarehouseLayoutService.SvgLayout layout = warehouseLayoutService.getWarehouseLayout();
+                boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+                String etag = gzip ? layout.gzipEtag() : layout.etag();
+                CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS); // Cache por 1 hora
 
-                return ResponseEntity.ok()
+                if (webRequest.checkNotModified(etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                        .eTag(etag)
+                                        .cacheControl(cacheControl)
+                                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                                        .build();
+                }
+
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                                 .contentType(MediaType.valueOf("image/svg+xml"))
-                                .header("Cache-Control", "max-age=3600") // Cache por 1 hora
-                                .body(svg);
+                                .eTag(etag)
+                                .cacheControl(cacheControl)
+                                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(layout.gzipped());
+                }
+                return response.body(layout.svg());
         }
 
         @Operation(summary = "Validar ubicación", description = "Valida si una ubicación es válida en el almacén")
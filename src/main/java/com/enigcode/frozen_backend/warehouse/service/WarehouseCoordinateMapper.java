@@ -2,25 +2,10 @@ package com.enigcode.frozen_backend.warehouse.service;
 
 import com.enigcode.frozen_backend.materials.model.WarehouseZone;
 import org.springframework.stereotype.Service;
-import java.util.Map;
-import java.util.HashMap;
 
 @Service
 public class WarehouseCoordinateMapper {
 
-    // Mapeo de coordenadas base por zona (basado en el SVG actual)
-    private static final Map<WarehouseZone, ZoneCoordinates> ZONE_COORDINATES = new HashMap<>() {
-        {
-            put(WarehouseZone.MALTA, new ZoneCoordinates(20, 20, 70, 70, 5, 3)); // x, y, spacingX, spacingY, cols, rows
-            put(WarehouseZone.LUPULO, new ZoneCoordinates(530, 20, 70, 70, 5, 3));
-            put(WarehouseZone.LEVADURA, new ZoneCoordinates(20, 330, 107, 80, 2, 3));
-            put(WarehouseZone.AGUA, new ZoneCoordinates(245, 330, 107, 80, 2, 3));
-            put(WarehouseZone.ENVASE, new ZoneCoordinates(755, 330, 107, 80, 2, 3));
-            put(WarehouseZone.ETIQUETADO, new ZoneCoordinates(530, 330, 107, 55, 2, 2));
-            put(WarehouseZone.OTROS, new ZoneCoordinates(530, 460, 107, 55, 2, 2));
-        }
-    };
-
     /**
      * Convierte ubicación lógica (zona + sección + nivel) a coordenadas SVG
      */
@@ -29,25 +14,19 @@ public class WarehouseCoordinateMapper {
             return new CoordinateResult(0.0, 0.0, false, "Zona o sección inválida");
         }
 
-        ZoneCoordinates zoneCoords = ZONE_COORDINATES.get(zone);
-        if (zoneCoords == null) {
-            return new CoordinateResult(0.0, 0.0, false, "Zona no configurada");
-        }
-
         // Parsear sección (ej: "A1" -> row=0, col=0)
         SectionPosition position = parseSectionPosition(section);
         if (!position.isValid()) {
             return new CoordinateResult(0.0, 0.0, false, "Formato de sección inválido");
         }
 
-        // Validar que la sección existe en esta zona
-        if (!isValidSectionForZone(zone, position)) {
+        // Centro de la sección según la tabla compartida con WarehouseLayoutService
+        double[] center = WarehouseCoordinates.sectionCenter(zone, section);
+        if (center == null) {
             return new CoordinateResult(0.0, 0.0, false, "Sección no válida para esta zona");
         }
-
-        // Calcular coordenadas
-        double baseX = zoneCoords.baseX + (position.col * zoneCoords.spacingX) + (zoneCoords.spacingX / 2);
-        double baseY = zoneCoords.baseY + (position.row * zoneCoords.spacingY) + (zoneCoords.spacingY / 2);
+        double baseX = center[0];
+        double baseY = center[1];
 
         // Ajuste sutil por nivel (para diferenciar visualmente)
         double offsetX = (level != null && level > 1) ? (level - 1) * 3 : 0;
@@ -81,30 +60,7 @@ public class WarehouseCoordinateMapper {
         return new SectionPosition(row, col);
     }
 
-    /**
-     * Valida que una sección existe en la zona especificada
-     */
-    private boolean isValidSectionForZone(WarehouseZone zone, SectionPosition position) {
-        ZoneCoordinates zoneCoords = ZONE_COORDINATES.get(zone);
-        return position.row >= 0 && position.row < zoneCoords.maxRows &&
-                position.col >= 0 && position.col < zoneCoords.maxCols;
-    }
-
     // Clases helper
-    private static class ZoneCoordinates {
-        final double baseX, baseY, spacingX, spacingY;
-        final int maxCols, maxRows;
-
-        ZoneCoordinates(double baseX, double baseY, double spacingX, double spacingY, int maxCols, int maxRows) {
-            this.baseX = baseX;
-            this.baseY = baseY;
-            this.spacingX = spacingX;
-            this.spacingY = spacingY;
-            this.maxCols = maxCols;
-            this.maxRows = maxRows;
-        }
-    }
-
     private static class SectionPosition {
         final int row, col;
 
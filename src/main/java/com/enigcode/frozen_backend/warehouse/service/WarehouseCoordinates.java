@@ -0,0 +1,58 @@
+package com.enigcode.frozen_backend.warehouse.service;
+
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla precalculada con el centro de cada sección en el SVG del almacén,
+ * indexada por zona y por la posición de la sección en
+ * {@link WarehouseZone#getAvailableSections()}.
+ *
+ * Las secciones de cada zona forman una grilla regular (fila = letra,
+ * columna = número), así que la tabla se arma una sola vez a partir del
+ * origen y la separación de cada zona en el dibujo.
+ */
+final class WarehouseCoordinates {
+
+    private static final Map<WarehouseZone, double[][]> SECTION_CENTERS = new EnumMap<>(WarehouseZone.class);
+
+    static {
+        // x de A1, y de A1, separación entre columnas, separación entre filas
+        put(WarehouseZone.MALTA, 65, 85, 80, 60);
+        put(WarehouseZone.LUPULO, 565, 85, 80, 60);
+        put(WarehouseZone.LEVADURA, 75, 395, 90, 70);
+        put(WarehouseZone.AGUA, 305, 395, 90, 70);
+        put(WarehouseZone.ENVASE, 815, 395, 90, 70);
+        put(WarehouseZone.ETIQUETADO, 585, 380, 90, 50);
+        put(WarehouseZone.OTROS, 585, 510, 90, 50);
+    }
+
+    private WarehouseCoordinates() {
+    }
+
+    /**
+     * Centro {x, y} de la sección en el SVG, o null si la sección no
+     * pertenece a la zona
+     */
+    static double[] sectionCenter(WarehouseZone zone, String section) {
+        if (zone == null || section == null)
+            return null;
+        int index = zone.getAvailableSections().indexOf(section);
+        return index < 0 ? null : SECTION_CENTERS.get(zone)[index];
+    }
+
+    private static void put(WarehouseZone zone, double x, double y, double spacingX, double spacingY) {
+        List<String> sections = zone.getAvailableSections();
+        double[][] centers = new double[sections.size()][];
+        for (int i = 0; i < sections.size(); i++) {
+            String section = sections.get(i);
+            int row = section.charAt(0) - 'A';
+            int col = section.charAt(1) - '1';
+            centers[i] = new double[] { x + col * spacingX, y + row * spacingY };
+        }
+        SECTION_CENTERS.put(zone, centers);
+    }
+}
@@ -0,0 +1,21 @@
+-- Las entidades reservan ids de a bloques (pooled-lo, IdAllocation.ALLOCATION_SIZE = 50):
+-- nextval devuelve el primer id del bloque, por lo que cada secuencia debe incrementar de a 50.
+-- Se ejecuta antes de inicializar JPA; en bases existentes el próximo bloque arranca
+-- después del último id entregado, así que no hay colisiones con los datos cargados.
+ALTER SEQUENCE IF EXISTS batches_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS materials_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS movements_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS notification_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS packagings_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS product_phases_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS production_materials_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS production_orders_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS production_phases_qualities_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS production_phases_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS products_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS quality_parameters_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS recipes_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS sectors_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS system_configuration_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS user_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS working_days_seq INCREMENT BY 50;
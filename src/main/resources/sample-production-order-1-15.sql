@@ -503,10 +503,10 @@ BEGIN
     RAISE NOTICE 'Orden de producción Enero-15 cargada exitosamente - Output final: % LT', ROUND(current_output * 100.0) / 100.0;
     
     -- Actualizar secuencias
-    PERFORM setval('batches_seq', COALESCE((SELECT MAX(id) FROM batches), 1), true);
-    PERFORM setval('production_orders_seq', COALESCE((SELECT MAX(id) FROM production_orders), 1), true);
-    PERFORM setval('production_phases_seq', COALESCE((SELECT MAX(id) FROM production_phases), 1), true);
-    PERFORM setval('production_phases_qualities_seq', COALESCE((SELECT MAX(id) FROM production_phases_qualities), 1), true);
-    PERFORM setval('production_materials_seq', COALESCE((SELECT MAX(id) FROM production_materials), 1), true);
+    PERFORM setval('batches_seq', GREATEST(COALESCE((SELECT MAX(id) FROM batches), 1), (SELECT last_value FROM batches_seq)), true);
+    PERFORM setval('production_orders_seq', GREATEST(COALESCE((SELECT MAX(id) FROM production_orders), 1), (SELECT last_value FROM production_orders_seq)), true);
+    PERFORM setval('production_phases_seq', GREATEST(COALESCE((SELECT MAX(id) FROM production_phases), 1), (SELECT last_value FROM production_phases_seq)), true);
+    PERFORM setval('production_phases_qualities_seq', GREATEST(COALESCE((SELECT MAX(id) FROM production_phases_qualities), 1), (SELECT last_value FROM production_phases_qualities_seq)), true);
+    PERFORM setval('production_materials_seq', GREATEST(COALESCE((SELECT MAX(id) FROM production_materials), 1), (SELECT last_value FROM production_materials_seq)), true);
     
 END $$;
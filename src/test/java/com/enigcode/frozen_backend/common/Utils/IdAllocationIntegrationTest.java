@@ -0,0 +1,99 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import com.enigcode.frozen_backend.notifications.model.Notification;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta sobre H2 las sentencias de un alta masiva para verificar que los ids
+ * se reservan en bloques (pooled-lo) y que los INSERT van en lotes JDBC.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// El application.properties de tests reemplaza al principal: se repiten acá sus valores de ids y lotes
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:id-allocation;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=pooled-lo",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.enigcode.frozen_backend.common.Utils.IdAllocationIntegrationTest$SequenceCallCounter"
+})
+class IdAllocationIntegrationTest {
+
+    private static final int ROWS = 120;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = NotificationRepository.class)
+    static class Config {
+    }
+
+    /** Cuenta las sentencias que piden valores a la secuencia de notificaciones */
+    public static class SequenceCallCounter implements StatementInspector {
+
+        static final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase().contains("notification_seq"))
+                calls.incrementAndGet();
+            return sql;
+        }
+    }
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_reservesIdsInBlocksAndBatchesInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Notification> notifications = IntStream.range(0, ROWS).mapToObj(i -> Notification.builder()
+                .userId(1L).type(NotificationType.LOW_STOCK_ALERT).message("alta " + i)
+                .isRead(false).createdAt(OffsetDateTime.now()).build()).toList();
+        statistics.clear();
+        SequenceCallCounter.calls.set(0);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> notificationRepository.saveAll(notifications));
+
+        // Con allocationSize = 1 serían ROWS llamadas a la secuencia y al menos 2 * ROWS sentencias
+        int blocks = IdAllocation.blocksFor(ROWS);
+        int insertBatches = (ROWS + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE;
+        assertThat(SequenceCallCounter.calls.get()).isEqualTo(blocks);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(blocks + insertBatches);
+        assertThat(notificationRepository.count()).isEqualTo(ROWS);
+        assertThat(notificationRepository.findAll()).extracting(Notification::getId).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,32 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocationTest {
+
+    @Test
+    void blocksFor_roundsUpToWholeBlocks() {
+        assertEquals(0, IdAllocation.blocksFor(0));
+        assertEquals(1, IdAllocation.blocksFor(1));
+        assertEquals(1, IdAllocation.blocksFor(IdAllocation.ALLOCATION_SIZE));
+        assertEquals(2, IdAllocation.blocksFor(IdAllocation.ALLOCATION_SIZE + 1));
+        assertEquals(10, IdAllocation.blocksFor(500));
+    }
+
+    @Test
+    void expand_usesEachBlockFromItsStartWithoutOverlap() {
+        int size = IdAllocation.ALLOCATION_SIZE;
+        List<Long> ids = IdAllocation.expand(List.of(101L, 101L + 3L * size), size + 2);
+
+        assertEquals(size + 2, ids.size());
+        assertEquals(101L, ids.get(0));
+        assertEquals(100L + size, ids.get(size - 1));
+        assertEquals(101L + 3L * size, ids.get(size));
+        assertEquals(102L + 3L * size, ids.get(size + 1));
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import com.enigcode.frozen_backend.materials.model.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara Quantity con la aritmetica con BigDecimal que reemplazo y mide la
+ * comparacion con tolerancia que siguen usando las validaciones de stock. Las
+ * cantidades son Double, como llegan de las entidades y los DTO; los bytes por
+ * operacion de reserveReturn_quantity son los cuatro Double que se asignan a
+ * los campos de Material, que la version con BigDecimal tambien crea. No corre
+ * con los tests: se ejecuta a mano con
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     org.openjdk.jmh.Main QuantityBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantityBenchmark {
+
+    private Material material;
+    private Double stock;
+    private Double required;
+    private double ratio;
+
+    @Setup
+    public void setUp() {
+        material = Material.builder().stock(1_000_000.0).reservedStock(0.0).build();
+        stock = 125.37;
+        required = 12.51;
+        ratio = 0.123456789;
+    }
+
+    @Benchmark
+    public Material reserveReturn_bigDecimal() {
+        material.setReservedStock(roundBigDecimal(material.getReservedStock() + required, 2));
+        material.setStock(roundBigDecimal(material.getStock() - required, 2));
+        material.setReservedStock(roundBigDecimal(material.getReservedStock() - required, 2));
+        material.setStock(roundBigDecimal(material.getStock() + required, 2));
+        return material;
+    }
+
+    @Benchmark
+    public Material reserveReturn_quantity() {
+        material.reserveStock(required);
+        material.returnStock(required);
+        return material;
+    }
+
+    @Benchmark
+    public double round6_bigDecimal() {
+        return roundBigDecimal(ratio, 6);
+    }
+
+    @Benchmark
+    public double round6_quantity() {
+        return Quantity.round(ratio, 6);
+    }
+
+    @Benchmark
+    public boolean hasEnoughStock_tolerance() {
+        return stock >= (required - 0.0001);
+    }
+
+    private static double roundBigDecimal(double value, int decimals) {
+        return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).doubleValue();
+    }
+}
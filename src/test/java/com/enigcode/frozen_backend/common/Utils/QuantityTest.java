@@ -0,0 +1,68 @@
+package com.enigcode.frozen_backend.common.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantityTest {
+
+    @Test
+    void round_matchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000_000; i++) {
+            double value = (random.nextDouble() - 0.2) * Math.pow(10, random.nextInt(7));
+            int decimals = random.nextInt(7);
+            double expected = BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).doubleValue();
+            assertEquals(expected, Quantity.round(value, decimals), "value=" + value + " decimals=" + decimals);
+        }
+    }
+
+    @Test
+    void round_handlesDecimalHalfCases() {
+        assertEquals(1.01, Quantity.round(1.005, 2));
+        assertEquals(1.24, Quantity.round(1.235, 2));
+        assertEquals(-1.01, Quantity.round(-1.005, 2));
+        assertEquals(0.29, Quantity.round(0.29, 2));
+        assertEquals(2.0, Quantity.round(1.9999999, 3));
+        assertNull(Quantity.round((Double) null, 2));
+    }
+
+    @Test
+    void addAndSubtract_areExactInCents() {
+        assertEquals(0.3, Quantity.add(0.1, 0.2));
+        assertEquals(0.0, Quantity.subtract(0.3, Quantity.add(0.1, 0.2)));
+        assertEquals(10.0, Quantity.add(null, 10.0));
+
+        double stock = 0.0;
+        for (int i = 0; i < 1000; i++)
+            stock = Quantity.add(stock, 0.01);
+        assertEquals(10.0, stock);
+    }
+
+    @Test
+    void compare_comparesInCents() {
+        assertEquals(0, Quantity.compare(Quantity.add(0.1, 0.2), 0.3));
+        assertEquals(-1, Quantity.compare(4.99, 5.0));
+        assertEquals(1, Quantity.compare(10.0, 9.99));
+        assertEquals(0, Quantity.compare(null, 0.0));
+    }
+
+    @Test
+    void scaleAndFloorDivide() {
+        assertEquals(3.333333, Quantity.scale(10.0, 1.0 / 3.0, 6));
+        assertEquals(3L, Quantity.floorDivide(0.99, 0.33, 6));
+        assertEquals(1515L, Quantity.floorDivide(500.0, 0.33, 6));
+        assertThrows(ArithmeticException.class, () -> Quantity.floorDivide(1.0, 0.0, 6));
+    }
+
+    @Test
+    void toUnits_rejectsOutOfRangeValues() {
+        assertThrows(ArithmeticException.class, () -> Quantity.toUnits(Double.NaN, 2));
+        assertThrows(ArithmeticException.class, () -> Quantity.toUnits(1e300, 2));
+        assertThrows(IllegalArgumentException.class, () -> Quantity.toUnits(1.0, 12));
+    }
+}
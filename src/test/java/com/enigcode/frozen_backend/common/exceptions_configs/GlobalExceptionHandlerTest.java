@@ -6,6 +6,7 @@ import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.Resource
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -46,6 +47,14 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("El dato que intentas guardar")));
     }
 
+    @Test
+    void handleOptimisticLockingFailure_returns409_and_retryMessage() throws Exception {
+        mockMvc.perform(get("/test-exceptions/stale"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Intente nuevamente")));
+    }
+
     @Test
     void handleBadCredentials_returns401_with_fixedMessage() throws Exception {
         mockMvc.perform(get("/test-exceptions/bad-credentials"))
@@ -93,6 +102,11 @@ class GlobalExceptionHandlerTest {
             throw new DataIntegrityViolationException("duplicate key");
         }
 
+        @GetMapping("/stale")
+        public void stale() {
+            throw new ObjectOptimisticLockingFailureException("Material", 1L);
+        }
+
         @GetMapping("/bad-credentials")
         public void badCredentials() {
             throw new BadCredentialsException("bad");
@@ -0,0 +1,144 @@
+package com.enigcode.frozen_backend.common.export;
+
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.movements.DTO.MovementFilterDTO;
+import com.enigcode.frozen_backend.movements.DTO.MovementResponseDTO;
+import com.enigcode.frozen_backend.movements.model.Movement;
+import com.enigcode.frozen_backend.movements.model.MovementStatus;
+import com.enigcode.frozen_backend.movements.model.MovementType;
+import com.enigcode.frozen_backend.movements.repository.MovementRepository;
+import com.enigcode.frozen_backend.movements.specification.MovementSpecification;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // Menor que la cantidad de filas para que el contexto se limpie a mitad de la exportación
+        "app.export.fetch-size=3"
+})
+@Import(StreamingExport.class)
+class StreamingExportTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = { MovementRepository.class, MaterialRepository.class })
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+    }
+
+    @Autowired
+    private StreamingExport streamingExport;
+    @Autowired
+    private MovementRepository movementRepository;
+    @Autowired
+    private MaterialRepository materialRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Material material = materialRepository.save(Material.builder()
+                .name("Malta Pilsen")
+                .code("MAL-1")
+                .type(MaterialType.MALTA)
+                .stock(0.0)
+                .unitMeasurement(UnitMeasurement.KG)
+                .threshold(0.0)
+                .creationDate(OffsetDateTime.now())
+                .build());
+        OffsetDateTime base = OffsetDateTime.of(2025, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+        // Se guardan en orden inverso para verificar que la exportación ordena por fecha
+        for (int i = 9; i >= 0; i--)
+            movementRepository.save(Movement.builder()
+                    .material(material)
+                    .type(i % 2 == 0 ? MovementType.INGRESO : MovementType.EGRESO)
+                    .stock((double) i)
+                    .status(MovementStatus.PENDIENTE)
+                    .reason(i == 4 ? "Compra \"urgente\", proveedor B" : "Compra " + i)
+                    .creationDate(base.plusHours(i))
+                    .build());
+    }
+
+    @Test
+    void export_csv_writesHeaderAndOneEscapedLinePerFilteredRow() {
+        MovementFilterDTO filter = new MovementFilterDTO();
+        filter.setType(MovementType.INGRESO);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = export(filter, ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(5);
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(0)).startsWith("id,type,status,creationDate");
+        assertThat(lines.subList(1, 6)).allSatisfy(line -> assertThat(line).contains(",INGRESO,", "Malta Pilsen"));
+        assertThat(lines.get(1)).contains("2025-01-01T08:00:00Z", "Compra 0");
+        assertThat(lines.get(3)).contains("\"Compra \"\"urgente\"\", proveedor B\"");
+        assertThat(lines.get(5)).contains("2025-01-01T16:00:00Z", "Compra 8");
+    }
+
+    @Test
+    void export_ndjson_writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = export(new MovementFilterDTO(), ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(10);
+        assertThat(lines).hasSize(10);
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode row = objectMapper.readTree(lines.get(i));
+            assertThat(row.get("stock").asDouble()).isEqualTo(i);
+            assertThat(row.get("materialName").asText()).isEqualTo("Malta Pilsen");
+        }
+    }
+
+    private long export(MovementFilterDTO filter, ExportFormat format, ByteArrayOutputStream out) {
+        return streamingExport.export(Movement.class, MovementSpecification.createFilter(filter),
+                Sort.by("creationDate", "id"), List.of("material"), StreamingExportTest::toResponse,
+                MovementResponseDTO.class, format, out);
+    }
+
+    private static MovementResponseDTO toResponse(Movement movement) {
+        return MovementResponseDTO.builder()
+                .id(movement.getId())
+                .type(movement.getType())
+                .status(movement.getStatus())
+                .creationDate(movement.getCreationDate())
+                .stock(movement.getStock())
+                .reason(movement.getReason())
+                .materialName(movement.getMaterial().getName())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.enigcode.frozen_backend.common.pagination;
+
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.movements.DTO.MovementFilterDTO;
+import com.enigcode.frozen_backend.movements.model.Movement;
+import com.enigcode.frozen_backend.movements.model.MovementStatus;
+import com.enigcode.frozen_backend.movements.model.MovementType;
+import com.enigcode.frozen_backend.movements.repository.MovementRepository;
+import com.enigcode.frozen_backend.movements.specification.MovementSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyset;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class KeysetTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = { MovementRepository.class, MaterialRepository.class })
+    static class Config {
+    }
+
+    @Autowired
+    private MovementRepository movementRepository;
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    private final List<Movement> movements = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Material material = materialRepository.save(Material.builder()
+                .name("Malta Pilsen")
+                .code("MAL-1")
+                .type(MaterialType.MALTA)
+                .stock(0.0)
+                .unitMeasurement(UnitMeasurement.KG)
+                .threshold(0.0)
+                .creationDate(OffsetDateTime.now())
+                .build());
+        // Varias filas comparten fecha para verificar el desempate por id
+        OffsetDateTime base = OffsetDateTime.of(2025, 1, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 23; i++)
+            movements.add(movementRepository.save(Movement.builder()
+                    .material(material)
+                    .type(i % 3 == 0 ? MovementType.EGRESO : MovementType.INGRESO)
+                    .stock(1.0)
+                    .status(MovementStatus.PENDIENTE)
+                    .creationDate(base.plusMinutes(i / 4))
+                    .build()));
+    }
+
+    @Test
+    void fetch_walksAllFilteredRowsInOrderWithoutGapsOrDuplicates() {
+        MovementFilterDTO filter = new MovementFilterDTO();
+        filter.setType(MovementType.INGRESO);
+        Pageable pageable = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "creationDate"));
+
+        List<Long> seen = new ArrayList<>();
+        String after = "";
+        int pages = 0;
+        CursorPageDTO<Movement> page;
+        do {
+            page = Keyset.fetch(movementRepository, MovementSpecification.createFilter(filter), pageable, after,
+                    false);
+            page.getContent().forEach(m -> seen.add(m.getId()));
+            assertThat(page.getTotalItems()).isNull();
+            after = page.getNextCursor();
+            pages++;
+        } while (page.isHasNext());
+
+        List<Long> expected = movements.stream()
+                .filter(m -> m.getType() == MovementType.INGRESO)
+                .sorted(Comparator.comparing(Movement::getCreationDate).thenComparing(Movement::getId).reversed())
+                .map(Movement::getId)
+                .toList();
+        assertThat(seen).isEqualTo(expected);
+        assertThat(pages).isEqualTo((expected.size() + 3) / 4);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void fetch_ascendingWithCount() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "creationDate"));
+
+        CursorPageDTO<Movement> first = Keyset.fetch(movementRepository, null, pageable, null, true);
+        CursorPageDTO<Movement> second = Keyset.fetch(movementRepository, null, pageable, first.getNextCursor(), true);
+
+        assertThat(first.getTotalItems()).isEqualTo(23L);
+        assertThat(first.getContent()).extracting(Movement::getId)
+                .containsExactlyElementsOf(movements.subList(0, 10).stream().map(Movement::getId).toList());
+        assertThat(second.getContent()).extracting(Movement::getId)
+                .containsExactlyElementsOf(movements.subList(10, 20).stream().map(Movement::getId).toList());
+    }
+
+    @Test
+    void fetch_rejectsInvalidOrForeignCursor() {
+        Pageable byDate = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "creationDate"));
+        String cursor = Keyset.fetch(movementRepository, null, byDate, null, false).getNextCursor();
+
+        assertThrows(BadRequestException.class, () -> Keyset.fetch(movementRepository, null,
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "creationDate")), cursor, false));
+        assertThrows(BadRequestException.class,
+                () -> Keyset.fetch(movementRepository, null, byDate, "no-es-un-cursor", false));
+        assertThrows(BadRequestException.class, () -> Keyset.fetch(movementRepository, null,
+                PageRequest.of(0, 5, Sort.by("creationDate", "stock")), null, false));
+    }
+}
@@ -0,0 +1,103 @@
+package com.enigcode.frozen_backend.common.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySearchIndexTest {
+
+    record Doc(Long id, String name, String code, boolean active) {
+    }
+
+    private final List<Doc> stored = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private InMemorySearchIndex<Doc> index;
+
+    @BeforeEach
+    void setUp() {
+        stored.clear();
+        stored.add(new Doc(3L, "Malta Pilsen", "MAL-3", true));
+        stored.add(new Doc(1L, "Malta Caramelo", "MAL-1", false));
+        stored.add(new Doc(2L, "Lúpulo Cascade", "LUP-2", true));
+        index = new InMemorySearchIndex<>(Doc::id, d -> Arrays.asList(d.name(), d.code()), () -> {
+            loads.incrementAndGet();
+            return List.copyOf(stored);
+        });
+    }
+
+    @Test
+    void search_matchesSubstringIgnoringCase_orderedById() {
+        List<Doc> result = index.search("MALTA", d -> true, 10);
+
+        assertEquals(List.of(1L, 3L), result.stream().map(Doc::id).toList());
+    }
+
+    @Test
+    void search_matchesSecondaryTexts() {
+        List<Doc> result = index.search("lup-2", d -> true, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).id());
+    }
+
+    @Test
+    void search_shortQuery_scansAllDocuments() {
+        List<Doc> result = index.search("ca", d -> true, 10);
+
+        assertEquals(List.of(1L, 2L), result.stream().map(Doc::id).toList());
+    }
+
+    @Test
+    void search_appliesFilterAndLimit() {
+        assertEquals(List.of(3L), index.search("malta", Doc::active, 10).stream().map(Doc::id).toList());
+        assertEquals(1, index.search("a", d -> true, 1).size());
+    }
+
+    @Test
+    void search_blankQuery_returnsEmptyWithoutLoading() {
+        assertTrue(index.search("  ", d -> true, 10).isEmpty());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void search_requiresEveryTrigramOfQuery() {
+        assertTrue(index.search("maltx", d -> true, 10).isEmpty());
+    }
+
+    @Test
+    void put_replacesPreviousTexts() {
+        index.search("malta", d -> true, 10);
+
+        index.put(new Doc(3L, "Avena", "OTR-3", true));
+
+        assertEquals(List.of(1L), index.search("malta", d -> true, 10).stream().map(Doc::id).toList());
+        assertEquals(List.of(3L), index.search("aven", d -> true, 10).stream().map(Doc::id).toList());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void put_beforeLoad_isPickedUpByInitialLoad() {
+        index.put(new Doc(9L, "Trigo", "OTR-9", true));
+        stored.add(new Doc(9L, "Trigo", "OTR-9", true));
+
+        assertEquals(1, index.search("trigo", d -> true, 10).size());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void removeAndInvalidate() {
+        index.search("malta", d -> true, 10);
+        index.remove(1L);
+        assertEquals(List.of(3L), index.search("malta", d -> true, 10).stream().map(Doc::id).toList());
+
+        index.invalidate();
+        assertEquals(2, index.search("malta", d -> true, 10).size());
+        assertEquals(2, loads.get());
+    }
+}
@@ -1,6 +1,7 @@
 package com.enigcode.frozen_backend.materials.controller;
 
 import com.enigcode.frozen_backend.materials.DTO.*;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
 import com.enigcode.frozen_backend.materials.service.MaterialService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,8 @@ class MaterialControllerAccessTest {
     private MaterialService materialService;
     @MockitoBean
     private com.enigcode.frozen_backend.common.SecurityProperties securityProperties; // usado por configuración
+    @MockitoBean
+    private com.enigcode.frozen_backend.common.service.DataLoaderService dataLoaderService; // lo requiere la clase de aplicación
 
         @TestConfiguration
         static class TestSecurityBeans {
@@ -132,6 +135,7 @@ class MaterialControllerAccessTest {
     @WithMockUser
     @DisplayName("GET /materials/warehouse-map con auth -> 200")
     void getWarehouseMap_authenticated_returns200() throws Exception {
+        Mockito.when(materialService.getWarehouseMapVersion()).thenReturn("1-0");
         Mockito.when(materialService.getWarehouseLocations(Mockito.any(), Mockito.any()))
                 .thenReturn(Collections.emptyList());
         mockMvc.perform(get("/materials/warehouse-map"))
@@ -306,4 +310,28 @@ class MaterialControllerAccessTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L));
     }
+
+    @Test
+    @WithMockUser(roles = "OPERARIO_DE_ALMACEN")
+    @DisplayName("POST /materials/import rol incorrecto -> 403")
+    void importMaterials_wrongRole_returns403() throws Exception {
+        mockMvc.perform(post("/materials/import").with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType("text/csv")
+                        .content("name,type,unit_measurement,threshold\nAgua,AGUA,LT,1\n"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(materialService, Mockito.never()).importMaterials(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @WithMockUser(roles = "SUPERVISOR_DE_ALMACEN")
+    @DisplayName("POST /materials/import rol correcto -> 200")
+    void importMaterials_correctRole_returns200() throws Exception {
+        Mockito.when(materialService.importMaterials(Mockito.any(), Mockito.eq(MaterialImportFormat.CSV)))
+                .thenReturn(MaterialImportResultDTO.builder().totalRows(1).imported(1).build());
+        mockMvc.perform(post("/materials/import").with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf())
+                        .contentType("text/csv")
+                        .content("name,type,unit_measurement,threshold\nAgua,AGUA,LT,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
 }
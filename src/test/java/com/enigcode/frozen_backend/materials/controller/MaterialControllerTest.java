@@ -8,6 +8,8 @@ import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadReque
 import com.enigcode.frozen_backend.materials.service.MaterialService;
 import com.enigcode.frozen_backend.materials.DTO.MaterialLocationUpdateDTO;
 import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
+import com.enigcode.frozen_backend.materials.DTO.MaterialImportResultDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.enigcode.frozen_backend.materials.DTO.MaterialCreateDTO;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +55,8 @@ class MaterialControllerTest {
     private MaterialService materialService;
     @MockitoBean
     private com.enigcode.frozen_backend.common.SecurityProperties securityProperties;
+    @MockitoBean
+    private com.enigcode.frozen_backend.common.service.DataLoaderService dataLoaderService; // lo requiere la clase de aplicación
     @Autowired
     private ObjectMapper objectMapper;
     private String materialJson;
@@ -177,4 +181,46 @@ class MaterialControllerTest {
                 .content(json))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getWarehouseMap_sameVersion_returns304WithoutQueryingLocations() throws Exception {
+        when(materialService.getWarehouseMapVersion()).thenReturn("1-5");
+        when(materialService.getWarehouseLocations(any(), any())).thenReturn(java.util.List.of());
+
+        mockMvc.perform(get("/materials/warehouse-map"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-5\""));
+
+        mockMvc.perform(get("/materials/warehouse-map").header("If-None-Match", "\"1-5\""))
+                .andExpect(status().isNotModified());
+
+        org.mockito.Mockito.verify(materialService, org.mockito.Mockito.times(1)).getWarehouseLocations(any(), any());
+    }
+
+    @Test
+    void importMaterials_ndjson_returnsSummary() throws Exception {
+        when(materialService.importMaterials(any(), org.mockito.ArgumentMatchers.eq(MaterialImportFormat.NDJSON)))
+                .thenReturn(MaterialImportResultDTO.builder().totalRows(2).imported(1).failed(1)
+                        .errors(java.util.List.of(new MaterialImportResultDTO.RowErrorDTO(2, "JSON inválido")))
+                        .build());
+
+        mockMvc.perform(post("/materials/import")
+                .contentType("application/x-ndjson")
+                .content("{\"name\":\"Agua\"}\n{mal\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+    }
+
+    @Test
+    void getLowStockMaterials_returnsWatchlist() throws Exception {
+        when(materialService.getLowStockMaterials()).thenReturn(java.util.List.of(
+                com.enigcode.frozen_backend.materials.DTO.MaterialResponseDTO.builder()
+                        .id(3L).name("Lúpulo").availableStock(1.0).threshold(5.0).build()));
+
+        mockMvc.perform(get("/materials/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].availableStock").value(1.0));
+    }
 }
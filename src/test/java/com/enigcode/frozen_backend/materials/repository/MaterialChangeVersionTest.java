@@ -0,0 +1,68 @@
+package com.enigcode.frozen_backend.materials.repository;
+
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La versión del mapa del almacén se lee de la base, así que dos instancias
+ * la ven igual y cambia con cada alta, modificación y baja confirmada
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:material-version;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class MaterialChangeVersionTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = MaterialRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private MaterialRepository materialRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void findChangeVersion_changesOnInsertUpdateAndDelete() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String initial = materialRepository.findChangeVersion();
+
+        Material saved = tx.execute(status -> materialRepository.save(Material.builder()
+                .name("Malta Pilsen").type(MaterialType.MALTA).unitMeasurement(UnitMeasurement.KG)
+                .stock(10.0).reservedStock(0.0).threshold(1.0).isActive(true)
+                .creationDate(OffsetDateTime.now()).build()));
+        String afterInsert = materialRepository.findChangeVersion();
+        assertThat(afterInsert).isNotEqualTo(initial);
+        assertThat(materialRepository.findChangeVersion()).isEqualTo(afterInsert);
+
+        tx.executeWithoutResult(status -> materialRepository.findById(saved.getId())
+                .ifPresent(material -> material.setStock(5.0)));
+        String afterUpdate = materialRepository.findChangeVersion();
+        assertThat(afterUpdate).isNotEqualTo(afterInsert);
+
+        tx.executeWithoutResult(status -> materialRepository.deleteById(saved.getId()));
+        assertThat(materialRepository.findChangeVersion()).isNotIn(afterInsert, afterUpdate);
+    }
+}
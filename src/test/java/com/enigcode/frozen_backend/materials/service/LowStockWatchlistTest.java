@@ -0,0 +1,168 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.materials.DTO.MaterialResponseDTO;
+import com.enigcode.frozen_backend.materials.mapper.MaterialMapper;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockWatchlistTest {
+
+    @Mock
+    private MaterialRepository materialRepository;
+
+    @Mock
+    private InstanceCacheSync cacheSync;
+
+    @Mock
+    private MaterialMapper materialMapper;
+
+    @InjectMocks
+    private LowStockWatchlist watchlist;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(materialMapper.toResponseDto(any(Material.class))).thenAnswer(inv -> {
+            Material m = inv.getArgument(0);
+            return MaterialResponseDTO.builder().id(m.getId()).name(m.getName())
+                    .availableStock(m.getStock()).threshold(m.getThreshold()).build();
+        });
+        lenient().when(materialRepository.findLowStock()).thenReturn(List.of(
+                material(1L, 8.0, 10.0, true),
+                material(2L, 1.0, 10.0, true)));
+    }
+
+    private static Material material(Long id, Double stock, Double threshold, boolean active) {
+        Material material = new Material();
+        material.setId(id);
+        material.setName("Material " + id);
+        material.setStock(stock);
+        material.setReservedStock(0.0);
+        material.setThreshold(threshold);
+        material.setIsActive(active);
+        return material;
+    }
+
+    @Test
+    void load_ordersByCoverageAndQueriesOnce() {
+        assertEquals(2, watchlist.size());
+        assertEquals(List.of(2L, 1L), watchlist.getMaterials().stream().map(MaterialResponseDTO::getId).toList());
+        assertTrue(watchlist.contains(1L));
+        verify(materialRepository, times(1)).findLowStock();
+    }
+
+    @Test
+    void record_entersOnlyWhenCrossingThreshold() {
+        AtomicInteger entered = new AtomicInteger();
+
+        watchlist.record(material(3L, 4.99, 5.0, true), entered::incrementAndGet);
+        assertEquals(1, entered.get());
+        assertTrue(watchlist.contains(3L));
+
+        // ya estaba en la lista: no vuelve a "entrar"
+        watchlist.record(material(3L, 1.0, 5.0, true), entered::incrementAndGet);
+        assertEquals(1, entered.get());
+        assertEquals(1.0, watchlist.getMaterials().get(0).getAvailableStock());
+
+        // igual al umbral no es stock bajo
+        watchlist.record(material(4L, 5.0, 5.0, true), entered::incrementAndGet);
+        assertEquals(1, entered.get());
+        assertFalse(watchlist.contains(4L));
+    }
+
+    @Test
+    void record_concurrentTransactions_enterOnceAndRollbackNever() {
+        AtomicInteger entered = new AtomicInteger();
+
+        // Dos transacciones dejan el mismo material bajo el umbral antes de confirmar
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            watchlist.record(material(3L, 4.0, 5.0, true), entered::incrementAndGet);
+            watchlist.record(material(3L, 3.0, 5.0, true), entered::incrementAndGet);
+            assertEquals(0, entered.get());
+            assertFalse(watchlist.contains(3L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, entered.get());
+
+        // Una transacción revertida no aplica el cambio ni dispara la entrada
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            watchlist.record(material(4L, 1.0, 5.0, true), entered::incrementAndGet);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, entered.get());
+        assertFalse(watchlist.contains(4L));
+    }
+
+    @Test
+    void record_removesWhenRestockedOrDeactivated() {
+        watchlist.record(material(1L, 50.0, 10.0, true));
+        watchlist.record(material(2L, 1.0, 10.0, false));
+
+        assertEquals(0, watchlist.size());
+    }
+
+    @Test
+    void record_publishesOnlyChangesThatTouchTheList() {
+        watchlist.record(material(4L, 50.0, 10.0, true)); // ni estaba ni entra
+        verify(cacheSync, never()).changed(any());
+
+        watchlist.record(material(3L, 1.0, 10.0, true)); // entra
+        watchlist.record(material(1L, 50.0, 10.0, true)); // sale
+        verify(cacheSync, times(2)).changed(LowStockWatchlist.CACHE);
+    }
+
+    @Test
+    void refresh_fromOtherInstance_reloadsInPlaceSoEntryIsNotRepeated() {
+        AtomicInteger entered = new AtomicInteger();
+        watchlist.size();
+
+        // Otra instancia dejó el 3 bajo el umbral y avisó
+        when(materialRepository.findLowStock()).thenReturn(List.of(
+                material(1L, 8.0, 10.0, true),
+                material(2L, 1.0, 10.0, true),
+                material(3L, 2.0, 10.0, true)));
+        watchlist.refresh();
+        assertTrue(watchlist.contains(3L));
+
+        watchlist.record(material(3L, 1.0, 10.0, true), entered::incrementAndGet);
+        assertEquals(0, entered.get());
+        verify(materialRepository, times(2)).findLowStock();
+    }
+
+    @Test
+    void refresh_beforeLoad_doesNotQuery() {
+        watchlist.refresh();
+
+        verify(materialRepository, never()).findLowStock();
+    }
+
+    @Test
+    void invalidate_reloadsFromRepository() {
+        watchlist.size();
+        watchlist.invalidate();
+        watchlist.size();
+
+        verify(materialRepository, times(2)).findLowStock();
+    }
+}
@@ -4,23 +4,36 @@ import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.Resource
 import com.enigcode.frozen_backend.materials.DTO.*;
 import com.enigcode.frozen_backend.materials.mapper.MaterialMapper;
 import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialImportFormat;
 import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
 import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.materials.repository.MaterialBulkRepository;
 import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 
 import org.mockito.ArgumentMatchers;
 
@@ -35,6 +48,25 @@ class MaterialServiceImplTest {
 
     @Mock
     private com.enigcode.frozen_backend.warehouse.service.WarehouseLayoutService warehouseLayoutService;
+
+    @Mock
+    private MaterialSearchIndex materialSearchIndex;
+
+    @Mock
+    private WarehouseOccupancy warehouseOccupancy;
+
+    @Mock
+    private LowStockWatchlist lowStockWatchlist;
+
+    @Mock
+    private MaterialBulkRepository materialBulkRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private MaterialServiceImpl materialService;
 
@@ -77,6 +109,7 @@ class MaterialServiceImplTest {
         assertEquals(responseDTO.getId(), result.getId());
         verify(materialRepository, times(1)).save(any(Material.class));
         verify(materialRepository, times(1)).saveAndFlush(any(Material.class));
+        verify(materialSearchIndex).index(material);
     }
 
     @Test
@@ -113,6 +146,16 @@ class MaterialServiceImplTest {
 
         assertNotNull(result);
         verify(materialRepository).save(material);
+        verify(materialSearchIndex).index(material);
+        verify(lowStockWatchlist).record(material);
+    }
+
+    @Test
+    void getLowStockMaterials_readsFromWatchlist() {
+        when(lowStockWatchlist.getMaterials()).thenReturn(List.of(responseDTO));
+
+        assertEquals(List.of(responseDTO), materialService.getLowStockMaterials());
+        verifyNoInteractions(materialRepository);
     }
 
     @Test
@@ -145,12 +188,15 @@ class MaterialServiceImplTest {
         material.setId(1L);
         material.setCode("MAT-1");
         material.setName("Plástico");
-        when(materialRepository.findTop10ByNameContainingIgnoreCase("Pl")).thenReturn(List.of(material));
+        when(materialSearchIndex.search("Pl", null, null, 10)).thenReturn(List.of(
+                new MaterialSearchIndex.MaterialEntry(1L, "MAT-1", "Plástico", null, MaterialType.ENVASE, true)));
 
         List<MaterialSimpleResponseDTO> result = materialService.getMaterialSimpleList("Pl", null, null, null);
 
         assertEquals(1, result.size());
         assertEquals("Plástico", result.get(0).getName());
+        assertEquals("MAT-1", result.get(0).getCode());
+        verifyNoInteractions(materialRepository);
     }
 
         @Test
@@ -204,15 +250,16 @@ class MaterialServiceImplTest {
         m.setCode("MAL-5");
         m.setType(MaterialType.MALTA);
 
-        when(materialRepository.findTop10ByTypeInAndNameContainingIgnoreCase(anyList(), eq("Mal")))
-            .thenReturn(List.of(m));
+        when(materialSearchIndex.search(eq("Mal"), isNull(), eq(List.of(MaterialType.MALTA)), eq(10)))
+            .thenReturn(List.of(new MaterialSearchIndex.MaterialEntry(5L, "MAL-5", "Malta Especial", null,
+                MaterialType.MALTA, true)));
 
         List<com.enigcode.frozen_backend.materials.DTO.MaterialSimpleResponseDTO> result =
             materialService.getMaterialSimpleList("Mal", null, com.enigcode.frozen_backend.product_phases.model.Phase.MOLIENDA, null);
 
         assertEquals(1, result.size());
         assertEquals("Malta Especial", result.get(0).getName());
-        verify(materialRepository).findTop10ByTypeInAndNameContainingIgnoreCase(anyList(), eq("Mal"));
+        verify(materialSearchIndex).search(eq("Mal"), isNull(), eq(List.of(MaterialType.MALTA)), eq(10));
         }
 
     @Test
@@ -236,9 +283,10 @@ class MaterialServiceImplTest {
 
     @Test
     void getWarehouseInfo_withMaterialType_returnsSuggestedLocation() {
-        when(materialRepository.findWarehouseSectionsByZone(any())).thenReturn(List.of("S1", "S2"));
-        when(materialRepository.countByWarehouseZone(any())).thenReturn(2L);
-        when(materialRepository.count()).thenReturn(10L);
+        when(warehouseOccupancy.occupiedSections(any())).thenReturn(2);
+        when(warehouseOccupancy.materialCount(any())).thenReturn(2L);
+        when(warehouseOccupancy.totalMaterials()).thenReturn(10L);
+        when(warehouseOccupancy.nextAvailableSection(WarehouseZone.OTROS)).thenReturn("A2");
 
         com.enigcode.frozen_backend.materials.DTO.WarehouseInfoDTO info = materialService.getWarehouseInfo(MaterialType.OTROS);
 
@@ -248,6 +296,10 @@ class MaterialServiceImplTest {
             info.getSuggestedLocation().getZone());
         assertTrue(com.enigcode.frozen_backend.materials.model.WarehouseZone.getDefaultZoneForMaterialType(MaterialType.OTROS)
             .getAvailableSections().contains(info.getSuggestedLocation().getSection()));
+        assertEquals(2, info.getAvailableZones().get(0).getOccupiedSections());
+        assertEquals(2L, info.getMaterialsByZone().get(WarehouseZone.MALTA.name()));
+        assertEquals(10L, info.getTotalMaterials());
+        verifyNoInteractions(materialRepository);
     }
 
     @Test
@@ -281,6 +333,7 @@ class MaterialServiceImplTest {
         assertEquals("A2", existing.getWarehouseSection());
         assertEquals(2, existing.getWarehouseLevel());
         verify(materialRepository).save(existing);
+        verify(warehouseOccupancy).record(existing);
     }
 
     @Test
@@ -295,7 +348,7 @@ class MaterialServiceImplTest {
         m.setType(MaterialType.MALTA);
         when(materialMapper.toEntity(dto)).thenReturn(m);
 
-        when(materialRepository.findWarehouseSectionsByZone(any())).thenReturn(List.of());
+        when(warehouseOccupancy.nextAvailableSection(WarehouseZone.MALTA)).thenReturn("A1");
 
         when(materialRepository.save(any(Material.class))).thenAnswer(inv -> {
             Material saved = inv.getArgument(0);
@@ -311,6 +364,7 @@ class MaterialServiceImplTest {
         assertEquals(WarehouseZone.getDefaultZoneForMaterialType(MaterialType.MALTA), m.getWarehouseZone());
         assertNotNull(m.getWarehouseSection());
         assertTrue(WarehouseZone.getDefaultZoneForMaterialType(MaterialType.MALTA).getAvailableSections().contains(m.getWarehouseSection()));
+        verify(warehouseOccupancy).record(m);
     }
 
     @Test
@@ -341,4 +395,125 @@ class MaterialServiceImplTest {
         assertEquals(Double.valueOf(2.2), res.get(0).getWarehouseY());
         assertEquals("L1", res.get(0).getLevelDisplay());
     }
+
+    @Test
+    void getWarehouseMapVersion_readsFromDatabase() {
+        when(materialRepository.findChangeVersion()).thenReturn("3-12-7");
+
+        assertEquals("3-12-7", materialService.getWarehouseMapVersion());
+    }
+
+    private void stubImportMapping() {
+        when(materialMapper.toEntity(any(MaterialCreateDTO.class))).thenAnswer(inv -> {
+            MaterialCreateDTO dto = inv.getArgument(0);
+            Material m = new Material();
+            m.setName(dto.getName());
+            m.setType(dto.getType());
+            m.setUnitMeasurement(dto.getUnitMeasurement());
+            m.setThreshold(dto.getThreshold());
+            m.setStock(dto.getStock());
+            return m;
+        });
+        lenient().when(materialBulkRepository.nextIds(anyInt())).thenReturn(List.of(100L, 101L, 102L));
+        lenient().when(warehouseOccupancy.nextAvailableSection(any())).thenReturn("A1");
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importMaterials_csv_insertsChunkWithReservedIdsAndCodes() {
+        stubImportMapping();
+        String csv = "name,type,unit_measurement,threshold,stock\n"
+                + "\"Malta, Pilsen\",MALTA,KG,5,10\n"
+                + "Lúpulo,lupulo,KG,1,\n";
+
+        MaterialImportResultDTO result = materialService.importMaterials(input(csv), MaterialImportFormat.CSV);
+
+        assertEquals(2, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getFailed());
+        ArgumentCaptor<List<Material>> captor = ArgumentCaptor.forClass(List.class);
+        verify(materialBulkRepository).insertAll(captor.capture());
+        List<Material> inserted = captor.getValue();
+        assertEquals("Malta, Pilsen", inserted.get(0).getName());
+        assertEquals("MAL-100", inserted.get(0).getCode());
+        assertEquals("LUP-101", inserted.get(1).getCode());
+        assertEquals(0.0, inserted.get(1).getStock());
+        assertEquals(WarehouseZone.MALTA, inserted.get(0).getWarehouseZone());
+        verify(materialBulkRepository, times(1)).nextIds(anyInt());
+        verify(warehouseOccupancy, times(2)).record(any(Material.class));
+        verify(warehouseOccupancy, never()).invalidate();
+        verify(materialSearchIndex).invalidate();
+    }
+
+    @Test
+    void importMaterials_invalidRows_areReportedAndImportContinues() {
+        stubImportMapping();
+        String csv = "name,type,unit_measurement,threshold\n"
+                + "Agua,AGUA,LT,1\n"
+                + "Tapas,ENVASE,KG,1\n"
+                + "SinUmbral,AGUA,LT,\n"
+                + "Otro,NOEXISTE,LT,1\n";
+
+        MaterialImportResultDTO result = materialService.importMaterials(input(csv), MaterialImportFormat.CSV);
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3L, 4L, 5L), result.getErrors().stream()
+                .map(MaterialImportResultDTO.RowErrorDTO::getLine).toList());
+        verify(materialBulkRepository).insertAll(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importMaterials_csvQuotedNewline_staysInOneRow() {
+        stubImportMapping();
+        String csv = "name,type,unit_measurement,threshold,supplier\n"
+                + "Malta,MALTA,KG,5,\"Maltería Sur\nDepósito 2\"\n"
+                + "Agua,AGUA,LT,1,\n"
+                + "Lúpulo,LUPULO,KG,1,\"sin cerrar\n";
+
+        MaterialImportResultDTO result = materialService.importMaterials(input(csv), MaterialImportFormat.CSV);
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(5L, result.getErrors().get(0).getLine());
+        ArgumentCaptor<List<Material>> captor = ArgumentCaptor.forClass(List.class);
+        verify(materialBulkRepository).insertAll(captor.capture());
+        assertEquals(List.of("Malta", "Agua"), captor.getValue().stream().map(Material::getName).toList());
+    }
+
+    @Test
+    void importMaterials_batchFails_retriesRowByRow() {
+        stubImportMapping();
+        doAnswer(inv -> {
+            List<Material> batch = inv.getArgument(0);
+            if (batch.size() > 1 || "Levadura".equals(batch.get(0).getName()))
+                throw new DataIntegrityViolationException("duplicado");
+            return null;
+        }).when(materialBulkRepository).insertAll(any());
+        String ndjson = "{\"name\":\"Agua\",\"type\":\"AGUA\",\"unitMeasurement\":\"LT\",\"threshold\":1}\n"
+                + "\n"
+                + "{\"name\":\"Levadura\",\"type\":\"LEVADURA\",\"unitMeasurement\":\"KG\",\"threshold\":1}\n";
+
+        MaterialImportResultDTO result = materialService.importMaterials(input(ndjson), MaterialImportFormat.NDJSON);
+
+        assertEquals(2, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        verify(warehouseOccupancy).invalidate();
+        verify(materialSearchIndex).invalidate();
+    }
+
+    @Test
+    void importMaterials_csvWithoutRequiredColumns_throwsBadRequest() {
+        assertThrows(com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException.class,
+                () -> materialService.importMaterials(input("name,type\nAgua,AGUA\n"), MaterialImportFormat.CSV));
+        verifyNoInteractions(materialBulkRepository);
+    }
 }
@@ -0,0 +1,176 @@
+package com.enigcode.frozen_backend.materials.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.materials.DTO.MaterialLocationProjectionDTO;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarehouseOccupancyTest {
+
+    @Mock
+    private MaterialRepository materialRepository;
+
+    @Mock
+    private InstanceCacheSync cacheSync;
+
+    @InjectMocks
+    private WarehouseOccupancy occupancy;
+
+    record Row(Long id, WarehouseZone zone, String section, Integer level) implements MaterialLocationProjectionDTO {
+        public Long getId() {
+            return id;
+        }
+
+        public WarehouseZone getWarehouseZone() {
+            return zone;
+        }
+
+        public String getWarehouseSection() {
+            return section;
+        }
+
+        public Integer getWarehouseLevel() {
+            return level;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(materialRepository.findAllWarehouseLocations()).thenReturn(List.of(
+                new Row(1L, WarehouseZone.MALTA, "A1", 1),
+                new Row(2L, WarehouseZone.MALTA, "A1", 2),
+                new Row(3L, WarehouseZone.MALTA, "A2", 1),
+                new Row(4L, WarehouseZone.LUPULO, "A1", 1),
+                new Row(5L, null, null, null)));
+    }
+
+    private static Material material(Long id, WarehouseZone zone, String section, Integer level) {
+        Material material = new Material();
+        material.setId(id);
+        material.setWarehouseZone(zone);
+        material.setWarehouseSection(section);
+        material.setWarehouseLevel(level);
+        return material;
+    }
+
+    @Test
+    void load_countsSectionsAndMaterialsPerZone() {
+        assertEquals(2, occupancy.occupiedSections(WarehouseZone.MALTA));
+        assertEquals(3L, occupancy.materialCount(WarehouseZone.MALTA));
+        assertEquals(1L, occupancy.materialCount(WarehouseZone.LUPULO));
+        assertEquals(0L, occupancy.materialCount(WarehouseZone.AGUA));
+        assertEquals(5L, occupancy.totalMaterials());
+        assertTrue(occupancy.isOccupied(WarehouseZone.MALTA, "A1", 2));
+        assertFalse(occupancy.isOccupied(WarehouseZone.MALTA, "A1", 3));
+        verify(materialRepository, times(1)).findAllWarehouseLocations();
+    }
+
+    @Test
+    void nextAvailableSection_returnsFirstFreeSection() {
+        assertEquals("A3", occupancy.nextAvailableSection(WarehouseZone.MALTA));
+        assertEquals("A1", occupancy.nextAvailableSection(WarehouseZone.AGUA));
+    }
+
+    @Test
+    void nextAvailableSection_allOccupied_returnsFirstSection() {
+        List<MaterialLocationProjectionDTO> rows = WarehouseZone.OTROS.getAvailableSections().stream()
+                .map(section -> (MaterialLocationProjectionDTO) new Row((long) section.hashCode(),
+                        WarehouseZone.OTROS, section, 1))
+                .toList();
+        when(materialRepository.findAllWarehouseLocations()).thenReturn(rows);
+
+        assertEquals("A1", occupancy.nextAvailableSection(WarehouseZone.OTROS));
+    }
+
+    @Test
+    void record_movesMaterialAndReleasesPreviousSlot() {
+        occupancy.occupiedSections(WarehouseZone.MALTA); // carga inicial
+
+        occupancy.record(material(3L, WarehouseZone.LUPULO, "B1", 3));
+
+        assertEquals(1, occupancy.occupiedSections(WarehouseZone.MALTA));
+        assertEquals("A2", occupancy.nextAvailableSection(WarehouseZone.MALTA));
+        assertEquals(2L, occupancy.materialCount(WarehouseZone.LUPULO));
+        assertTrue(occupancy.isOccupied(WarehouseZone.LUPULO, "B1", 3));
+
+        occupancy.record(material(6L, WarehouseZone.MALTA, "A1", 1));
+
+        assertEquals(6L, occupancy.totalMaterials());
+        assertEquals(3L, occupancy.materialCount(WarehouseZone.MALTA));
+    }
+
+    @Test
+    void reconcile_rebuildsMapAfterDrift() {
+        assertEquals("A3", occupancy.nextAvailableSection(WarehouseZone.MALTA)); // carga inicial
+        assertEquals(0, occupancy.reconcile());
+
+        // Cambios que no pasaron por record: el 3 se movió, el 4 se borró y el 6 es nuevo
+        when(materialRepository.findAllWarehouseLocations()).thenReturn(List.of(
+                new Row(1L, WarehouseZone.MALTA, "A1", 1),
+                new Row(2L, WarehouseZone.MALTA, "A1", 2),
+                new Row(3L, WarehouseZone.MALTA, "A3", 1),
+                new Row(5L, null, null, null),
+                new Row(6L, WarehouseZone.MALTA, "A2", 3)));
+
+        assertEquals(3, occupancy.reconcile());
+        assertEquals(3, occupancy.occupiedSections(WarehouseZone.MALTA));
+        assertEquals("A4", occupancy.nextAvailableSection(WarehouseZone.MALTA));
+        assertTrue(occupancy.isOccupied(WarehouseZone.MALTA, "A2", 3));
+        assertFalse(occupancy.isOccupied(WarehouseZone.MALTA, "A2", 1));
+        assertEquals(0L, occupancy.materialCount(WarehouseZone.LUPULO));
+        assertEquals(5L, occupancy.totalMaterials());
+        assertEquals(0, occupancy.reconcile());
+    }
+
+    @Test
+    void reconcile_beforeLoad_doesNothing() {
+        assertEquals(0, occupancy.reconcile());
+        verify(materialRepository, never()).findAllWarehouseLocations();
+    }
+
+    @Test
+    void record_publishesChange_andRefreshFromOtherInstanceReconciles() {
+        assertEquals(5L, occupancy.totalMaterials()); // carga inicial
+        occupancy.record(material(6L, WarehouseZone.MALTA, "A3", 1));
+        verify(cacheSync).changed(WarehouseOccupancy.CACHE);
+
+        // Otra instancia movió el 3: el aviso reconcilia con la base
+        when(materialRepository.findAllWarehouseLocations()).thenReturn(List.of(
+                new Row(1L, WarehouseZone.MALTA, "A1", 1),
+                new Row(2L, WarehouseZone.MALTA, "A1", 2),
+                new Row(3L, WarehouseZone.MALTA, "A4", 1),
+                new Row(4L, WarehouseZone.LUPULO, "A1", 1),
+                new Row(5L, null, null, null)));
+        occupancy.refresh();
+
+        assertTrue(occupancy.isOccupied(WarehouseZone.MALTA, "A4", 1));
+        assertFalse(occupancy.isOccupied(WarehouseZone.MALTA, "A2", 1));
+        verify(cacheSync, times(1)).changed(any());
+    }
+
+    @Test
+    void sectionOutsideZoneList_countsAsOccupied() {
+        when(materialRepository.findAllWarehouseLocations()).thenReturn(List.of(
+                new Row(1L, WarehouseZone.AGUA, "Z9", 1)));
+
+        assertEquals(1, occupancy.occupiedSections(WarehouseZone.AGUA));
+        assertEquals("A1", occupancy.nextAvailableSection(WarehouseZone.AGUA));
+
+        occupancy.record(material(1L, WarehouseZone.AGUA, "A1", 1));
+        assertEquals(1, occupancy.occupiedSections(WarehouseZone.AGUA));
+        assertEquals("A2", occupancy.nextAvailableSection(WarehouseZone.AGUA));
+    }
+}
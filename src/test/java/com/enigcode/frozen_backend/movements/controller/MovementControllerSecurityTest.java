@@ -23,6 +23,8 @@ class MovementControllerSecurityTest {
     @MockitoBean
     private MovementService movementService;
     @MockitoBean
+    private com.enigcode.frozen_backend.movements.service.StockHistoryService stockHistoryService;
+    @MockitoBean
     private com.enigcode.frozen_backend.common.SecurityProperties securityProperties;
 
     @Test
@@ -1,22 +1,39 @@
 package com.enigcode.frozen_backend.movements.controller;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.GlobalExceptionHandler;
+import com.enigcode.frozen_backend.common.export.ExportFormat;
+import com.enigcode.frozen_backend.common.pagination.CursorPageDTO;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.movements.DTO.MovementBulkResultDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementCreateDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementResponseDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementDetailDTO;
+import com.enigcode.frozen_backend.movements.DTO.StockPointDTO;
+import com.enigcode.frozen_backend.movements.model.MovementType;
 import com.enigcode.frozen_backend.movements.service.MovementService;
+import com.enigcode.frozen_backend.movements.service.StockHistoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +46,9 @@ class MovementControllerTest {
     @Mock
     private MovementService movementService;
 
+    @Mock
+    private StockHistoryService stockHistoryService;
+
     @InjectMocks
     private MovementController movementController;
 
@@ -36,6 +56,7 @@ class MovementControllerTest {
     void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(movementController)
                 .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .build();
     }
 
@@ -127,4 +148,95 @@ class MovementControllerTest {
         mockMvc.perform(patch("/movements/999/complete"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testGetStockAsOf() throws Exception {
+        OffsetDateTime date = OffsetDateTime.parse("2025-03-01T12:00:00Z");
+        when(stockHistoryService.getStockAsOf(1L, date)).thenReturn(new StockPointDTO(date, 42.5));
+
+        mockMvc.perform(get("/movements/stock-as-of")
+                .param("materialId", "1")
+                .param("date", "2025-03-01T12:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalStock").value(42.5));
+
+        verify(stockHistoryService).getStockAsOf(1L, date);
+    }
+
+    @Test
+    void testClaimNextMovements() throws Exception {
+        MovementResponseDTO dto = new MovementResponseDTO();
+        dto.setId(7L);
+        when(movementService.claimNextMovements(3, com.enigcode.frozen_backend.materials.model.WarehouseZone.MALTA))
+                .thenReturn(java.util.List.of(dto));
+
+        mockMvc.perform(post("/movements/claim")
+                .param("count", "3")
+                .param("zone", "MALTA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    void testCompleteMovements_Bulk() throws Exception {
+        MovementResponseDTO dto = new MovementResponseDTO();
+        dto.setId(5L);
+        MovementBulkResultDTO result = new MovementBulkResultDTO();
+        result.addSuccess(5L, dto);
+        result.addFailure(6L, "El movimiento ya está completado o no es válido");
+        when(movementService.completeMovements(java.util.List.of(5L, 6L))).thenReturn(result);
+
+        mockMvc.perform(patch("/movements/bulk/complete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"movementIds\":[5,6]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[1].success").value(false));
+
+        mockMvc.perform(patch("/movements/bulk/complete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"movementIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetMovements_WithCursor_UsesKeysetPagination() throws Exception {
+        MovementResponseDTO dto = new MovementResponseDTO();
+        dto.setId(9L);
+        when(movementService.findAllByCursor(any(), any(), eq("abc"), eq(false)))
+                .thenReturn(new CursorPageDTO<>(java.util.List.of(dto), 10, true, "def", null));
+
+        mockMvc.perform(get("/movements").param("after", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(9))
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.totalItems").doesNotExist());
+
+        verify(movementService, never()).findAll(any(), any());
+    }
+
+    @Test
+    void testExportMovements_StreamsCsvAttachment() throws Exception {
+        when(movementService.exportMovements(any(), eq(ExportFormat.CSV), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(2);
+                    out.write("id,type\n1,INGRESO\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/movements/export").param("type", "INGRESO"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Timeout propio de la descarga (app.export.timeout-seconds), no el global de Spring MVC
+        assertEquals(600_000L, result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("movimientos.csv")))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,type\n1,INGRESO\n"));
+
+        verify(movementService).exportMovements(argThat(filter -> filter.getType() == MovementType.INGRESO),
+                eq(ExportFormat.CSV), any(OutputStream.class));
+    }
 }
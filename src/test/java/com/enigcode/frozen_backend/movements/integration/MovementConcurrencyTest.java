@@ -0,0 +1,282 @@
+package com.enigcode.frozen_backend.movements.integration;
+
+import com.enigcode.frozen_backend.common.concurrency.RetryOnConflictAspect;
+import com.enigcode.frozen_backend.common.export.StreamingExport;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.model.MaterialType;
+import com.enigcode.frozen_backend.materials.model.UnitMeasurement;
+import com.enigcode.frozen_backend.materials.model.WarehouseZone;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.materials.service.LowStockWatchlist;
+import com.enigcode.frozen_backend.materials.service.MaterialStockLocks;
+import com.enigcode.frozen_backend.movements.DTO.MovementResponseDTO;
+import com.enigcode.frozen_backend.movements.mapper.MovementMapper;
+import com.enigcode.frozen_backend.movements.model.Movement;
+import com.enigcode.frozen_backend.movements.model.MovementStatus;
+import com.enigcode.frozen_backend.movements.model.MovementType;
+import com.enigcode.frozen_backend.movements.repository.MovementRepository;
+import com.enigcode.frozen_backend.movements.service.MovementService;
+import com.enigcode.frozen_backend.movements.service.MovementServiceImpl;
+import com.enigcode.frozen_backend.notifications.service.NotificationService;
+import com.enigcode.frozen_backend.users.model.User;
+import com.enigcode.frozen_backend.users.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prueba de carga de las modificaciones de stock concurrentes sobre un mismo
+ * material: verifica que no se pierdan actualizaciones y mide el throughput
+ * bajo contención.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:movement-concurrency;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ MovementServiceImpl.class, MaterialStockLocks.class, RetryOnConflictAspect.class })
+class MovementConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int MOVEMENTS_PER_THREAD = 25;
+
+    @SpringBootConfiguration
+    @EnableAspectJAutoProxy
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = { MovementRepository.class, MaterialRepository.class })
+    static class Config {
+    }
+
+    @Autowired
+    private MovementService movementService;
+    @Autowired
+    private MovementRepository movementRepository;
+    @Autowired
+    private MaterialRepository materialRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private MovementMapper movementMapper;
+    @MockitoBean
+    private NotificationService notificationService;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private LowStockWatchlist lowStockWatchlist;
+    @MockitoBean
+    private StreamingExport streamingExport;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("operario");
+        when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    @Test
+    void concurrentCompletions_sameMaterial_noLostUpdates() throws Exception {
+        Material material = saveMaterial(100.0);
+        // Mitad ingresos de 2 y mitad egresos de 1: el stock inicial cubre todos los egresos
+        List<Long> movementIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * MOVEMENTS_PER_THREAD; i++)
+            movementIds.add(savePending(material, i % 2 == 0 ? MovementType.INGRESO : MovementType.EGRESO,
+                    i % 2 == 0 ? 2.0 : 1.0));
+
+        AtomicInteger failures = new AtomicInteger();
+        runConcurrently(movementIds, id -> {
+            try {
+                movementService.completeMovement(id);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            }
+        });
+
+        int total = movementIds.size();
+        assertThat(failures.get()).isZero();
+        assertThat(materialRepository.findById(material.getId()).orElseThrow().getStock())
+                .isEqualTo(100.0 + total / 2 * 2.0 - total / 2 * 1.0);
+        assertThat(movementRepository.findAll()).filteredOn(m -> m.getMaterial().getId().equals(material.getId()))
+                .allMatch(m -> m.getStatus() == MovementStatus.COMPLETADO);
+    }
+
+    @Test
+    void concurrentWritersWithoutLocks_versionPreventsLostUpdates() throws Exception {
+        Material material = saveMaterial(0.0);
+        List<Long> movementIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * MOVEMENTS_PER_THREAD / 2; i++)
+            movementIds.add(savePending(material, MovementType.INGRESO, 1.0));
+
+        // Escritor que no pasa por los locks del nodo (como otra instancia de la aplicación)
+        TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+        AtomicInteger otherNodeIncrements = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        List<Long> tasks = new ArrayList<>(movementIds);
+        movementIds.forEach(id -> tasks.add(-id));
+
+        runConcurrently(tasks, id -> {
+            try {
+                if (id > 0) {
+                    movementService.completeMovement(id);
+                } else {
+                    otherNode.executeWithoutResult(status -> {
+                        Material current = materialRepository.findById(material.getId()).orElseThrow();
+                        current.increaseStock(1.0);
+                    });
+                    otherNodeIncrements.incrementAndGet();
+                }
+            } catch (ConcurrencyFailureException e) {
+                failures.incrementAndGet();
+            }
+        });
+
+        long completed = movementRepository.findAll().stream()
+                .filter(m -> m.getMaterial().getId().equals(material.getId()))
+                .filter(m -> m.getStatus() == MovementStatus.COMPLETADO).count();
+        // Cada escritura confirmada quedó reflejada: ninguna pisó a otra
+        assertThat(materialRepository.findById(material.getId()).orElseThrow().getStock())
+                .isEqualTo((double) (completed + otherNodeIncrements.get()));
+        assertThat(completed + otherNodeIncrements.get() + failures.get()).isEqualTo(tasks.size());
+    }
+
+    @Test
+    void concurrentClaims_tenOperators_getDisjointMovements() throws Exception {
+        Material material = saveMaterial(0.0);
+        material.setWarehouseZone(WarehouseZone.LUPULO);
+        materialRepository.save(material);
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 50; i++)
+            pending.add(savePending(material, MovementType.INGRESO, 1.0));
+        when(movementMapper.toResponseDto(any(Movement.class)))
+                .thenAnswer(inv -> MovementResponseDTO.builder().id(inv.<Movement>getArgument(0).getId()).build());
+
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        List<Long> operators = new ArrayList<>();
+        for (long i = 1; i <= 10; i++)
+            operators.add(i);
+
+        runConcurrently(operators, operator -> {
+            try {
+                for (MovementResponseDTO dto : movementService.claimNextMovements(5, WarehouseZone.LUPULO))
+                    if (!claimed.add(dto.getId()))
+                        duplicates.incrementAndGet();
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            }
+        });
+
+        assertThat(failures.get()).isZero();
+        assertThat(duplicates.get()).isZero();
+        assertThat(claimed).isEqualTo(pending);
+        assertThat(movementRepository.findAllById(pending))
+                .allMatch(m -> m.getStatus() == MovementStatus.EN_PROCESO && m.getTakenAt() != null);
+    }
+
+    @Test
+    void concurrentBulkCompletions_sameMaterial_noLostUpdates() throws Exception {
+        Material material = saveMaterial(100.0);
+        List<Long> movementIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * MOVEMENTS_PER_THREAD; i++)
+            movementIds.add(savePending(material, i % 2 == 0 ? MovementType.INGRESO : MovementType.EGRESO,
+                    i % 2 == 0 ? 2.0 : 1.0));
+        List<Long> batches = new ArrayList<>();
+        for (long b = 0; b < movementIds.size() / 20; b++)
+            batches.add(b);
+
+        AtomicInteger failures = new AtomicInteger();
+        runConcurrently(batches, batch -> {
+            int from = batch.intValue() * 20;
+            try {
+                failures.addAndGet(movementService.completeMovements(movementIds.subList(from, from + 20)).getFailed());
+            } catch (RuntimeException e) {
+                failures.addAndGet(20);
+            }
+        });
+
+        int total = movementIds.size();
+        assertThat(failures.get()).isZero();
+        assertThat(materialRepository.findById(material.getId()).orElseThrow().getStock())
+                .isEqualTo(100.0 + total / 2 * 2.0 - total / 2 * 1.0);
+        assertThat(movementRepository.findAllById(movementIds))
+                .allMatch(m -> m.getStatus() == MovementStatus.COMPLETADO && m.getCompletedByUserId() == 1L);
+    }
+
+    private Material saveMaterial(double stock) {
+        return materialRepository.save(Material.builder()
+                .name("Malta Pilsen")
+                .code("MAL-" + System.nanoTime())
+                .type(MaterialType.MALTA)
+                .stock(stock)
+                .unitMeasurement(UnitMeasurement.KG)
+                .threshold(0.0)
+                .creationDate(OffsetDateTime.now())
+                .build());
+    }
+
+    private Long savePending(Material material, MovementType type, double stock) {
+        return movementRepository.save(Movement.builder()
+                .material(material)
+                .type(type)
+                .stock(stock)
+                .status(MovementStatus.PENDIENTE)
+                .build()).getId();
+    }
+
+    /**
+     * Reparte las tareas entre THREADS hilos que arrancan juntos y devuelve
+     * el tiempo total en milisegundos
+     */
+    private void runConcurrently(List<Long> ids, java.util.function.Consumer<Long> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = offset; i < ids.size(); i += THREADS)
+                    task.accept(ids.get(i));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+}
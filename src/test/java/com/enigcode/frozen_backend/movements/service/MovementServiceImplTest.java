@@ -4,6 +4,7 @@ import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadReque
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
 import com.enigcode.frozen_backend.materials.model.Material;
 import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.movements.DTO.MovementBulkResultDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementCreateDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementDetailDTO;
 import com.enigcode.frozen_backend.movements.DTO.MovementFilterDTO;
@@ -46,6 +47,10 @@ class MovementServiceImplTest {
     private com.enigcode.frozen_backend.users.service.UserService userService;
         @Mock
         private com.enigcode.frozen_backend.notifications.service.NotificationService notificationService;
+    @Mock
+    private com.enigcode.frozen_backend.materials.service.LowStockWatchlist lowStockWatchlist;
+    @Mock
+    private com.enigcode.frozen_backend.materials.service.MaterialStockLocks materialStockLocks;
 
     @InjectMocks
     private MovementServiceImpl movementService;
@@ -107,6 +112,15 @@ class MovementServiceImplTest {
         com.enigcode.frozen_backend.users.model.User mockUser = new com.enigcode.frozen_backend.users.model.User();
         mockUser.setId(1L);
         org.mockito.Mockito.lenient().when(userService.getCurrentUser()).thenReturn(mockUser);
+
+        // Los locks devuelven las mismas instancias (sin cambios concurrentes)
+        lenient().when(movementRepository.findMaterialIdById(anyLong())).thenReturn(Optional.of(1L));
+        lenient().when(materialStockLocks.lockAll(anyCollection())).thenAnswer(inv -> {
+            java.util.Map<Long, Material> byId = new java.util.LinkedHashMap<>();
+            for (Material m : inv.<java.util.Collection<Material>>getArgument(0))
+                byId.putIfAbsent(m.getId(), m);
+            return byId;
+        });
     }
 
     @Test
@@ -357,6 +371,7 @@ class MovementServiceImplTest {
         when(movementMapper.toResponseDto(any(Movement.class))).thenReturn(responseDTO);
         when(materialRepository.save(any(Material.class))).thenReturn(material);
         when(movementRepository.save(any(Movement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        enterWatchlist();
 
         movementService.completeMovement(4L);
 
@@ -364,6 +379,157 @@ class MovementServiceImplTest {
         verify(notificationService).createLowStockNotification(material.getId(), material.getName(), 5.0, 10.0);
     }
 
+    @Test
+    void testCompleteMovement_Egreso_AlreadyInWatchlist_DoesNotNotifyAgain() {
+        when(movementRepository.findById(4L)).thenReturn(Optional.of(egresoMovementLowStock));
+        when(movementMapper.toResponseDto(any(Movement.class))).thenReturn(responseDTO);
+        when(materialRepository.save(any(Material.class))).thenReturn(material);
+        when(movementRepository.save(any(Movement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        movementService.completeMovement(4L);
+
+        verify(lowStockWatchlist).record(eq(material), any());
+        verify(notificationService, never()).createLowStockNotification(anyLong(), anyString(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testCreateReserve_BelowThreshold_NotifiesOncePerMaterial() {
+        MovementSimpleCreateDTO first = new MovementSimpleCreateDTO();
+        first.setMaterial(material);
+        first.setStock(30.0);
+        MovementSimpleCreateDTO second = new MovementSimpleCreateDTO();
+        second.setMaterial(material);
+        second.setStock(15.0);
+        enterWatchlist();
+
+        movementService.createReserveOrReturn(MovementType.RESERVA, List.of(first, second));
+
+        assertEquals(5.0, material.getStock());
+        assertEquals(45.0, material.getReservedStock());
+        verify(lowStockWatchlist, times(1)).record(eq(material), any());
+        verify(notificationService).createLowStockNotification(material.getId(), material.getName(), 5.0, 10.0);
+    }
+
+    @Test
+    void testCompleteMovement_LocksMaterialBeforeReadingMovement() {
+        when(movementRepository.findById(2L)).thenReturn(Optional.of(pendingMovement));
+        when(movementRepository.save(any(Movement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        movementService.completeMovement(2L);
+
+        org.mockito.InOrder inOrder = inOrder(movementRepository, materialStockLocks);
+        inOrder.verify(movementRepository).findMaterialIdById(2L);
+        inOrder.verify(materialStockLocks).lock(1L);
+        inOrder.verify(movementRepository).findById(2L);
+    }
+
+    @Test
+    void testCreateReserve_UsesMaterialStateReadAfterLock() {
+        Material stale = new Material();
+        stale.setId(1L);
+        stale.setStock(50.0);
+        stale.setReservedStock(0.0);
+        material.setStock(20.0); // otra transacción consumió stock antes del lock
+        when(materialStockLocks.lockAll(anyCollection())).thenReturn(java.util.Map.of(1L, material));
+        MovementSimpleCreateDTO dto = new MovementSimpleCreateDTO();
+        dto.setMaterial(stale);
+        dto.setStock(30.0);
+
+        assertThrows(BadRequestException.class,
+                () -> movementService.createReserveOrReturn(MovementType.RESERVA, List.of(dto)));
+        assertEquals(50.0, stale.getStock());
+        verify(movementRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void testClaimNextMovements_AssignsOldestToCurrentUser() {
+        when(movementRepository.findClaimable(eq(com.enigcode.frozen_backend.materials.model.WarehouseZone.MALTA),
+                any(java.time.LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(pendingMovement, egresoMovementLowStock));
+        when(movementMapper.toResponseDto(any(Movement.class))).thenReturn(responseDTO);
+
+        List<MovementResponseDTO> result = movementService.claimNextMovements(2,
+                com.enigcode.frozen_backend.materials.model.WarehouseZone.MALTA);
+
+        assertEquals(2, result.size());
+        for (Movement m : List.of(pendingMovement, egresoMovementLowStock)) {
+            assertEquals(com.enigcode.frozen_backend.movements.model.MovementStatus.EN_PROCESO, m.getStatus());
+            assertEquals(1L, m.getInProgressByUserId());
+            assertNotNull(m.getTakenAt());
+        }
+        verify(movementRepository).saveAll(List.of(pendingMovement, egresoMovementLowStock));
+    }
+
+    @Test
+    void testClaimNextMovements_InvalidCount_Throws() {
+        assertThrows(BadRequestException.class, () -> movementService.claimNextMovements(0, null));
+        assertThrows(BadRequestException.class,
+                () -> movementService.claimNextMovements(MovementServiceImpl.MAX_CLAIM + 1, null));
+        verify(movementRepository, never()).findClaimable(any(), any(), any());
+    }
+
+    @Test
+    void testCompleteMovements_AppliesInOrderAndReportsFailuresPerItem() {
+        Movement secondEgreso = Movement.builder()
+                .id(5L)
+                .type(MovementType.EGRESO)
+                .stock(20.0)
+                .material(material)
+                .status(com.enigcode.frozen_backend.movements.model.MovementStatus.PENDIENTE)
+                .build();
+        List<Long> ids = List.of(2L, 4L, 5L, 99L);
+        when(movementRepository.findMaterialIdsByIdIn(ids)).thenReturn(List.of(1L));
+        when(movementRepository.findAllWithMaterialByIdIn(ids))
+                .thenReturn(List.of(secondEgreso, egresoMovementLowStock, pendingMovement));
+        when(movementMapper.toResponseDto(any(Movement.class))).thenReturn(responseDTO);
+
+        MovementBulkResultDTO result = movementService.completeMovements(ids);
+
+        // 50 + 5 - 45 = 10: el segundo egreso ya no tiene stock suficiente
+        assertEquals(10.0, material.getStock());
+        assertEquals(4, result.getTotal());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(List.of(true, true, false, false),
+                result.getResults().stream().map(MovementBulkResultDTO.ItemResultDTO::isSuccess).toList());
+        assertEquals(com.enigcode.frozen_backend.movements.model.MovementStatus.PENDIENTE, secondEgreso.getStatus());
+        verify(materialStockLocks).lockAllById(List.of(1L));
+        verify(userService, times(1)).getCurrentUser();
+        verify(lowStockWatchlist, times(1)).record(eq(material), any());
+        verify(movementRepository).saveAll(List.of(pendingMovement, egresoMovementLowStock));
+    }
+
+    @Test
+    void testTakeMovementsInProgress_SkipsCompletedAndTakenByOthers() {
+        Movement takenByOther = Movement.builder()
+                .id(6L)
+                .type(MovementType.INGRESO)
+                .stock(1.0)
+                .material(material)
+                .status(com.enigcode.frozen_backend.movements.model.MovementStatus.EN_PROCESO)
+                .inProgressByUserId(2L)
+                .build();
+        Movement completed = Movement.builder()
+                .id(7L)
+                .type(MovementType.INGRESO)
+                .stock(1.0)
+                .material(material)
+                .status(com.enigcode.frozen_backend.movements.model.MovementStatus.COMPLETADO)
+                .build();
+        List<Long> ids = List.of(2L, 3L, 6L, 7L);
+        when(movementRepository.findAllForUpdateByIdIn(ids))
+                .thenReturn(List.of(pendingMovement, inProcessMovement, takenByOther, completed));
+        when(movementMapper.toResponseDto(any(Movement.class))).thenReturn(responseDTO);
+
+        MovementBulkResultDTO result = movementService.takeMovementsInProgress(ids);
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(com.enigcode.frozen_backend.movements.model.MovementStatus.EN_PROCESO, pendingMovement.getStatus());
+        assertEquals(1L, pendingMovement.getInProgressByUserId());
+        assertNotNull(pendingMovement.getTakenAt());
+        assertEquals(2L, takenByOther.getInProgressByUserId());
+        verify(movementRepository).saveAll(List.of(pendingMovement));
+    }
+
     @Test
     void testCompleteMovement_Egreso_StockInsuficienteAtCompletion() {
         // Ajustamos material para que stock sea insuficiente al completar
@@ -445,6 +611,33 @@ class MovementServiceImplTest {
         verify(movementRepository, times(1)).saveAll(anyList());
     }
 
+    @Test
+    void testCreateMovements_multiple_resolvesUserOnceAndNotifiesOnce() {
+        List<MovementInternalCreateDTO> dtos = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            MovementInternalCreateDTO dto = new MovementInternalCreateDTO();
+            dto.setMaterial(material);
+            dto.setStock(1.0 + i);
+            dto.setType(MovementType.INGRESO);
+            dto.setReason("Cancelación de lote, material devuelto");
+            dtos.add(dto);
+        }
+        java.util.concurrent.atomic.AtomicLong ids = new java.util.concurrent.atomic.AtomicLong(100);
+        when(movementRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Movement> movements = inv.getArgument(0);
+            movements.forEach(m -> m.setId(ids.incrementAndGet()));
+            return movements;
+        });
+
+        movementService.createMovements(dtos);
+
+        verify(userService, times(1)).getCurrentUser();
+        verify(movementRepository, times(1)).saveAll(anyList());
+        verify(notificationService).createPendingMovementsNotification(List.of(101L, 102L, 103L, 104L, 105L),
+                "Cancelación de lote, material devuelto");
+        verify(notificationService, never()).createPendingMovementNotification(anyLong(), any(), any());
+    }
+
     @Test
     void testCompleteMovement_EnProceso_OtherUserThrows() {
         // movement in EN_PROCESO by user 2
@@ -465,4 +658,14 @@ class MovementServiceImplTest {
 
         assertThrows(BadRequestException.class, () -> movementService.completeMovement(99L));
     }
-}
\ No newline at end of file
+
+    /**
+     * El material entra a la lista de stock bajo al confirmarse la transacción
+     */
+    private void enterWatchlist() {
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return null;
+        }).when(lowStockWatchlist).record(eq(material), any());
+    }
+}
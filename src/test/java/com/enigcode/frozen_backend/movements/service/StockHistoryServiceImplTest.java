@@ -0,0 +1,199 @@
+package com.enigcode.frozen_backend.movements.service;
+
+import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
+import com.enigcode.frozen_backend.materials.model.Material;
+import com.enigcode.frozen_backend.materials.repository.MaterialRepository;
+import com.enigcode.frozen_backend.movements.DTO.MaterialStockDeltaProjectionDTO;
+import com.enigcode.frozen_backend.movements.DTO.StockPointDTO;
+import com.enigcode.frozen_backend.movements.model.Movement;
+import com.enigcode.frozen_backend.movements.model.MovementType;
+import com.enigcode.frozen_backend.movements.model.StockCheckpoint;
+import com.enigcode.frozen_backend.movements.repository.MovementRepository;
+import com.enigcode.frozen_backend.movements.repository.StockCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockHistoryServiceImplTest {
+
+    private static final OffsetDateTime DAY = OffsetDateTime.parse("2025-03-10T00:00:00Z");
+
+    @Mock
+    private StockCheckpointRepository checkpointRepository;
+
+    @Mock
+    private MovementRepository movementRepository;
+
+    @Mock
+    private MaterialRepository materialRepository;
+
+    @InjectMocks
+    private StockHistoryServiceImpl service;
+
+    private static Material material(OffsetDateTime creationDate, Double stock, Double reservedStock) {
+        Material material = new Material();
+        material.setId(1L);
+        material.setStock(stock);
+        material.setReservedStock(reservedStock);
+        material.setCreationDate(creationDate);
+        return material;
+    }
+
+    private static StockCheckpoint checkpoint(Material material, OffsetDateTime date, Double totalStock) {
+        return StockCheckpoint.builder().material(material).checkpointDate(date).totalStock(totalStock).build();
+    }
+
+    private static Movement movement(MovementType type, Double stock, OffsetDateTime realizationDate) {
+        return Movement.builder().type(type).stock(stock).realizationDate(realizationDate).build();
+    }
+
+    private static MaterialStockDeltaProjectionDTO delta(Long materialId, Double delta) {
+        return new MaterialStockDeltaProjectionDTO() {
+            @Override
+            public Long getMaterialId() {
+                return materialId;
+            }
+
+            @Override
+            public Double getDelta() {
+                return delta;
+            }
+        };
+    }
+
+    @Test
+    void getStockAsOf_replaysFromPreviousCheckpoint() {
+        Material material = material(DAY.minusDays(30), 70.0, 0.0);
+        OffsetDateTime date = DAY.plusHours(15);
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(1L, date))
+                .thenReturn(Optional.of(checkpoint(material, DAY, 100.0)));
+        when(movementRepository.sumStockDelta(1L, DAY, date)).thenReturn(-20.5);
+
+        StockPointDTO point = service.getStockAsOf(1L, date);
+
+        assertEquals(79.5, point.getTotalStock());
+        assertEquals(date, point.getDate());
+        verify(movementRepository, never()).sumStockDeltaAfter(any(), any());
+    }
+
+    @Test
+    void getStockAsOf_beforeFirstCheckpoint_replaysBackwards() {
+        Material material = material(DAY.minusHours(10), 70.0, 0.0);
+        OffsetDateTime date = DAY.minusHours(5);
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(1L, date))
+                .thenReturn(Optional.empty());
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateGreaterThanOrderByCheckpointDateAsc(1L, date))
+                .thenReturn(Optional.of(checkpoint(material, DAY, 100.0)));
+        when(movementRepository.sumStockDelta(1L, date, DAY)).thenReturn(30.0);
+
+        assertEquals(70.0, service.getStockAsOf(1L, date).getTotalStock());
+    }
+
+    @Test
+    void getStockAsOf_withoutCheckpoints_startsFromCurrentTotalStock() {
+        Material material = material(DAY.minusDays(1), 30.0, 10.0);
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(1L, DAY))
+                .thenReturn(Optional.empty());
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateGreaterThanOrderByCheckpointDateAsc(1L, DAY))
+                .thenReturn(Optional.empty());
+        when(movementRepository.sumStockDeltaAfter(1L, DAY)).thenReturn(15.0);
+
+        assertEquals(25.0, service.getStockAsOf(1L, DAY).getTotalStock());
+    }
+
+    @Test
+    void getStockAsOf_beforeCreation_returnsZero() {
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material(DAY, 30.0, 0.0)));
+
+        assertEquals(0.0, service.getStockAsOf(1L, DAY.minusDays(1)).getTotalStock());
+        verifyNoInteractions(checkpointRepository, movementRepository);
+    }
+
+    @Test
+    void getStockHistory_addsOnePointPerIngresoAndEgreso() {
+        Material material = material(DAY.minusDays(30), 70.0, 0.0);
+        OffsetDateTime to = DAY.plusDays(1);
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(checkpointRepository.findFirstByMaterialIdAndCheckpointDateLessThanEqualOrderByCheckpointDateDesc(1L, DAY))
+                .thenReturn(Optional.of(checkpoint(material, DAY, 50.0)));
+        when(movementRepository.sumStockDelta(1L, DAY, DAY)).thenReturn(0.0);
+        when(movementRepository.findStockChanges(1L, DAY, to)).thenReturn(List.of(
+                movement(MovementType.INGRESO, 20.0, DAY.plusHours(2)),
+                movement(MovementType.EGRESO, 5.25, DAY.plusHours(8))));
+
+        List<StockPointDTO> points = service.getStockHistory(1L, DAY, to);
+
+        assertEquals(List.of(50.0, 70.0, 64.75, 64.75), points.stream().map(StockPointDTO::getTotalStock).toList());
+        assertEquals(to, points.get(3).getDate());
+    }
+
+    @Test
+    void getStockHistory_invalidRange_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> service.getStockHistory(1L, DAY, DAY));
+        verifyNoInteractions(materialRepository);
+    }
+
+    @Test
+    void buildCheckpoints_anchorsOnCurrentStockAndBackfillsUntilCreation() {
+        Material material = material(DAY.minusHours(36), 40.0, 10.0);
+        when(checkpointRepository.findLatestPerMaterial()).thenReturn(List.of());
+        when(checkpointRepository.findEarliestPerMaterial()).thenReturn(List.of());
+        when(materialRepository.findAll()).thenReturn(List.of(material));
+        when(movementRepository.sumStockDeltaByMaterialAfter(DAY)).thenReturn(List.of(delta(1L, 5.0)));
+        when(movementRepository.sumStockDeltaByMaterial(DAY.minusDays(1), DAY)).thenReturn(List.of(delta(1L, -15.0)));
+
+        int created = service.buildCheckpoints(DAY.plusHours(3));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(checkpointRepository).saveAll(captor.capture());
+        List<StockCheckpoint> saved = captor.getValue().stream()
+                .sorted(Comparator.comparing(StockCheckpoint::getCheckpointDate)).toList();
+        assertEquals(2, created);
+        assertEquals(DAY.minusDays(1), saved.get(0).getCheckpointDate());
+        assertEquals(60.0, saved.get(0).getTotalStock());
+        assertEquals(DAY, saved.get(1).getCheckpointDate());
+        assertEquals(45.0, saved.get(1).getTotalStock());
+    }
+
+    @Test
+    void buildCheckpoints_advancesClosedIntervalsOnly() {
+        Material material = material(DAY.minusDays(2), 0.0, 0.0);
+        StockCheckpoint last = checkpoint(material, DAY.minusDays(2), 10.0);
+        when(checkpointRepository.findLatestPerMaterial()).thenReturn(List.of(last));
+        when(checkpointRepository.findEarliestPerMaterial()).thenReturn(List.of(last));
+        when(materialRepository.findAll()).thenReturn(List.of(material));
+        when(movementRepository.sumStockDeltaByMaterial(DAY.minusDays(2), DAY.minusDays(1)))
+                .thenReturn(List.of(delta(1L, 4.0)));
+        when(movementRepository.sumStockDeltaByMaterial(DAY.minusDays(1), DAY)).thenReturn(List.of());
+
+        // A las 00:05 el intervalo que termina en DAY todavía no se considera cerrado
+        assertEquals(1, service.buildCheckpoints(DAY.plusMinutes(5)));
+        verify(movementRepository, never()).sumStockDeltaByMaterial(DAY.minusDays(1), DAY);
+
+        assertEquals(2, service.buildCheckpoints(DAY.plusMinutes(30)));
+    }
+
+    @Test
+    void boundaryAtOrBefore_alignsToUtcDays() {
+        assertEquals(DAY, StockHistoryServiceImpl.boundaryAtOrBefore(OffsetDateTime.parse("2025-03-10T20:30:00-03:00")
+                .minusHours(1)));
+        assertEquals(DAY, StockHistoryServiceImpl.boundaryAtOrBefore(DAY));
+    }
+}
@@ -3,11 +3,14 @@ package com.enigcode.frozen_backend.notifications.controller;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import com.enigcode.frozen_backend.notifications.service.NotificationService;
 import com.enigcode.frozen_backend.notifications.service.SseNotificationService;
+import com.enigcode.frozen_backend.notifications.service.SseSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,10 +29,13 @@ import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import com.enigcode.frozen_backend.common.exceptions_configs.GlobalExceptionHandler;
 
 import java.util.List;
+import java.util.function.Function;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -141,16 +147,30 @@ class NotificationControllerTest {
 
     @Test
     void markAllAsRead_success() throws Exception {
-        doNothing().when(notificationService).markAllAsRead(7L);
+        when(notificationService.markAllAsRead(7L)).thenReturn(3);
 
         mockMvc.perform(patch("/notifications/read-all")
                 .param("userId", "7")
                 .contentType(MediaType.APPLICATION_JSON))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.marked").value(3));
 
         verify(notificationService).markAllAsRead(7L);
     }
 
+    @Test
+    void markAllAsRead_byTypeAndEntity_delegatesToFilteredMark() throws Exception {
+        when(notificationService.markAsReadByRelatedEntity(7L, NotificationType.LOW_STOCK_ALERT, 5L)).thenReturn(1);
+
+        mockMvc.perform(patch("/notifications/read-all")
+                .param("type", "LOW_STOCK_ALERT")
+                .param("relatedEntityId", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.marked").value(1));
+
+        verify(notificationService, never()).markAllAsRead(7L);
+    }
+
     @Test
     void getStats_returnsCounts() throws Exception {
         NotificationStatsDTO stats = new NotificationStatsDTO();
@@ -170,13 +190,35 @@ class NotificationControllerTest {
 
     @Test
     void stream_callsSseService_andReturnsOk() throws Exception {
-        when(sseNotificationService.createConnectionByUsername("userA")).thenReturn(new org.springframework.web.servlet.mvc.method.annotation.SseEmitter());
+        when(sseNotificationService.createConnectionByUsername(eq("userA"), isNull(), any())).thenReturn(new org.springframework.web.servlet.mvc.method.annotation.SseEmitter());
 
         mockMvc.perform(get("/notifications/stream")
                 .param("username", "userA"))
             .andExpect(status().isOk());
 
-        verify(sseNotificationService).createConnectionByUsername("userA");
+        verify(sseNotificationService).createConnectionByUsername(eq("userA"), isNull(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_withLastEventId_passesItAndSnapshotLoader() throws Exception {
+        ArgumentCaptor<Function<Long, SseSnapshot>> loader = ArgumentCaptor.forClass(Function.class);
+        when(sseNotificationService.createConnectionByUsername(eq("userA"), eq("1234"), loader.capture()))
+                .thenReturn(new org.springframework.web.servlet.mvc.method.annotation.SseEmitter());
+        NotificationStatsDTO stats = new NotificationStatsDTO(1L, 3L);
+        when(notificationService.getUserNotifications(eq(7L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(dto)));
+        when(notificationService.getUserNotificationStats(7L)).thenReturn(stats);
+
+        mockMvc.perform(get("/notifications/stream")
+                .header("Last-Event-ID", "1234"))
+            .andExpect(status().isOk());
+
+        // El snapshot solo se arma si el servicio no puede reenviar desde el buffer
+        verifyNoInteractions(notificationService);
+        SseSnapshot snapshot = loader.getValue().apply(7L);
+        assertThat(snapshot.notifications()).isEqualTo(List.of(dto));
+        assertThat(snapshot.stats()).isSameAs(stats);
     }
 
     @Test
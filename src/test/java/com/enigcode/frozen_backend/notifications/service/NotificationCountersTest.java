@@ -0,0 +1,118 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.dto.NotificationCountsProjectionDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCountersTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private NotificationCounters notificationCounters;
+
+    @Test
+    void getStats_loadsOnceAndThenAppliesAdjustmentsInMemory() {
+        when(notificationRepository.countByUserIds(List.of(7L))).thenReturn(List.of(counts(7L, 5, 2)));
+
+        assertStats(notificationCounters.getStats(7L), 2, 5);
+        notificationCounters.created(7L, 3);
+        notificationCounters.read(7L, 4);
+        notificationCounters.removed(7L, 0, 2);
+
+        assertStats(notificationCounters.getStats(7L), 1, 6);
+        verify(notificationRepository, times(1)).countByUserIds(anyCollection());
+    }
+
+    @Test
+    void getStats_userWithoutNotifications_returnsZeros() {
+        when(notificationRepository.countByUserIds(List.of(9L))).thenReturn(List.of());
+
+        assertStats(notificationCounters.getStats(9L), 0, 0);
+    }
+
+    @Test
+    void adjustmentsBeforeFirstAccess_areIgnoredAndUnreadNeverGoesNegative() {
+        notificationCounters.created(7L, 3);
+        verifyNoInteractions(notificationRepository);
+
+        when(notificationRepository.countByUserIds(List.of(7L))).thenReturn(List.of(counts(7L, 1, 1)));
+        notificationCounters.getStats(7L);
+        notificationCounters.read(7L, 5);
+
+        assertStats(notificationCounters.getStats(7L), 0, 1);
+    }
+
+    @Test
+    void reconcile_replacesDriftedCountersOfLoadedUsers() {
+        when(notificationRepository.countByUserIds(List.of(7L))).thenReturn(List.of(counts(7L, 5, 2)));
+        notificationCounters.getStats(7L);
+        notificationCounters.created(7L, 1);
+
+        when(notificationRepository.countByUserIds(anyCollection())).thenReturn(List.of(counts(7L, 4, 0)));
+        int drifted = notificationCounters.reconcile();
+
+        assertThat(drifted).isEqualTo(1);
+        assertStats(notificationCounters.getStats(7L), 0, 4);
+        assertThat(notificationCounters.reconcile()).isZero();
+    }
+
+    @Test
+    void reconcile_keepsAdjustmentsMadeWhileCounting() {
+        when(notificationRepository.countByUserIds(List.of(7L))).thenReturn(List.of(counts(7L, 5, 2)));
+        notificationCounters.getStats(7L);
+
+        // Una notificación confirmada mientras corre la consulta de reconciliación
+        when(notificationRepository.countByUserIds(anyCollection())).thenAnswer(inv -> {
+            notificationCounters.created(7L, 1);
+            return List.of(counts(7L, 4, 1));
+        });
+        int drifted = notificationCounters.reconcile();
+
+        assertThat(drifted).isZero();
+        assertStats(notificationCounters.getStats(7L), 3, 6);
+    }
+
+    @Test
+    void reconcile_withNothingLoaded_doesNotQuery() {
+        assertThat(notificationCounters.reconcile()).isZero();
+        verifyNoInteractions(notificationRepository);
+    }
+
+    private static void assertStats(NotificationStatsDTO stats, long unread, long total) {
+        assertThat(stats.getUnreadCount()).isEqualTo(unread);
+        assertThat(stats.getTotalCount()).isEqualTo(total);
+    }
+
+    private static NotificationCountsProjectionDTO counts(Long userId, long total, long unread) {
+        return new NotificationCountsProjectionDTO() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getTotalCount() {
+                return total;
+            }
+
+            @Override
+            public Long getUnreadCount() {
+                return unread;
+            }
+        };
+    }
+}
@@ -0,0 +1,282 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.retention.RetentionRunner;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
+import com.enigcode.frozen_backend.notifications.model.Notification;
+import com.enigcode.frozen_backend.notifications.model.NotificationOutboxEntry;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
+import com.enigcode.frozen_backend.notifications.repository.NotificationOutboxRepository;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import com.enigcode.frozen_backend.users.model.Role;
+import com.enigcode.frozen_backend.users.model.User;
+import com.enigcode.frozen_backend.users.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Verifica el circuito completo de la outbox sobre H2: las entradas se
+ * insertan con la transacción de negocio y el despachador las convierte en
+ * notificaciones después del commit.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-outbox;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.retention.chunk-size=2",
+        "app.retention.pause-ms=0",
+        "app.notification.outbox.max-attempts=2"
+})
+@Import({ NotificationDispatcher.class, NotificationCounters.class, NotificationRetentionPolicy.class,
+        RetentionRunner.class })
+class NotificationDispatcherIntegrationTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackages = "com.enigcode.frozen_backend")
+    @EnableJpaRepositories(basePackageClasses = { NotificationRepository.class, UserRepository.class })
+    static class Config {
+    }
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private NotificationCounters notificationCounters;
+    @Autowired
+    private NotificationRetentionPolicy notificationRetentionPolicy;
+    @Autowired
+    private RetentionRunner retentionRunner;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private SseEventBus sseEventBus;
+    @MockitoBean
+    private NotificationMapper notificationMapper;
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepository.deleteAll();
+        notificationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void committedEntries_areDispatchedInOrderAfterCommit() {
+        Long userId = saveUser("operario_outbox").getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationDispatcher.enqueue(userId, NotificationType.PENDING_MOVEMENT, "primera", 1L);
+            notificationDispatcher.enqueue(userId, NotificationType.PENDING_MOVEMENT, "segunda", 2L);
+            notificationDispatcher.enqueue(userId + 1000, NotificationType.PENDING_MOVEMENT, "sin usuario", 3L);
+            // Dentro de la transacción todavía no hay notificaciones ni envíos
+            assertThat(notificationRepository.count()).isZero();
+        });
+
+        // Las estadísticas enviadas ya incluyen las notificaciones confirmadas
+        verify(sseEventBus, timeout(5000)).publishStats(eq(userId),
+                argThat((NotificationStatsDTO stats) -> stats.getUnreadCount() == 2L && stats.getTotalCount() == 2L));
+        InOrder order = inOrder(notificationMapper);
+        order.verify(notificationMapper).toResponseDTO(argThat(n -> "primera".equals(n.getMessage())));
+        order.verify(notificationMapper).toResponseDTO(argThat(n -> "segunda".equals(n.getMessage())));
+
+        assertThat(outboxRepository.count()).isZero();
+        List<Notification> notifications = notificationRepository.findAll(Sort.by("id"));
+        assertThat(notifications).extracting(Notification::getMessage).containsExactly("primera", "segunda");
+        assertThat(notifications).allMatch(n -> n.getUserId().equals(userId) && !n.getIsRead());
+    }
+
+    @Test
+    void poisonedEntry_doesNotBlockLaterEntriesAndIsDeadLettered() {
+        Long userId = saveUser("operario_veneno").getId();
+        // Una restricción que solo rechaza esa notificación, como un dato inválido
+        jdbcTemplate.execute("ALTER TABLE notifications ADD CONSTRAINT chk_veneno CHECK (message <> 'veneno')");
+        try {
+            outboxRepository.saveAll(List.of(
+                    outboxEntry(userId, "veneno"), outboxEntry(userId, "primera"), outboxEntry(userId, "segunda")));
+
+            assertThat(notificationDispatcher.drain()).isEqualTo(2);
+            assertThat(notificationRepository.findAll(Sort.by("id"))).extracting(Notification::getMessage)
+                    .containsExactly("primera", "segunda");
+            assertThat(outboxRepository.findAll()).singleElement().satisfies(entry -> {
+                assertThat(entry.getAttempts()).isEqualTo(1);
+                assertThat(entry.getLastError()).isNotBlank();
+            });
+
+            // Al llegar al máximo de intentos queda descartada y deja de tomarse
+            assertThat(notificationDispatcher.drain()).isZero();
+            assertThat(outboxRepository.findAll()).singleElement()
+                    .satisfies(entry -> assertThat(entry.getAttempts()).isEqualTo(2));
+            assertThat(notificationDispatcher.drain()).isZero();
+            assertThat(outboxRepository.findAll()).singleElement()
+                    .satisfies(entry -> assertThat(entry.getAttempts()).isEqualTo(2));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE notifications DROP CONSTRAINT chk_veneno");
+        }
+    }
+
+    @Test
+    void rolledBackTransaction_leavesNothingToDispatch() {
+        Long userId = saveUser("operario_rollback").getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationDispatcher.enqueue(userId, NotificationType.LOW_STOCK_ALERT, "revertida", 1L);
+            status.setRollbackOnly();
+        });
+        notificationDispatcher.wakeUp();
+
+        verify(sseEventBus, after(300).never()).publishNotification(any(), any());
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(notificationRepository.count()).isZero();
+        verifyNoInteractions(notificationMapper);
+    }
+
+    @Test
+    void enqueueMissing_skipsRecipientsWithSavedOrPendingNotification() {
+        Long oldAlert = saveUser("supervisor_viejo").getId();
+        Long recentAlert = saveUser("supervisor_reciente").getId();
+        Long pending = saveUser("supervisor_pendiente").getId();
+        Long fresh = saveUser("supervisor_nuevo").getId();
+        notificationRepository.save(lowStock(oldAlert, OffsetDateTime.now().minusDays(2)));
+        notificationRepository.save(lowStock(recentAlert, OffsetDateTime.now()));
+        outboxRepository.save(NotificationOutboxEntry.builder().userId(pending)
+                .type(NotificationType.LOW_STOCK_ALERT).message("pendiente").relatedEntityId(5L).build());
+        List<Long> recipients = List.of(oldAlert, recentAlert, pending, fresh);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(notificationDispatcher.enqueueMissing(recipients, NotificationType.LOW_STOCK_ALERT, "alerta",
+                    5L, OffsetDateTime.now().minusDays(1))).containsExactly(oldAlert, fresh);
+            // Lo recién encolado ya cuenta como pendiente
+            assertThat(notificationDispatcher.enqueueMissing(recipients, NotificationType.LOW_STOCK_ALERT, "alerta",
+                    5L, null)).isEmpty();
+        });
+
+        verify(sseEventBus, timeout(5000)).publishStats(eq(fresh), any());
+    }
+
+    @Test
+    void batchNotificationWithoutEntity_doesNotHideNotificationOfOneOfItsMovements() {
+        Long operator = saveUser("operario_lote").getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Notificación de un conjunto de movimientos, sin entidad asociada
+        tx.executeWithoutResult(status -> notificationDispatcher.enqueueForAll(List.of(operator),
+                NotificationType.PENDING_MOVEMENT, "3 movimientos pendientes", null));
+        verify(sseEventBus, timeout(5000)).publishStats(eq(operator), any());
+
+        // La notificación propia de uno de esos movimientos no se descarta como duplicada
+        tx.executeWithoutResult(status -> assertThat(notificationDispatcher.enqueueMissing(List.of(operator),
+                NotificationType.PENDING_MOVEMENT, "movimiento pendiente", 5L, null)).containsExactly(operator));
+        verify(sseEventBus, timeout(5000).times(2)).publishStats(eq(operator), any());
+    }
+
+    @Test
+    void retention_purgesExpiredInChunksAndDiscountsCounters() {
+        Long userId = saveUser("operario_retencion").getId();
+        Notification readOld = lowStock(userId, OffsetDateTime.now().minusDays(40));
+        readOld.setIsRead(true);
+        notificationRepository.saveAll(List.of(readOld, lowStock(userId, OffsetDateTime.now().minusDays(35)),
+                lowStock(userId, OffsetDateTime.now().minusDays(31)), lowStock(userId, OffsetDateTime.now())));
+        assertThat(notificationCounters.getStats(userId).getTotalCount()).isEqualTo(4L);
+
+        // Tres vencidas con lotes de dos: un lote completo y uno parcial
+        assertThat(retentionRunner.purge(notificationRetentionPolicy, OffsetDateTime.now().minusDays(30)))
+                .isEqualTo(3);
+
+        assertThat(notificationRepository.findAll()).singleElement()
+                .satisfies(n -> assertThat(n.getCreatedAt()).isAfter(OffsetDateTime.now().minusDays(1)));
+        NotificationStatsDTO stats = notificationCounters.getStats(userId);
+        assertThat(stats.getTotalCount()).isEqualTo(1L);
+        assertThat(stats.getUnreadCount()).isEqualTo(1L);
+        // Cada lote confirmado publica las estadísticas para que las demás instancias descarten las suyas
+        verify(sseEventBus, times(2)).publishStats(eq(userId), any());
+        verify(sseEventBus).publishStats(eq(userId), argThat(s -> s.getTotalCount() == 1L));
+        assertThat(retentionRunner.purge(notificationRetentionPolicy, OffsetDateTime.now().minusDays(30))).isZero();
+    }
+
+    @Test
+    void markReadByUser_marksOnlyMatchingUnreadInOneUpdate() {
+        Long userId = saveUser("operario_lectura").getId();
+        Notification otherEntity = lowStock(userId, OffsetDateTime.now());
+        otherEntity.setRelatedEntityId(6L);
+        Notification otherType = lowStock(userId, OffsetDateTime.now());
+        otherType.setType(NotificationType.PENDING_MOVEMENT);
+        notificationRepository.saveAll(List.of(lowStock(userId, OffsetDateTime.now()),
+                lowStock(userId, OffsetDateTime.now()), otherEntity, otherType,
+                lowStock(userId + 1000, OffsetDateTime.now())));
+        OffsetDateTime readAt = OffsetDateTime.now();
+
+        Integer marked = new TransactionTemplate(transactionManager).execute(status -> notificationRepository
+                .markReadByUser(userId, NotificationType.LOW_STOCK_ALERT, 5L, readAt));
+        assertThat(marked).isEqualTo(2);
+        assertThat(notificationRepository.findAll()).filteredOn(Notification::getIsRead).hasSize(2)
+                .allMatch(n -> n.getUserId().equals(userId) && n.getRelatedEntityId() == 5L && n.getReadAt() != null);
+
+        Integer rest = new TransactionTemplate(transactionManager).execute(status -> notificationRepository
+                .markReadByUser(userId, null, null, readAt));
+        assertThat(rest).isEqualTo(2);
+        assertThat(notificationRepository.findAll()).filteredOn(n -> !n.getIsRead())
+                .singleElement().satisfies(n -> assertThat(n.getUserId()).isNotEqualTo(userId));
+    }
+
+    private NotificationOutboxEntry outboxEntry(Long userId, String message) {
+        return NotificationOutboxEntry.builder().userId(userId).type(NotificationType.PENDING_MOVEMENT)
+                .message(message).relatedEntityId(1L).build();
+    }
+
+    private Notification lowStock(Long userId, OffsetDateTime createdAt) {
+        return Notification.builder().userId(userId).type(NotificationType.LOW_STOCK_ALERT).message("previa")
+                .relatedEntityId(5L).isRead(false).createdAt(createdAt).build();
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("pwd");
+        user.setName("Operario");
+        user.setEmail(username + "@example.com");
+        user.setCreationDate(OffsetDateTime.now());
+        user.getRoles().add(Role.OPERARIO_DE_ALMACEN);
+        return userRepository.save(user);
+    }
+}
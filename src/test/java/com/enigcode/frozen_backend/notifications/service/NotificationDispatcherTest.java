@@ -0,0 +1,154 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
+import com.enigcode.frozen_backend.notifications.model.Notification;
+import com.enigcode.frozen_backend.notifications.model.NotificationOutboxEntry;
+import com.enigcode.frozen_backend.notifications.model.NotificationType;
+import com.enigcode.frozen_backend.notifications.repository.NotificationOutboxRepository;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import com.enigcode.frozen_backend.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+    @Mock
+    private NotificationRepository notificationRepository;
+    @Mock
+    private NotificationMapper notificationMapper;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private SseEventBus sseEventBus;
+    @Mock
+    private NotificationCounters notificationCounters;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_persistsInOrderDeletesEntriesAndPublishesAfterCommit() {
+        List<NotificationOutboxEntry> entries = List.of(entry(1L, 7L, "a"), entry(2L, 8L, "b"), entry(3L, 7L, "c"));
+        when(outboxRepository.findNextBatch(anyInt(), any(Pageable.class))).thenReturn(entries);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L, 8L));
+        when(notificationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        int processed = dispatcher.drain();
+
+        assertThat(processed).isEqualTo(3);
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(notificationRepository, outboxRepository, transactionManager, sseEventBus);
+        order.verify(notificationRepository).saveAll(captor.capture());
+        order.verify(outboxRepository).deleteAllInBatch(entries);
+        order.verify(transactionManager).commit(any());
+        order.verify(sseEventBus).publishNotification(eq(7L), any());
+        order.verify(sseEventBus).publishNotification(eq(8L), any());
+        order.verify(sseEventBus).publishNotification(eq(7L), any());
+        assertThat(captor.getValue()).extracting(Notification::getMessage).containsExactly("a", "b", "c");
+        // Una actualización de estadísticas por usuario, no por notificación
+        verify(sseEventBus, times(1)).publishStats(eq(7L), any());
+        verify(sseEventBus, times(1)).publishStats(eq(8L), any());
+        // Las estadísticas salen de los contadores, sin consultas de conteo
+        verify(notificationCounters).created(7L, 2);
+        verify(notificationCounters).created(8L, 1);
+        verify(notificationRepository, never()).countByUserId(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_discardsEntriesOfMissingUsers() {
+        List<NotificationOutboxEntry> entries = List.of(entry(1L, 7L, "a"), entry(2L, 99L, "b"));
+        when(outboxRepository.findNextBatch(anyInt(), any(Pageable.class))).thenReturn(entries);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L));
+        when(notificationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        dispatcher.drain();
+
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Notification::getUserId).containsExactly(7L);
+        verify(outboxRepository).deleteAllInBatch(entries);
+        verify(sseEventBus, never()).publishNotification(eq(99L), any());
+    }
+
+    @Test
+    void drain_failure_retriesOneByOneAndCountsAttempt() {
+        NotificationOutboxEntry entry = entry(1L, 7L, "a");
+        when(outboxRepository.findNextBatch(anyInt(), any(Pageable.class))).thenReturn(List.of(entry));
+        when(outboxRepository.findDispatchable(eq(1L), anyInt())).thenReturn(Optional.of(entry));
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L));
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("falla"));
+
+        int processed = dispatcher.drain();
+
+        // Falla el lote y luego la entrada sola: queda en la outbox con un intento
+        assertThat(processed).isZero();
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getLastError()).isEqualTo("falla");
+        verifyNoInteractions(sseEventBus);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueueMissing_filtersDuplicatesWithOneQueryPerTableAndOneBatch() {
+        List<Long> recipients = List.of(1L, 2L, 3L, 4L, 2L);
+        when(notificationRepository.findNotifiedUserIds(anyCollection(), eq(NotificationType.PRODUCTION_ORDER_PENDING),
+                eq(88L))).thenReturn(List.of(1L));
+        when(outboxRepository.findPendingUserIds(anyCollection(), eq(NotificationType.PRODUCTION_ORDER_PENDING),
+                eq(88L), anyInt())).thenReturn(List.of(3L));
+
+        List<Long> enqueued = dispatcher.enqueueMissing(recipients, NotificationType.PRODUCTION_ORDER_PENDING,
+                "Nueva orden", 88L, null);
+
+        assertThat(enqueued).containsExactly(2L, 4L);
+        ArgumentCaptor<List<NotificationOutboxEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(NotificationOutboxEntry::getUserId).containsExactly(2L, 4L);
+        verify(notificationRepository, times(1)).findNotifiedUserIds(anyCollection(), any(), any());
+        verify(notificationRepository, never()).findNotifiedUserIdsSince(anyCollection(), any(), any(), any());
+    }
+
+    private static NotificationOutboxEntry entry(Long id, Long userId, String message) {
+        return NotificationOutboxEntry.builder()
+                .id(id)
+                .userId(userId)
+                .type(NotificationType.PENDING_MOVEMENT)
+                .message(message)
+                .relatedEntityId(id)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.common.cluster.InstanceCacheSync;
+import com.enigcode.frozen_backend.users.model.Role;
+import com.enigcode.frozen_backend.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(NotificationRecipientsTest.Config.class)
+class NotificationRecipientsTest {
+
+    @Configuration
+    @EnableCaching(proxyTargetClass = true)
+    @Import(NotificationRecipients.class)
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(NotificationRecipients.CACHE);
+        }
+    }
+
+    @Autowired
+    private NotificationRecipients recipients;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private InstanceCacheSync cacheSync;
+
+    @BeforeEach
+    void setUp() {
+        recipients.invalidate();
+        clearInvocations(cacheSync);
+        when(userRepository.findUserIdsByRole(Role.OPERARIO_DE_ALMACEN)).thenReturn(List.of(21L, 22L));
+        when(userRepository.findSupervisorIdsBySectorId(3L)).thenReturn(List.of(31L));
+    }
+
+    @Test
+    void repeatedLookups_queryOncePerRoleAndSector() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN)).containsExactly(21L, 22L);
+            assertThat(recipients.sectorSupervisors(3L)).containsExactly(31L);
+        }
+
+        verify(userRepository, times(1)).findUserIdsByRole(Role.OPERARIO_DE_ALMACEN);
+        verify(userRepository, times(1)).findSupervisorIdsBySectorId(3L);
+    }
+
+    @Test
+    void invalidate_insideTransaction_clearsOnlyAfterCommit() {
+        recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recipients.invalidate();
+            recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
+            verify(userRepository, times(1)).findUserIdsByRole(Role.OPERARIO_DE_ALMACEN);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCommit());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
+        verify(userRepository, times(2)).findUserIdsByRole(Role.OPERARIO_DE_ALMACEN);
+        verify(cacheSync).changed(NotificationRecipients.CACHE);
+    }
+
+    @Test
+    void refresh_fromOtherInstance_clearsWithoutPublishing() {
+        recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
+
+        recipients.refresh();
+        recipients.usersWithRole(Role.OPERARIO_DE_ALMACEN);
+
+        verify(userRepository, times(2)).findUserIdsByRole(Role.OPERARIO_DE_ALMACEN);
+        verify(cacheSync, never()).changed(any());
+    }
+}
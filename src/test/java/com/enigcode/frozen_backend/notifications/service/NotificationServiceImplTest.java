@@ -1,7 +1,7 @@
 package com.enigcode.frozen_backend.notifications.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
-import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.common.retention.RetentionRunner;
 import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
 import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
 import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
@@ -9,10 +9,10 @@ import com.enigcode.frozen_backend.notifications.model.Notification;
 import com.enigcode.frozen_backend.notifications.model.NotificationType;
 import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
 import com.enigcode.frozen_backend.users.model.Role;
-import com.enigcode.frozen_backend.users.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -28,8 +28,9 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
-import org.mockito.Mockito;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceImplTest {
@@ -39,54 +40,35 @@ class NotificationServiceImplTest {
     @Mock
     private NotificationMapper notificationMapper;
     @Mock
-    private UserRepository userRepository;
+    private NotificationRecipients notificationRecipients;
     @Mock
-    private SseNotificationService sseNotificationService;
+    private SseEventBus sseEventBus;
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+    @Mock
+    private NotificationCounters notificationCounters;
+    @Mock
+    private NotificationRetentionPolicy notificationRetentionPolicy;
+    @Mock
+    private RetentionRunner retentionRunner;
 
     @InjectMocks
     private NotificationServiceImpl notificationService;
 
-    private Notification savedNotification;
     private NotificationResponseDTO responseDTO;
 
     @BeforeEach
     void setUp() {
-        savedNotification = Notification.builder()
-                .id(10L)
-                .userId(7L)
-                .type(NotificationType.PRODUCTION_ORDER_PENDING)
-                .message("Test")
-                .relatedEntityId(123L)
-                .isRead(false)
-                .createdAt(OffsetDateTime.now())
-                .build();
-
         responseDTO = new NotificationResponseDTO();
         responseDTO.setId(10L);
-        Mockito.lenient().when(userRepository.existsById(anyLong())).thenReturn(true);
     }
 
     @Test
-    void createNotification_success_sendsSseAndReturnsDto() {
-        when(userRepository.existsById(7L)).thenReturn(true);
-        when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
-        when(notificationMapper.toResponseDTO(savedNotification)).thenReturn(responseDTO);
-
-        NotificationResponseDTO result = notificationService.createNotification(7L, NotificationType.LOW_STOCK_ALERT,
-                "Low stock", 50L);
-
-        assertThat(result).isNotNull();
-        verify(notificationRepository).save(any(Notification.class));
-        verify(sseNotificationService).sendNotificationToUser(eq(7L), any());
-        verify(sseNotificationService).sendStatsUpdate(eq(7L), any());
-    }
+    void createNotification_enqueuesWithoutSavingOrSending() {
+        notificationService.createNotification(7L, NotificationType.LOW_STOCK_ALERT, "Low stock", 50L);
 
-    @Test
-    void createNotification_userNotFound_throws() {
-        when(userRepository.existsById(99L)).thenReturn(false);
-        assertThrows(ResourceNotFoundException.class,
-                () -> notificationService.createNotification(99L, NotificationType.LOW_STOCK_ALERT, "m", 1L));
-        verify(notificationRepository, never()).save(any());
+        verify(notificationDispatcher).enqueue(7L, NotificationType.LOW_STOCK_ALERT, "Low stock", 50L);
+        verifyNoInteractions(notificationRepository, notificationRecipients, sseEventBus);
     }
 
     @Test
@@ -95,12 +77,16 @@ class NotificationServiceImplTest {
         when(notificationRepository.findById(5L)).thenReturn(Optional.of(n));
         when(notificationRepository.save(any(Notification.class))).thenReturn(n);
         when(notificationMapper.toResponseDTO(n)).thenReturn(responseDTO);
+        NotificationStatsDTO stats = NotificationStatsDTO.builder().unreadCount(1L).totalCount(4L).build();
+        when(notificationCounters.getStats(7L)).thenReturn(stats);
 
         NotificationResponseDTO dto = notificationService.markAsRead(5L, 7L);
 
         assertThat(dto).isNotNull();
         verify(notificationRepository).save(any(Notification.class));
-        verify(sseNotificationService).sendStatsUpdate(eq(7L), any());
+        verify(notificationCounters).read(7L, 1);
+        verify(sseEventBus).publishStats(7L, stats);
+        verify(notificationRepository, never()).countByUserIdAndIsReadFalse(anyLong());
     }
 
     @Test
@@ -112,120 +98,172 @@ class NotificationServiceImplTest {
     }
 
     @Test
-    void markAllAsRead_savesAll() {
-        Notification a = Notification.builder().id(1L).userId(7L).isRead(false).build();
-        Notification b = Notification.builder().id(2L).userId(7L).isRead(false).build();
-        when(notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(a, b)));
+    void markAllAsRead_singleUpdate_adjustsCountersAndSendsStatsOnce() {
+        when(notificationRepository.markReadByUser(eq(7L), isNull(), isNull(), any())).thenReturn(2);
+
+        assertThat(notificationService.markAllAsRead(7L)).isEqualTo(2);
+
+        verify(notificationRepository, never()).saveAll(any());
+        verify(notificationCounters).read(7L, 2);
+        verify(sseEventBus, times(1)).publishStats(eq(7L), any());
+    }
+
+    @Test
+    void markAllAsRead_byType_nothingUnread_sendsNothing() {
+        when(notificationRepository.markReadByUser(eq(7L), eq(NotificationType.LOW_STOCK_ALERT), isNull(), any()))
+                .thenReturn(0);
 
-        notificationService.markAllAsRead(7L);
+        assertThat(notificationService.markAllAsRead(7L, NotificationType.LOW_STOCK_ALERT)).isZero();
 
-        verify(notificationRepository).saveAll(any());
+        verifyNoInteractions(notificationCounters, sseEventBus);
     }
 
     @Test
-    void getUserNotificationStats_returnsCounts() {
-        when(notificationRepository.countByUserIdAndIsReadFalse(7L)).thenReturn(2L);
-        when(notificationRepository.countByUserId(7L)).thenReturn(5L);
+    void markAsReadByRelatedEntity_filtersByTypeAndEntity() {
+        when(notificationRepository.markReadByUser(eq(7L), eq(NotificationType.PRODUCTION_ORDER_PENDING), eq(88L),
+                any())).thenReturn(1);
+
+        assertThat(notificationService.markAsReadByRelatedEntity(7L, NotificationType.PRODUCTION_ORDER_PENDING, 88L))
+                .isEqualTo(1);
+
+        verify(notificationCounters).read(7L, 1);
+        assertThrows(BadRequestException.class, () -> notificationService.markAsReadByRelatedEntity(7L, null, 88L));
+    }
+
+    @Test
+    void getUserNotificationStats_readsCountersWithoutQueries() {
+        when(notificationCounters.getStats(7L))
+                .thenReturn(NotificationStatsDTO.builder().unreadCount(2L).totalCount(5L).build());
 
         NotificationStatsDTO stats = notificationService.getUserNotificationStats(7L);
 
         assertThat(stats.getUnreadCount()).isEqualTo(2L);
         assertThat(stats.getTotalCount()).isEqualTo(5L);
+        verifyNoInteractions(notificationRepository);
     }
 
     @Test
     void createProductionOrderNotification_createsForManagers_whenNotExisting() {
         Long orderId = 88L;
-        when(userRepository.findUserIdsByRole(Role.GERENTE_DE_PLANTA)).thenReturn(List.of(11L, 12L));
-        when(notificationRepository.findByUserIdAndTypeAndRelatedEntityId(anyLong(), any(), eq(orderId)))
-                .thenReturn(List.of());
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
-        when(notificationMapper.toResponseDTO(any())).thenReturn(responseDTO);
+        when(notificationRecipients.usersWithRole(Role.GERENTE_DE_PLANTA)).thenReturn(List.of(11L, 12L));
+        when(notificationDispatcher.enqueueMissing(any(), any(), any(), any(), any())).thenReturn(List.of(11L, 12L));
 
         notificationService.createProductionOrderNotification(orderId, "ProductoX");
 
-        // Expect createNotification invoked twice -> repository.save twice
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        // Todos los gerentes en una sola escritura que descarta duplicados
+        verify(notificationDispatcher).enqueueMissing(eq(List.of(11L, 12L)),
+                eq(NotificationType.PRODUCTION_ORDER_PENDING), any(), eq(orderId), isNull());
+        verifyNoInteractions(notificationRepository);
     }
 
     @Test
     void getUserNotifications_returnsPage() {
         Notification n = Notification.builder().id(2L).userId(7L).isRead(false).build();
-        when(notificationRepository.findByUserIdOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(n)));
+        when(notificationRepository.findPageByUserIdOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(n));
         when(notificationMapper.toResponseDTO(any(Notification.class))).thenReturn(responseDTO);
 
         Page<NotificationResponseDTO> page = notificationService.getUserNotifications(7L, PageRequest.of(0, 10));
 
+        // Página incompleta: el total se deduce del contenido
         assertThat(page.getTotalElements()).isEqualTo(1);
-        verify(notificationRepository).findByUserIdOrderByCreatedAtDesc(eq(7L), any(Pageable.class));
+        verifyNoInteractions(notificationCounters);
+    }
+
+    @Test
+    void getUserNotifications_fullPage_takesTotalFromCounters() {
+        Notification a = Notification.builder().id(2L).userId(7L).isRead(false).build();
+        Notification b = Notification.builder().id(3L).userId(7L).isRead(true).build();
+        when(notificationRepository.findPageByUserIdOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(a, b));
+        when(notificationMapper.toResponseDTO(any(Notification.class))).thenReturn(responseDTO);
+        when(notificationCounters.getStats(7L))
+                .thenReturn(NotificationStatsDTO.builder().unreadCount(3L).totalCount(9L).build());
+
+        Page<NotificationResponseDTO> page = notificationService.getUserNotifications(7L, PageRequest.of(0, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(9);
+        assertThat(page.getTotalPages()).isEqualTo(5);
+        verify(notificationRepository, never()).countByUserId(anyLong());
     }
 
     @Test
     void getUserUnreadNotifications_returnsPage() {
         Notification n = Notification.builder().id(3L).userId(7L).isRead(false).build();
-        when(notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(n)));
+        when(notificationRepository.findPageByUserIdAndIsReadFalseOrderByCreatedAtDesc(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of(n));
         when(notificationMapper.toResponseDTO(any(Notification.class))).thenReturn(responseDTO);
 
         Page<NotificationResponseDTO> page = notificationService.getUserUnreadNotifications(7L, PageRequest.of(0, 10));
 
         assertThat(page.getTotalElements()).isEqualTo(1);
-        verify(notificationRepository).findByUserIdAndIsReadFalseOrderByCreatedAtDesc(eq(7L), any(Pageable.class));
+        verify(notificationRepository).findPageByUserIdAndIsReadFalseOrderByCreatedAtDesc(eq(7L), any(Pageable.class));
     }
 
     @Test
     void createLowStockNotification_noSupervisors_noSave() {
-        when(userRepository.findUserIdsByRole(any())).thenReturn(List.of());
+        when(notificationRecipients.usersWithRole(any())).thenReturn(List.of());
 
         notificationService.createLowStockNotification(55L, "MaterialX", 5.0, 10.0);
 
         verify(notificationRepository, never()).save(any());
+        verifyNoInteractions(notificationDispatcher);
     }
 
     @Test
     void createLowStockNotification_createsForSupervisors_whenNotRecent() {
-        when(userRepository.findUserIdsByRole(any())).thenReturn(List.of(11L, 12L));
-        when(notificationRepository.findRecentLowStockNotifications(anyLong(), anyLong(), any())).thenReturn(List.of());
-        when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
-        when(notificationMapper.toResponseDTO(any())).thenReturn(responseDTO);
+        when(notificationRecipients.usersWithRole(any())).thenReturn(List.of(11L, 12L));
+        when(notificationDispatcher.enqueueMissing(any(), any(), any(), any(), any())).thenReturn(List.of(11L, 12L));
 
         notificationService.createLowStockNotification(55L, "MaterialX", 5.0, 10.0);
 
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        // Solo cuentan como duplicadas las alertas de las últimas 24 horas
+        org.mockito.ArgumentCaptor<OffsetDateTime> since = org.mockito.ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(notificationDispatcher).enqueueMissing(eq(List.of(11L, 12L)), eq(NotificationType.LOW_STOCK_ALERT),
+                any(), eq(55L), since.capture());
+        assertThat(since.getValue()).isBetween(OffsetDateTime.now().minusHours(25), OffsetDateTime.now().minusHours(23));
     }
 
     @Test
     void createPendingMovementNotification_noOperators_noSave() {
-        when(userRepository.findUserIdsByRole(any())).thenReturn(List.of());
+        when(notificationRecipients.usersWithRole(any())).thenReturn(List.of());
 
         notificationService.createPendingMovementNotification(99L, "Mat", "EGRESO");
 
         verify(notificationRepository, never()).save(any());
+        verifyNoInteractions(notificationDispatcher);
     }
 
     @Test
     void createPendingMovementNotification_createsForOperators_whenNotExisting() {
-        when(userRepository.findUserIdsByRole(any())).thenReturn(List.of(21L));
-        when(notificationRepository.findByUserIdAndTypeAndRelatedEntityId(anyLong(), any(), anyLong()))
-                .thenReturn(List.of());
-        when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
-        when(notificationMapper.toResponseDTO(any())).thenReturn(responseDTO);
+        when(notificationRecipients.usersWithRole(any())).thenReturn(List.of(21L));
+        when(notificationDispatcher.enqueueMissing(any(), any(), any(), any(), any())).thenReturn(List.of(21L));
 
         notificationService.createPendingMovementNotification(99L, "Mat", "EGRESO");
 
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        verify(notificationDispatcher).enqueueMissing(eq(List.of(21L)), eq(NotificationType.PENDING_MOVEMENT), any(),
+                eq(99L), isNull());
     }
 
     @Test
-    void cleanupOldNotifications_deletesWhenOldExist() {
-        Notification old = Notification.builder().id(50L).userId(7L).isRead(false).createdAt(OffsetDateTime.now().minusDays(40)).build();
-        when(notificationRepository.findOldNotifications(any())).thenReturn(List.of(old));
+    void createPendingMovementsNotification_enqueuesOnePerOperatorInOneBatch() {
+        when(notificationRecipients.usersWithRole(Role.OPERARIO_DE_ALMACEN)).thenReturn(List.of(21L, 22L));
+
+        notificationService.createPendingMovementsNotification(List.of(5L, 6L, 7L), "Cancelación de lote");
 
+        verify(notificationDispatcher).enqueueForAll(List.of(21L, 22L), NotificationType.PENDING_MOVEMENT,
+                "3 movimientos pendientes: Cancelación de lote", null);
+        verify(notificationDispatcher, never()).enqueueMissing(any(), any(), any(), any(), any());
+        verifyNoInteractions(notificationRepository, sseEventBus);
+    }
+
+    @Test
+    void cleanupOldNotifications_purgesThroughRetentionRunner() {
         notificationService.cleanupOldNotifications();
 
-        verify(notificationRepository).deleteAll(any());
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(retentionRunner).purge(eq(notificationRetentionPolicy), cutoff.capture());
+        assertThat(cutoff.getValue()).isBeforeOrEqualTo(OffsetDateTime.now());
+        verifyNoInteractions(notificationRepository);
     }
 }
@@ -0,0 +1,155 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import com.enigcode.frozen_backend.notifications.dto.NotificationResponseDTO;
+import com.enigcode.frozen_backend.notifications.dto.NotificationStatsDTO;
+import com.enigcode.frozen_backend.notifications.mapper.NotificationMapper;
+import com.enigcode.frozen_backend.notifications.model.Notification;
+import com.enigcode.frozen_backend.notifications.repository.NotificationRepository;
+import com.enigcode.frozen_backend.common.cluster.InstanceCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dos instancias del bus sin base: el payload que una publica con pg_notify se
+ * entrega a mano a la otra
+ */
+class PostgresSseEventBusTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationMapper notificationMapper = mock(NotificationMapper.class);
+
+    private final SseNotificationService sseA = mock(SseNotificationService.class);
+    private final NotificationCounters countersA = mock(NotificationCounters.class);
+    private final InstanceCache indexA = cache("materialSearch");
+    private final PostgresSseEventBus nodeA = bus(sseA, countersA, indexA);
+
+    private final SseNotificationService sseB = mock(SseNotificationService.class);
+    private final NotificationCounters countersB = mock(NotificationCounters.class);
+    private final InstanceCache indexB = cache("materialSearch");
+    private final InstanceCache watchlistB = cache("lowStockWatchlist");
+    private final PostgresSseEventBus nodeB = bus(sseB, countersB, indexB, watchlistB);
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void publishNotification_deliversLocallyAndOtherNodeDeliversToItsConnections() {
+        NotificationResponseDTO dto = NotificationResponseDTO.builder().id(10L).userId(7L).message("hola").build();
+        when(sseB.isTracked(7L)).thenReturn(true);
+
+        nodeA.publishNotification(7L, dto);
+
+        verify(sseA).sendNotificationToUser(7L, dto);
+        String payload = capturePublished();
+        nodeB.receive(payload);
+        ArgumentCaptor<Object> delivered = ArgumentCaptor.forClass(Object.class);
+        verify(sseB).sendNotificationToUser(eq(7L), delivered.capture());
+        assertThat((String) delivered.getValue()).contains("\"id\":10").contains("\"message\":\"hola\"");
+    }
+
+    @Test
+    void receive_ignoresEventsPublishedByTheSameNode() {
+        nodeA.publishStats(7L, new NotificationStatsDTO(1L, 2L));
+        String payload = capturePublished();
+
+        nodeA.receive(payload);
+
+        verify(sseA, times(1)).sendStatsUpdate(eq(7L), any());
+        verifyNoInteractions(countersA);
+    }
+
+    @Test
+    void remoteStats_evictCountersAndReachOnlyTrackedUsers() {
+        nodeA.publishStats(7L, new NotificationStatsDTO(1L, 2L));
+        String payload = capturePublished();
+
+        nodeB.receive(payload);
+
+        verify(countersB).evict(7L);
+        verify(sseB, never()).sendStatsUpdate(any(), any());
+
+        when(sseB.isTracked(7L)).thenReturn(true);
+        nodeB.receive(payload);
+        verify(sseB).sendStatsUpdate(7L, "{\"unreadCount\":1,\"totalCount\":2}");
+    }
+
+    @Test
+    void oversizedNotification_travelsAsReferenceAndIsReadFromDatabase() {
+        NotificationResponseDTO big = NotificationResponseDTO.builder().id(10L).userId(7L)
+                .message("x".repeat(9000)).build();
+        String payload = nodeA.encode(new SseClusterMessage("nodo-a", SseClusterMessage.Kind.NOTIFICATION, 7L, 10L,
+                objectMapper.valueToTree(big)));
+        assertThat(payload).contains("NOTIFICATION_REF").doesNotContain("xxx").hasSizeLessThan(200);
+
+        Notification notification = new Notification();
+        when(sseB.isTracked(7L)).thenReturn(true);
+        when(notificationRepository.findById(10L)).thenReturn(Optional.of(notification));
+        when(notificationMapper.toResponseDTO(notification)).thenReturn(big);
+        nodeB.receive(payload);
+
+        verify(sseB).sendNotificationToUser(7L, big);
+    }
+
+    @Test
+    void cacheChanged_refreshesOnlyThatCacheOnOtherNodes() {
+        nodeA.changed("materialSearch");
+        String payload = capturePublished();
+
+        nodeA.receive(payload);
+        nodeB.receive(payload);
+
+        verify(indexA, never()).refresh();
+        verify(indexB).refresh();
+        verify(watchlistB, never()).refresh();
+        verifyNoInteractions(sseB, countersB);
+    }
+
+    @Test
+    void receive_malformedPayload_isDiscarded() {
+        nodeB.receive("no es json");
+
+        verifyNoInteractions(sseB, countersB);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String capturePublished() {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, timeout(2000)).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq("sse_events"), payload.capture());
+        return payload.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private PostgresSseEventBus bus(SseNotificationService sse, NotificationCounters counters,
+            InstanceCache... caches) {
+        ObjectProvider<InstanceCache> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(inv -> Stream.of(caches));
+        return new PostgresSseEventBus(sse, counters, notificationRepository, notificationMapper, objectMapper,
+                jdbcTemplate, provider);
+    }
+
+    private static InstanceCache cache(String name) {
+        InstanceCache cache = mock(InstanceCache.class);
+        when(cache.cacheName()).thenReturn(name);
+        return cache;
+    }
+}
@@ -0,0 +1,168 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseConnectionTest {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor = tasks::add;
+    private final SseDeliveryStats stats = new SseDeliveryStats();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final List<SseConnection> evicted = new ArrayList<>();
+    private final AtomicReference<IOException> sendError = new AtomicReference<>();
+
+    private SseConnection connection(int capacity, long deadlineMs) {
+        return new SseConnection(7L, emitter, executor, stats, capacity, deadlineMs,
+                (c, e) -> sendError.set(e), evicted::add);
+    }
+
+    @Test
+    void offer_returnsImmediatelyAndExecutorSendsInOrder() {
+        SseConnection connection = connection(8, 1000);
+
+        connection.offer(frame(SseEventType.NOTIFICATION, "a"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "b"));
+
+        // Nada se escribe en el hilo que publica; una sola tarea por conexión
+        assertThat(emitter.sent).isEmpty();
+        assertThat(tasks).hasSize(1);
+        runTasks();
+        assertThat(emitter.sent).containsExactly("a", "b");
+        assertThat(stats.getSent()).isEqualTo(2);
+        assertThat(connection.getQueuedEvents()).isZero();
+    }
+
+    @Test
+    void statsUpdates_coalesceToLatestAndGoAfterQueuedEvents() {
+        SseConnection connection = connection(8, 1000);
+
+        connection.offer(frame(SseEventType.STATS_UPDATE, "s1"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "n1"));
+        connection.offer(frame(SseEventType.STATS_UPDATE, "s2"));
+        runTasks();
+
+        assertThat(emitter.sent).containsExactly("n1", "s2");
+        assertThat(stats.getCoalesced()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeat_isSkippedWhileSomethingIsPending() {
+        SseConnection connection = connection(8, 1000);
+
+        connection.offer(frame(SseEventType.NOTIFICATION, "n1"));
+        boolean accepted = connection.offer(frame(SseEventType.HEARTBEAT, "ping"));
+        runTasks();
+
+        assertThat(accepted).isFalse();
+        assertThat(emitter.sent).containsExactly("n1");
+        assertThat(stats.getDropped(SseEventType.HEARTBEAT)).isEqualTo(1);
+
+        assertThat(connection.offer(frame(SseEventType.HEARTBEAT, "ping"))).isTrue();
+    }
+
+    @Test
+    void fullQueue_dropsAndEvictsWhenStillFullPastDeadline() throws Exception {
+        SseConnection connection = connection(2, 5);
+
+        connection.offer(frame(SseEventType.NOTIFICATION, "a"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "b"));
+        // Cola llena: se descarta y empieza a correr el plazo
+        assertThat(connection.offer(frame(SseEventType.NOTIFICATION, "c"))).isFalse();
+        assertThat(evicted).isEmpty();
+
+        Thread.sleep(20);
+        connection.offer(frame(SseEventType.NOTIFICATION, "d"));
+
+        assertThat(evicted).containsExactly(connection);
+        assertThat(emitter.completed).isTrue();
+        assertThat(stats.getDropped(SseEventType.NOTIFICATION)).isEqualTo(2);
+        assertThat(stats.getEvicted()).isEqualTo(1);
+        assertThat(connection.getQueuedEvents()).isZero();
+        assertThat(connection.offer(frame(SseEventType.NOTIFICATION, "e"))).isFalse();
+    }
+
+    @Test
+    void evictIfSaturated_onlyAfterDeadlineAndResetsWhenConsumerCatchesUp() throws Exception {
+        SseConnection connection = connection(1, 5);
+        connection.offer(frame(SseEventType.NOTIFICATION, "a"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "b"));
+
+        assertThat(connection.evictIfSaturated(System.nanoTime())).isFalse();
+
+        // El consumidor vacía la cola: deja de estar saturado
+        runTasks();
+        Thread.sleep(20);
+        assertThat(connection.evictIfSaturated(System.nanoTime())).isFalse();
+
+        connection.offer(frame(SseEventType.NOTIFICATION, "c"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "d"));
+        Thread.sleep(20);
+        assertThat(connection.evictIfSaturated(System.nanoTime())).isTrue();
+        assertThat(evicted).containsExactly(connection);
+    }
+
+    @Test
+    void sendFailure_closesConnectionAndReportsError() {
+        emitter.failWith = new IOException("Broken pipe");
+        SseConnection connection = connection(8, 1000);
+
+        connection.offer(frame(SseEventType.NOTIFICATION, "a"));
+        connection.offer(frame(SseEventType.NOTIFICATION, "b"));
+        runTasks();
+
+        assertThat(sendError.get()).hasMessage("Broken pipe");
+        assertThat(emitter.completed).isTrue();
+        assertThat(connection.getQueuedEvents()).isZero();
+        assertThat(connection.offer(frame(SseEventType.NOTIFICATION, "c"))).isFalse();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+            task.run();
+    }
+
+    private static SseFrame frame(SseEventType type, String data) {
+        return type == SseEventType.HEARTBEAT ? SseFrame.HEARTBEAT : SseFrame.of(type, data);
+    }
+
+    /**
+     * Emitter que registra el dato de cada evento en lugar de escribir en una
+     * respuesta
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private IOException failWith;
+        private boolean completed;
+
+        @Override
+        public void send(Set<DataWithMediaType> parts) throws IOException {
+            if (failWith != null)
+                throw failWith;
+            String frame = parts.stream()
+                    .map(part -> new String((byte[]) part.getData(), StandardCharsets.UTF_8))
+                    .collect(Collectors.joining());
+            sent.add(frame.substring(frame.indexOf("data:") + "data:".length()).trim());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
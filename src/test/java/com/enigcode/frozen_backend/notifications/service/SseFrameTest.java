@@ -0,0 +1,62 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseFrameTest {
+
+    @Test
+    void of_encodesEventLikeSpringBuilder() {
+        SseFrame frame = SseFrame.of(SseEventType.NOTIFICATION, "{\"id\":1}");
+
+        assertThat(frame.toString()).isEqualTo(springText(SseEmitter.event().name("notification").data("{\"id\":1}")));
+        assertThat(frame.getType()).isEqualTo(SseEventType.NOTIFICATION);
+    }
+
+    @Test
+    void of_multilineData_usesOneDataFieldPerLine() {
+        SseFrame frame = SseFrame.of(SseEventType.NOTIFICATION, "linea1\nlinea2");
+
+        assertThat(frame.toString()).isEqualTo("event:notification\ndata:linea1\ndata:linea2\n\n");
+    }
+
+    @Test
+    void constantFrames_matchPreviousWireFormat() {
+        assertThat(SseFrame.HEARTBEAT.toString())
+                .isEqualTo(springText(SseEmitter.event().name("heartbeat").comment("ping")));
+        assertThat(SseFrame.connected(42L).toString())
+                .isEqualTo(springText(SseEmitter.event().name("connected")
+                        .data("{\"status\":\"connected\",\"userId\":42}")));
+    }
+
+    @Test
+    void withId_prefixesIdAndSharesBody() {
+        SseFrame frame = SseFrame.of(SseEventType.NOTIFICATION, "{\"id\":1}");
+        SseFrame withId = frame.withId(7L);
+
+        assertThat(text(withId.parts())).isEqualTo(springText(SseEmitter.event().id("7").name("notification")
+                .data("{\"id\":1}")));
+        assertThat(withId.getId()).isEqualTo(7L);
+        assertThat(withId.getType()).isEqualTo(SseEventType.NOTIFICATION);
+        assertThat(frame.getId()).isZero();
+    }
+
+    private static String springText(SseEmitter.SseEventBuilder builder) {
+        return text(builder.build());
+    }
+
+    private static String text(Set<DataWithMediaType> parts) {
+        return parts.stream()
+                .map(part -> part.getData() instanceof byte[] bytes
+                        ? new String(bytes, StandardCharsets.UTF_8)
+                        : part.getData().toString())
+                .collect(Collectors.joining());
+    }
+}
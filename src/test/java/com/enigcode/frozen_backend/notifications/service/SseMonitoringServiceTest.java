@@ -33,6 +33,7 @@ class SseMonitoringServiceTest {
         Map<String, Object> metrics = monitoringService.getSseMetrics();
 
         assertThat(metrics).containsKeys("totalConnections", "connectedUsers", "avgConnectionsPerUser", "loadStatus", "recommendedHikariPoolSize");
+        assertThat(metrics).containsKeys("queuedEvents", "droppedEvents", "evictedConnections", "avgSendLatencyMs");
         assertThat((Integer) metrics.get("totalConnections")).isEqualTo(5);
         assertThat(monitoringService.isHealthy()).isTrue();
     }
@@ -1,15 +1,30 @@
 package com.enigcode.frozen_backend.notifications.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class SseNotificationServiceTest {
 
-    private final SseNotificationService svc = new SseNotificationService();
+    private final ObjectMapper objectMapper = spy(Jackson2ObjectMapperBuilder.json().build());
+    private final SseNotificationService svc = new SseNotificationService(objectMapper);
 
     @Test
     void registerAndCreateConnectionByUsername_and_counts() throws Exception {
@@ -79,4 +94,111 @@ class SseNotificationServiceTest {
         assertThat(emitter2).isNotNull();
         assertThat(svc.getActiveConnectionsCount(100L)).isEqualTo(2);
     }
+
+    @Test
+    void bindTo_registersDeliveryMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        svc.bindTo(registry);
+
+        svc.createConnection(5L);
+        svc.sendNotificationToUser(5L, "payload");
+
+        assertThat(registry.get("sse.connections").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("sse.queue.depth").gauge()).isNotNull();
+        assertThat(registry.get("sse.events.dropped").tag("event", "heartbeat").functionCounter()).isNotNull();
+        assertThat(registry.get("sse.connections.evicted").functionCounter().count()).isZero();
+        assertThat(registry.get("sse.send.latency").functionTimer()).isNotNull();
+        assertThat(registry.get("sse.replay.buffers").gauge().value()).isEqualTo(1.0);
+
+        svc.closeAllConnectionsForUser(5L);
+        assertThat(registry.get("sse.connections").gauge().value()).isZero();
+    }
+
+    @Test
+    void sendNotificationToUsers_serializesOnceForAllConnections() throws Exception {
+        svc.createConnection(1L);
+        svc.createConnection(1L);
+        svc.createConnection(2L);
+
+        svc.sendNotificationToUsers(Set.of(1L, 2L, 3L), Map.of("message", "Nueva orden"));
+
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    @Test
+    void createConnection_schedulesHeartbeatAndExpiryOnTheWheel() {
+        int before = svc.getScheduledTimers();
+
+        svc.createConnection(8L);
+        assertThat(svc.getScheduledTimers()).isEqualTo(before + 2);
+
+        // Al cerrar se cancela el vencimiento (el heartbeat se descarta al
+        // dispararse) y se agenda la retención del buffer de reenvío
+        svc.closeAllConnectionsForUser(8L);
+        assertThat(svc.getScheduledTimers()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void usernameCache_isBidirectionalAndFollowsReRegistration() {
+        svc.registerUserInCache("userC", 30L);
+        svc.registerUserInCache("userC", 31L);
+        svc.createConnection(30L);
+        svc.closeAllConnectionsForUser(30L);
+
+        // La conexión del id viejo no borra la entrada vigente del username
+        SseEmitter emitter = svc.createConnectionByUsername("userC");
+        assertThat(emitter).isNotNull();
+        assertThat(svc.getActiveConnectionsCount(31L)).isEqualTo(1);
+
+        svc.removeUserFromCache("userC");
+        assertThatThrownBy(() -> svc.createConnectionByUsername("userC"))
+                .hasMessageContaining("Usuario no encontrado en cache");
+    }
+
+    @Test
+    void reconnect_withLastEventIdInBuffer_replaysWithoutSnapshot() {
+        AtomicInteger snapshots = new AtomicInteger();
+        svc.createConnection(50L);
+        svc.sendNotificationToUser(50L, "primera");
+        long lastSeen = svc.getLastEventId();
+        svc.sendNotificationToUser(50L, "segunda");
+        svc.closeAllConnectionsForUser(50L);
+
+        svc.createConnection(50L, String.valueOf(lastSeen), userId -> {
+            snapshots.incrementAndGet();
+            return new SseSnapshot(List.of(), Map.of());
+        });
+
+        assertThat(snapshots).hasValue(0);
+        assertThat(svc.getActiveConnectionsCount(50L)).isEqualTo(1);
+        assertThat(svc.getReplayBuffersCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconnect_withLastEventIdOutOfBuffer_sendsSnapshot() {
+        AtomicInteger snapshots = new AtomicInteger();
+        Function<Long, SseSnapshot> loader = userId -> {
+            snapshots.incrementAndGet();
+            return new SseSnapshot(List.of(), Map.of("unreadCount", 0));
+        };
+        svc.createConnection(51L);
+
+        // Anterior al buffer (p. ej. de antes de un reinicio), futuro o inválido
+        svc.createConnection(51L, "1", loader);
+        svc.createConnection(51L, String.valueOf(svc.getLastEventId() + 1000), loader);
+        svc.createConnection(51L, "abc", loader);
+        // Sin Last-Event-ID es una conexión nueva: el cliente pide sus datos
+        svc.createConnection(51L, null, loader);
+
+        assertThat(snapshots).hasValue(3);
+    }
+
+    @Test
+    void sendNotification_toUserWithoutBuffer_isNotEncoded() throws Exception {
+        svc.sendNotificationToUser(52L, Map.of("id", 1));
+        svc.sendStatsUpdate(52L, Map.of("unreadCount", 1));
+
+        verify(objectMapper, never()).writeValueAsString(any());
+        assertThat(svc.getReplayBuffersCount()).isZero();
+    }
 }
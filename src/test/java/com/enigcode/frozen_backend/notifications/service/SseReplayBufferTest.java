@@ -0,0 +1,59 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseReplayBufferTest {
+
+    @Test
+    void since_returnsOnlyLaterEventsInOrder() {
+        SseReplayBuffer buffer = new SseReplayBuffer(5, 100L);
+        buffer.append(notification(101));
+        buffer.append(notification(102));
+        buffer.append(notification(103));
+
+        assertThat(buffer.since(101L)).extracting(SseFrame::getId).containsExactly(102L, 103L);
+        assertThat(buffer.since(103L)).isEmpty();
+    }
+
+    @Test
+    void since_beforeFloor_requiresSnapshot() {
+        SseReplayBuffer buffer = new SseReplayBuffer(5, 100L);
+
+        assertThat(buffer.since(99L)).isNull();
+        assertThat(buffer.since(100L)).isEmpty();
+    }
+
+    @Test
+    void append_whenFull_discardsOldestAndRaisesFloor() {
+        SseReplayBuffer buffer = new SseReplayBuffer(2, 100L);
+        buffer.append(notification(101));
+        buffer.append(notification(102));
+        buffer.append(notification(103));
+
+        // El 101 se descartó: quien solo vio el 100 ya no se puede reponer
+        assertThat(buffer.since(100L)).isNull();
+        assertThat(buffer.since(101L)).extracting(SseFrame::getId).containsExactly(102L, 103L);
+    }
+
+    @Test
+    void statsUpdates_keepOnlyTheLatestAndDoNotUseRingSlots() {
+        SseReplayBuffer buffer = new SseReplayBuffer(2, 100L);
+        buffer.append(notification(101));
+        buffer.append(stats(102));
+        buffer.append(notification(103));
+        buffer.append(stats(104));
+
+        assertThat(buffer.since(100L)).extracting(SseFrame::getId).containsExactly(101L, 103L, 104L);
+        assertThat(buffer.since(104L)).isEmpty();
+    }
+
+    private static SseFrame notification(long id) {
+        return SseFrame.of(SseEventType.NOTIFICATION, "{\"id\":" + id + "}").withId(id);
+    }
+
+    private static SseFrame stats(long id) {
+        return SseFrame.of(SseEventType.STATS_UPDATE, "{}").withId(id);
+    }
+}
@@ -0,0 +1,82 @@
+package com.enigcode.frozen_backend.notifications.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseTimerWheelTest {
+
+    // Rueda de 8 ranuras de 100 ms avanzada a mano
+    private final SseTimerWheel wheel = new SseTimerWheel("test-wheel", 100, 8, false);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void schedule_firesAtDeadlineTickAndNotBefore() {
+        wheel.schedule(300, () -> fired.add("a"));
+
+        advance(3);
+        assertThat(fired).isEmpty();
+        advance(1);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void schedule_beyondOneTurn_waitsTheRemainingRounds() {
+        // 20 ticks en una rueda de 8: dos vueltas y media
+        wheel.schedule(2000, () -> fired.add("lejano"));
+
+        advance(20);
+        assertThat(fired).isEmpty();
+        advance(1);
+        assertThat(fired).containsExactly("lejano");
+    }
+
+    @Test
+    void cancel_dropsTimerWithoutRunningIt() {
+        SseTimerWheel.Timeout timeout = wheel.schedule(200, () -> fired.add("cancelado"));
+        wheel.schedule(200, () -> fired.add("vigente"));
+
+        timeout.cancel();
+        advance(5);
+
+        assertThat(fired).containsExactly("vigente");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void tasks_canRescheduleThemselvesFromTheWheelThread() {
+        Runnable[] periodic = new Runnable[1];
+        periodic[0] = () -> {
+            fired.add("tick");
+            wheel.schedule(100, periodic[0]);
+        };
+        wheel.schedule(100, periodic[0]);
+
+        advance(6);
+
+        // Vence en los ticks 1 a 5 sin correrse por reprogramarse desde la rueda
+        assertThat(fired).hasSize(5);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void failingTask_doesNotStopOtherTimers() {
+        wheel.schedule(100, () -> {
+            throw new IllegalStateException("falla");
+        });
+        wheel.schedule(100, () -> fired.add("ok"));
+
+        advance(2);
+
+        assertThat(fired).containsExactly("ok");
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++)
+            wheel.advance();
+    }
+}
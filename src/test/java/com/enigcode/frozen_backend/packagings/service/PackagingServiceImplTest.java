@@ -34,6 +34,10 @@ class PackagingServiceImplTest {
     private com.enigcode.frozen_backend.products.repository.ProductRepository productRepository;
     @Mock
     private PackagingMapper packagingMapper;
+    @Mock
+    private PackagingSearchIndex packagingSearchIndex;
+    @Mock
+    private com.enigcode.frozen_backend.products.service.ProductSearchIndex productSearchIndex;
 
     @InjectMocks
     private PackagingServiceImpl packagingService;
@@ -133,36 +137,19 @@ class PackagingServiceImplTest {
         String searchName = "test";
         Boolean isActive = true;
         Long productId = null;
-        
-        // Create test data
-        Packaging activePackaging = new Packaging();
-        activePackaging.setId(1L);
-        activePackaging.setName("Test Packaging");
-        activePackaging.setIsActive(true);
-        
-        Packaging inactivePackaging = new Packaging();
-        inactivePackaging.setId(2L);
-        inactivePackaging.setName("Test Inactive");
-        inactivePackaging.setIsActive(false);
-        
-        // Mock repository response
-        when(packagingRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrue(searchName))
-            .thenReturn(List.of(activePackaging));
-        
-        // Mock mapper
-        PackagingSimpleResponseDTO expectedResponse = new PackagingSimpleResponseDTO();
-        expectedResponse.setId(1L);
-        expectedResponse.setName("Test Packaging");
-        when(packagingMapper.toSimpleResponseDTO(activePackaging)).thenReturn(expectedResponse);
-        
+
+        when(packagingSearchIndex.search(searchName, isActive, null, 10))
+            .thenReturn(List.of(new PackagingSearchIndex.PackagingEntry(1L, "Test Packaging", null, true)));
+
         // When
         List<PackagingSimpleResponseDTO> result = packagingService.getPackagingList(searchName, isActive, productId);
-        
+
         // Then
         assertEquals(1, result.size());
-        assertEquals(expectedResponse, result.get(0));
-        verify(packagingRepository).findTop10ByNameContainingIgnoreCaseAndIsActiveTrue(searchName);
-        verify(packagingMapper).toSimpleResponseDTO(activePackaging);
+        assertEquals(1L, result.get(0).getId());
+        assertEquals("Test Packaging", result.get(0).getName());
+        verify(packagingSearchIndex).search(searchName, isActive, null, 10);
+        verifyNoInteractions(packagingRepository);
     }
 
     @Test
@@ -254,31 +241,37 @@ class PackagingServiceImplTest {
     void testGetPackagingList_WithProductId_UsesProductUnitMeasurement() {
         String searchName = "pack";
         Long productId = 5L;
+        com.enigcode.frozen_backend.materials.model.UnitMeasurement kg = com.enigcode.frozen_backend.materials.model.UnitMeasurement.KG;
 
-        Product product = new Product();
-        product.setId(productId);
-        product.setUnitMeasurement(com.enigcode.frozen_backend.materials.model.UnitMeasurement.KG);
+        when(productSearchIndex.get(productId))
+                .thenReturn(new com.enigcode.frozen_backend.products.service.ProductSearchIndex.ProductEntry(productId, "Prod", kg, true, true));
+        when(packagingSearchIndex.search(searchName, null, kg, 10))
+                .thenReturn(List.of(new PackagingSearchIndex.PackagingEntry(10L, "Pack prueba", kg, true)));
 
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        List<com.enigcode.frozen_backend.packagings.DTO.PackagingSimpleResponseDTO> result = packagingService.getPackagingList(searchName, null, productId);
 
-        Packaging p = new Packaging();
-        p.setId(10L);
-        p.setName("Pack prueba");
-        p.setUnitMeasurement(com.enigcode.frozen_backend.materials.model.UnitMeasurement.KG);
+        assertEquals(1, result.size());
+        assertEquals(10L, result.get(0).getId());
+        verify(packagingSearchIndex).search(searchName, null, kg, 10);
+        verify(productRepository, never()).findById(any());
+    }
 
-        when(packagingRepository.findTop10ByUnitMeasurementAndNameContainingIgnoreCase(com.enigcode.frozen_backend.materials.model.UnitMeasurement.KG, searchName))
-                .thenReturn(List.of(p));
+    @Test
+    void testGetPackagingList_ProductNotIndexed_FallsBackToRepository() {
+        Long productId = 6L;
+        Product product = new Product();
+        product.setId(productId);
+        product.setUnitMeasurement(com.enigcode.frozen_backend.materials.model.UnitMeasurement.LT);
 
-        com.enigcode.frozen_backend.packagings.DTO.PackagingSimpleResponseDTO dto = new com.enigcode.frozen_backend.packagings.DTO.PackagingSimpleResponseDTO();
-        dto.setId(10L);
-        dto.setName("Pack prueba");
-        when(packagingMapper.toSimpleResponseDTO(p)).thenReturn(dto);
+        when(productSearchIndex.get(productId)).thenReturn(null);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(packagingSearchIndex.search("pack", null, com.enigcode.frozen_backend.materials.model.UnitMeasurement.LT, 10))
+                .thenReturn(List.of());
 
-        List<com.enigcode.frozen_backend.packagings.DTO.PackagingSimpleResponseDTO> result = packagingService.getPackagingList(searchName, null, productId);
+        List<PackagingSimpleResponseDTO> result = packagingService.getPackagingList("pack", null, productId);
 
-        assertEquals(1, result.size());
-        assertEquals(10L, result.get(0).getId());
-        verify(packagingRepository).findTop10ByUnitMeasurementAndNameContainingIgnoreCase(com.enigcode.frozen_backend.materials.model.UnitMeasurement.KG, searchName);
+        assertTrue(result.isEmpty());
+        verify(productRepository).findById(productId);
     }
 
     @Test
@@ -33,6 +33,8 @@ class ProductPhaseServiceImplTest {
     private RecipeRepository recipeRepository;
     @Mock
     private ProductPhaseMapper productPhaseMapper;
+    @Mock
+    private com.enigcode.frozen_backend.products.service.ProductSearchIndex productSearchIndex;
 
     @InjectMocks
     private ProductPhaseServiceImpl productPhaseService;
@@ -42,6 +42,8 @@ class ProductServiceTest {
         PackagingRepository packagingRepository;
         @Mock
         ProductMapper productMapper;
+        @Mock
+        ProductSearchIndex productSearchIndex;
 
         @InjectMocks
         ProductServiceImpl service;
@@ -291,14 +293,13 @@ class ProductServiceTest {
 
         @Test
         void getProductSimpleList_callsActiveReadyBranch() {
-                Product product = Product.builder().id(100L).name("IPA").isActive(true).isReady(true)
-                                .creationDate(OffsetDateTime.now()).build();
-
-                when(productRepository.findTop10ByNameContainingIgnoreCaseAndIsActiveTrueAndIsReadyTrue(eq("IPA")))
-                                .thenReturn(List.of(product));
+                when(productSearchIndex.search("IPA", true, true, 10))
+                                .thenReturn(List.of(new ProductSearchIndex.ProductEntry(100L, "IPA", UnitMeasurement.LT,
+                                                true, true)));
 
                 List<ProductSimpleDTO> res = service.getProductSimpleList("IPA", true, true);
                 assertThat(res).hasSize(1);
                 assertThat(res.get(0).getName()).isEqualTo("IPA");
+                verifyNoInteractions(productRepository);
         }
 }
\ No newline at end of file
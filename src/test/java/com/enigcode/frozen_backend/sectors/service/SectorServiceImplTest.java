@@ -2,6 +2,7 @@ package com.enigcode.frozen_backend.sectors.service;
 
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.BadRequestException;
 import com.enigcode.frozen_backend.common.exceptions_configs.exceptions.ResourceNotFoundException;
+import com.enigcode.frozen_backend.notifications.service.NotificationRecipients;
 import com.enigcode.frozen_backend.product_phases.model.Phase;
 import com.enigcode.frozen_backend.sectors.DTO.SectorCreateDTO;
 import com.enigcode.frozen_backend.sectors.DTO.SectorResponseDTO;
@@ -39,6 +40,9 @@ class SectorServiceImplTest {
     @Mock
     private SectorMapper sectorMapper;
 
+    @Mock
+    private NotificationRecipients notificationRecipients;
+
     @InjectMocks
     private SectorServiceImpl sectorService;
 
@@ -204,6 +208,7 @@ class SectorServiceImplTest {
 
         assertNotNull(result);
         verify(sectorRepository, times(1)).save(sector);
+        verify(notificationRecipients).invalidate();
     }
 
     @Test
@@ -42,6 +42,9 @@ class UserServiceImplTest {
     @Mock
     com.enigcode.frozen_backend.notifications.service.SseNotificationService sseNotificationService;
 
+    @Mock
+    com.enigcode.frozen_backend.notifications.service.NotificationRecipients notificationRecipients;
+
     @Mock
     ApplicationContext applicationContext;
 
@@ -115,6 +118,7 @@ class UserServiceImplTest {
         
         assertThat(result.getUsername()).isEqualTo("testuser");
         assertThat(result.getIsActive()).isTrue();
+        verify(notificationRecipients).invalidate();
     }
 
     @Test
@@ -262,6 +266,7 @@ class UserServiceImplTest {
         UserResponseDTO result = service.updateUserRole(1L, updateRoleDTO);
 
         verify(userRepository).save(any(User.class));
+        verify(notificationRecipients).invalidate();
         assertThat(result).isNotNull();
     }
 
@@ -48,7 +48,8 @@ class WarehouseControllerSecurityTest {
     @Test
     @DisplayName("GET /warehouse/layout sin auth -> 401")
     void getLayout_unauthenticated_returns401() throws Exception {
-        Mockito.when(warehouseLayoutService.getWarehouseSvg()).thenReturn("<svg></svg>");
+        Mockito.when(warehouseLayoutService.getWarehouseLayout())
+                .thenReturn(WarehouseLayoutService.SvgLayout.of("<svg></svg>".getBytes()));
         mockMvc.perform(get("/warehouse/layout"))
                 .andExpect(status().isUnauthorized());
     }
@@ -57,7 +58,8 @@ class WarehouseControllerSecurityTest {
     @WithMockUser
     @DisplayName("GET /warehouse/layout con auth -> 200 con tipo SVG")
     void getLayout_authenticated_returns200() throws Exception {
-        Mockito.when(warehouseLayoutService.getWarehouseSvg()).thenReturn("<svg></svg>");
+        Mockito.when(warehouseLayoutService.getWarehouseLayout())
+                .thenReturn(WarehouseLayoutService.SvgLayout.of("<svg></svg>".getBytes()));
         mockMvc.perform(get("/warehouse/layout"))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Type", "image/svg+xml"));
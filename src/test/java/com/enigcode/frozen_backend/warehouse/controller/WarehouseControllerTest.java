@@ -16,6 +16,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
  
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -59,4 +61,27 @@ class WarehouseControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.isValid").value(true));
     }
+
+    @Test
+    @DisplayName("GET /warehouse/layout serves gzip when accepted and 304 for a matching ETag")
+    void getLayout_gzipEtagAndNotModified() throws Exception {
+        WarehouseLayoutService.SvgLayout layout = WarehouseLayoutService.SvgLayout.of("<svg></svg>".getBytes());
+        Mockito.when(warehouseLayoutService.getWarehouseLayout()).thenReturn(layout);
+
+        mockMvc.perform(get("/warehouse/layout"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", layout.etag()))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().bytes(layout.svg()));
+
+        mockMvc.perform(get("/warehouse/layout").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", layout.gzipEtag()))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().bytes(layout.gzipped()));
+
+        mockMvc.perform(get("/warehouse/layout").header("If-None-Match", layout.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
 }
@@ -48,4 +48,18 @@ class WarehouseCoordinateMapperTest {
         WarehouseCoordinateMapper.CoordinateResult r = mapper.calculateCoordinates(WarehouseZone.MALTA, "C6", 1);
         assertFalse(r.isValid);
     }
+
+    @Test
+    @DisplayName("calculateCoordinates uses the SVG table shared with WarehouseLayoutService")
+    void calculateCoordinates_usesSharedSvgTable() {
+        WarehouseLayoutService layoutService = new WarehouseLayoutService();
+
+        WarehouseCoordinateMapper.CoordinateResult r = mapper.calculateCoordinates(WarehouseZone.LEVADURA, "B2", 1);
+        Double[] expected = layoutService.calculateCoordinates(WarehouseZone.LEVADURA, "B2", 2);
+
+        assertTrue(r.isValid);
+        assertEquals(expected[0], r.x);
+        assertEquals(expected[1], r.y);
+        assertFalse(mapper.calculateCoordinates(WarehouseZone.ETIQUETADO, "C1", 1).isValid);
+    }
 }
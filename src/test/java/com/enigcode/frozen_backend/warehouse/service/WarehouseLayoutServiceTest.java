@@ -7,6 +7,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,4 +69,87 @@ class WarehouseLayoutServiceTest {
         assertNull(coords[0]);
         assertNull(coords[1]);
     }
+
+    @Test
+    @DisplayName("calculateCoordinates matches the SVG section centers for every zone")
+    void calculateCoordinates_matchesSvgTable() {
+        String[][] expected = {
+                { "MALTA", "A1", "65.0", "85.0" },
+                { "MALTA", "A2", "145.0", "85.0" },
+                { "MALTA", "A3", "225.0", "85.0" },
+                { "MALTA", "A4", "305.0", "85.0" },
+                { "MALTA", "A5", "385.0", "85.0" },
+                { "MALTA", "B1", "65.0", "145.0" },
+                { "MALTA", "B2", "145.0", "145.0" },
+                { "MALTA", "B3", "225.0", "145.0" },
+                { "MALTA", "B4", "305.0", "145.0" },
+                { "MALTA", "B5", "385.0", "145.0" },
+                { "MALTA", "C1", "65.0", "205.0" },
+                { "MALTA", "C2", "145.0", "205.0" },
+                { "MALTA", "C3", "225.0", "205.0" },
+                { "MALTA", "C4", "305.0", "205.0" },
+                { "MALTA", "C5", "385.0", "205.0" },
+                { "LUPULO", "A1", "565.0", "85.0" },
+                { "LUPULO", "A2", "645.0", "85.0" },
+                { "LUPULO", "A3", "725.0", "85.0" },
+                { "LUPULO", "A4", "805.0", "85.0" },
+                { "LUPULO", "A5", "885.0", "85.0" },
+                { "LUPULO", "B1", "565.0", "145.0" },
+                { "LUPULO", "B2", "645.0", "145.0" },
+                { "LUPULO", "B3", "725.0", "145.0" },
+                { "LUPULO", "B4", "805.0", "145.0" },
+                { "LUPULO", "B5", "885.0", "145.0" },
+                { "LUPULO", "C1", "565.0", "205.0" },
+                { "LUPULO", "C2", "645.0", "205.0" },
+                { "LUPULO", "C3", "725.0", "205.0" },
+                { "LUPULO", "C4", "805.0", "205.0" },
+                { "LUPULO", "C5", "885.0", "205.0" },
+                { "LEVADURA", "A1", "75.0", "395.0" },
+                { "LEVADURA", "A2", "165.0", "395.0" },
+                { "LEVADURA", "B1", "75.0", "465.0" },
+                { "LEVADURA", "B2", "165.0", "465.0" },
+                { "LEVADURA", "C1", "75.0", "535.0" },
+                { "LEVADURA", "C2", "165.0", "535.0" },
+                { "AGUA", "A1", "305.0", "395.0" },
+                { "AGUA", "A2", "395.0", "395.0" },
+                { "AGUA", "B1", "305.0", "465.0" },
+                { "AGUA", "B2", "395.0", "465.0" },
+                { "AGUA", "C1", "305.0", "535.0" },
+                { "AGUA", "C2", "395.0", "535.0" },
+                { "ENVASE", "A1", "815.0", "395.0" },
+                { "ENVASE", "A2", "905.0", "395.0" },
+                { "ENVASE", "B1", "815.0", "465.0" },
+                { "ENVASE", "B2", "905.0", "465.0" },
+                { "ENVASE", "C1", "815.0", "535.0" },
+                { "ENVASE", "C2", "905.0", "535.0" },
+                { "ETIQUETADO", "A1", "585.0", "380.0" },
+                { "ETIQUETADO", "A2", "675.0", "380.0" },
+                { "ETIQUETADO", "B1", "585.0", "430.0" },
+                { "ETIQUETADO", "B2", "675.0", "430.0" },
+                { "OTROS", "A1", "585.0", "510.0" },
+                { "OTROS", "A2", "675.0", "510.0" },
+                { "OTROS", "B1", "585.0", "560.0" },
+                { "OTROS", "B2", "675.0", "560.0" }
+        };
+        for (String[] row : expected) {
+            Double[] coords = service.calculateCoordinates(WarehouseZone.valueOf(row[0]), row[1], 2);
+            assertEquals(Double.valueOf(row[2]), coords[0], row[0] + "-" + row[1]);
+            assertEquals(Double.valueOf(row[3]), coords[1], row[0] + "-" + row[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("getWarehouseLayout loads the SVG once with gzip and ETag")
+    void getWarehouseLayout_loadsOnceWithGzipAndEtag() throws IOException {
+        WarehouseLayoutService.SvgLayout layout = service.getWarehouseLayout();
+
+        assertSame(layout, service.getWarehouseLayout());
+        assertTrue(new String(layout.svg(), StandardCharsets.UTF_8).contains("<svg"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(layout.gzipped()))) {
+            assertArrayEquals(layout.svg(), in.readAllBytes());
+        }
+        assertTrue(layout.gzipped().length < layout.svg().length);
+        assertTrue(layout.etag().startsWith("\"") && layout.etag().endsWith("\""));
+        assertNotEquals(layout.etag(), layout.gzipEtag());
+    }
 }